@@ -415,6 +415,9 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		addToEnableGroup("cg", getcgtrim_clinit_widget(), "trim-clinit");
 		addToEnableGroup("cg", getcgtypes_for_invoke_widget(), "types-for-invoke");
 		addToEnableGroup("cg", getcgresolve_all_abstract_invokes_widget(), "resolve-all-abstract-invokes");
+		addToEnableGroup("cg", getcgparallel_widget(), "parallel");
+		addToEnableGroup("cg", getcgcompact_edges_widget(), "compact-edges");
+		addToEnableGroup("cg", getcgconcurrent_edges_widget(), "concurrent-edges");
 		getcgenabled_widget().getButton().addSelectionListener(this);
 		getcgsafe_forname_widget().getButton().addSelectionListener(this);
 		getcgsafe_newinstance_widget().getButton().addSelectionListener(this);
@@ -424,6 +427,9 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		getcgtrim_clinit_widget().getButton().addSelectionListener(this);
 		getcgtypes_for_invoke_widget().getButton().addSelectionListener(this);
 		getcgresolve_all_abstract_invokes_widget().getButton().addSelectionListener(this);
+		getcgparallel_widget().getButton().addSelectionListener(this);
+		getcgcompact_edges_widget().getButton().addSelectionListener(this);
+		getcgconcurrent_edges_widget().getButton().addSelectionListener(this);
 
 		makeNewEnableGroup("cg", "cg.cha");
 		addToEnableGroup("cg", "cg.cha", getcgcg_chaenabled_widget(), "enabled");
@@ -650,8 +656,10 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		makeNewEnableGroup("sop", "sop.cpf");
 		addToEnableGroup("sop", "sop.cpf", getsopsop_cpfenabled_widget(), "enabled");
 		addToEnableGroup("sop", "sop.cpf", getsopsop_cpfprune_cfg_widget(), "prune-cfg");
+		addToEnableGroup("sop", "sop.cpf", getsopsop_cpfsparse_widget(), "sparse");
 		getsopsop_cpfenabled_widget().getButton().addSelectionListener(this);
 		getsopsop_cpfprune_cfg_widget().getButton().addSelectionListener(this);
+		getsopsop_cpfsparse_widget().getButton().addSelectionListener(this);
 
 		makeNewEnableGroup("jtp");
 		addToEnableGroup("jtp", getjtpenabled_widget(), "enabled");
@@ -1114,6 +1122,12 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		if (boolRes != defBoolRes) {
 			getConfig().put(getInput_Optionsoaat_widget().getAlias(), new Boolean(boolRes));
 		}
+		boolRes = getInput_Optionspipelined_packs_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getInput_Optionspipelined_packs_widget().getAlias(), new Boolean(boolRes));
+		}
 		boolRes = getInput_Optionsast_metrics_widget().getButton().getSelection();
 		defBoolRes = false;
 
@@ -1126,6 +1140,18 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		if (boolRes != defBoolRes) {
 			getConfig().put(getInput_Optionsfull_resolver_widget().getAlias(), new Boolean(boolRes));
 		}
+		boolRes = getInput_Optionsparallel_resolver_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getInput_Optionsparallel_resolver_widget().getAlias(), new Boolean(boolRes));
+		}
+		boolRes = getInput_Optionslazy_asm_bodies_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getInput_Optionslazy_asm_bodies_widget().getAlias(), new Boolean(boolRes));
+		}
 		boolRes = getInput_Optionsallow_phantom_refs_widget().getButton().getSelection();
 		defBoolRes = false;
 
@@ -1204,6 +1230,18 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		if ((!(stringRes.equals(defStringRes))) && (stringRes != null) && (stringRes.length() != 0)) {
 			getConfig().put(getInput_Optionsandroid_api_version_widget().getAlias(), stringRes);
 		}
+		stringRes = getInput_Optionsbody_cache_dir_widget().getText().getText();
+		defStringRes = "";
+
+		if ((!(stringRes.equals(defStringRes))) && (stringRes != null) && (stringRes.length() != 0)) {
+			getConfig().put(getInput_Optionsbody_cache_dir_widget().getAlias(), stringRes);
+		}
+		stringRes = getInput_Optionsclasspath_index_cache_widget().getText().getText();
+		defStringRes = "";
+
+		if ((!(stringRes.equals(defStringRes))) && (stringRes != null) && (stringRes.length() != 0)) {
+			getConfig().put(getInput_Optionsclasspath_index_cache_widget().getAlias(), stringRes);
+		}
 		stringRes = getInput_Optionsmain_class_widget().getText().getText();
 		defStringRes = "";
 
@@ -1767,6 +1805,24 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		if (boolRes != defBoolRes) {
 			getConfig().put(getcgresolve_all_abstract_invokes_widget().getAlias(), new Boolean(boolRes));
 		}
+		boolRes = getcgparallel_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getcgparallel_widget().getAlias(), new Boolean(boolRes));
+		}
+		boolRes = getcgcompact_edges_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getcgcompact_edges_widget().getAlias(), new Boolean(boolRes));
+		}
+		boolRes = getcgconcurrent_edges_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getcgconcurrent_edges_widget().getAlias(), new Boolean(boolRes));
+		}
 		stringRes = getcgjdkver_widget().getText().getText();
 		defStringRes = "3";
 
@@ -2607,6 +2663,12 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		if (boolRes != defBoolRes) {
 			getConfig().put(getsopsop_cpfprune_cfg_widget().getAlias(), new Boolean(boolRes));
 		}
+		boolRes = getsopsop_cpfsparse_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getsopsop_cpfsparse_widget().getAlias(), new Boolean(boolRes));
+		}
 		boolRes = getjtpenabled_widget().getButton().getSelection();
 		defBoolRes = true;
 
@@ -3249,6 +3311,12 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		if (boolRes != defBoolRes) {
 			getConfig().put(getMiscellaneous_Optionsno_writeout_body_releasing_widget().getAlias(), new Boolean(boolRes));
 		}
+		boolRes = getMiscellaneous_Optionsconcurrent_body_chains_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getMiscellaneous_Optionsconcurrent_body_chains_widget().getAlias(), new Boolean(boolRes));
+		}
 
 		setSootMainClass(getSootMainClassWidget().getText().getText());			
 		return setSootMainProject(getSootMainProjectWidget().getText().getText());
@@ -4653,6 +4721,16 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		return Input_Optionsoaat_widget;
 	}	
 	
+	private BooleanOptionWidget Input_Optionspipelined_packs_widget;
+	
+	private void setInput_Optionspipelined_packs_widget(BooleanOptionWidget widget) {
+		Input_Optionspipelined_packs_widget = widget;
+	}
+	
+	public BooleanOptionWidget getInput_Optionspipelined_packs_widget() {
+		return Input_Optionspipelined_packs_widget;
+	}	
+	
 	private BooleanOptionWidget Input_Optionsast_metrics_widget;
 	
 	private void setInput_Optionsast_metrics_widget(BooleanOptionWidget widget) {
@@ -4673,6 +4751,26 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		return Input_Optionsfull_resolver_widget;
 	}	
 	
+	private BooleanOptionWidget Input_Optionsparallel_resolver_widget;
+	
+	private void setInput_Optionsparallel_resolver_widget(BooleanOptionWidget widget) {
+		Input_Optionsparallel_resolver_widget = widget;
+	}
+	
+	public BooleanOptionWidget getInput_Optionsparallel_resolver_widget() {
+		return Input_Optionsparallel_resolver_widget;
+	}	
+	
+	private BooleanOptionWidget Input_Optionslazy_asm_bodies_widget;
+	
+	private void setInput_Optionslazy_asm_bodies_widget(BooleanOptionWidget widget) {
+		Input_Optionslazy_asm_bodies_widget = widget;
+	}
+	
+	public BooleanOptionWidget getInput_Optionslazy_asm_bodies_widget() {
+		return Input_Optionslazy_asm_bodies_widget;
+	}	
+	
 	private BooleanOptionWidget Input_Optionsallow_phantom_refs_widget;
 	
 	private void setInput_Optionsallow_phantom_refs_widget(BooleanOptionWidget widget) {
@@ -4816,6 +4914,30 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 	
 	
 	
+	private StringOptionWidget Input_Optionsbody_cache_dir_widget;
+	
+	private void setInput_Optionsbody_cache_dir_widget(StringOptionWidget widget) {
+		Input_Optionsbody_cache_dir_widget = widget;
+	}
+	
+	public StringOptionWidget getInput_Optionsbody_cache_dir_widget() {
+		return Input_Optionsbody_cache_dir_widget;
+	}
+	
+	
+	
+	private StringOptionWidget Input_Optionsclasspath_index_cache_widget;
+	
+	private void setInput_Optionsclasspath_index_cache_widget(StringOptionWidget widget) {
+		Input_Optionsclasspath_index_cache_widget = widget;
+	}
+	
+	public StringOptionWidget getInput_Optionsclasspath_index_cache_widget() {
+		return Input_Optionsclasspath_index_cache_widget;
+	}
+	
+	
+	
 	private StringOptionWidget Input_Optionsmain_class_widget;
 	
 	private void setInput_Optionsmain_class_widget(StringOptionWidget widget) {
@@ -5779,6 +5901,36 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		return cgresolve_all_abstract_invokes_widget;
 	}	
 	
+	private BooleanOptionWidget cgparallel_widget;
+	
+	private void setcgparallel_widget(BooleanOptionWidget widget) {
+		cgparallel_widget = widget;
+	}
+	
+	public BooleanOptionWidget getcgparallel_widget() {
+		return cgparallel_widget;
+	}	
+	
+	private BooleanOptionWidget cgcompact_edges_widget;
+	
+	private void setcgcompact_edges_widget(BooleanOptionWidget widget) {
+		cgcompact_edges_widget = widget;
+	}
+	
+	public BooleanOptionWidget getcgcompact_edges_widget() {
+		return cgcompact_edges_widget;
+	}	
+	
+	private BooleanOptionWidget cgconcurrent_edges_widget;
+	
+	private void setcgconcurrent_edges_widget(BooleanOptionWidget widget) {
+		cgconcurrent_edges_widget = widget;
+	}
+	
+	public BooleanOptionWidget getcgconcurrent_edges_widget() {
+		return cgconcurrent_edges_widget;
+	}	
+	
 	
 	private StringOptionWidget cgjdkver_widget;
 	
@@ -7249,6 +7401,16 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		return sopsop_cpfprune_cfg_widget;
 	}	
 	
+	private BooleanOptionWidget sopsop_cpfsparse_widget;
+	
+	private void setsopsop_cpfsparse_widget(BooleanOptionWidget widget) {
+		sopsop_cpfsparse_widget = widget;
+	}
+	
+	public BooleanOptionWidget getsopsop_cpfsparse_widget() {
+		return sopsop_cpfsparse_widget;
+	}	
+	
 	private BooleanOptionWidget jtpenabled_widget;
 	
 	private void setjtpenabled_widget(BooleanOptionWidget widget) {
@@ -8335,6 +8497,16 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		return Miscellaneous_Optionsno_writeout_body_releasing_widget;
 	}	
 	
+	private BooleanOptionWidget Miscellaneous_Optionsconcurrent_body_chains_widget;
+	
+	private void setMiscellaneous_Optionsconcurrent_body_chains_widget(BooleanOptionWidget widget) {
+		Miscellaneous_Optionsconcurrent_body_chains_widget = widget;
+	}
+	
+	public BooleanOptionWidget getMiscellaneous_Optionsconcurrent_body_chains_widget() {
+		return Miscellaneous_Optionsconcurrent_body_chains_widget;
+	}	
+	
 
 	private Composite General_OptionsCreate(Composite parent) {
 		String defKey;
@@ -8644,6 +8816,17 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 
 		setInput_Optionsoaat_widget(new BooleanOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("One at a time", "", "","oaat", "\nThis option is meant to keep memory consumption low. If enabled, \nthe -process-dir option must be used as well. From the \nprocess-dir, Soot will process one class at a time. Only body \npacks are run, no whole-program packs.", defaultBool)));
 
+		defKey = ""+" "+""+" "+"pipelined-packs";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setInput_Optionspipelined_packs_widget(new BooleanOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Pipelined packs", "", "","pipelined-packs", "\nNormally, Soot first creates the bodies of all application \nclasses, then runs the body packs on all of them, and only then \nwrites the output. When this option is set, each application \nclass is processed as one task after the whole-program packs: \nits bodies are created, transformed and written, and then \nreleased. Classes are processed concurrently. This reduces the \npeak memory consumption. The option has no effect for Dava and \ndex output, together with -xml-attributes, and in interactive \nmode.", defaultBool)));
+
 		defKey = ""+" "+""+" "+"ast-metrics";
 		defKey = defKey.trim();
 
@@ -8666,6 +8849,28 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 
 		setInput_Optionsfull_resolver_widget(new BooleanOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Force complete resolver", "", "","full-resolver", "\nNormally, Soot resolves only that application classes and any \nclasses that they refer to, along with any classes it needs for \nthe Jimple typing, but it does not transitively resolve \nreferences in these additional classes that were resolved only \nbecause they were referenced. This switch forces full transitive \nresolution of all references found in all classes that are \nresolved, regardless of why they were resolved. In whole-program \nmode, class resolution is always fully transitive. Therefore, in \nwhole-program mode, this switch has no effect, and class \nresolution is always performed as if it were turned on.", defaultBool)));
 
+		defKey = ""+" "+""+" "+"parallel-resolver";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setInput_Optionsparallel_resolver_widget(new BooleanOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Parallel resolver", "", "","parallel-resolver", "\nNormally, Soot resolves classes one at a time. When this option \nis set, all classes that are waiting to be brought to at least \nthe hierarchy level are loaded from their class sources \nconcurrently, in waves, before the resolver continues \nsequentially. The final resolving levels of all classes are the \nsame as without this option. This option only takes effect for \nthe ASM bytecode frontend, i.e., it is ignored together with \n-coffi, in module mode, and for source precedences other than \nclass and only-class.", defaultBool)));
+
+		defKey = ""+" "+""+" "+"lazy-asm-bodies";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setInput_Optionslazy_asm_bodies_widget(new BooleanOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Lazy ASM bodies", "", "","lazy-asm-bodies", "\nNormally, the ASM frontend reads the code of all methods when it \nreads a class file, and keeps it in memory until the bodies are \ncreated. When this option is set, class files are read without \ntheir code, and the code of a method is read from the class file \nagain when its body is created. This saves time and memory for \nclasses whose bodies are never needed. The types that the code \ndepends on are taken from the constant pool of the class, which \nmay name a few more types than the code does. Tags for \nannotations of local variables are only added to a method when \nits body is created. The option has no effect for classes that \nare not read from files or archives, such as the ones of the \nJava runtime image.", defaultBool)));
+
 		defKey = ""+" "+""+" "+"allow-phantom-refs";
 		defKey = defKey.trim();
 
@@ -8855,6 +9060,30 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		setInput_Optionsandroid_api_version_widget(new StringOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Force specific Android API version",  "", "","android-api-version", "\nUse VERSION as the Android API version that Soot should use when \nprocessing APK or DEX files. When combined with the \n'android-jars' option, this value will take precedence over the \nAPI version specified in the app's manifest file. When combined \nwith the 'force-android-jar' option, the JAR file will be the \none from the 'force-android-jar' option, but the API version \nused for parsing will be the explicitly given one.", defaultString)));
 		
 
+		defKey = ""+" "+""+" "+"body-cache-dir";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultString = getStringDef(defKey);	
+		} else {
+			defaultString = "";
+		}
+
+		setInput_Optionsbody_cache_dir_widget(new StringOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Body cache directory",  "", "","body-cache-dir", "\nStore the Jimple bodies that are created from .class files by \nthe ASM frontend, after the jb phase has run, in the directory \nDIR. In later runs, bodies are read back from this directory \ninstead of being created from bytecode again, as long as the \nclass file, the Soot version and the options of the jb pack are \nthe same. Cached bodies do not carry tags. The cache is \ntherefore not used together with -keep-line-number or \n-keep-bytecode-offset.", defaultString)));
+		
+
+		defKey = ""+" "+""+" "+"classpath-index-cache";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultString = getStringDef(defKey);	
+		} else {
+			defaultString = "";
+		}
+
+		setInput_Optionsclasspath_index_cache_widget(new StringOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Class path index cache",  "", "","classpath-index-cache", "\nStore the names of the entries of all jar and zip archives on \nthe class path and in the process directories in the file FILE. \nIn later runs, the names are read back from this file instead of \nfrom the archives, as long as the size and modification time of \nan archive are the same.", defaultString)));
+		
+
 		defKey = ""+" "+""+" "+"main-class";
 		defKey = defKey.trim();
 
@@ -11127,6 +11356,39 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 
 		setcgresolve_all_abstract_invokes_widget(new BooleanOptionWidget(editGroupcg, SWT.NONE, new OptionData("Resolve Abstract Classes with No Children", "p phase-option", "cg","resolve-all-abstract-invokes", "\nNormally, if a method is invoked on a class that is abstract and \nsaid class does not have any children in the Scene, the method \ninvoke will not be resolved to any concrete methods even if the \nabstract class or its parent classes contain a concrete \ndeclaration of the method. This is because without any \nnon-abstract children it is impossible to tell if the resolution \nis correct (since any child may override any non-private method \nin any of its parent classes). However, sometimes it is \nnecessary to resolve methods in such situations (e.g. when \nanalyzing libraries or incomplete code). This forces all methods \ninvoked on abstract classes to be resolved if there exists a \nparent class with a concrete definition of the method even if \nthere are no non-abstract children of the abstract class.", defaultBool)));
 
+		defKey = "p phase-option"+" "+"cg"+" "+"parallel";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setcgparallel_widget(new BooleanOptionWidget(editGroupcg, SWT.NONE, new OptionData("Parallel", "p phase-option", "cg","parallel", "\nCreate the bodies of newly reachable methods on all available \nprocessors. The reachable methods are handled in waves; the \nbodies of each wave are created concurrently and the methods are \nthen scanned in the usual order, so the call graph is the same \nas without this option. This has no effect with the coffi \nfront-end, which is not thread-safe.", defaultBool)));
+
+		defKey = "p phase-option"+" "+"cg"+" "+"compact-edges";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setcgcompact_edges_widget(new BooleanOptionWidget(editGroupcg, SWT.NONE, new OptionData("Compact Edges", "p phase-option", "cg","compact-edges", "\nStore the edges of the call graph as packed records in int \narrays, keyed by method and unit numbers, instead of as linked \nEdge objects. Edge objects are then only created when the call \ngraph is queried. This greatly reduces the memory used by large \ncall graphs. Context-sensitive call graphs cannot be stored this \nway.", defaultBool)));
+
+		defKey = "p phase-option"+" "+"cg"+" "+"concurrent-edges";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setcgconcurrent_edges_widget(new BooleanOptionWidget(editGroupcg, SWT.NONE, new OptionData("Concurrent Edges", "p phase-option", "cg","concurrent-edges", "\nStore the edges of the call graph in thread-safe structures, so \nthat edges can be added, removed and looked up by several \nthreads at the same time, for instance by client analyses that \nupdate the call graph in parallel. Single-threaded use becomes \nsomewhat slower. This option is ignored when compact-edges is \nset.", defaultBool)));
+
 		data = new OptionData [] {
 		
 				new OptionData("Disabled",
@@ -11639,6 +11901,10 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 						"none",
 						"\nNone means that propagation is not done; the graph is only built \nand simplified. This is useful if an external solver is being \nused to perform the propagation.",
 						false),
+				new OptionData("Parallel",
+						"parallel",
+						"\nParallel is a variant of the worklist algorithm that handles the \nworklist in rounds and flows points-to sets along assignment \nedges on all available processors. It computes the same \npoints-to sets as Worklist. The heintze and sharedlist set \nimplementations are not thread-safe, so with them it runs on a \nsingle thread.",
+						false),
 		};
 
 
@@ -11683,6 +11949,10 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 						"double",
 						"\nDouble is an implementation that itself uses a pair of sets for \neach points-to set. The first set in the pair stores new \npointed-to objects that have not yet been propagated, while the \nsecond set stores old pointed-to objects that have been \npropagated and need not be reconsidered. This allows the \npropagation algorithms to be incremental, often speeding them up \nsignificantly.",
 						true),
+				new OptionData("Roaring",
+						"roaring",
+						"\nRoaring stores the allocation site numbers as a compressed \nbitmap. The numbers are split into chunks of 2^16; each chunk is \nkept as a sorted array while it is sparse and as a bit-vector \nonce it is dense. This keeps sets small when the numbers are \nspread over a wide range, while unions and differences of two \nsuch sets are computed chunk by chunk.",
+						false),
 		};
 
 
@@ -11723,6 +11993,10 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 						"sharedlist",
 						"\nShared List stores its elements in a linked list, and might \nshare its tail with other similar points-to sets.",
 						false),
+				new OptionData("Roaring",
+						"roaring",
+						"\nRoaring stores the allocation site numbers as a compressed \nbitmap. The numbers are split into chunks of 2^16; each chunk is \nkept as a sorted array while it is sparse and as a bit-vector \nonce it is dense. This keeps sets small when the numbers are \nspread over a wide range, while unions and differences of two \nsuch sets are computed chunk by chunk.",
+						false),
 		};
 
 
@@ -11763,6 +12037,10 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 						"sharedlist",
 						"\nShared List stores its elements in a linked list, and might \nshare its tail with other similar points-to sets.",
 						false),
+				new OptionData("Roaring",
+						"roaring",
+						"\nRoaring stores the allocation site numbers as a compressed \nbitmap. The numbers are split into chunks of 2^16; each chunk is \nkept as a sorted array while it is sparse and as a bit-vector \nonce it is dense. This keeps sets small when the numbers are \nspread over a wide range, while unions and differences of two \nsuch sets are computed chunk by chunk.",
+						false),
 		};
 
 
@@ -14192,6 +14470,17 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 
 		setsopsop_cpfprune_cfg_widget(new BooleanOptionWidget(editGroupsopsop_cpf, SWT.NONE, new OptionData("Prune Control Flow Graph", "p phase-option", "sop.cpf","prune-cfg", "\nConditional branching statements that are found to branch \nunconditionally (or fall through) are replaced with \nunconditional branches (or removed). This transformation exposes \nmore opportunities for dead code removal.", defaultBool)));
 
+		defKey = "p phase-option"+" "+"sop.cpf"+" "+"sparse";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setsopsop_cpfsparse_widget(new BooleanOptionWidget(editGroupsopsop_cpf, SWT.NONE, new OptionData("Sparse Propagation", "p phase-option", "sop.cpf","sparse", "\nPropagate the assumed values of locals along the def-use edges \nof the SSA form, instead of carrying them through every \nstatement in flow sets. Both analyses compute the same results. \nThis option is off by default, so the dense analysis is used \nunless the sparse one is requested explicitly.", defaultBool)));
+
 
 		return editGroupsopsop_cpf;
 	}
@@ -17205,6 +17494,17 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 
 		setMiscellaneous_Optionsno_writeout_body_releasing_widget(new BooleanOptionWidget(editGroupMiscellaneous_Options, SWT.NONE, new OptionData("No body releasing after writeout", "", "","no-writeout-body-releasing", "\nBy default soot releases the method bodies of all reachable \nclasses after the final writeout. This option deactivates this \nbehaviour. This flag should not affect end users at all.", defaultBool)));
 
+		defKey = ""+" "+""+" "+"concurrent-body-chains";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setMiscellaneous_Optionsconcurrent_body_chains_widget(new BooleanOptionWidget(editGroupMiscellaneous_Options, SWT.NONE, new OptionData("Concurrent body chains", "", "","concurrent-body-chains", "\nBy default, the units, locals and traps of method bodies are \nkept in unsynchronized chains, since a body is only ever changed \nby the one thread that transforms it. Set this option if your \nown code modifies the same body from several threads, to use \nsynchronized chains instead.", defaultBool)));
+
 
 		return editGroupMiscellaneous_Options;
 	}
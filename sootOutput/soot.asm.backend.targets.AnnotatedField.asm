@@ -0,0 +1,18 @@
+// class version 52.0 (52)
+// access flags 0x21
+public class soot/asm/backend/targets/AnnotatedField {
+
+  // compiled from: AnnotatedField.java
+
+  // access flags 0x0
+  Ljava/lang/String; a
+  @Lsoot/asm/backend/targets/MyTestAnnotation;(iVal=124, fVal=5132.0F, lVal=5123L, dVal=745.0D, zVal=true, bVal=(byte)1, sVal=(short)123, strVal="435243", rVal=soot.asm.backend.targets.AnnotatedClass.class, iAVal={123, 234, 345, 456}, sAVal={"A", "B", "C"})
+
+  // access flags 0x1
+  public <init>()V
+    ALOAD 0
+    INVOKESPECIAL java/lang/Object.<init> ()V
+    RETURN
+    MAXSTACK = 0
+    MAXLOCALS = 0
+}
@@ -0,0 +1,18 @@
+// class version 45.3 (196653)
+// access flags 0x601
+public abstract interface soot/asm/backend/targets/Comparable implements soot/asm/backend/targets/Measurable {
+
+  // compiled from: Comparable.java
+
+  // access flags 0x19
+  public final static I LESS = -1
+
+  // access flags 0x19
+  public final static I EQUAL = 0
+
+  // access flags 0x19
+  public final static I GREATER = 1
+
+  // access flags 0x401
+  public abstract compareTo(Ljava/lang/Object;)I
+}
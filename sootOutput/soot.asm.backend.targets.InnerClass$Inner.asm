@@ -0,0 +1,26 @@
+// class version 45.3 (196653)
+// access flags 0x20
+class soot/asm/backend/targets/InnerClass$Inner {
+
+  // compiled from: InnerClass.java
+  OUTERCLASS soot/asm/backend/targets/InnerClass null
+  // access flags 0x2
+  private INNERCLASS soot/asm/backend/targets/InnerClass$Inner soot/asm/backend/targets/InnerClass Inner
+
+  // access flags 0x18
+  final static I a = 3
+
+  // access flags 0x1010
+  final synthetic Lsoot/asm/backend/targets/InnerClass; this$0
+
+  // access flags 0x2
+  private <init>(Lsoot/asm/backend/targets/InnerClass;)V
+    ALOAD 0
+    ALOAD 1
+    PUTFIELD soot/asm/backend/targets/InnerClass$Inner.this$0 : Lsoot/asm/backend/targets/InnerClass;
+    ALOAD 0
+    INVOKESPECIAL java/lang/Object.<init> ()V
+    RETURN
+    MAXSTACK = 0
+    MAXLOCALS = 0
+}
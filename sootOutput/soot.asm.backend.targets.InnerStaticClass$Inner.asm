@@ -0,0 +1,20 @@
+// class version 45.3 (196653)
+// access flags 0x21
+public class soot/asm/backend/targets/InnerStaticClass$Inner {
+
+  // compiled from: InnerStaticClass.java
+  OUTERCLASS soot/asm/backend/targets/InnerStaticClass null
+  // access flags 0x9
+  public static INNERCLASS soot/asm/backend/targets/InnerStaticClass$Inner soot/asm/backend/targets/InnerStaticClass Inner
+
+  // access flags 0x18
+  final static I a = 3
+
+  // access flags 0x1
+  public <init>()V
+    ALOAD 0
+    INVOKESPECIAL java/lang/Object.<init> ()V
+    RETURN
+    MAXSTACK = 0
+    MAXLOCALS = 0
+}
@@ -0,0 +1,62 @@
+// class version 47.0 (47)
+// access flags 0x421
+public abstract class soot/asm/backend/targets/Modifiers {
+
+  // compiled from: Modifiers.java
+
+  // access flags 0x42
+  private volatile I i
+
+  // access flags 0x12
+  private final I j = 213
+
+  // access flags 0x82
+  private transient I k
+
+  // access flags 0x801
+  public strictfp <init>()V
+    ALOAD 0
+    INVOKESPECIAL java/lang/Object.<init> ()V
+    ALOAD 0
+    SIPUSH 213
+    PUTFIELD soot/asm/backend/targets/Modifiers.j : I
+    RETURN
+    MAXSTACK = 0
+    MAXLOCALS = 0
+
+  // access flags 0x811
+  public final strictfp a()V
+    RETURN
+    MAXSTACK = 0
+    MAXLOCALS = 0
+
+  // access flags 0x821
+  public synchronized strictfp b()V
+    RETURN
+    MAXSTACK = 0
+    MAXLOCALS = 0
+
+  // access flags 0x809
+  public static strictfp c()V
+    RETURN
+    MAXSTACK = 0
+    MAXLOCALS = 0
+
+  // access flags 0x800
+  strictfp d()V
+    RETURN
+    MAXSTACK = 0
+    MAXLOCALS = 0
+
+  // access flags 0x804
+  protected strictfp e()V
+    RETURN
+    MAXSTACK = 0
+    MAXLOCALS = 0
+
+  // access flags 0x400
+  abstract f()V
+
+  // access flags 0x902
+  private strictfp native g()V
+}
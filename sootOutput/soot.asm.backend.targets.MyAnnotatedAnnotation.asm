@@ -0,0 +1,9 @@
+// class version 49.0 (49)
+// access flags 0x2601
+public abstract @interface soot/asm/backend/targets/MyAnnotatedAnnotation implements java/lang/annotation/Annotation {
+
+  // compiled from: MyAnnotatedAnnotation.java
+
+  // access flags 0x401
+  public abstract value()Lsoot/asm/backend/targets/MyTestAnnotation;
+}
@@ -232,6 +232,10 @@ public class AntTask extends MatchingTask {
             if(arg) addArg("-oaat");
         }
   
+        public void setpipelined_packs(boolean arg) {
+            if(arg) addArg("-pipelined-packs");
+        }
+  
         public void setandroid_jars(String arg) {
             addArg("-android-jars");
             addArg(arg);
@@ -270,6 +274,24 @@ public class AntTask extends MatchingTask {
             if(arg) addArg("-full-resolver");
         }
   
+        public void setparallel_resolver(boolean arg) {
+            if(arg) addArg("-parallel-resolver");
+        }
+  
+        public void setbody_cache_dir(String arg) {
+            addArg("-body-cache-dir");
+            addArg(arg);
+        }
+  
+        public void setclasspath_index_cache(String arg) {
+            addArg("-classpath-index-cache");
+            addArg(arg);
+        }
+  
+        public void setlazy_asm_bodies(boolean arg) {
+            if(arg) addArg("-lazy-asm-bodies");
+        }
+  
         public void setallow_phantom_refs(boolean arg) {
             if(arg) addArg("-allow-phantom-refs");
         }
@@ -645,6 +667,10 @@ public class AntTask extends MatchingTask {
             if(arg) addArg("-no-writeout-body-releasing");
         }
   
+        public void setconcurrent_body_chains(boolean arg) {
+            if(arg) addArg("-concurrent-body-chains");
+        }
+  
         public Object createp_jb() {
             Object ret = new PhaseOptjb();
             phaseopts.add(ret);
@@ -1336,6 +1362,24 @@ public class AntTask extends MatchingTask {
             addArg("resolve-all-abstract-invokes:"+(arg?"true":"false"));
           }
       
+          public void setparallel(boolean arg) {
+            addArg("-p");
+            addArg("cg");
+            addArg("parallel:"+(arg?"true":"false"));
+          }
+      
+          public void setcompact_edges(boolean arg) {
+            addArg("-p");
+            addArg("cg");
+            addArg("compact-edges:"+(arg?"true":"false"));
+          }
+      
+          public void setconcurrent_edges(boolean arg) {
+            addArg("-p");
+            addArg("cg");
+            addArg("concurrent-edges:"+(arg?"true":"false"));
+          }
+      
           public void setlibrary(String arg) {
             addArg("-p");
             addArg("cg");
@@ -2383,6 +2427,12 @@ public class AntTask extends MatchingTask {
             addArg("prune-cfg:"+(arg?"true":"false"));
           }
       
+          public void setsparse(boolean arg) {
+            addArg("-p");
+            addArg("sop.cpf");
+            addArg("sparse:"+(arg?"true":"false"));
+          }
+      
         }
     
         public Object createp_jtp() {
@@ -183,6 +183,51 @@ public class CGOptions {
         return soot.PhaseOptions.getBoolean(options, "resolve-all-abstract-invokes");
     }
 
+    /**
+     * Parallel --
+     * Create method bodies concurrently during call graph construction.
+     *
+     * Create the bodies of newly reachable methods on all available 
+     * processors. The reachable methods are handled in waves; the 
+     * bodies of each wave are created concurrently and the methods are 
+     * then scanned in the usual order, so the call graph is the same 
+     * as without this option. This has no effect with the coffi 
+     * front-end, which is not thread-safe.
+     */
+    public boolean parallel() {
+        return soot.PhaseOptions.getBoolean(options, "parallel");
+    }
+
+    /**
+     * Compact Edges --
+     * Store call graph edges as packed records instead of objects.
+     *
+     * Store the edges of the call graph as packed records in int 
+     * arrays, keyed by method and unit numbers, instead of as linked 
+     * Edge objects. Edge objects are then only created when the call 
+     * graph is queried. This greatly reduces the memory used by large 
+     * call graphs. Context-sensitive call graphs cannot be stored this 
+     * way.
+     */
+    public boolean compact_edges() {
+        return soot.PhaseOptions.getBoolean(options, "compact-edges");
+    }
+
+    /**
+     * Concurrent Edges --
+     * Store call graph edges so that several threads can change them.
+     *
+     * Store the edges of the call graph in thread-safe structures, so 
+     * that edges can be added, removed and looked up by several 
+     * threads at the same time, for instance by client analyses that 
+     * update the call graph in parallel. Single-threaded use becomes 
+     * somewhat slower. This option is ignored when compact-edges is 
+     * set.
+     */
+    public boolean concurrent_edges() {
+        return soot.PhaseOptions.getBoolean(options, "concurrent-edges");
+    }
+
     /**
      * JDK version --
      * JDK version for native methods.
@@ -294,6 +294,10 @@ public class Options extends OptionsBase {
                     || option.equals("oaat")
             )
                 oaat = true;
+            else if (false
+                    || option.equals("pipelined-packs")
+            )
+                pipelined_packs = true;
             else if (false
                     || option.equals("android-jars")
             ) {
@@ -423,6 +427,46 @@ public class Options extends OptionsBase {
                     || option.equals("full-resolver")
             )
                 full_resolver = true;
+            else if (false
+                    || option.equals("parallel-resolver")
+            )
+                parallel_resolver = true;
+            else if (false
+                    || option.equals("body-cache-dir")
+            ) {
+                if (!hasMoreOptions()) {
+                    G.v().out.println("No value given for option -" + option);
+                    return false;
+                }
+
+                String value = nextOption();
+                if (body_cache_dir.isEmpty())
+                    body_cache_dir = value;
+                else {
+                    G.v().out.println("Duplicate values " + body_cache_dir + " and " + value + " for option -" + option);
+                    return false;
+                }
+            }
+            else if (false
+                    || option.equals("classpath-index-cache")
+            ) {
+                if (!hasMoreOptions()) {
+                    G.v().out.println("No value given for option -" + option);
+                    return false;
+                }
+
+                String value = nextOption();
+                if (classpath_index_cache.isEmpty())
+                    classpath_index_cache = value;
+                else {
+                    G.v().out.println("Duplicate values " + classpath_index_cache + " and " + value + " for option -" + option);
+                    return false;
+                }
+            }
+            else if (false
+                    || option.equals("lazy-asm-bodies")
+            )
+                lazy_asm_bodies = true;
             else if (false
                     || option.equals("allow-phantom-refs")
             )
@@ -1288,6 +1332,10 @@ public class Options extends OptionsBase {
                     || option.equals("no-writeout-body-releasing")
             )
                 no_writeout_body_releasing = true;
+            else if (false
+                    || option.equals("concurrent-body-chains")
+            )
+                concurrent_body_chains = true;
             else {
                 G.v().out.println("Invalid option -" + option);
                 return false;
@@ -1421,6 +1469,10 @@ public class Options extends OptionsBase {
     private boolean oaat = false;
     public void set_oaat(boolean setting) { oaat = setting; }
 
+    public boolean pipelined_packs() { return pipelined_packs; }
+    private boolean pipelined_packs = false;
+    public void set_pipelined_packs(boolean setting) { pipelined_packs = setting; }
+
     public String android_jars() { return android_jars; }
     public void set_android_jars(String setting) { android_jars = setting; }
     private String android_jars = "";
@@ -1448,6 +1500,22 @@ public class Options extends OptionsBase {
     private boolean full_resolver = false;
     public void set_full_resolver(boolean setting) { full_resolver = setting; }
 
+    public boolean parallel_resolver() { return parallel_resolver; }
+    private boolean parallel_resolver = false;
+    public void set_parallel_resolver(boolean setting) { parallel_resolver = setting; }
+
+    public String body_cache_dir() { return body_cache_dir; }
+    public void set_body_cache_dir(String setting) { body_cache_dir = setting; }
+    private String body_cache_dir = "";
+
+    public String classpath_index_cache() { return classpath_index_cache; }
+    public void set_classpath_index_cache(String setting) { classpath_index_cache = setting; }
+    private String classpath_index_cache = "";
+
+    public boolean lazy_asm_bodies() { return lazy_asm_bodies; }
+    private boolean lazy_asm_bodies = false;
+    public void set_lazy_asm_bodies(boolean setting) { lazy_asm_bodies = setting; }
+
     public boolean allow_phantom_refs() { return allow_phantom_refs; }
     private boolean allow_phantom_refs = false;
     public void set_allow_phantom_refs(boolean setting) { allow_phantom_refs = setting; }
@@ -1653,6 +1721,10 @@ public class Options extends OptionsBase {
     private boolean no_writeout_body_releasing = false;
     public void set_no_writeout_body_releasing(boolean setting) { no_writeout_body_releasing = setting; }
 
+    public boolean concurrent_body_chains() { return concurrent_body_chains; }
+    private boolean concurrent_body_chains = false;
+    public void set_concurrent_body_chains(boolean setting) { concurrent_body_chains = setting; }
+
     public String getUsage() {
         return ""
                 + "\nGeneral Options:\n"
@@ -1683,6 +1755,7 @@ public class Options extends OptionsBase {
                 + padOpt("-search-dex-in-archives", "Also includes Jar and Zip files when searching for DEX files under the provided classpath.")
                 + padOpt("-process-path ARG -process-dir ARG", "Process all classes found in ARG")
                 + padOpt("-oaat", "From the process-dir, processes one class at a time.")
+                + padOpt("-pipelined-packs", "Retrieve, transform and write each class as one task")
                 + padOpt("-android-jars ARG", "Use ARG as the path for finding the android.jar file")
                 + padOpt("-force-android-jar ARG", "Force Soot to use ARG as the path for the android.jar file.")
                 + padOpt("-ast-metrics", "Compute AST Metrics if performing java to jimple")
@@ -1694,6 +1767,10 @@ public class Options extends OptionsBase {
                     + padVal("apk", "Favour APK files as Soot source")
                     + padVal("apk-class-jimple apk-c-j", "Favour APK files as Soot source, disregard Java files")
                 + padOpt("-full-resolver", "Force transitive resolving of referenced classes")
+                + padOpt("-parallel-resolver", "Load classes to hierarchy level concurrently")
+                + padOpt("-body-cache-dir ARG", "Cache Jimple bodies of class files in ARG")
+                + padOpt("-classpath-index-cache ARG", "Cache the entry names of class path archives in ARG")
+                + padOpt("-lazy-asm-bodies", "Read method code of class files only when bodies are created")
                 + padOpt("-allow-phantom-refs", "Allow unresolved classes; may cause errors")
                 + padOpt("-allow-phantom-elms", "Allow phantom methods and fields in non-phantom classes")
                 + padOpt("-no-bodies-for-excluded", "Do not load bodies for excluded classes")
@@ -1793,7 +1870,8 @@ public class Options extends OptionsBase {
                 + "\nMiscellaneous Options:\n"
                 + padOpt("-time", "Report time required for transformations")
                 + padOpt("-subtract-gc", "Subtract gc from time")
-                + padOpt("-no-writeout-body-releasing", "Disables the release of method bodies after writeout. This flag is used internally.");
+                + padOpt("-no-writeout-body-releasing", "Disables the release of method bodies after writeout. This flag is used internally.")
+                + padOpt("-concurrent-body-chains", "Use thread-safe chains for the units, locals and traps of bodies");
     }
 
 
@@ -2149,7 +2227,10 @@ public class Options extends OptionsBase {
                     + padOpt("reflection-log", "Uses a reflection log to resolve reflective calls.")
                     + padOpt("guards (ignore)", "Describes how to guard the program from unsound assumptions.")
                     + padOpt("types-for-invoke (false)", "Uses reaching types inferred by the pointer analysis to resolve reflective calls.")
-                    + padOpt("resolve-all-abstract-invokes (false)", "Causes methods invoked on abstract classes to be resolved even if there are no non-abstract children of the classes in the Scene.");
+                    + padOpt("resolve-all-abstract-invokes (false)", "Causes methods invoked on abstract classes to be resolved even if there are no non-abstract children of the classes in the Scene.")
+                    + padOpt("parallel (false)", "Create method bodies concurrently during call graph construction")
+                    + padOpt("compact-edges (false)", "Store call graph edges as packed records instead of objects")
+                    + padOpt("concurrent-edges (false)", "Store call graph edges so that several threads can change them");
 
         if (phaseName.equals("cg.cha"))
             return "Phase " + phaseName + ":\n"
@@ -2189,6 +2270,7 @@ public class Options extends OptionsBase {
                         + padVal("merge", "Unfinished field reference merging algorithms")
                         + padVal("alias", "Alias-edge based algorithm")
                         + padVal("none", "Disable propagation")
+                        + padVal("parallel", "Multi-threaded worklist-based algorithm")
                     + padOpt("set-impl", "Select points-to set implementation")
                         + padVal("hash", "Use Java HashSet")
                         + padVal("bit", "Bit vector")
@@ -2197,6 +2279,7 @@ public class Options extends OptionsBase {
                         + padVal("heintze", "Heintze's shared bit-vector and overflow list representation")
                         + padVal("sharedlist", "Shared list representation")
                         + padVal("double (default)", "Double set representation for incremental propagation")
+                        + padVal("roaring", "Compressed bitmap representation")
                     + padOpt("double-set-old", "Select implementation of points-to set for old part of double set")
                         + padVal("hash", "Use Java HashSet")
                         + padVal("bit", "Bit vector")
@@ -2204,6 +2287,7 @@ public class Options extends OptionsBase {
                         + padVal("array", "Sorted array representation")
                         + padVal("heintze", "Heintze's shared bit-vector and overflow list representation")
                         + padVal("sharedlist", "Shared list representation")
+                        + padVal("roaring", "Compressed bitmap representation")
                     + padOpt("double-set-new", "Select implementation of points-to set for new part of double set")
                         + padVal("hash", "Use Java HashSet")
                         + padVal("bit", "Bit vector")
@@ -2211,6 +2295,7 @@ public class Options extends OptionsBase {
                         + padVal("array", "Sorted array representation")
                         + padVal("heintze", "Heintze's shared bit-vector and overflow list representation")
                         + padVal("sharedlist", "Shared list representation")
+                        + padVal("roaring", "Compressed bitmap representation")
                     + padOpt("dump-html (false)", "Dump pointer assignment graph to HTML for debugging")
                     + padOpt("dump-pag (false)", "Dump pointer assignment graph for other solvers")
                     + padOpt("dump-solution (false)", "Dump final solution for comparison with other solvers")
@@ -2489,7 +2574,8 @@ public class Options extends OptionsBase {
                     + "\nA powerful constant propagator and folder based on an algorithm \nsketched by Cytron et al that takes conditional control flow \ninto account. This optimization demonstrates some of the \nbenefits of SSA -- particularly the fact that Phi nodes \nrepresent natural merge points in the control flow."
                     + "\n\nRecognized options (with default values):\n"
                     + padOpt("enabled (true)", "")
-                    + padOpt("prune-cfg (true)", "Take advantage of CFG optimization opportunities.");
+                    + padOpt("prune-cfg (true)", "Take advantage of CFG optimization opportunities.")
+                    + padOpt("sparse (false)", "Propagate constants along SSA def-use edges.");
 
         if (phaseName.equals("jtp"))
             return "Phase " + phaseName + ":\n"
@@ -3064,7 +3150,10 @@ public class Options extends OptionsBase {
                     "reflection-log",
                     "guards",
                     "types-for-invoke",
-                    "resolve-all-abstract-invokes"
+                    "resolve-all-abstract-invokes",
+                    "parallel",
+                    "compact-edges",
+                    "concurrent-edges"
             );
 
         if (phaseName.equals("cg.cha"))
@@ -3292,7 +3381,8 @@ public class Options extends OptionsBase {
         if (phaseName.equals("sop.cpf"))
             return String.join(" ", 
                     "enabled",
-                    "prune-cfg"
+                    "prune-cfg",
+                    "sparse"
             );
 
         if (phaseName.equals("jtp"))
@@ -3776,7 +3866,10 @@ public class Options extends OptionsBase {
                     + "trim-clinit:true "
                     + "guards:ignore "
                     + "types-for-invoke:false "
-                    + "resolve-all-abstract-invokes:false ";
+                    + "resolve-all-abstract-invokes:false "
+                    + "parallel:false "
+                    + "compact-edges:false "
+                    + "concurrent-edges:false ";
 
         if (phaseName.equals("cg.cha"))
             return ""
@@ -3981,7 +4074,8 @@ public class Options extends OptionsBase {
         if (phaseName.equals("sop.cpf"))
             return ""
                     + "enabled:true "
-                    + "prune-cfg:true ";
+                    + "prune-cfg:true "
+                    + "sparse:false ";
 
         if (phaseName.equals("jtp"))
             return ""
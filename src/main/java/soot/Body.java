@@ -44,6 +44,7 @@ import soot.tagkit.AbstractHost;
 import soot.tagkit.CodeAttribute;
 import soot.tagkit.Tag;
 import soot.util.Chain;
+import soot.util.ConfinedHashChain;
 import soot.util.EscapedWriter;
 import soot.util.HashChain;
 import soot.validation.BodyValidator;
@@ -75,16 +76,27 @@ public abstract class Body extends AbstractHost implements Serializable {
   protected transient SootMethod method = null;
 
   /** The chain of locals for this Body. */
-  protected Chain<Local> localChain = new HashChain<Local>();
+  protected Chain<Local> localChain = newChain();
 
   /** The chain of traps for this Body. */
-  protected Chain<Trap> trapChain = new HashChain<Trap>();
+  protected Chain<Trap> trapChain = newChain();
 
   /** The chain of units for this Body. */
-  protected UnitPatchingChain unitChain = new UnitPatchingChain(new HashChain<Unit>());
+  protected UnitPatchingChain unitChain = new UnitPatchingChain(Body.<Unit>newChain());
 
   private static BodyValidator[] validators;
 
+  /**
+   * Creates an empty chain for the locals, traps or units of a body. A body is only modified by the thread that transforms
+   * it, so the chains are not synchronized unless <code>-concurrent-body-chains</code> is set.
+   */
+  protected static <E> Chain<E> newChain() {
+    if (Options.v().concurrent_body_chains()) {
+      return new HashChain<E>();
+    }
+    return new ConfinedHashChain<E>();
+  }
+
   /** Creates a deep copy of this Body. */
   @Override
   abstract public Object clone();
@@ -0,0 +1,359 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import heros.solver.CountingThreadPoolExecutor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An index of the entry names of jar and zip archives. The names are read from the central directory at the end of each
+ * archive, which is read with a {@link RandomAccessFile}, so the rest of the archive is never touched. Archives that this reader does not
+ * understand, such as ZIP64 archives, are read with {@link ZipFile} instead. Entry names are returned in the order of
+ * the central directory, which is the order in which {@link ZipFile#entries()} enumerates them.
+ *
+ * The index can be written to and read from a file, so that later runs do not need to read archives again. Archives are
+ * keyed by their path, and an archive whose size or modification time has changed since it was indexed is read again.
+ * Each archive is checked only once per index, so changes made to an archive after it has been looked up are not
+ * noticed. Like any cache, the index holds a bounded number of archives, and the garbage collector may drop archives
+ * under memory pressure, in which case they are read again when they are next looked up.
+ *
+ * Instances are safe to use from several threads.
+ */
+public class ClasspathIndex {
+  private static final Logger logger = LoggerFactory.getLogger(ClasspathIndex.class);
+
+  private static final int MAGIC = 0x53434958;
+  private static final int VERSION = 1;
+
+  private static final int END_SIG = 0x06054b50;
+  private static final int END_SIZE = 22;
+  private static final int CEN_SIG = 0x02014b50;
+  private static final int CEN_SIZE = 46;
+  private static final int MAX_COMMENT_SIZE = 0xffff;
+
+  private final Cache<String, Archive> archives = CacheBuilder.newBuilder().initialCapacity(60).maximumSize(500)
+      .softValues().concurrencyLevel(Runtime.getRuntime().availableProcessors()).build();
+  private volatile boolean modified = false;
+
+  private static final class Archive {
+    final long lastModified;
+    final long length;
+    final String[] entryNames;
+    /** Whether the archive on disk has been checked to still match this record. */
+    volatile boolean verified;
+    private volatile Set<String> entrySet;
+
+    Archive(long lastModified, long length, String[] entryNames, boolean verified) {
+      this.lastModified = lastModified;
+      this.length = length;
+      this.entryNames = entryNames;
+      this.verified = verified;
+    }
+
+    boolean matches(File file) {
+      return file.lastModified() == lastModified && file.length() == length;
+    }
+
+    Set<String> entrySet() {
+      Set<String> ret = entrySet;
+      if (ret == null) {
+        ret = new HashSet<String>(Arrays.asList(entryNames));
+        entrySet = ret;
+      }
+      return ret;
+    }
+  }
+
+  /** Returns the names of all entries of the given archive, in the order of its central directory. */
+  public List<String> getEntryNames(String archivePath) throws IOException {
+    return Collections.unmodifiableList(Arrays.asList(getArchive(archivePath).entryNames));
+  }
+
+  /** Returns true iff the given archive contains an entry with the given name. */
+  public boolean containsEntry(String archivePath, String entryName) throws IOException {
+    return getArchive(archivePath).entrySet().contains(entryName);
+  }
+
+  private Archive getArchive(String archivePath) throws IOException {
+    Archive archive = archives.getIfPresent(archivePath);
+    if (archive != null) {
+      if (archive.verified) {
+        return archive;
+      }
+      if (archive.matches(new File(archivePath))) {
+        archive.verified = true;
+        return archive;
+      }
+    }
+
+    File file = new File(archivePath);
+    // Take the time stamp first, so that an archive that changes while we read it is read again next time
+    long lastModified = file.lastModified();
+    long length = file.length();
+    archive = new Archive(lastModified, length, readEntryNames(file), true);
+    archives.put(archivePath, archive);
+    modified = true;
+    return archive;
+  }
+
+  /**
+   * Indexes the given archives concurrently. Archives that cannot be read are skipped, the error is reported when their
+   * entries are requested.
+   */
+  public void indexArchives(Collection<String> archivePaths) {
+    if (archivePaths.size() <= 1) {
+      for (String archivePath : archivePaths) {
+        indexArchive(archivePath);
+      }
+      return;
+    }
+
+    int threadNum = Math.min(archivePaths.size(), Runtime.getRuntime().availableProcessors());
+    CountingThreadPoolExecutor executor
+        = new CountingThreadPoolExecutor(threadNum, threadNum, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+    try {
+      for (final String archivePath : archivePaths) {
+        executor.execute(() -> indexArchive(archivePath));
+      }
+      executor.awaitCompletion();
+    } catch (InterruptedException e) {
+      // Something went horribly wrong
+      throw new RuntimeException("Could not wait for indexing threads to finish: " + e.getMessage(), e);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private void indexArchive(String archivePath) {
+    try {
+      getArchive(archivePath);
+    } catch (IOException e) {
+      logger.debug("Could not index archive " + archivePath + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Removes all archives but the given ones from this index, so that archives which are no longer on the class path are
+   * not written to the index file again.
+   */
+  public void retainArchives(Collection<String> archivePaths) {
+    if (archives.asMap().keySet().retainAll(new HashSet<String>(archivePaths))) {
+      modified = true;
+    }
+  }
+
+  /** Returns true iff archives have been read since this index was created, loaded or saved. */
+  public boolean isModified() {
+    return modified;
+  }
+
+  /**
+   * Reads the names of all entries of the given archive from its central directory.
+   */
+  static String[] readEntryNames(File file) throws IOException {
+    // Plain file reads rather than a FileChannel, which closes itself if the calling thread has its interrupt flag set
+    try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+      String[] ret = readCentralDirectory(in);
+      if (ret != null) {
+        return ret;
+      }
+    }
+    return readEntryNamesWithZipFile(file);
+  }
+
+  /**
+   * Reads the central directory of the given archive. Returns null if the archive is not in a format that this method
+   * understands.
+   */
+  private static String[] readCentralDirectory(RandomAccessFile in) throws IOException {
+    long size = in.length();
+    if (size < END_SIZE) {
+      return null;
+    }
+
+    // The end of central directory record is followed by a comment of at most 64k
+    long tailStart = Math.max(0, size - END_SIZE - MAX_COMMENT_SIZE);
+    ByteBuffer tail = read(in, tailStart, (int) (size - tailStart));
+    int end = -1;
+    for (int pos = tail.limit() - END_SIZE; pos >= 0; pos--) {
+      if (tail.getInt(pos) == END_SIG && pos + END_SIZE + (tail.getShort(pos + 20) & 0xffff) == tail.limit()) {
+        end = pos;
+        break;
+      }
+    }
+    if (end < 0) {
+      return null;
+    }
+
+    int count = tail.getShort(end + 10) & 0xffff;
+    long cenSize = tail.getInt(end + 12) & 0xffffffffL;
+    long cenOffset = tail.getInt(end + 16) & 0xffffffffL;
+    // Saturated fields denote a ZIP64 archive, and a central directory that does not end where the end record
+    // starts denotes an archive with a prefix such as a launcher script
+    if (count == 0xffff || cenOffset == 0xffffffffL || cenOffset + cenSize != tailStart + end) {
+      return null;
+    }
+
+    if (cenSize > Integer.MAX_VALUE) {
+      return null;
+    }
+    ByteBuffer cen = read(in, cenOffset, (int) cenSize);
+    String[] ret = new String[count];
+    int pos = 0;
+    byte[] name = new byte[256];
+    for (int i = 0; i < count; i++) {
+      if (pos + CEN_SIZE > cen.limit() || cen.getInt(pos) != CEN_SIG) {
+        return null;
+      }
+      int nameLength = cen.getShort(pos + 28) & 0xffff;
+      int extraLength = cen.getShort(pos + 30) & 0xffff;
+      int commentLength = cen.getShort(pos + 32) & 0xffff;
+      if (pos + CEN_SIZE + nameLength > cen.limit()) {
+        return null;
+      }
+      if (nameLength > name.length) {
+        name = new byte[nameLength];
+      }
+      cen.position(pos + CEN_SIZE);
+      cen.get(name, 0, nameLength);
+      // ZipFile decodes all names as UTF-8 by default, so do we
+      ret[i] = new String(name, 0, nameLength, StandardCharsets.UTF_8);
+      pos += CEN_SIZE + nameLength + extraLength + commentLength;
+    }
+    return ret;
+  }
+
+  private static ByteBuffer read(RandomAccessFile in, long offset, int length) throws IOException {
+    byte[] ret = new byte[length];
+    in.seek(offset);
+    in.readFully(ret);
+    return ByteBuffer.wrap(ret).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private static String[] readEntryNamesWithZipFile(File file) throws IOException {
+    try (ZipFile archive = new ZipFile(file)) {
+      List<String> ret = new ArrayList<String>(archive.size());
+      for (Enumeration<? extends ZipEntry> it = archive.entries(); it.hasMoreElements();) {
+        ret.add(it.nextElement().getName());
+      }
+      return ret.toArray(new String[ret.size()]);
+    }
+  }
+
+  /** Writes all indexed archives to the given file. */
+  public void save(File file) throws IOException {
+    // Write to a temporary file first, so that concurrent readers never see a partial index
+    File dir = file.getAbsoluteFile().getParentFile();
+    SourceLocator.ensureDirectoryExists(dir);
+    File tmpFile = File.createTempFile("classpath", ".tmp", dir);
+    try {
+      try (DataOutputStream out
+          = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(tmpFile))))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        // Take a snapshot, the cache may drop archives while we write
+        List<Map.Entry<String, Archive>> entries = new ArrayList<Map.Entry<String, Archive>>(archives.asMap().entrySet());
+        out.writeInt(entries.size());
+        for (Map.Entry<String, Archive> e : entries) {
+          Archive archive = e.getValue();
+          out.writeUTF(e.getKey());
+          out.writeLong(archive.lastModified);
+          out.writeLong(archive.length);
+          out.writeInt(archive.entryNames.length);
+          for (String entryName : archive.entryNames) {
+            out.writeUTF(entryName);
+          }
+        }
+      }
+      if (!tmpFile.renameTo(file)) {
+        // Windows does not replace existing files on rename
+        if (!file.delete() || !tmpFile.renameTo(file)) {
+          throw new IOException("Could not replace " + file);
+        }
+      }
+      modified = false;
+    } finally {
+      tmpFile.delete();
+    }
+  }
+
+  /**
+   * Reads archives from the given file, adding them to the ones indexed already. The archives are checked against the
+   * file system when they are first looked up.
+   */
+  public void load(File file) throws IOException {
+    try (DataInputStream in
+        = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException(file + " is not a class path index file");
+      }
+      int version = in.readInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported class path index version " + version + " in " + file);
+      }
+      for (int archiveCount = in.readInt(); archiveCount > 0; archiveCount--) {
+        String archivePath = in.readUTF();
+        long lastModified = in.readLong();
+        long length = in.readLong();
+        String[] entryNames = new String[in.readInt()];
+        for (int i = 0; i < entryNames.length; i++) {
+          entryNames[i] = in.readUTF();
+        }
+        archives.asMap().putIfAbsent(archivePath, new Archive(lastModified, length, entryNames, false));
+      }
+    }
+  }
+}
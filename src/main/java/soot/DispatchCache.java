@@ -0,0 +1,136 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe cache for the results of virtual dispatch queries, keyed by a receiver type and a method or method
+ * subsignature. The caches belong to a {@link FastHierarchy}, so they are dropped together with it whenever the Scene
+ * modifies the class hierarchy.
+ *
+ * Null results are not cached. Once the cache holds its capacity of entries, it is cleared before the next entry is added;
+ * the same small set of queries is usually asked again right away, so this keeps the hot entries around at a much lower
+ * cost than an exact LRU policy.
+ *
+ * @param <T>
+ *          the receiver type
+ * @param <M>
+ *          the method or method subsignature
+ * @param <V>
+ *          the result of the dispatch
+ */
+public class DispatchCache<T, M, V> {
+  public static final int DEFAULT_CAPACITY = 1 << 16;
+
+  private final ConcurrentHashMap<Key, V> map = new ConcurrentHashMap<Key, V>();
+  private final int capacity;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public DispatchCache() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public DispatchCache(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    this.capacity = capacity;
+  }
+
+  /** Returns the cached result for the given receiver type and method, or null if there is none. */
+  public V get(T type, M method) {
+    V ret = map.get(new Key(type, method));
+    if (ret == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return ret;
+  }
+
+  /** Caches the given result for the given receiver type and method. Null results are ignored. */
+  public void put(T type, M method, V result) {
+    if (result == null) {
+      return;
+    }
+    if (map.size() >= capacity) {
+      map.clear();
+    }
+    map.put(new Key(type, method), result);
+  }
+
+  /** Removes all cached results. The hit and miss counters are kept. */
+  public void clear() {
+    map.clear();
+  }
+
+  /** Returns the number of cached results. */
+  public int size() {
+    return map.size();
+  }
+
+  /** Returns the number of lookups that found a cached result. */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /** Returns the number of lookups that did not find a cached result. */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "DispatchCache(size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount() + ")";
+  }
+
+  private static final class Key {
+    private final Object type;
+    private final Object method;
+
+    Key(Object type, Object method) {
+      this.type = type;
+      this.method = method;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * type.hashCode() + method.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return type.equals(other.type) && method.equals(other.method);
+    }
+  }
+}
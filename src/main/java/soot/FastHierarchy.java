@@ -23,6 +23,7 @@ package soot;
  */
 
 import java.util.ArrayDeque;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
@@ -31,10 +32,12 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import soot.jimple.SpecialInvokeExpr;
 import soot.util.ConcurrentHashMultiMap;
 import soot.util.MultiMap;
+import soot.util.NumberedString;
 
 /**
  * Represents the class hierarchy. It is closely linked to a Scene, and must be recreated if the Scene changes.
@@ -81,6 +84,24 @@ public class FastHierarchy {
    */
   protected Map<SootClass, Interval> classToInterval = new HashMap<SootClass, Interval>();
 
+  /**
+   * For each interface that has been queried in {@link #canStoreClass(SootClass, SootClass)}, this map contains the set of
+   * all classes and interfaces that can be stored in it. It is filled lazily.
+   */
+  protected final Map<SootClass, SubtypeSet> interfaceToSubtypes = new ConcurrentHashMap<SootClass, SubtypeSet>();
+
+  /** Caches the results of {@link #resolveConcreteDispatch(SootClass, SootMethod)}. */
+  protected final DispatchCache<SootClass, SootMethod, SootMethod> concreteDispatchCache
+      = new DispatchCache<SootClass, SootMethod, SootMethod>();
+
+  /** Caches the results of {@link #resolveAbstractDispatch(SootClass, SootMethod)}. */
+  protected final DispatchCache<SootClass, SootMethod, Set<SootMethod>> abstractDispatchCache
+      = new DispatchCache<SootClass, SootMethod, Set<SootMethod>>();
+
+  /** Caches virtual dispatch by receiver type and method subsignature for clients such as the call graph builders. */
+  protected final DispatchCache<RefType, NumberedString, SootMethod> virtualDispatchCache
+      = new DispatchCache<RefType, NumberedString, SootMethod>();
+
   protected Scene sc;
 
   protected final RefType rtObject;
@@ -113,6 +134,24 @@ public class FastHierarchy {
     }
   }
 
+  /**
+   * The set of all subtypes of an interface. Classes are represented by the lower bound of their Interval, which is their
+   * preorder number in the inheritance tree. Since the subclasses of a class are numbered contiguously, every implementer
+   * adds a single range. Interfaces are represented by their number in the Scene's class numberer.
+   */
+  protected class SubtypeSet {
+    final BitSet classes = new BitSet();
+    final BitSet interfaces = new BitSet();
+
+    public boolean contains(SootClass c) {
+      Interval interval = classToInterval.get(c);
+      if (interval != null) {
+        return classes.get(interval.lower);
+      }
+      return c.isInterface() && interfaces.get(c.getNumber());
+    }
+  }
+
   protected int dfsVisit(int start, SootClass c) {
     Interval r = new Interval();
     r.lower = start++;
@@ -352,28 +391,41 @@ public class FastHierarchy {
       if (parentInterval != null) { // parent is not interface
         return parent == rtObject.getSootClass();
       } else {
-        return getAllSubinterfaces(parent).contains(child);
+        return getSubtypesOfInterface(parent).contains(child);
       }
     } else {
-      final Set<SootClass> impl = getAllImplementersOfInterface(parent);
-      if (impl.size() > 1000) {
-        // If we have more than 1000 entries it is quite time consuming to check each and every implementing class
-        // if it is the "child" class. Therefore we use an alternative implementation which just checks the client
-        // class it's super classes and all the interfaces it implements.
+      return getSubtypesOfInterface(parent).contains(child);
+    }
+  }
 
-        return canStoreClassClassic(child, parent);
-      } else {
-        // If we only have a few entries, you can't beat the performance of a plain old loop
-        // in combination with the interval approach.
-        for (SootClass c : impl) {
+  /**
+   * For an interface parent, returns the set of all classes and interfaces that can be stored in it. The set is computed on
+   * the first query and then kept, so that {@link #canStoreClass(SootClass, SootClass)} is a constant time bit lookup for
+   * interface parents.
+   *
+   * This method can be used concurrently (is thread safe).
+   */
+  protected SubtypeSet getSubtypesOfInterface(SootClass parent) {
+    SubtypeSet ret = interfaceToSubtypes.get(parent);
+    if (ret == null) {
+      ret = new SubtypeSet();
+      if (parent.isInterface()) {
+        for (SootClass c : getAllImplementersOfInterface(parent)) {
           Interval interval = classToInterval.get(c);
-          if (interval != null && interval.isSubrange(childInterval)) {
-            return true;
+          if (interval != null) {
+            ret.classes.set(interval.lower, interval.upper + 1);
           }
         }
-        return false;
+        for (SootClass c : getAllSubinterfaces(parent)) {
+          ret.interfaces.set(c.getNumber());
+        }
+      }
+      SubtypeSet old = interfaceToSubtypes.putIfAbsent(parent, ret);
+      if (old != null) {
+        ret = old;
       }
     }
+    return ret;
   }
 
   /**
@@ -576,6 +628,16 @@ public class FastHierarchy {
    * Given an object of declared type C, returns the methods which could be called on an o.f() invocation.
    */
   public Set<SootMethod> resolveAbstractDispatch(SootClass abstractType, SootMethod m) {
+    Set<SootMethod> ret = abstractDispatchCache.get(abstractType, m);
+    if (ret == null) {
+      ret = Collections.unmodifiableSet(resolveAbstractDispatchUncached(abstractType, m));
+      abstractDispatchCache.put(abstractType, m, ret);
+    }
+    // Callers may modify the result
+    return new HashSet<SootMethod>(ret);
+  }
+
+  private Set<SootMethod> resolveAbstractDispatchUncached(SootClass abstractType, SootMethod m) {
     String methodSig = m.getSubSignature();
     HashSet<SootClass> resolved = new HashSet<SootClass>();
     HashSet<SootMethod> ret = new HashSet<SootMethod>();
@@ -638,6 +700,15 @@ public class FastHierarchy {
       throw new RuntimeException("A concrete type cannot be an interface: " + concreteType);
     }
 
+    SootMethod ret = concreteDispatchCache.get(concreteType, m);
+    if (ret == null) {
+      ret = resolveConcreteDispatchUncached(concreteType, m);
+      concreteDispatchCache.put(concreteType, m, ret);
+    }
+    return ret;
+  }
+
+  private SootMethod resolveConcreteDispatchUncached(SootClass concreteType, SootMethod m) {
     String methodSig = m.getSubSignature();
     while (true) {
       SootMethod method = concreteType.getMethodUnsafe(methodSig);
@@ -693,4 +764,32 @@ public class FastHierarchy {
     }
     return ret;
   }
+
+  /** Returns the cache for {@link #resolveConcreteDispatch(SootClass, SootMethod)}, e.g., to read its hit and miss counts. */
+  public DispatchCache<SootClass, SootMethod, SootMethod> getConcreteDispatchCache() {
+    return concreteDispatchCache;
+  }
+
+  /** Returns the cache for {@link #resolveAbstractDispatch(SootClass, SootMethod)}. */
+  public DispatchCache<SootClass, SootMethod, Set<SootMethod>> getAbstractDispatchCache() {
+    return abstractDispatchCache;
+  }
+
+  /**
+   * Returns the cache for virtual dispatch by receiver type and method subsignature. It is used by
+   * {@link soot.jimple.toolkits.callgraph.VirtualCalls}.
+   */
+  public DispatchCache<RefType, NumberedString, SootMethod> getVirtualDispatchCache() {
+    return virtualDispatchCache;
+  }
+
+  /**
+   * Removes all cached dispatch results. Changes to the class hierarchy create a new FastHierarchy, but this must be called
+   * when methods are added to or removed from classes that are already part of this one.
+   */
+  public void clearDispatchCaches() {
+    concreteDispatchCache.clear();
+    abstractDispatchCache.clear();
+    virtualDispatchCache.clear();
+  }
 }
@@ -266,9 +266,13 @@ public class Main {
         return;
       }
 
-      PackManager.v().runPacks();
-      if (!Options.v().oaat()) {
-        PackManager.v().writeOutput();
+      if (Options.v().pipelined_packs()) {
+        PackManager.v().runPacksAndWriteOutputPipelined();
+      } else {
+        PackManager.v().runPacks();
+        if (!Options.v().oaat()) {
+          PackManager.v().writeOutput();
+        }
       }
 
       Timers.v().totalTimer.end();
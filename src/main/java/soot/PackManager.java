@@ -420,6 +420,123 @@ public class PackManager {
     }
   }
 
+  /**
+   * Runs the packs and writes the output, processing each application class as one task after the whole-program packs:
+   * its bodies are retrieved, the body packs are run, the class is written and its bodies are released. Unlike
+   * {@link #runPacks()} followed by {@link #writeOutput()}, this does not keep the bodies of all classes in memory at the
+   * same time.
+   *
+   * <p>
+   * Dava and dex output, XML attributes and interactive mode need all classes at once, and -oaat processes the classes in
+   * its own way. In these cases, this method runs the packs and writes the output just like Soot does without
+   * -pipelined-packs.
+   * </p>
+   */
+  public void runPacksAndWriteOutputPipelined() {
+    if (Options.v().oaat()) {
+      runPacksForOneClassAtATime();
+    } else if (canRunPacksPipelined()) {
+      runPacksPipelined();
+    } else {
+      runPacksNormally();
+      writeOutput();
+    }
+  }
+
+  private boolean canRunPacksPipelined() {
+    final int format = Options.v().output_format();
+    return format != Options.output_format_dava && format != Options.output_format_dex
+        && format != Options.output_format_force_dex && !Options.v().xml_attributes()
+        && !Options.v().interactive_mode() && !soot.jbco.Main.metrics;
+  }
+
+  /** Processes each application class as one task after the whole-program packs. */
+  private void runPacksPipelined() {
+    if (Options.v().src_prec() == Options.src_prec_class && Options.v().keep_line_number()) {
+      LineNumberAdder lineNumAdder = LineNumberAdder.v();
+      lineNumAdder.internalTransform("", null);
+    }
+
+    if (Options.v().whole_program() || Options.v().whole_shimple()) {
+      runWholeProgramPacks();
+    }
+
+    setupJAR();
+    if (Options.v().verbose()) {
+      PhaseDumper.v().dumpBefore("output");
+    }
+
+    // The old coffi front-end is not thread-safe
+    int threadNum = Options.v().coffi() ? 1 : Runtime.getRuntime().availableProcessors();
+    CountingThreadPoolExecutor executor
+        = new CountingThreadPoolExecutor(threadNum, threadNum, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+
+    // Individual class files can be written concurrently, everything else
+    // goes through shared state and must be written one class at a time
+    final boolean concurrentWrites = Options.v().output_format() == Options.output_format_class && jarFile == null;
+
+    Iterator<SootClass> classes = reachableClasses();
+    while (classes.hasNext()) {
+      final SootClass c = classes.next();
+      executor.execute(() -> runPipeline(c, concurrentWrites));
+    }
+
+    // Wait till all classes have been processed
+    try {
+      executor.awaitCompletion();
+      executor.shutdown();
+    } catch (InterruptedException e) {
+      // Something went horribly wrong
+      throw new RuntimeException("Could not wait for pipeline threads to " + "finish: " + e.getMessage(), e);
+    }
+
+    // If something went wrong, we tell the world
+    if (executor.getException() != null) {
+      if (executor.getException() instanceof RuntimeException) {
+        throw (RuntimeException) executor.getException();
+      } else {
+        throw new RuntimeException(executor.getException());
+      }
+    }
+
+    tearDownJAR();
+    if (Options.v().verbose()) {
+      PhaseDumper.v().dumpAfter("output");
+    }
+  }
+
+  private void runPipeline(SootClass c, boolean concurrentWrites) {
+    // note: snapshot, since phantom methods may be added during resolution
+    for (SootMethod m : new ArrayList<SootMethod>(c.getMethods())) {
+      if (m.isConcrete()) {
+        m.retrieveActiveBody();
+      }
+    }
+
+    // Create tags from all values we only have in code assignments now
+    if (Options.v().validate()) {
+      c.validate();
+    }
+    if (!c.isPhantom) {
+      ConstantInitializerToTagTransformer.v().transformClass(c, true);
+    }
+
+    runBodyPacks(c);
+    InnerClassTagAggregator.v().transformClass(c);
+
+    if (concurrentWrites) {
+      writeClass(c);
+    } else {
+      synchronized (this) {
+        writeClass(c);
+      }
+    }
+
+    if (!Options.v().no_writeout_body_releasing()) {
+      releaseBodies(c);
+    }
+  }
+
   private void runPacksForOneClassAtATime() {
     if (Options.v().src_prec() == Options.src_prec_class && Options.v().keep_line_number()) {
       LineNumberAdder lineNumAdder = LineNumberAdder.v();
@@ -29,6 +29,7 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -58,6 +59,8 @@ import soot.jimple.spark.internal.ClientAccessibilityOracle;
 import soot.jimple.spark.internal.PublicAndProtectedAccessibility;
 import soot.jimple.spark.pag.SparkField;
 import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.CompactCallGraph;
+import soot.jimple.toolkits.callgraph.ConcurrentCallGraph;
 import soot.jimple.toolkits.callgraph.ContextSensitiveCallGraph;
 import soot.jimple.toolkits.callgraph.ReachableMethods;
 import soot.jimple.toolkits.pointer.DumbPointerAnalysis;
@@ -109,7 +112,11 @@ public class Scene {
               Kind.FINALIZE,
               Kind.INVOKE_FINALIZE,
               Kind.PRIVILEGED,
-              Kind.NEWINSTANCE
+              Kind.NEWINSTANCE,
+              Kind.HANDLER,
+              Kind.REFL_INVOKE,
+              Kind.REFL_CONSTR_NEWINSTANCE,
+              Kind.REFL_CLASS_NEWINSTANCE
             });
 
     if (Options.v().weak_map_structures()) {
@@ -860,7 +867,7 @@ public class Scene {
   protected synchronized void modifyHierarchy() {
     stateCount++;
     activeHierarchy = null;
-    activeFastHierarchy = null;
+    releaseFastHierarchy();
     activeSideEffectAnalysis = null;
     activePointsToAnalysis = null;
   }
@@ -884,7 +891,7 @@ public class Scene {
    *
    * @param c The class to add
    */
-  protected void addClassSilent(SootClass c) {
+  protected synchronized void addClassSilent(SootClass c) {
     synchronized (c) {
       if (c.isInScene()) {
         throw new RuntimeException("already managed: " + c.getName());
@@ -908,7 +915,7 @@ public class Scene {
     }
   }
 
-  public void removeClass(SootClass c) {
+  public synchronized void removeClass(SootClass c) {
     if (!c.isInScene()) {
       throw new RuntimeException();
     }
@@ -1380,6 +1387,9 @@ public class Scene {
 
   /** Sets the active hierarchy */
   public synchronized void setFastHierarchy(FastHierarchy hierarchy) {
+    if (activeFastHierarchy != null && activeFastHierarchy != hierarchy) {
+      activeFastHierarchy.clearDispatchCaches();
+    }
     activeFastHierarchy = hierarchy;
   }
 
@@ -1388,6 +1398,10 @@ public class Scene {
   }
 
   public synchronized void releaseFastHierarchy() {
+    // Anyone still holding on to the old hierarchy must not resolve calls against stale dispatch results
+    if (activeFastHierarchy != null) {
+      activeFastHierarchy.clearDispatchCaches();
+    }
     activeFastHierarchy = null;
   }
 
@@ -1492,6 +1506,34 @@ public class Scene {
     reachableMethods = null;
   }
 
+  /**
+   * Saves the classes, active bodies, call graph and points-to sets of this Scene to the given file.
+   *
+   * @see SceneSnapshot
+   */
+  public void saveSnapshot(Path file) throws IOException {
+    SceneSnapshot.save(this, file, true);
+  }
+
+  /**
+   * Saves this Scene to the given file. Without bodies, only the classes and their signatures are saved.
+   *
+   * @see SceneSnapshot
+   */
+  public void saveSnapshot(Path file, boolean withBodies) throws IOException {
+    SceneSnapshot.save(this, file, withBodies);
+  }
+
+  /**
+   * Restores a snapshot saved by {@link #saveSnapshot(Path)} into this Scene, which must not contain any classes yet.
+   * This takes the place of {@link #loadNecessaryClasses()}.
+   *
+   * @see SceneSnapshot
+   */
+  public void loadSnapshot(Path file) throws IOException {
+    SceneSnapshot.load(this, file);
+  }
+
   public boolean getPhantomRefs() {
     // if( !Options.v().allow_phantom_refs() ) return false;
     // return allowsPhantomRefs;
@@ -2148,6 +2190,13 @@ public class Scene {
    * @return A new callgraph empty object
    */
   public CallGraph internalMakeCallGraph() {
+    CGOptions options = new CGOptions(PhaseOptions.v().getPhaseOptions("cg"));
+    if (options.compact_edges()) {
+      return new CompactCallGraph();
+    }
+    if (options.concurrent_edges()) {
+      return new ConcurrentCallGraph();
+    }
     return new CallGraph();
   }
 }
@@ -0,0 +1,86 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Describes how the classes of the {@link Scene} changed since a whole-program result, such as a call graph, was
+ * computed, so that the result can be updated instead of being recomputed from scratch. The changes themselves must
+ * already have been made to the Scene; a delta only names the classes that were touched.
+ *
+ * A removed class is still described by its {@link SootClass} object, even though it is no longer in the Scene. A
+ * modified class is one whose superclass, interfaces, methods or method bodies were changed in place.
+ */
+public class SceneDelta {
+  private final Set<SootClass> addedClasses = new LinkedHashSet<SootClass>();
+  private final Set<SootClass> removedClasses = new LinkedHashSet<SootClass>();
+  private final Set<SootClass> modifiedClasses = new LinkedHashSet<SootClass>();
+
+  /** Records that the given class was added to the Scene. */
+  public void classAdded(SootClass c) {
+    addedClasses.add(c);
+  }
+
+  /** Records that the given class was removed from the Scene. */
+  public void classRemoved(SootClass c) {
+    removedClasses.add(c);
+  }
+
+  /** Records that the given class was modified in place. */
+  public void classModified(SootClass c) {
+    modifiedClasses.add(c);
+  }
+
+  public Set<SootClass> getAddedClasses() {
+    return Collections.unmodifiableSet(addedClasses);
+  }
+
+  public Set<SootClass> getRemovedClasses() {
+    return Collections.unmodifiableSet(removedClasses);
+  }
+
+  public Set<SootClass> getModifiedClasses() {
+    return Collections.unmodifiableSet(modifiedClasses);
+  }
+
+  /** Returns all classes that were added, removed or modified. */
+  public Set<SootClass> getChangedClasses() {
+    Set<SootClass> ret = new LinkedHashSet<SootClass>(addedClasses);
+    ret.addAll(removedClasses);
+    ret.addAll(modifiedClasses);
+    return ret;
+  }
+
+  /** Returns true iff no class was changed. */
+  public boolean isEmpty() {
+    return addedClasses.isEmpty() && removedClasses.isEmpty() && modifiedClasses.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "SceneDelta(added=" + addedClasses + ", removed=" + removedClasses + ", modified=" + modifiedClasses + ")";
+  }
+}
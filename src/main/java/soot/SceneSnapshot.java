@@ -0,0 +1,800 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.jimple.parser.JimpleAST;
+import soot.jimple.spark.pag.AllocDotField;
+import soot.jimple.spark.pag.AllocNode;
+import soot.jimple.spark.pag.ArrayElement;
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.pag.PAG;
+import soot.jimple.spark.pag.SparkField;
+import soot.jimple.spark.sets.P2SetVisitor;
+import soot.jimple.spark.sets.PointsToSetInternal;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+import soot.jimple.toolkits.pointer.SnapshotPointsToAnalysis;
+
+/**
+ * Saves a fully built {@link Scene} to a binary file and restores it in a later run, so that several analyses of the
+ * same program do not each have to load the classes and build the call graph and points-to analysis again. A snapshot
+ * holds
+ * <ul>
+ * <li>the classes of the Scene with their hierarchy, fields and method signatures,</li>
+ * <li>optionally the active bodies of the methods, as Jimple,</li>
+ * <li>the entry points and the call graph, if the bodies are included and a call graph exists,</li>
+ * <li>the points-to sets of locals, static fields and heap objects, if the bodies are included and the points-to
+ * analysis is Spark. They are restored as a {@link SnapshotPointsToAnalysis}.</li>
+ * </ul>
+ *
+ * <p>
+ * The file is read through a memory mapping. Classes and signatures are restored right away, as are the bodies that the
+ * call graph or the points-to sets refer to. All other bodies stay in the mapping and are only parsed when they are
+ * first retrieved. Only bodies that are active when the snapshot is saved are included. The bodies of other concrete
+ * methods are created from their class files when they are first retrieved, so those must still be on the Soot class
+ * path. Call graph edges lose their contexts. A snapshot can only be loaded by the Soot version that saved it.
+ * </p>
+ */
+public class SceneSnapshot {
+  private static final Logger logger = LoggerFactory.getLogger(SceneSnapshot.class);
+
+  private static final int MAGIC = 0x536e4150;
+  private static final int VERSION = 2;
+
+  private static final int FLAG_BODIES = 1;
+  private static final int FLAG_CALL_GRAPH = 2;
+  private static final int FLAG_POINTS_TO = 4;
+
+  private static final int KIND_APPLICATION = 0;
+  private static final int KIND_LIBRARY = 1;
+  private static final int KIND_PHANTOM = 2;
+
+  private SceneSnapshot() {
+  }
+
+  /**
+   * Writes the given Scene to the given file, replacing it if it exists.
+   *
+   * @param withBodies
+   *          whether to include the active bodies, and with them the call graph and points-to sets
+   */
+  public static void save(Scene scene, Path file, boolean withBodies) throws IOException {
+    new Writer(scene, withBodies).write(file);
+  }
+
+  /**
+   * Restores a snapshot into the given Scene, which must not contain any classes yet. The Scene is marked as done
+   * resolving, just as after {@link Scene#loadNecessaryClasses()}.
+   */
+  public static void load(Scene scene, Path file) throws IOException {
+    if (!scene.getClasses().isEmpty()) {
+      throw new IllegalStateException("A snapshot can only be loaded into an empty Scene");
+    }
+    ByteBuffer buf;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // The mapping stays valid after the channel is closed
+      buf = channel.map(MapMode.READ_ONLY, 0, channel.size());
+    }
+    new Reader(scene, buf, file).read();
+  }
+
+  private static final class Writer {
+    private final Scene scene;
+    private final boolean withBodies;
+    private final Map<String, Integer> strings = new LinkedHashMap<String, Integer>();
+    private final Map<SootMethod, Integer> methodNumbers = new HashMap<SootMethod, Integer>();
+    private final Map<SootField, Integer> fieldNumbers = new HashMap<SootField, Integer>();
+    private final Map<SootMethod, Map<Unit, Integer>> unitNumbers = new HashMap<SootMethod, Map<Unit, Integer>>();
+    private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(data);
+
+    Writer(Scene scene, boolean withBodies) {
+      this.scene = scene;
+      this.withBodies = withBodies;
+    }
+
+    void write(Path file) throws IOException {
+      int flags = 0;
+      List<SootMethod> bodies = writeClasses();
+      if (withBodies) {
+        flags |= FLAG_BODIES;
+        writeBodies(bodies);
+        if (scene.hasCallGraph()) {
+          flags |= FLAG_CALL_GRAPH;
+          writeCallGraph(scene.getCallGraph());
+        }
+        if (scene.hasPointsToAnalysis() && scene.getPointsToAnalysis() instanceof PAG) {
+          flags |= FLAG_POINTS_TO;
+          writePointsTo((PAG) scene.getPointsToAnalysis(), bodies);
+        }
+      }
+      out.flush();
+
+      // Write to a temporary file first, so that concurrent readers never see a partial snapshot
+      Path tmpFile = Files.createTempFile(file.toAbsolutePath().getParent(), "snapshot", ".tmp");
+      try {
+        try (DataOutputStream header = new DataOutputStream(Files.newOutputStream(tmpFile))) {
+          header.writeInt(MAGIC);
+          header.writeInt(VERSION);
+          writeBytes(header, Main.versionString.getBytes(StandardCharsets.UTF_8));
+          header.writeInt(flags);
+          header.writeInt(strings.size());
+          for (String s : strings.keySet()) {
+            writeBytes(header, s.getBytes(StandardCharsets.UTF_8));
+          }
+          data.writeTo(header);
+        }
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+      } finally {
+        Files.deleteIfExists(tmpFile);
+      }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+
+    private void writeString(String s) throws IOException {
+      if (s == null) {
+        out.writeInt(-1);
+        return;
+      }
+      Integer idx = strings.get(s);
+      if (idx == null) {
+        idx = strings.size();
+        strings.put(s, idx);
+      }
+      out.writeInt(idx);
+    }
+
+    private void writeNumber(Map<?, Integer> numbers, Object o) throws IOException {
+      Integer n = numbers.get(o);
+      out.writeInt(n == null ? -1 : n);
+    }
+
+    private String nameOf(SootClass c) {
+      return c != null && c.isInScene() ? c.getName() : null;
+    }
+
+    /** Writes all classes of the Scene and returns the methods whose bodies should be saved. */
+    private List<SootMethod> writeClasses() throws IOException {
+      List<SootMethod> bodies = new ArrayList<SootMethod>();
+      out.writeInt(scene.getClasses().size());
+      for (SootClass c : scene.getClasses()) {
+        writeString(c.getName());
+        out.writeInt(c.getModifiers());
+        out.writeInt(c.isApplicationClass() ? KIND_APPLICATION : c.isPhantomClass() ? KIND_PHANTOM : KIND_LIBRARY);
+        // While the Scene is still resolving, classes may be built up by hand without raising their level
+        int level = scene.doneResolving() ? c.resolvingLevel() : Math.max(c.resolvingLevel(), SootClass.SIGNATURES);
+        level = Math.min(level, SootClass.BODIES);
+        out.writeInt(level);
+        boolean hierarchy = level >= SootClass.HIERARCHY;
+        writeString(hierarchy ? nameOf(c.getSuperclassUnsafe()) : null);
+        writeString(hierarchy ? nameOf(c.getOuterClassUnsafe()) : null);
+        out.writeInt(hierarchy ? c.getInterfaceCount() : 0);
+        if (hierarchy) {
+          for (SootClass i : c.getInterfaces()) {
+            writeString(i.getName());
+          }
+        }
+
+        if (level < SootClass.SIGNATURES) {
+          out.writeInt(0);
+          out.writeInt(0);
+          continue;
+        }
+        out.writeInt(c.getFieldCount());
+        for (SootField f : c.getFields()) {
+          fieldNumbers.put(f, fieldNumbers.size());
+          writeString(f.getName());
+          writeString(f.getType().toString());
+          out.writeInt(f.getModifiers());
+        }
+
+        out.writeInt(c.getMethodCount());
+        for (SootMethod m : c.getMethods()) {
+          methodNumbers.put(m, methodNumbers.size());
+          writeString(m.getName());
+          out.writeInt(m.getModifiers());
+          out.writeBoolean(m.isPhantom());
+          writeString(m.getReturnType().toString());
+          out.writeInt(m.getParameterCount());
+          for (Type t : m.getParameterTypes()) {
+            writeString(t.toString());
+          }
+          List<SootClass> exceptions = m.getExceptionsUnsafe();
+          out.writeInt(exceptions == null ? 0 : exceptions.size());
+          if (exceptions != null) {
+            for (SootClass e : exceptions) {
+              writeString(e.getName());
+            }
+          }
+          if (withBodies && m.hasActiveBody()) {
+            bodies.add(m);
+          }
+        }
+      }
+
+      writeString(scene.hasMainClass() ? scene.getMainClass().getName() : null);
+      if (scene.hasCustomEntryPoints() || scene.hasCallGraph()) {
+        List<SootMethod> entryPoints = scene.getEntryPoints();
+        out.writeInt(entryPoints.size());
+        for (SootMethod m : entryPoints) {
+          writeNumber(methodNumbers, m);
+        }
+      } else {
+        out.writeInt(-1);
+      }
+      return bodies;
+    }
+
+    private void writeBodies(List<SootMethod> bodies) throws IOException {
+      out.writeInt(bodies.size());
+      ByteArrayOutputStream text = new ByteArrayOutputStream();
+      for (SootMethod m : bodies) {
+        text.reset();
+        PrintWriter pw = new PrintWriter(new OutputStreamWriter(text, StandardCharsets.UTF_8));
+        pw.println("class " + scene.quotedNameOf(m.getDeclaringClass().getName()));
+        pw.println("{");
+        Printer.v().printTo(m.getActiveBody(), pw);
+        pw.println("}");
+        pw.flush();
+
+        writeNumber(methodNumbers, m);
+        out.writeInt(m.getActiveBody().getUnits().size());
+        writeBytes(out, text.toByteArray());
+      }
+    }
+
+    private int unitNumber(SootMethod m, Unit u) {
+      if (u == null || !m.hasActiveBody()) {
+        return -1;
+      }
+      Map<Unit, Integer> numbers = unitNumbers.get(m);
+      if (numbers == null) {
+        numbers = new IdentityHashMap<Unit, Integer>();
+        for (Unit v : m.getActiveBody().getUnits()) {
+          numbers.put(v, numbers.size());
+        }
+        unitNumbers.put(m, numbers);
+      }
+      Integer ret = numbers.get(u);
+      return ret == null ? -1 : ret;
+    }
+
+    private void writeCallGraph(CallGraph cg) throws IOException {
+      List<Edge> edges = new ArrayList<Edge>(cg.size());
+      for (Edge e : cg) {
+        if (methodNumbers.containsKey(e.src()) && methodNumbers.containsKey(e.tgt())) {
+          edges.add(e);
+        }
+      }
+      out.writeInt(edges.size());
+      for (Edge e : edges) {
+        writeNumber(methodNumbers, e.src());
+        out.writeInt(unitNumber(e.src(), e.srcUnit()));
+        writeNumber(methodNumbers, e.tgt());
+        out.writeInt(e.kind().getNumber());
+      }
+    }
+
+    private void writePointsTo(PAG pag, List<SootMethod> bodies) throws IOException {
+      final Map<AllocNode, Integer> allocs = new LinkedHashMap<AllocNode, Integer>();
+      final Deque<AllocNode> worklist = new ArrayDeque<AllocNode>();
+
+      // Collect all sets first, since the allocation sites are numbered as they are found
+      Map<SootMethod, Map<String, int[]>> locals = new LinkedHashMap<SootMethod, Map<String, int[]>>();
+      for (SootMethod m : bodies) {
+        Map<String, int[]> sets = new LinkedHashMap<String, int[]>();
+        for (Local l : m.getActiveBody().getLocals()) {
+          if (l.getType() instanceof RefLikeType) {
+            int[] set = allocsOf(pag.reachingObjects(l), allocs, worklist);
+            if (set.length > 0) {
+              sets.put(l.getName(), set);
+            }
+          }
+        }
+        if (!sets.isEmpty()) {
+          locals.put(m, sets);
+        }
+      }
+      Map<SootField, int[]> staticFields = new LinkedHashMap<SootField, int[]>();
+      for (SootField f : fieldNumbers.keySet()) {
+        if (f.isStatic() && f.getType() instanceof RefLikeType) {
+          int[] set = allocsOf(pag.reachingObjects(f), allocs, worklist);
+          if (set.length > 0) {
+            staticFields.put(f, set);
+          }
+        }
+      }
+      Map<AllocNode, Map<SparkField, int[]>> heap = new LinkedHashMap<AllocNode, Map<SparkField, int[]>>();
+      while (!worklist.isEmpty()) {
+        AllocNode an = worklist.removeFirst();
+        Map<SparkField, int[]> fields = new LinkedHashMap<SparkField, int[]>();
+        for (AllocDotField adf : an.getFields()) {
+          SparkField f = adf.getField();
+          if (f instanceof ArrayElement || fieldNumbers.containsKey(f)) {
+            int[] set = allocsOf(adf.getP2Set(), allocs, worklist);
+            if (set.length > 0) {
+              fields.put(f, set);
+            }
+          }
+        }
+        if (!fields.isEmpty()) {
+          heap.put(an, fields);
+        }
+      }
+
+      out.writeInt(allocs.size());
+      for (AllocNode an : allocs.keySet()) {
+        writeString(an.getType().toString());
+      }
+      out.writeInt(locals.size());
+      for (Map.Entry<SootMethod, Map<String, int[]>> e : locals.entrySet()) {
+        writeNumber(methodNumbers, e.getKey());
+        out.writeInt(e.getValue().size());
+        for (Map.Entry<String, int[]> l : e.getValue().entrySet()) {
+          writeString(l.getKey());
+          writeInts(l.getValue());
+        }
+      }
+      out.writeInt(staticFields.size());
+      for (Map.Entry<SootField, int[]> e : staticFields.entrySet()) {
+        writeNumber(fieldNumbers, e.getKey());
+        writeInts(e.getValue());
+      }
+      out.writeInt(heap.size());
+      for (Map.Entry<AllocNode, Map<SparkField, int[]>> e : heap.entrySet()) {
+        out.writeInt(allocs.get(e.getKey()));
+        out.writeInt(e.getValue().size());
+        for (Map.Entry<SparkField, int[]> f : e.getValue().entrySet()) {
+          writeNumber(fieldNumbers, f.getKey());
+          writeInts(f.getValue());
+        }
+      }
+    }
+
+    private static int[] allocsOf(PointsToSet pts, final Map<AllocNode, Integer> allocs,
+        final Deque<AllocNode> worklist) {
+      if (!(pts instanceof PointsToSetInternal)) {
+        return new int[0];
+      }
+      final List<Integer> ret = new ArrayList<Integer>();
+      ((PointsToSetInternal) pts).forall(new P2SetVisitor() {
+        @Override
+        public void visit(Node n) {
+          if (n instanceof AllocNode) {
+            Integer number = allocs.get(n);
+            if (number == null) {
+              number = allocs.size();
+              allocs.put((AllocNode) n, number);
+              worklist.add((AllocNode) n);
+            }
+            ret.add(number);
+          }
+        }
+      });
+      int[] array = new int[ret.size()];
+      for (int i = 0; i < array.length; i++) {
+        array[i] = ret.get(i);
+      }
+      Arrays.sort(array);
+      return array;
+    }
+
+    private void writeInts(int[] ints) throws IOException {
+      out.writeInt(ints.length);
+      for (int i : ints) {
+        out.writeInt(i);
+      }
+    }
+  }
+
+  private static final class Reader {
+    private final Scene scene;
+    private final ByteBuffer buf;
+    private final Path file;
+    private String[] strings;
+    private final List<SootMethod> methods = new ArrayList<SootMethod>();
+    private final List<SootField> fields = new ArrayList<SootField>();
+
+    Reader(Scene scene, ByteBuffer buf, Path file) {
+      this.scene = scene;
+      this.buf = buf;
+      this.file = file;
+    }
+
+    void read() throws IOException {
+      if (buf.getInt() != MAGIC) {
+        throw new IOException(file + " is not a Scene snapshot");
+      }
+      int version = buf.getInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported Scene snapshot version " + version + " in " + file);
+      }
+      String sootVersion = new String(readBytes(), StandardCharsets.UTF_8);
+      if (!sootVersion.equals(Main.versionString)) {
+        throw new IOException(file + " was saved by a different Soot version: " + sootVersion);
+      }
+      int flags = buf.getInt();
+      strings = new String[buf.getInt()];
+      for (int i = 0; i < strings.length; i++) {
+        strings[i] = new String(readBytes(), StandardCharsets.UTF_8);
+      }
+
+      readClasses();
+      Map<SootMethod, ByteBuffer> bodies = Collections.emptyMap();
+      if ((flags & FLAG_BODIES) != 0) {
+        bodies = readBodies();
+      }
+      ClassFileSources classFiles = new ClassFileSources();
+      for (SootMethod m : methods) {
+        if (m.isConcrete() && !m.isPhantom() && !bodies.containsKey(m)
+            && m.getDeclaringClass().resolvingLevel() >= SootClass.BODIES) {
+          m.setSource(new ClassFileMethodSource(classFiles));
+        }
+      }
+      if ((flags & FLAG_CALL_GRAPH) != 0) {
+        readCallGraph(bodies);
+      }
+      if ((flags & FLAG_POINTS_TO) != 0) {
+        readPointsTo(bodies);
+      }
+      scene.setDoneResolving();
+      logger.debug("Restored " + scene.getClasses().size() + " classes and " + methods.size() + " methods from "
+          + file);
+    }
+
+    private byte[] readBytes() {
+      byte[] bytes = new byte[buf.getInt()];
+      buf.get(bytes);
+      return bytes;
+    }
+
+    private String readString() {
+      int idx = buf.getInt();
+      return idx < 0 ? null : strings[idx];
+    }
+
+    private int[] readInts() {
+      int[] ints = new int[buf.getInt()];
+      for (int i = 0; i < ints.length; i++) {
+        ints[i] = buf.getInt();
+      }
+      return ints;
+    }
+
+    private SootMethod readMethod() {
+      int n = buf.getInt();
+      return n < 0 ? null : methods.get(n);
+    }
+
+    private Type readType() {
+      String name = readString();
+      int dims = 0;
+      while (name.endsWith("[]")) {
+        name = name.substring(0, name.length() - 2);
+        dims++;
+      }
+      Type t = scene.getTypeUnsafe(name, false);
+      if (t == null) {
+        t = RefType.v(name);
+      }
+      return dims == 0 ? t : ArrayType.v(t, dims);
+    }
+
+    private void readClasses() {
+      // Create all classes first, so that the hierarchy and the signatures can refer to any of them
+      int classCount = buf.getInt();
+      int start = buf.position();
+      List<SootClass> classes = new ArrayList<SootClass>(classCount);
+      for (int i = 0; i < classCount; i++) {
+        SootClass c = new SootClass(readString(), buf.getInt());
+        int kind = buf.getInt();
+        scene.addClassSilent(c);
+        if (kind == KIND_APPLICATION) {
+          c.setApplicationClass();
+        } else if (kind == KIND_PHANTOM) {
+          c.setPhantomClass();
+        } else {
+          c.setLibraryClass();
+        }
+        classes.add(c);
+        skipClass();
+      }
+
+      buf.position(start);
+      for (SootClass c : classes) {
+        readString();
+        buf.getInt();
+        buf.getInt();
+        c.setResolvingLevel(buf.getInt());
+        String superclass = readString();
+        if (superclass != null) {
+          c.setSuperclass(scene.getSootClass(superclass));
+        }
+        String outerClass = readString();
+        if (outerClass != null) {
+          c.setOuterClass(scene.getSootClass(outerClass));
+        }
+        for (int i = buf.getInt(); i > 0; i--) {
+          c.addInterface(scene.getSootClass(readString()));
+        }
+        for (int i = buf.getInt(); i > 0; i--) {
+          SootField f = new SootField(readString(), readType(), buf.getInt());
+          c.addField(f);
+          fields.add(f);
+        }
+        for (int i = buf.getInt(); i > 0; i--) {
+          String name = readString();
+          int modifiers = buf.getInt();
+          boolean phantom = buf.get() != 0;
+          Type returnType = readType();
+          List<Type> parameterTypes = new ArrayList<Type>();
+          for (int j = buf.getInt(); j > 0; j--) {
+            parameterTypes.add(readType());
+          }
+          List<SootClass> exceptions = new ArrayList<SootClass>();
+          for (int j = buf.getInt(); j > 0; j--) {
+            exceptions.add(scene.getSootClass(readString()));
+          }
+          SootMethod m = new SootMethod(name, parameterTypes, returnType, modifiers, exceptions);
+          m.setPhantom(phantom);
+          c.addMethod(m);
+          methods.add(m);
+        }
+      }
+      scene.modifyHierarchy();
+
+      String mainClass = readString();
+      if (mainClass != null) {
+        scene.setMainClass(scene.getSootClass(mainClass));
+      }
+      int entryPointCount = buf.getInt();
+      if (entryPointCount >= 0) {
+        List<SootMethod> entryPoints = new ArrayList<SootMethod>(entryPointCount);
+        for (int i = 0; i < entryPointCount; i++) {
+          SootMethod m = readMethod();
+          if (m != null) {
+            entryPoints.add(m);
+          }
+        }
+        scene.setEntryPoints(entryPoints);
+      }
+    }
+
+    /** Skips the remainder of a class after its name, modifiers and kind. */
+    private void skipClass() {
+      buf.position(buf.position() + 3 * 4);
+      skipInts(buf.getInt());
+      for (int i = buf.getInt(); i > 0; i--) {
+        skipInts(3);
+      }
+      for (int i = buf.getInt(); i > 0; i--) {
+        skipInts(2);
+        buf.get();
+        skipInts(1);
+        skipInts(buf.getInt());
+        skipInts(buf.getInt());
+      }
+    }
+
+    private void skipInts(int count) {
+      buf.position(buf.position() + 4 * count);
+    }
+
+    private Map<SootMethod, ByteBuffer> readBodies() {
+      int count = buf.getInt();
+      Map<SootMethod, ByteBuffer> bodies = new HashMap<SootMethod, ByteBuffer>(count * 2);
+      for (int i = 0; i < count; i++) {
+        SootMethod m = readMethod();
+        int unitCount = buf.getInt();
+        int length = buf.getInt();
+        ByteBuffer text = buf.slice();
+        text.limit(length);
+        buf.position(buf.position() + length);
+        m.setSource(new SnapshotMethodSource(text, unitCount));
+        bodies.put(m, text);
+      }
+      return bodies;
+    }
+
+    /** Returns the units of the given method's body, in the order of its unit chain. */
+    private static List<Unit> unitsOf(SootMethod m, Map<SootMethod, List<Unit>> cache) {
+      List<Unit> ret = cache.get(m);
+      if (ret == null) {
+        ret = m.isConcrete() ? new ArrayList<Unit>(m.retrieveActiveBody().getUnits()) : new ArrayList<Unit>();
+        cache.put(m, ret);
+      }
+      return ret;
+    }
+
+    private void readCallGraph(Map<SootMethod, ByteBuffer> bodies) {
+      Map<SootMethod, List<Unit>> units = new HashMap<SootMethod, List<Unit>>();
+      CallGraph cg = new CallGraph();
+      for (int i = buf.getInt(); i > 0; i--) {
+        SootMethod src = readMethod();
+        int unit = buf.getInt();
+        SootMethod tgt = readMethod();
+        Kind kind = scene.kindNumberer().get(buf.getInt());
+        Unit srcUnit = null;
+        if (unit >= 0 && bodies.containsKey(src)) {
+          srcUnit = unitsOf(src, units).get(unit);
+        }
+        cg.addEdge(new Edge(src, srcUnit, tgt, kind));
+      }
+      scene.setCallGraph(cg);
+    }
+
+    private void readPointsTo(Map<SootMethod, ByteBuffer> bodies) {
+      Type[] allocTypes = new Type[buf.getInt()];
+      for (int i = 0; i < allocTypes.length; i++) {
+        allocTypes[i] = readType();
+      }
+      SnapshotPointsToAnalysis pta = new SnapshotPointsToAnalysis(allocTypes);
+      for (int i = buf.getInt(); i > 0; i--) {
+        SootMethod m = readMethod();
+        Map<String, Local> locals = new HashMap<String, Local>();
+        if (bodies.containsKey(m)) {
+          for (Local l : m.retrieveActiveBody().getLocals()) {
+            locals.put(l.getName(), l);
+          }
+        }
+        for (int j = buf.getInt(); j > 0; j--) {
+          Local l = locals.get(readString());
+          int[] allocs = readInts();
+          if (l != null) {
+            pta.put(l, allocs);
+          }
+        }
+      }
+      for (int i = buf.getInt(); i > 0; i--) {
+        pta.put(fields.get(buf.getInt()), readInts());
+      }
+      for (int i = buf.getInt(); i > 0; i--) {
+        int alloc = buf.getInt();
+        for (int j = buf.getInt(); j > 0; j--) {
+          int field = buf.getInt();
+          pta.put(alloc, field < 0 ? null : fields.get(field), readInts());
+        }
+      }
+      scene.setPointsToAnalysis(pta);
+    }
+  }
+
+  /**
+   * Parses a body from the Jimple text that a snapshot holds for its method. The call graph refers to units by their
+   * position, so the parsed body must have as many units as the saved one.
+   */
+  private static final class SnapshotMethodSource implements MethodSource {
+    private final ByteBuffer text;
+    private final int unitCount;
+
+    SnapshotMethodSource(ByteBuffer text, int unitCount) {
+      this.text = text;
+      this.unitCount = unitCount;
+    }
+
+    @Override
+    public Body getBody(SootMethod m, String phaseName) {
+      byte[] bytes = new byte[text.remaining()];
+      text.duplicate().get(bytes);
+      Body b;
+      try {
+        b = new JimpleAST(new ByteArrayInputStream(bytes)).getBody(m);
+      } catch (Exception e) {
+        throw new RuntimeException("Could not parse the body of " + m.getSignature() + " from the snapshot", e);
+      }
+      if (b.getUnits().size() != unitCount) {
+        throw new RuntimeException("The body of " + m.getSignature() + " in the snapshot has " + b.getUnits().size()
+            + " units instead of " + unitCount);
+      }
+      return b;
+    }
+  }
+
+  /** Creates the body of a method that the snapshot holds no body for from the method's class file. */
+  private static final class ClassFileMethodSource implements MethodSource {
+    private final ClassFileSources classFiles;
+
+    ClassFileMethodSource(ClassFileSources classFiles) {
+      this.classFiles = classFiles;
+    }
+
+    @Override
+    public Body getBody(SootMethod m, String phaseName) {
+      SootMethod original = classFiles.classOf(m).getMethodUnsafe(m.getSubSignature());
+      if (original == null || original.getSource() == null) {
+        throw new RuntimeException("The class file of " + m.getDeclaringClass().getName() + " has no body for "
+            + m.getSignature() + ", and the snapshot does not hold one either");
+      }
+      return original.getSource().getBody(m, phaseName);
+    }
+  }
+
+  /** Reads class files from the Soot class path into classes outside the Scene, to get at their method sources. */
+  private static final class ClassFileSources {
+    private final Map<String, SootClass> classes = new HashMap<String, SootClass>();
+
+    synchronized SootClass classOf(SootMethod m) {
+      String name = m.getDeclaringClass().getName();
+      SootClass ret = classes.get(name);
+      if (ret == null) {
+        ClassSource source = SourceLocator.v().getClassSource(name);
+        if (source == null) {
+          throw new RuntimeException("The snapshot holds no body for " + m.getSignature()
+              + ", and there is no class file for " + name + " on the Soot class path");
+        }
+        try {
+          ret = new DetachedClass(name);
+          source.resolve(ret);
+        } finally {
+          source.close();
+        }
+        classes.put(name, ret);
+      }
+      return ret;
+    }
+  }
+
+  /** A class that does not take over the {@link RefType} of its name from the class of that name in the Scene. */
+  private static final class DetachedClass extends SootClass {
+    DetachedClass(String name) {
+      super(name);
+    }
+
+    @Override
+    protected void initializeRefType(String name, String moduleName) {
+      setRefType(RefType.v(name));
+    }
+  }
+}
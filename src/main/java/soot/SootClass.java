@@ -28,6 +28,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -142,6 +143,9 @@ public class SootClass extends AbstractHost implements Numberable {
   public final static int BODIES = 3;
   private volatile int resolvingLevel = DANGLING;
 
+  private static final AtomicIntegerFieldUpdater<SootClass> RESOLVING_LEVEL_UPDATER
+      = AtomicIntegerFieldUpdater.newUpdater(SootClass.class, "resolvingLevel");
+
   protected String levelToString(int level) {
     switch (level) {
       case DANGLING:
@@ -207,6 +211,27 @@ public class SootClass extends AbstractHost implements Numberable {
     resolvingLevel = newLevel;
   }
 
+  /**
+   * Atomically raises the resolving level of this class to the given level. Unlike {@link #setResolvingLevel(int)}, this
+   * method never lowers the level, and it can be used by concurrent resolvers to decide which thread is responsible for
+   * bringing the class to the new level.
+   *
+   * @param newLevel
+   *          the resolution level, one of DANGLING, HIERARCHY, SIGNATURES, and BODIES
+   * @return true if this call raised the level, false if the class already was at the given level or higher
+   */
+  public boolean raiseResolvingLevel(int newLevel) {
+    while (true) {
+      int currentLevel = resolvingLevel;
+      if (currentLevel >= newLevel) {
+        return false;
+      }
+      if (RESOLVING_LEVEL_UPDATER.compareAndSet(this, currentLevel, newLevel)) {
+        return true;
+      }
+    }
+  }
+
   public boolean isInScene() {
     return isInScene;
   }
@@ -23,13 +23,18 @@ package soot;
  * #L%
  */
 
+import heros.solver.CountingThreadPoolExecutor;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,6 +62,12 @@ public class SootResolver {
   @SuppressWarnings("unchecked")
   private final Deque<SootClass>[] worklist = new Deque[4];
 
+  /** SootClasses that have not yet been loaded, waiting to be brought to HIERARCHY concurrently. */
+  private final List<SootClass> pendingHierarchy = new ArrayList<SootClass>();
+
+  /** Guards the creation of new class references, which may happen on multiple threads in parallel resolver mode. */
+  private final Object classRefLock = new Object();
+
   private Program program = null;
 
   public SootResolver(Singletons.Global g) {
@@ -117,16 +128,23 @@ public class SootResolver {
       return Scene.v().getSootClass(className);
     }
 
-    SootClass newClass;
-    if (className.endsWith(SootModuleInfo.MODULE_INFO)) {
-      newClass = new SootModuleInfo(className, null);
-    } else {
-      newClass = new SootClass(className);
-    }
-    newClass.setResolvingLevel(SootClass.DANGLING);
-    Scene.v().addClass(newClass);
+    synchronized (classRefLock) {
+      // Another thread may have created the reference in the meantime
+      if (Scene.v().containsClass(className)) {
+        return Scene.v().getSootClass(className);
+      }
+
+      SootClass newClass;
+      if (className.endsWith(SootModuleInfo.MODULE_INFO)) {
+        newClass = new SootModuleInfo(className, null);
+      } else {
+        newClass = new SootClass(className);
+      }
+      newClass.setResolvingLevel(SootClass.DANGLING);
+      Scene.v().addClass(newClass);
 
-    return newClass;
+      return newClass;
+    }
   }
 
   /**
@@ -150,39 +168,121 @@ public class SootResolver {
     }
   }
 
+  /**
+   * Returns true if classes may be loaded concurrently. This is only the case if the user asked for it and the class
+   * sources in use are known to be thread-safe.
+   */
+  protected boolean resolveConcurrently() {
+    if (!Options.v().parallel_resolver() || Options.v().coffi() || ModuleUtil.module_mode()) {
+      return false;
+    }
+    int srcPrec = Options.v().src_prec();
+    return srcPrec == Options.src_prec_class || srcPrec == Options.src_prec_only_class;
+  }
+
   /** Resolve all classes on toResolveWorklist. */
   protected void processResolveWorklist() {
-    for (int i = SootClass.BODIES; i >= SootClass.HIERARCHY; i--) {
-      while (!worklist[i].isEmpty()) {
-        SootClass sc = worklist[i].pop();
-        if (resolveEverything()) { // Whole program mode
-          boolean onlySignatures = sc.isPhantom() || (Options.v().no_bodies_for_excluded() && Scene.v().isExcluded(sc)
-              && !Scene.v().getBasicClasses().contains(sc.getName()));
-          if (onlySignatures) {
-            bringToSignatures(sc);
-            sc.setPhantomClass();
-            for (SootMethod m : sc.getMethods()) {
-              m.setPhantom(true);
-            }
-            for (SootField f : sc.getFields()) {
-              f.setPhantom(true);
+    CountingThreadPoolExecutor executor = null;
+    try {
+      for (int i = SootClass.BODIES; i >= SootClass.HIERARCHY; i--) {
+        while (true) {
+          if (!pendingHierarchy.isEmpty()) {
+            if (executor == null) {
+              int threadNum = Runtime.getRuntime().availableProcessors();
+              executor = new CountingThreadPoolExecutor(threadNum, threadNum, 30, TimeUnit.SECONDS,
+                  new LinkedBlockingQueue<Runnable>());
             }
-          } else {
-            bringToBodies(sc);
+            loadPendingClasses(executor);
           }
-        } else { // No transitive
-          switch (i) {
-            case SootClass.BODIES:
-              bringToBodies(sc);
-              break;
-            case SootClass.SIGNATURES:
-              bringToSignatures(sc);
-              break;
-            case SootClass.HIERARCHY:
-              bringToHierarchy(sc);
-              break;
+          if (worklist[i].isEmpty()) {
+            break;
           }
+          processResolveWorklistItem(worklist[i].pop(), i);
+        }
+      }
+    } finally {
+      pendingHierarchy.clear();
+      if (executor != null) {
+        executor.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Loads all classes that are waiting for the HIERARCHY level in one concurrent wave. The supertypes and outer classes of
+   * the loaded classes are then put on the worklist, which may in turn lead to the next wave.
+   */
+  private void loadPendingClasses(CountingThreadPoolExecutor executor) {
+    final List<SootClass> wave = new ArrayList<SootClass>(pendingHierarchy.size());
+    for (SootClass sc : pendingHierarchy) {
+      // The same class may have been requested several times
+      if (sc.raiseResolvingLevel(SootClass.HIERARCHY)) {
+        if (Options.v().debug_resolver()) {
+          logger.debug("bringing to HIERARCHY: " + sc);
         }
+        wave.add(sc);
+      }
+    }
+    pendingHierarchy.clear();
+
+    if (wave.size() == 1) {
+      loadClassSource(wave.get(0));
+    } else {
+      for (final SootClass sc : wave) {
+        executor.execute(() -> loadClassSource(sc));
+      }
+
+      // Wait till all classes of this wave have been loaded
+      try {
+        executor.awaitCompletion();
+      } catch (InterruptedException e) {
+        // Something went horribly wrong
+        throw new RuntimeException("Could not wait for resolver threads to " + "finish: " + e.getMessage(), e);
+      }
+
+      // If something went wrong, we tell the world
+      if (executor.getException() != null) {
+        if (executor.getException() instanceof RuntimeException) {
+          throw (RuntimeException) executor.getException();
+        } else {
+          throw new RuntimeException(executor.getException());
+        }
+      }
+    }
+
+    // The worklist is not thread-safe, so we only touch it after the wave
+    for (SootClass sc : wave) {
+      reResolveHierarchy(sc, SootClass.HIERARCHY);
+    }
+  }
+
+  private void processResolveWorklistItem(SootClass sc, int level) {
+    if (resolveEverything()) { // Whole program mode
+      boolean onlySignatures = sc.isPhantom() || (Options.v().no_bodies_for_excluded() && Scene.v().isExcluded(sc)
+          && !Scene.v().getBasicClasses().contains(sc.getName()));
+      if (onlySignatures) {
+        bringToSignatures(sc);
+        sc.setPhantomClass();
+        for (SootMethod m : sc.getMethods()) {
+          m.setPhantom(true);
+        }
+        for (SootField f : sc.getFields()) {
+          f.setPhantom(true);
+        }
+      } else {
+        bringToBodies(sc);
+      }
+    } else { // No transitive
+      switch (level) {
+        case SootClass.BODIES:
+          bringToBodies(sc);
+          break;
+        case SootClass.SIGNATURES:
+          bringToSignatures(sc);
+          break;
+        case SootClass.HIERARCHY:
+          bringToHierarchy(sc);
+          break;
       }
     }
   }
@@ -203,6 +303,9 @@ public class SootResolver {
       return;
     }
     worklist[desiredLevel].add(sc);
+    if (sc.resolvingLevel() < SootClass.HIERARCHY && resolveConcurrently()) {
+      pendingHierarchy.add(sc);
+    }
   }
 
   /**
@@ -222,6 +325,15 @@ public class SootResolver {
   }
 
   protected void bringToHierarchyUnchecked(SootClass sc) {
+    loadClassSource(sc);
+    reResolveHierarchy(sc, SootClass.HIERARCHY);
+  }
+
+  /**
+   * Reads the given class from its class source and records its dependencies. This method does not touch the worklist, and
+   * can thus run concurrently for different classes.
+   */
+  protected void loadClassSource(SootClass sc) {
     String className = sc.getName();
     ClassSource is;
     if (ModuleUtil.module_mode()) {
@@ -263,7 +375,6 @@ public class SootResolver {
         is.close();
       }
     }
-    reResolveHierarchy(sc, SootClass.HIERARCHY);
   }
 
   public void reResolveHierarchy(SootClass sc, int level) {
@@ -31,7 +31,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -39,8 +38,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.regex.Pattern;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 import org.jf.dexlib2.iface.DexFile;
 import org.slf4j.Logger;
@@ -91,27 +88,8 @@ public class SourceLocator {
               return ClassSourceType.directory;
             }
           });
-  private LoadingCache<String, Set<String>> archivePathsToEntriesCache
-      = CacheBuilder.newBuilder().initialCapacity(60).maximumSize(500).softValues()
-          .concurrencyLevel(Runtime.getRuntime().availableProcessors()).build(new CacheLoader<String, Set<String>>() {
-            @Override
-            public Set<String> load(String archivePath) throws Exception {
-              ZipFile archive = null;
-              try {
-                archive = new ZipFile(archivePath);
-                Set<String> ret = new HashSet<String>();
-                Enumeration<? extends ZipEntry> it = archive.entries();
-                while (it.hasMoreElements()) {
-                  ret.add(it.nextElement().getName());
-                }
-                return ret;
-              } finally {
-                if (archive != null) {
-                  archive.close();
-                }
-              }
-            }
-          });
+  /** The entry names of the archives on the class path and in the process directories. */
+  private final ClasspathIndex classpathIndex = new ClasspathIndex();
   /**
    * Set containing all dex files that were appended to the classpath later on. The classes from these files are not yet
    * loaded and are still missing from dexClassIndex.
@@ -177,6 +155,7 @@ public class SourceLocator {
   public ClassSource getClassSource(String className) {
     if (classPath == null) {
       classPath = explodeClassPath(Scene.v().getSootClassPath());
+      indexArchives();
     }
     if (classProviders == null) {
       setupClassProviders();
@@ -234,6 +213,49 @@ public class SourceLocator {
     return null;
   }
 
+  /**
+   * Reads the entry names of all archives on the class path and in the process directories concurrently. If a class
+   * path index cache is configured, the index is read from it first and written back if archives had to be read or
+   * archives that are no longer on the class path were dropped from it.
+   */
+  protected void indexArchives() {
+    List<String> archives = new ArrayList<String>();
+    for (String path : classPath) {
+      if (isArchive(path)) {
+        archives.add(path);
+      }
+    }
+    for (String path : Options.v().process_dir()) {
+      if (isArchive(path)) {
+        archives.add(path);
+      }
+    }
+
+    String cache = Options.v().classpath_index_cache();
+    File cacheFile = cache.isEmpty() ? null : new File(cache);
+    if (cacheFile != null && cacheFile.isFile()) {
+      try {
+        classpathIndex.load(cacheFile);
+      } catch (IOException e) {
+        // A broken cache must never break the analysis, we simply index the archives again
+        logger.warn("Could not read class path index " + cacheFile + ": " + e.getMessage());
+      }
+    }
+    classpathIndex.retainArchives(archives);
+    classpathIndex.indexArchives(archives);
+    if (cacheFile != null && classpathIndex.isModified()) {
+      try {
+        classpathIndex.save(cacheFile);
+      } catch (IOException e) {
+        logger.warn("Could not write class path index " + cacheFile + ": " + e.getMessage());
+      }
+    }
+  }
+
+  private static boolean isArchive(String path) {
+    return (path.endsWith(".jar") || path.endsWith(".zip")) && new File(path).isFile();
+  }
+
   public void additionalClassLoader(ClassLoader c) {
     additionalClassLoaders.add(c);
   }
@@ -344,12 +366,8 @@ public class SourceLocator {
     }
     // load Java class files from ZIP and JAR
     else if (cst == ClassSourceType.jar || cst == ClassSourceType.zip) {
-      ZipFile archive = null;
       try {
-        archive = new ZipFile(aPath);
-        for (Enumeration<? extends ZipEntry> entries = archive.entries(); entries.hasMoreElements();) {
-          ZipEntry entry = entries.nextElement();
-          String entryName = entry.getName();
+        for (String entryName : classpathIndex.getEntryNames(aPath)) {
           if (entryName.endsWith(".class") || entryName.endsWith(".jimple")) {
             int extensionIndex = entryName.lastIndexOf('.');
             entryName = entryName.substring(0, extensionIndex);
@@ -359,14 +377,6 @@ public class SourceLocator {
         }
       } catch (Throwable e) {
         throw new CompilationDeathException("Error reading archive '" + aPath + "'", e);
-      } finally {
-        try {
-          if (archive != null) {
-            archive.close();
-          }
-        } catch (Throwable t) {
-          logger.debug("" + t.getMessage());
-        }
       }
 
       // we might have dex files inside the archive
@@ -634,14 +644,14 @@ public class SourceLocator {
   }
 
   protected FoundFile lookupInArchive(String archivePath, String fileName) {
-    Set<String> entryNames = null;
+    boolean found;
     try {
-      entryNames = archivePathsToEntriesCache.get(archivePath);
+      found = classpathIndex.containsEntry(archivePath, fileName);
     } catch (Exception e) {
       throw new RuntimeException(
           "Error: Failed to retrieve the archive entries list for the archive at path '" + archivePath + "'.", e);
     }
-    if (entryNames.contains(fileName)) {
+    if (found) {
       return new FoundFile(archivePath, fileName);
     }
     return null;
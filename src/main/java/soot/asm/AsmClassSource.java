@@ -22,14 +22,20 @@ package soot.asm;
  * #L%
  */
 
+import com.google.common.io.ByteStreams;
+
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import org.objectweb.asm.ClassReader;
 import soot.ClassSource;
 import soot.FoundFile;
+import soot.MethodSource;
 import soot.SootClass;
+import soot.SootMethod;
 import soot.SootResolver;
 import soot.javaToJimple.IInitialResolver.Dependencies;
+import soot.options.Options;
 
 /**
  * ASM class source implementation.
@@ -59,9 +65,38 @@ public class AsmClassSource extends ClassSource {
     InputStream d = null;
     try {
       d = foundFile.inputStream();
-      ClassReader clsr = new ClassReader(d);
-      SootClassBuilder scb = new SootClassBuilder(sc);
-      clsr.accept(scb, ClassReader.SKIP_FRAMES);
+      ClassReader clsr;
+      File classCacheDir = null;
+      // Method code can only be read again later if we know where the class file came from
+      boolean lazyBodies = Options.v().lazy_asm_bodies() && foundFile.getFile() != null;
+      ClassBytes lazyClassBytes = null;
+      if (CachingMethodSource.isEnabled() || lazyBodies) {
+        byte[] classBytes = ByteStreams.toByteArray(d);
+        if (CachingMethodSource.isEnabled()) {
+          classCacheDir = CachingMethodSource.getClassCacheDir(classBytes);
+        }
+        if (lazyBodies) {
+          lazyClassBytes = new ClassBytes(foundFile, classBytes);
+        }
+        clsr = new ClassReader(classBytes);
+      } else {
+        clsr = new ClassReader(d);
+      }
+      SootClassBuilder scb = new SootClassBuilder(sc, lazyClassBytes);
+      if (lazyBodies) {
+        clsr.accept(scb, ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+        scb.addConstantPoolDeps(clsr);
+      } else {
+        clsr.accept(scb, ClassReader.SKIP_FRAMES);
+      }
+      if (classCacheDir != null) {
+        for (SootMethod m : sc.getMethods()) {
+          MethodSource ms = m.getSource();
+          if (ms != null) {
+            m.setSource(new CachingMethodSource(ms, classCacheDir));
+          }
+        }
+      }
       Dependencies deps = new Dependencies();
       deps.typesToSignature.addAll(scb.deps);
       // add the outer class information, could not be called in the builder, since sc needs to be
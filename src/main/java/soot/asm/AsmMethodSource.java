@@ -154,10 +154,8 @@ import static org.objectweb.asm.tree.AbstractInsnNode.TYPE_INSN;
 import static org.objectweb.asm.tree.AbstractInsnNode.VAR_INSN;
 
 import com.google.common.base.Optional;
-import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.Multimap;
-import com.google.common.collect.Table;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -317,15 +315,19 @@ final class AsmMethodSource implements MethodSource {
   private final CastAndReturnInliner castAndReturnInliner = new CastAndReturnInliner();
   /* -state fields- */
   private int nextLocal;
-  private Map<Integer, Local> locals;
+  /* locals by their index, stack locals start at maxLocals */
+  private Local[] locals;
+  /* all locals, in the order in which they were created */
+  private List<Local> localOrder;
   private Multimap<LabelNode, UnitBox> labels;
-  private Map<AbstractInsnNode, Unit> units;
+  /* units, frames and outgoing edges by the index of their instruction */
+  private Unit[] units;
   private ArrayList<Operand> stack;
-  private Map<AbstractInsnNode, StackFrame> frames;
+  private StackFrame[] frames;
   private Multimap<LabelNode, UnitBox> trapHandlers;
   private JimpleBody body;
   private int lastLineNumber = -1;
-  private Table<AbstractInsnNode, AbstractInsnNode, Edge> edges;
+  private Edge[] edges;
   private ArrayDeque<Edge> conversionWorklist;
 
   AsmMethodSource(
@@ -342,10 +344,11 @@ final class AsmMethodSource implements MethodSource {
   }
 
   private StackFrame getFrame(AbstractInsnNode insn) {
-    StackFrame frame = frames.get(insn);
+    int idx = instructions.indexOf(insn);
+    StackFrame frame = frames[idx];
     if (frame == null) {
       frame = new StackFrame(this);
-      frames.put(insn, frame);
+      frames[idx] = frame;
     }
     return frame;
   }
@@ -381,8 +384,7 @@ final class AsmMethodSource implements MethodSource {
     if (idx >= maxLocals) {
       throw new IllegalArgumentException("Invalid local index: " + idx);
     }
-    Integer i = idx;
-    Local l = locals.get(i);
+    Local l = locals[idx];
     if (l == null) {
       String name;
       if (localVars != null) {
@@ -401,7 +403,8 @@ final class AsmMethodSource implements MethodSource {
         name = "l" + idx;
       }
       l = Jimple.v().newLocal(name, UnknownType.v());
-      locals.put(i, l);
+      locals[idx] = l;
+      localOrder.add(l);
     }
     return l;
   }
@@ -529,30 +532,38 @@ final class AsmMethodSource implements MethodSource {
       }
     }
 
-    Unit o = units.put(insn, u);
+    int idx = instructions.indexOf(insn);
+    Unit o = units[idx];
     if (o != null) {
       throw new AssertionError(insn.getOpcode() + " already has a unit, " + o);
     }
+    units[idx] = u;
   }
 
   void mergeUnits(AbstractInsnNode insn, Unit u) {
-    Unit prev = units.put(insn, u);
-    if (prev != null) {
-      Unit merged = new UnitContainer(prev, u);
-      units.put(insn, merged);
-    }
+    int idx = instructions.indexOf(insn);
+    Unit prev = units[idx];
+    units[idx] = prev == null ? u : new UnitContainer(prev, u);
   }
 
   Local newStackLocal() {
-    Integer idx = nextLocal++;
+    int idx = nextLocal++;
     Local l = Jimple.v().newLocal("$stack" + idx, UnknownType.v());
-    locals.put(idx, l);
+    if (idx >= locals.length) {
+      locals = Arrays.copyOf(locals, Math.max(idx + 1, 2 * locals.length));
+    }
+    locals[idx] = l;
+    localOrder.add(l);
     return l;
   }
 
   @SuppressWarnings("unchecked")
   <A extends Unit> A getUnit(AbstractInsnNode insn) {
-    return (A) units.get(insn);
+    return (A) units[instructions.indexOf(insn)];
+  }
+
+  private boolean hasUnit(AbstractInsnNode insn) {
+    return units[instructions.indexOf(insn)] != null;
   }
 
   private void assignReadOps(Local l) {
@@ -694,7 +705,7 @@ final class AsmMethodSource implements MethodSource {
   private void convertIincInsn(IincInsnNode insn) {
     Local local = getLocal(insn.var);
     assignReadOps(local);
-    if (!units.containsKey(insn)) {
+    if (!hasUnit(insn)) {
       AddExpr add = Jimple.v().newAddExpr(local, IntConstant.v(insn.incr));
       setUnit(insn, Jimple.v().newAssignStmt(local, add));
     }
@@ -774,7 +785,7 @@ final class AsmMethodSource implements MethodSource {
     int op = insn.getOpcode();
     boolean dword = op == LASTORE || op == DASTORE;
     StackFrame frame = getFrame(insn);
-    if (!units.containsKey(insn)) {
+    if (!hasUnit(insn)) {
       Operand valu = dword ? popImmediateDual() : popImmediate();
       Operand indx = popImmediate();
       Operand base = popLocal();
@@ -1025,7 +1036,7 @@ final class AsmMethodSource implements MethodSource {
     int op = insn.getOpcode();
     boolean dword = op == LRETURN || op == DRETURN;
     StackFrame frame = getFrame(insn);
-    if (!units.containsKey(insn)) {
+    if (!hasUnit(insn)) {
       Operand val = dword ? popImmediateDual() : popImmediate();
       ReturnStmt ret = Jimple.v().newReturnStmt(val.stackOrValue());
       val.addBox(ret.getOpBox());
@@ -1043,8 +1054,8 @@ final class AsmMethodSource implements MethodSource {
       /*
        * We can ignore NOP instructions, but for completeness, we handle them
        */
-      if (!units.containsKey(insn)) {
-        units.put(insn, Jimple.v().newNopStmt());
+      if (!hasUnit(insn)) {
+        units[instructions.indexOf(insn)] = Jimple.v().newNopStmt();
       }
     } else if (op >= ACONST_NULL && op <= DCONST_1) {
       convertConstInsn(insn);
@@ -1079,13 +1090,13 @@ final class AsmMethodSource implements MethodSource {
     } else if (op >= IRETURN && op <= ARETURN) {
       convertReturnInsn(insn);
     } else if (op == RETURN) {
-      if (!units.containsKey(insn)) {
+      if (!hasUnit(insn)) {
         setUnit(insn, Jimple.v().newReturnVoidStmt());
       }
     } else if (op == ATHROW) {
       StackFrame frame = getFrame(insn);
       Operand opr;
-      if (!units.containsKey(insn)) {
+      if (!hasUnit(insn)) {
         opr = popImmediate();
         ThrowStmt ts = Jimple.v().newThrowStmt(opr.stackOrValue());
         opr.addBox(ts.getOpBox());
@@ -1100,7 +1111,7 @@ final class AsmMethodSource implements MethodSource {
       push(opr);
     } else if (op == MONITORENTER || op == MONITOREXIT) {
       StackFrame frame = getFrame(insn);
-      if (!units.containsKey(insn)) {
+      if (!hasUnit(insn)) {
         Operand opr = popStackConst();
         MonitorStmt ts =
             op == MONITORENTER
@@ -1178,7 +1189,7 @@ final class AsmMethodSource implements MethodSource {
   private void convertJumpInsn(JumpInsnNode insn) {
     int op = insn.getOpcode();
     if (op == GOTO) {
-      if (!units.containsKey(insn)) {
+      if (!hasUnit(insn)) {
         UnitBox box = Jimple.v().newStmtBox(null);
         labels.put(insn.label, box);
         setUnit(insn, Jimple.v().newGotoStmt(box));
@@ -1187,7 +1198,7 @@ final class AsmMethodSource implements MethodSource {
     }
     /* must be ifX insn */
     StackFrame frame = getFrame(insn);
-    if (!units.containsKey(insn)) {
+    if (!hasUnit(insn)) {
       Operand val = popImmediate();
       Value v = val.stackOrValue();
       ConditionExpr cond;
@@ -1312,7 +1323,7 @@ final class AsmMethodSource implements MethodSource {
 
   private void convertLookupSwitchInsn(LookupSwitchInsnNode insn) {
     StackFrame frame = getFrame(insn);
-    if (units.containsKey(insn)) {
+    if (hasUnit(insn)) {
       frame.mergeIn(pop());
       return;
     }
@@ -1440,7 +1451,7 @@ final class AsmMethodSource implements MethodSource {
       pushDual(opr);
     } else if (!(returnType instanceof VoidType)) {
       push(opr);
-    } else if (!units.containsKey(insn)) {
+    } else if (!hasUnit(insn)) {
       setUnit(insn, Jimple.v().newInvokeStmt(opr.value));
     }
     /*
@@ -1557,7 +1568,7 @@ final class AsmMethodSource implements MethodSource {
       pushDual(opr);
     } else if (!(returnType instanceof VoidType)) {
       push(opr);
-    } else if (!units.containsKey(insn)) {
+    } else if (!hasUnit(insn)) {
       setUnit(insn, Jimple.v().newInvokeStmt(opr.value));
     }
     /*
@@ -1643,7 +1654,7 @@ final class AsmMethodSource implements MethodSource {
 
   private void convertTableSwitchInsn(TableSwitchInsnNode insn) {
     StackFrame frame = getFrame(insn);
-    if (units.containsKey(insn)) {
+    if (hasUnit(insn)) {
       frame.mergeIn(pop());
       return;
     }
@@ -1736,7 +1747,7 @@ final class AsmMethodSource implements MethodSource {
     StackFrame frame = getFrame(insn);
     Operand opr = dword ? popDual() : pop();
     Local local = getLocal(insn.var);
-    if (!units.containsKey(insn)) {
+    if (!hasUnit(insn)) {
       DefinitionStmt as = Jimple.v().newAssignStmt(local, opr.stackOrValue());
       opr.addBox(as.getRightOpBox());
       frame.boxes(as.getRightOpBox());
@@ -1756,7 +1767,7 @@ final class AsmMethodSource implements MethodSource {
       convertVarStoreInsn(insn);
     } else if (op == RET) {
       /* we handle it, even thought it should be removed */
-      if (!units.containsKey(insn)) {
+      if (!hasUnit(insn)) {
         setUnit(insn, Jimple.v().newRetStmt(getLocal(insn.var)));
       }
     } else {
@@ -1775,7 +1786,7 @@ final class AsmMethodSource implements MethodSource {
     // somewhere from the real exception handler in case this is inline
     // code
     if (inlineExceptionLabels.contains(ln)) {
-      if (!units.containsKey(ln)) {
+      if (!hasUnit(ln)) {
         NopStmt nop = Jimple.v().newNopStmt();
         setUnit(ln, nop);
       }
@@ -1808,15 +1819,20 @@ final class AsmMethodSource implements MethodSource {
     Operand[] stackss = (new ArrayList<Operand>(stack)).toArray(new Operand[stack.size()]);
     AbstractInsnNode tgt = tgt1;
     int i = 0;
+    int curIdx = instructions.indexOf(cur);
     tgt_loop:
     do {
-      Edge edge = edges.get(cur, tgt);
+      Edge edge = edges[curIdx];
+      while (edge != null && edge.insn != tgt) {
+        edge = edge.nextFromSource;
+      }
       if (edge == null) {
         // make sure to store last line number to stay sound if the branch that comes later in
         // bytecode is processed first
         edge = new Edge(tgt, lastLineNumber);
         edge.prevStacks.add(stackss);
-        edges.put(cur, tgt, edge);
+        edge.nextFromSource = edges[curIdx];
+        edges[curIdx] = edge;
         conversionWorklist.add(edge);
         continue;
       }
@@ -1854,7 +1870,7 @@ final class AsmMethodSource implements MethodSource {
     }
     worklist.add(new Edge(instructions.getFirst(), new ArrayList<Operand>()));
     conversionWorklist = worklist;
-    edges = HashBasedTable.create(1, 1);
+    edges = new Edge[instructions.size()];
 
     do {
       Edge edge = worklist.pollLast();
@@ -2003,7 +2019,7 @@ final class AsmMethodSource implements MethodSource {
         iloc++;
       }
     }
-    for (Local l : locals.values()) {
+    for (Local l : localOrder) {
       jbl.add(l);
     }
   }
@@ -2052,7 +2068,7 @@ final class AsmMethodSource implements MethodSource {
       }
 
       // Get the unit associated with the current instruction
-      Unit u = units.get(insn);
+      Unit u = units[instructions.indexOf(insn)];
       if (u == null) {
         insn = insn.getNext();
         continue;
@@ -2104,7 +2120,7 @@ final class AsmMethodSource implements MethodSource {
       }
 
       // We need to jump to the original implementation
-      Unit targetUnit = units.get(ln);
+      Unit targetUnit = getUnit(ln);
       GotoStmt gotoImpl = Jimple.v().newGotoStmt(targetUnit);
       body.getUnits().add(gotoImpl);
     }
@@ -2146,10 +2162,11 @@ final class AsmMethodSource implements MethodSource {
     /* initialize */
     int nrInsn = instructions.size();
     nextLocal = maxLocals;
-    locals = new LinkedHashMap<Integer, Local>(maxLocals + (maxLocals / 2));
+    locals = new Local[maxLocals + (maxLocals / 2) + 1];
+    localOrder = new ArrayList<Local>(locals.length);
     labels = LinkedListMultimap.create(4);
-    units = new LinkedHashMap<AbstractInsnNode, Unit>(nrInsn);
-    frames = new LinkedHashMap<AbstractInsnNode, StackFrame>(nrInsn);
+    units = new Unit[nrInsn];
+    frames = new StackFrame[nrInsn];
     trapHandlers = LinkedListMultimap.create(tryCatchBlocks.size());
     body = jb;
     /* retrieve all trap handlers */
@@ -2170,6 +2187,7 @@ final class AsmMethodSource implements MethodSource {
 
     /* clean up */
     locals = null;
+    localOrder = null;
     labels = null;
     units = null;
     stack = null;
@@ -2199,6 +2217,8 @@ final class AsmMethodSource implements MethodSource {
     final AbstractInsnNode insn;
     /* previous stacks at edge */
     final LinkedList<Operand[]> prevStacks;
+    /* next edge that leaves the same instruction */
+    Edge nextFromSource;
     private int lastLineNumber = -1;
     /* current stack at edge */
     ArrayList<Operand> stack;
@@ -0,0 +1,222 @@
+package soot.asm;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.Body;
+import soot.Main;
+import soot.MethodSource;
+import soot.PackManager;
+import soot.PhaseOptions;
+import soot.Printer;
+import soot.Scene;
+import soot.SootMethod;
+import soot.Transform;
+import soot.jimple.parser.JimpleAST;
+import soot.options.Options;
+
+/**
+ * A method source that serves Jimple bodies, on which the <code>jb</code> pack has already run, from an on-disk cache.
+ * On a cache miss, the body is created by the wrapped method source and then written to the cache. Each cached body is a
+ * small Jimple file that only contains the method, stored in a directory per class file. The directory name is a digest
+ * of the class bytes, the Soot version, the global options that influence body creation and the options of the
+ * <code>jb</code> pack, so a changed class file or configuration never hits stale entries.
+ *
+ * <p>
+ * Cached bodies are equivalent to freshly created ones, but they carry no tags and the order of their locals chain may
+ * differ. The cache is therefore disabled whenever tags are requested.
+ * </p>
+ */
+public class CachingMethodSource implements MethodSource {
+  private static final Logger logger = LoggerFactory.getLogger(CachingMethodSource.class);
+
+  private final MethodSource delegate;
+  private final File classCacheDir;
+
+  public CachingMethodSource(MethodSource delegate, File classCacheDir) {
+    this.delegate = delegate;
+    this.classCacheDir = classCacheDir;
+  }
+
+  /** Returns true if the user has configured a body cache that may be used with the current options. */
+  public static boolean isEnabled() {
+    String dir = Options.v().body_cache_dir();
+    return dir != null && !dir.isEmpty() && !tagsRequested();
+  }
+
+  /** Cached bodies carry no tags, so any option that asks for tags in the bodies rules out the cache. */
+  private static boolean tagsRequested() {
+    Options opts = Options.v();
+    return opts.keep_line_number() || opts.keep_offset() || opts.write_local_annotations() || opts.print_tags_in_output();
+  }
+
+  /**
+   * Returns the cache directory for the class file with the given contents.
+   *
+   * @param classBytes
+   *          the contents of the class file
+   */
+  public static File getClassCacheDir(byte[] classBytes) {
+    MessageDigest md = newDigest();
+    md.update(classBytes);
+    md.update(Main.versionString.getBytes(StandardCharsets.UTF_8));
+    md.update(getGlobalConfiguration().getBytes(StandardCharsets.UTF_8));
+    md.update(getBodyPackConfiguration().getBytes(StandardCharsets.UTF_8));
+    return new File(Options.v().body_cache_dir(), toHex(md.digest()));
+  }
+
+  /** Returns a string that captures the global options and the environment that influence how bodies are created. */
+  private static String getGlobalConfiguration() {
+    Options opts = Options.v();
+    return "keep-line-number=" + opts.keep_line_number() + ";keep-offset=" + opts.keep_offset() + ";src-prec="
+        + opts.src_prec() + ";allow-phantom-refs=" + opts.allow_phantom_refs() + ";java-version=" + opts.java_version()
+        + ";java.version=" + System.getProperty("java.version") + ';';
+  }
+
+  /** Returns a string that captures all options of the <code>jb</code> pack and its sub-phases. */
+  private static String getBodyPackConfiguration() {
+    StringBuilder sb = new StringBuilder();
+    appendOptions(sb, "jb", PhaseOptions.v().getPhaseOptions("jb"));
+    for (Iterator<Transform> tIt = PackManager.v().getPack("jb").iterator(); tIt.hasNext();) {
+      Transform t = tIt.next();
+      appendOptions(sb, t.getPhaseName(), PhaseOptions.v().getPhaseOptions(t));
+    }
+    return sb.toString();
+  }
+
+  private static void appendOptions(StringBuilder sb, String phaseName, Map<String, String> options) {
+    sb.append(phaseName).append(new TreeMap<String, String>(options)).append(';');
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    StringBuilder sb = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+      sb.append(Character.forDigit(b & 0xF, 16));
+    }
+    return sb.toString();
+  }
+
+  private File getCacheFile(SootMethod m) {
+    byte[] digest = newDigest().digest(m.getSubSignature().getBytes(StandardCharsets.UTF_8));
+    return new File(classCacheDir, toHex(digest) + ".jimple");
+  }
+
+  @Override
+  public Body getBody(SootMethod m, String phaseName) {
+    File cacheFile = getCacheFile(m);
+    if (cacheFile.isFile()) {
+      Body b = readBody(m, cacheFile);
+      if (b != null) {
+        return b;
+      }
+    }
+
+    Body b = delegate.getBody(m, phaseName);
+    if (b != null) {
+      writeBody(b, cacheFile);
+    }
+    return b;
+  }
+
+  private Body readBody(SootMethod m, File cacheFile) {
+    InputStream is = null;
+    try {
+      is = new BufferedInputStream(new FileInputStream(cacheFile));
+      Body b = new JimpleAST(is).getBody(m);
+      if (b != null && Options.v().verbose()) {
+        logger.debug("[" + m.getName() + "] Retrieving JimpleBody from cache...");
+      }
+      return b;
+    } catch (Exception e) {
+      // A broken cache entry must never break the analysis, we simply
+      // create the body from scratch
+      logger.warn("Could not read cached body of " + m.getSignature() + ": " + e.getMessage());
+      return null;
+    } finally {
+      if (is != null) {
+        try {
+          is.close();
+        } catch (IOException e) {
+          // ignore
+        }
+      }
+    }
+  }
+
+  private void writeBody(Body b, File cacheFile) {
+    File dir = cacheFile.getParentFile();
+    if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+      logger.warn("Could not create body cache directory " + dir);
+      return;
+    }
+
+    // Write to a temporary file first, so that concurrent readers never see a partial entry
+    File tmpFile = null;
+    try {
+      tmpFile = File.createTempFile("body", ".tmp", dir);
+      PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(tmpFile), StandardCharsets.UTF_8));
+      try {
+        out.println("class " + Scene.v().quotedNameOf(b.getMethod().getDeclaringClass().getName()));
+        out.println("{");
+        Printer.v().printTo(b, out);
+        out.println("}");
+      } finally {
+        out.close();
+      }
+      if (!tmpFile.renameTo(cacheFile)) {
+        tmpFile.delete();
+      }
+    } catch (IOException e) {
+      logger.warn("Could not write cached body of " + b.getMethod().getSignature() + ": " + e.getMessage());
+      if (tmpFile != null) {
+        tmpFile.delete();
+      }
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package soot.asm;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.io.ByteStreams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+
+import soot.FoundFile;
+
+/**
+ * The contents of a class file whose method code is read on demand. The contents are only kept softly, so that the
+ * bodies of several methods of a class can be created without reading the file each time, while classes whose bodies
+ * are never created do not keep their code in memory.
+ */
+final class ClassBytes {
+  private final FoundFile file;
+  private SoftReference<byte[]> bytes;
+
+  /**
+   * @param file
+   *          the class file, which must be readable again after it has been closed
+   * @param bytes
+   *          the current contents of the class file
+   */
+  ClassBytes(FoundFile file, byte[] bytes) {
+    this.file = file;
+    this.bytes = new SoftReference<byte[]>(bytes);
+  }
+
+  /** Returns the contents of the class file, reading the file again if they have been dropped. */
+  synchronized byte[] get() {
+    byte[] ret = bytes.get();
+    if (ret == null) {
+      InputStream is = file.inputStream();
+      try {
+        ret = ByteStreams.toByteArray(is);
+      } catch (IOException e) {
+        throw new RuntimeException("Error: Failed to read class file from " + file.getFilePath() + ".", e);
+      } finally {
+        file.silentClose();
+      }
+      bytes = new SoftReference<byte[]>(ret);
+    }
+    return ret;
+  }
+
+  @Override
+  public String toString() {
+    return file.getFilePath();
+  }
+}
@@ -0,0 +1,164 @@
+package soot.asm;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.Attribute;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.TypePath;
+
+import soot.Body;
+import soot.MethodSource;
+import soot.SootMethod;
+import soot.tagkit.VisibilityLocalVariableAnnotationTag;
+
+/**
+ * A method source for classes that have been read without their code. The code of the method is only read from the
+ * class file when its body is created, and it is dropped again once the body has been created.
+ *
+ * Everything but the code, such as the annotations of the method, has been turned into tags when the class was read.
+ * Annotations of local variables are part of the code, so their tags are added when the first body has been created.
+ * Bodies that are created again after their release leave the tags of the method alone.
+ */
+final class LazyAsmMethodSource implements MethodSource {
+  private final ClassBytes classBytes;
+  private final String name;
+  private final String desc;
+  /** Whether the tags for the annotations of local variables have been added to the method. */
+  private boolean localVariableTagsAdded = false;
+
+  LazyAsmMethodSource(ClassBytes classBytes, String name, String desc) {
+    this.classBytes = classBytes;
+    this.name = name;
+    this.desc = desc;
+  }
+
+  @Override
+  public Body getBody(SootMethod m, String phaseName) {
+    if (!m.isConcrete()) {
+      return null;
+    }
+    MethodReader reader = new MethodReader(m);
+    new ClassReader(classBytes.get()).accept(reader, ClassReader.SKIP_FRAMES);
+    if (reader.source == null) {
+      throw new RuntimeException("Error: Failed to find code of " + m + " in class file " + classBytes + ".");
+    }
+    Body b = reader.source.getBody(m, phaseName);
+    addLocalVariableTags(m, reader.localVariableTags);
+    return b;
+  }
+
+  /** Adds the given tags to the method, unless an earlier body creation has already done so. */
+  private synchronized void addLocalVariableTags(SootMethod m, List<VisibilityLocalVariableAnnotationTag> tags) {
+    if (localVariableTagsAdded) {
+      return;
+    }
+    for (VisibilityLocalVariableAnnotationTag tag : tags) {
+      m.addTag(tag);
+    }
+    localVariableTagsAdded = true;
+  }
+
+  /**
+   * Visits the code of a single method. All other methods are skipped by the class reader without being parsed.
+   */
+  private final class MethodReader extends ClassVisitor {
+    private final SootMethod method;
+    private final SootClassBuilder scb;
+    private AsmMethodSource source;
+    private final List<VisibilityLocalVariableAnnotationTag> localVariableTags
+        = new ArrayList<VisibilityLocalVariableAnnotationTag>(2);
+
+    MethodReader(SootMethod method) {
+      super(Opcodes.ASM8);
+      this.method = method;
+      // Only collects the dependencies found in the code, which have already been taken from the constant pool
+      this.scb = new SootClassBuilder(method.getDeclaringClass()) {
+        @Override
+        void setMethodSource(SootMethod m, MethodBuilder mb) {
+          source = mb.createMethodSource();
+        }
+      };
+    }
+
+    @Override
+    public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+      if (!name.equals(LazyAsmMethodSource.this.name) || !desc.equals(LazyAsmMethodSource.this.desc)) {
+        return null;
+      }
+      return new CodeVisitor(new MethodBuilder(method, scb, desc, exceptions) {
+        @Override
+        void addLocalVariableAnnotationTag(VisibilityLocalVariableAnnotationTag tag) {
+          localVariableTags.add(tag);
+        }
+      });
+    }
+  }
+
+  /**
+   * Forwards only the code of a method, since all other parts have already been visited when the class was read.
+   */
+  private static final class CodeVisitor extends MethodVisitor {
+    CodeVisitor(MethodBuilder mb) {
+      super(Opcodes.ASM8, mb);
+    }
+
+    @Override
+    public void visitParameter(String name, int access) {
+    }
+
+    @Override
+    public AnnotationVisitor visitAnnotationDefault() {
+      return null;
+    }
+
+    @Override
+    public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+      return null;
+    }
+
+    @Override
+    public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+      return null;
+    }
+
+    @Override
+    public void visitAnnotableParameterCount(int parameterCount, boolean visible) {
+    }
+
+    @Override
+    public AnnotationVisitor visitParameterAnnotation(int parameter, String descriptor, boolean visible) {
+      return null;
+    }
+
+    @Override
+    public void visitAttribute(Attribute attribute) {
+    }
+  }
+}
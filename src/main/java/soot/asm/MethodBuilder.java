@@ -242,7 +242,7 @@ class MethodBuilder extends JSRInlinerAdapter {
       for (VisibilityAnnotationTag vat : visibleLocalVarAnnotations) {
         tag.addVisibilityAnnotation(vat);
       }
-      method.addTag(tag);
+      addLocalVariableAnnotationTag(tag);
     }
     if (invisibleLocalVarAnnotations != null) {
       VisibilityLocalVariableAnnotationTag tag
@@ -251,11 +251,23 @@ class MethodBuilder extends JSRInlinerAdapter {
       for (VisibilityAnnotationTag vat : invisibleLocalVarAnnotations) {
         tag.addVisibilityAnnotation(vat);
       }
-      method.addTag(tag);
+      addLocalVariableAnnotationTag(tag);
     }
     if (method.isConcrete()) {
-      method.setSource(
-          new AsmMethodSource(maxLocals, instructions, localVariables, tryCatchBlocks, scb.getKlass().moduleName));
+      scb.setMethodSource(method, this);
     }
   }
+
+  /**
+   * Adds a tag with the annotations of local variables to the method. These annotations are part of the code, so a builder
+   * that only visits the code of a method can override this to decide whether the tag is added.
+   */
+  void addLocalVariableAnnotationTag(VisibilityLocalVariableAnnotationTag tag) {
+    method.addTag(tag);
+  }
+
+  /** Creates a method source for the code that has been visited by this builder. */
+  AsmMethodSource createMethodSource() {
+    return new AsmMethodSource(maxLocals, instructions, localVariables, tryCatchBlocks, scb.getKlass().moduleName);
+  }
 }
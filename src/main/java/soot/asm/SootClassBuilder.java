@@ -32,12 +32,14 @@ import java.util.Set;
 
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.Attribute;
+import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.FieldVisitor;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.ModuleVisitor;
 import org.objectweb.asm.Opcodes;
 
+import soot.ArrayType;
 import soot.Modifier;
 import soot.ModuleRefType;
 import soot.ModuleUtil;
@@ -69,9 +71,15 @@ import soot.tagkit.Tag;
 @SuppressWarnings({ "unchecked", "rawtypes" })
 public class SootClassBuilder extends ClassVisitor {
 
+  private static final int CONSTANT_CLASS = 7;
+  private static final int CONSTANT_NAME_AND_TYPE = 12;
+  private static final int CONSTANT_METHOD_TYPE = 16;
+
   protected TagBuilder tb;
   protected final SootClass klass;
   protected final Set<soot.Type> deps;
+  /** The class file from which method code is read on demand, or null if the code is visited along with the class. */
+  private final ClassBytes classBytes;
 
   /**
    * Constructs a new Soot class builder.
@@ -80,9 +88,23 @@ public class SootClassBuilder extends ClassVisitor {
    *          Soot class to build.
    */
   protected SootClassBuilder(SootClass klass) {
+    this(klass, null);
+  }
+
+  /**
+   * Constructs a new Soot class builder.
+   *
+   * @param klass
+   *          Soot class to build.
+   * @param classBytes
+   *          the class file from which the code of the methods is read when their bodies are created, or null if the
+   *          code is visited along with the class.
+   */
+  SootClassBuilder(SootClass klass, ClassBytes classBytes) {
     super(Opcodes.ASM8);
     this.klass = klass;
     this.deps = new HashSet();
+    this.classBytes = classBytes;
   }
 
   private TagBuilder getTagBuilder() {
@@ -210,6 +232,71 @@ public class SootClassBuilder extends ClassVisitor {
     return new MethodBuilder(method, this, desc, exceptions);
   }
 
+  /**
+   * Sets the source of the given concrete method, whose declaration has been visited by the given builder.
+   */
+  void setMethodSource(SootMethod method, MethodBuilder mb) {
+    if (classBytes == null) {
+      method.setSource(mb.createMethodSource());
+    } else {
+      method.setSource(new LazyAsmMethodSource(classBytes, mb.name, mb.desc));
+    }
+  }
+
+  /**
+   * Adds all types that the constant pool of the given class refers to as dependencies. When the class is read without
+   * its code, these stand in for the dependencies that the method builders would have found in the code. The constant
+   * pool may name a few more types than the code does, e.g., the types in the descriptors of bootstrap methods.
+   */
+  void addConstantPoolDeps(ClassReader reader) {
+    Optional<String> moduleName = Optional.fromNullable(klass.moduleName);
+    char[] buf = new char[reader.getMaxStringLength()];
+    for (int i = 1; i < reader.getItemCount(); i++) {
+      int item = reader.getItem(i);
+      // The slot after a long or double constant is unused
+      if (item == 0) {
+        continue;
+      }
+      switch (reader.readByte(item - 1)) {
+        case CONSTANT_CLASS:
+          String internal = reader.readUTF8(item, buf);
+          if (internal.charAt(0) == '[') {
+            addRefTypeDeps(AsmUtil.toBaseType(internal, moduleName));
+          } else {
+            addDep(makeRefType(AsmUtil.toQualifiedName(internal)));
+          }
+          break;
+        case CONSTANT_NAME_AND_TYPE:
+          addDescDeps(reader.readUTF8(item + 2, buf), moduleName);
+          break;
+        case CONSTANT_METHOD_TYPE:
+          addDescDeps(reader.readUTF8(item, buf), moduleName);
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  private void addDescDeps(String desc, Optional<String> moduleName) {
+    if (desc.charAt(0) == '(') {
+      for (soot.Type t : AsmUtil.toJimpleDesc(desc, moduleName)) {
+        addRefTypeDeps(t);
+      }
+    } else {
+      addRefTypeDeps(AsmUtil.toJimpleType(desc, moduleName));
+    }
+  }
+
+  private void addRefTypeDeps(soot.Type t) {
+    if (t instanceof ArrayType) {
+      t = ((ArrayType) t).baseType;
+    }
+    if (t instanceof RefType) {
+      addDep(t);
+    }
+  }
+
   @Override
   public void visitSource(String source, String debug) {
     if (source != null) {
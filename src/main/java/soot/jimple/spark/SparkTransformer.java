@@ -60,6 +60,7 @@ import soot.jimple.spark.solver.PropAlias;
 import soot.jimple.spark.solver.PropCycle;
 import soot.jimple.spark.solver.PropIter;
 import soot.jimple.spark.solver.PropMerge;
+import soot.jimple.spark.solver.PropParallel;
 import soot.jimple.spark.solver.PropWorklist;
 import soot.jimple.spark.solver.Propagator;
 import soot.jimple.spark.solver.SCCCollapser;
@@ -230,6 +231,9 @@ public class SparkTransformer extends SceneTransformer {
         break;
       case SparkOptions.propagator_none:
         break;
+      case SparkOptions.propagator_parallel:
+        propagator = new PropParallel(pag);
+        break;
       default:
         throw new RuntimeException();
     }
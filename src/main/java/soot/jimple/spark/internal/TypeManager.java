@@ -93,9 +93,13 @@ public final class TypeManager {
     return cl.resolvingLevel() < SootClass.HIERARCHY;
   }
 
-  final public BitVector get(Type type) {
-    if (type == null) {
-      return null;
+  /**
+   * Adds the allocation nodes that have been created since the last call to the type masks. After this, {@link #get(Type)}
+   * does not modify the type masks until new allocation nodes are created.
+   */
+  final public void update() {
+    if (allocNodeListener == null) {
+      return;
     }
     while (allocNodeListener.hasNext()) {
       AllocNode n = allocNodeListener.next();
@@ -124,6 +128,13 @@ public final class TypeManager {
         }
       }
     }
+  }
+
+  final public BitVector get(Type type) {
+    if (type == null) {
+      return null;
+    }
+    update();
     BitVector ret = (BitVector) typeMask.get(type);
     if (ret == null && fh != null) {
       // If we have a phantom class and have no type mask, we assume that
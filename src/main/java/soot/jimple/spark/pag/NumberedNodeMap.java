@@ -0,0 +1,215 @@
+package soot.jimple.spark.pag;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import soot.util.ArrayNumberer;
+
+/**
+ * A java.util.Map from PAG nodes to edge targets, stored in an array indexed by the node numbers of a single numberer.
+ * Unlike a HashMap, lookups do not hash and no entry object is allocated per key. This is used for the edge maps of the
+ * PAG, whose keys are dense in the numbering of their node kind.
+ */
+final class NumberedNodeMap<K extends Node, V> extends AbstractMap<K, V> {
+  private final ArrayNumberer<K> universe;
+  private Object[] values;
+  private int size = 0;
+
+  NumberedNodeMap(ArrayNumberer<K> universe) {
+    this.universe = universe;
+    this.values = new Object[Math.max(universe.size() + 1, 8)];
+  }
+
+  private int indexOf(Object key) {
+    if (!(key instanceof Node)) {
+      return -1;
+    }
+    Node n = (Node) key;
+    int number = n.getNumber();
+    // The key must belong to the universe of this map
+    if (number <= 0 || number >= values.length || universe.get(number) != n) {
+      return -1;
+    }
+    return number;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    int i = indexOf(key);
+    return i < 0 ? null : (V) values[i];
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    int i = indexOf(key);
+    return i >= 0 && values[i] != null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V put(K key, V value) {
+    if (value == null) {
+      throw new IllegalArgumentException("null values are not supported");
+    }
+    int number = key.getNumber();
+    if (number == 0) {
+      throw new RuntimeException("unnumbered: " + key);
+    }
+    if (number >= values.length) {
+      values = Arrays.copyOf(values, Math.max(universe.size() * 2, number) + 5);
+    }
+    Object old = values[number];
+    values[number] = value;
+    if (old == null) {
+      size++;
+    }
+    return (V) old;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V remove(Object key) {
+    int i = indexOf(key);
+    if (i < 0) {
+      return null;
+    }
+    Object old = values[i];
+    if (old != null) {
+      values[i] = null;
+      size--;
+    }
+    return (V) old;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(values, null);
+    size = 0;
+  }
+
+  @Override
+  public Set<K> keySet() {
+    return new AbstractSet<K>() {
+      @Override
+      public Iterator<K> iterator() {
+        return new KeyIterator();
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        return containsKey(o);
+      }
+
+      @Override
+      public boolean remove(Object o) {
+        return NumberedNodeMap.this.remove(o) != null;
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    return new AbstractSet<Map.Entry<K, V>>() {
+      @Override
+      public Iterator<Map.Entry<K, V>> iterator() {
+        final KeyIterator it = new KeyIterator();
+        return new Iterator<Map.Entry<K, V>>() {
+          @Override
+          public boolean hasNext() {
+            return it.hasNext();
+          }
+
+          @Override
+          @SuppressWarnings("unchecked")
+          public Map.Entry<K, V> next() {
+            K key = it.next();
+            return new SimpleImmutableEntry<K, V>(key, (V) values[key.getNumber()]);
+          }
+
+          @Override
+          public void remove() {
+            it.remove();
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  private class KeyIterator implements Iterator<K> {
+    private int cur = 0;
+    private int last = -1;
+
+    private void advance() {
+      while (cur < values.length && values[cur] == null) {
+        cur++;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      advance();
+      return cur < values.length;
+    }
+
+    @Override
+    public K next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      last = cur++;
+      return universe.get(last);
+    }
+
+    @Override
+    public void remove() {
+      if (last < 0 || values[last] == null) {
+        throw new IllegalStateException();
+      }
+      values[last] = null;
+      size--;
+    }
+  }
+}
@@ -72,6 +72,7 @@ import soot.jimple.spark.sets.HybridPointsToSet;
 import soot.jimple.spark.sets.P2SetFactory;
 import soot.jimple.spark.sets.P2SetVisitor;
 import soot.jimple.spark.sets.PointsToSetInternal;
+import soot.jimple.spark.sets.RoaringPointsToSet;
 import soot.jimple.spark.sets.SharedHybridSet;
 import soot.jimple.spark.sets.SharedListSet;
 import soot.jimple.spark.sets.SortedArraySet;
@@ -132,6 +133,9 @@ public class PAG implements PointsToAnalysis {
       case SparkOptions.set_impl_bit:
         setFactory = BitPointsToSet.getFactory();
         break;
+      case SparkOptions.set_impl_roaring:
+        setFactory = RoaringPointsToSet.getFactory();
+        break;
       case SparkOptions.set_impl_double:
         P2SetFactory oldF;
         P2SetFactory newF;
@@ -154,6 +158,9 @@ public class PAG implements PointsToAnalysis {
           case SparkOptions.double_set_old_bit:
             oldF = BitPointsToSet.getFactory();
             break;
+          case SparkOptions.double_set_old_roaring:
+            oldF = RoaringPointsToSet.getFactory();
+            break;
           default:
             throw new RuntimeException();
         }
@@ -176,6 +183,9 @@ public class PAG implements PointsToAnalysis {
           case SparkOptions.double_set_new_bit:
             newF = BitPointsToSet.getFactory();
             break;
+          case SparkOptions.double_set_new_roaring:
+            newF = RoaringPointsToSet.getFactory();
+            break;
           default:
             throw new RuntimeException();
         }
@@ -1426,17 +1436,18 @@ public class PAG implements PointsToAnalysis {
   protected CGOptions cgOpts;
   protected ClientAccessibilityOracle accessibilityOracle = Scene.v().getClientAccessibilityOracle();
 
-  protected Map<VarNode, Object> simple = new HashMap<VarNode, Object>();
-  protected Map<FieldRefNode, Object> load = new HashMap<FieldRefNode, Object>();
-  protected Map<VarNode, Object> store = new HashMap<VarNode, Object>();
-  protected Map<AllocNode, Object> alloc = new HashMap<AllocNode, Object>();
-  protected Map<VarNode, Object> newInstance = new HashMap<VarNode, Object>();
+  // The edge maps of the numbered node kinds are indexed by node number
+  protected Map<VarNode, Object> simple = new NumberedNodeMap<VarNode, Object>(varNodeNumberer);
+  protected Map<FieldRefNode, Object> load = new NumberedNodeMap<FieldRefNode, Object>(fieldRefNodeNumberer);
+  protected Map<VarNode, Object> store = new NumberedNodeMap<VarNode, Object>(varNodeNumberer);
+  protected Map<AllocNode, Object> alloc = new NumberedNodeMap<AllocNode, Object>(allocNodeNumberer);
+  protected Map<VarNode, Object> newInstance = new NumberedNodeMap<VarNode, Object>(varNodeNumberer);
   protected Map<NewInstanceNode, Object> assignInstance = new HashMap<NewInstanceNode, Object>();
 
-  protected Map<VarNode, Object> simpleInv = new HashMap<VarNode, Object>();
-  protected Map<VarNode, Object> loadInv = new HashMap<VarNode, Object>();
-  protected Map<FieldRefNode, Object> storeInv = new HashMap<FieldRefNode, Object>();
-  protected Map<VarNode, Object> allocInv = new HashMap<VarNode, Object>();
+  protected Map<VarNode, Object> simpleInv = new NumberedNodeMap<VarNode, Object>(varNodeNumberer);
+  protected Map<VarNode, Object> loadInv = new NumberedNodeMap<VarNode, Object>(varNodeNumberer);
+  protected Map<FieldRefNode, Object> storeInv = new NumberedNodeMap<FieldRefNode, Object>(fieldRefNodeNumberer);
+  protected Map<VarNode, Object> allocInv = new NumberedNodeMap<VarNode, Object>(varNodeNumberer);
   protected Map<NewInstanceNode, Object> newInstanceInv = new HashMap<NewInstanceNode, Object>();
   protected Map<VarNode, Object> assignInstanceInv = new HashMap<VarNode, Object>();
 
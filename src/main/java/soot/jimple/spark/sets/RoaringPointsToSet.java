@@ -0,0 +1,376 @@
+package soot.jimple.spark.sets;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+import soot.Type;
+import soot.jimple.spark.internal.TypeManager;
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.pag.PAG;
+import soot.util.BitVector;
+
+/**
+ * Implementation of points-to set using a compressed bitmap in the style of Roaring bitmaps. The numbers of the allocation
+ * nodes are split into a 16-bit key and a 16-bit low part. The low parts of each key are kept in a container that is either
+ * a sorted array, for sparse chunks, or a bit-vector of 2^16 bits, for dense chunks. Unlike {@link BitPointsToSet}, the
+ * memory used only depends on the number of elements, not on the range of the allocation node numbers.
+ */
+public final class RoaringPointsToSet extends PointsToSetInternal {
+  public RoaringPointsToSet(Type type, PAG pag) {
+    super(type);
+    this.pag = pag;
+  }
+
+  /** Returns true if this set contains no run-time objects. */
+  public final boolean isEmpty() {
+    return containerCount == 0;
+  }
+
+  public final int size() {
+    int ret = 0;
+    for (int i = 0; i < containerCount; i++) {
+      ret += containers[i].cardinality;
+    }
+    return ret;
+  }
+
+  /**
+   * Adds contents of other into this set, returns true if this set changed.
+   */
+  public final boolean addAll(PointsToSetInternal other, PointsToSetInternal exclude) {
+    if (other != null && !(other instanceof RoaringPointsToSet)) {
+      return super.addAll(other, exclude);
+    }
+    if (exclude != null && !(exclude instanceof RoaringPointsToSet)) {
+      return super.addAll(other, exclude);
+    }
+    return nativeAddAll((RoaringPointsToSet) other, (RoaringPointsToSet) exclude);
+  }
+
+  /** Calls v's visit method on all nodes in this set. */
+  public final boolean forall(P2SetVisitor v) {
+    for (int i = 0; i < containerCount; i++) {
+      containers[i].forall(v, keys[i] << 16, pag);
+    }
+    return v.getReturnValue();
+  }
+
+  /** Adds n to this set, returns true if n was not already in this set. */
+  public final boolean add(Node n) {
+    if (pag.getTypeManager().castNeverFails(n.getType(), type)) {
+      return fastAdd(n.getNumber());
+    }
+    return false;
+  }
+
+  /** Returns true iff the set contains n. */
+  public final boolean contains(Node n) {
+    int number = n.getNumber();
+    int index = indexOf(number >>> 16);
+    return index >= 0 && containers[index].contains(number & 0xFFFF);
+  }
+
+  public static P2SetFactory getFactory() {
+    return new P2SetFactory() {
+      public PointsToSetInternal newSet(Type type, PAG pag) {
+        return new RoaringPointsToSet(type, pag);
+      }
+    };
+  }
+
+  /* End of public methods. */
+  /* End of package methods. */
+
+  private boolean nativeAddAll(RoaringPointsToSet other, RoaringPointsToSet exclude) {
+    if (other == null || other.containerCount == 0) {
+      return false;
+    }
+    BitVector mask = null;
+    TypeManager typeManager = pag.getTypeManager();
+    if (!typeManager.castNeverFails(other.getType(), this.getType())) {
+      mask = typeManager.get(this.getType());
+    }
+    boolean ret = false;
+    int ei = 0;
+    for (int oi = 0; oi < other.containerCount; oi++) {
+      int key = other.keys[oi];
+      Container excludeContainer = null;
+      if (exclude != null) {
+        while (ei < exclude.containerCount && exclude.keys[ei] < key) {
+          ei++;
+        }
+        if (ei < exclude.containerCount && exclude.keys[ei] == key) {
+          excludeContainer = exclude.containers[ei];
+        }
+      }
+      int index = indexOf(key);
+      if (index >= 0) {
+        if (containers[index].addAll(other.containers[oi], excludeContainer, mask, key << 16)) {
+          ret = true;
+        }
+      } else {
+        Container c = new Container();
+        if (c.addAll(other.containers[oi], excludeContainer, mask, key << 16)) {
+          insertContainer(-index - 1, key, c);
+          ret = true;
+        }
+      }
+    }
+    return ret;
+  }
+
+  private boolean fastAdd(int number) {
+    int key = number >>> 16;
+    int index = indexOf(key);
+    if (index >= 0) {
+      return containers[index].add(number & 0xFFFF);
+    }
+    Container c = new Container();
+    c.add(number & 0xFFFF);
+    insertContainer(-index - 1, key, c);
+    return true;
+  }
+
+  /** Returns the index of the container for key, or (-(insertion point) - 1) if there is none. */
+  private int indexOf(int key) {
+    return Arrays.binarySearch(keys, 0, containerCount, key);
+  }
+
+  private void insertContainer(int index, int key, Container c) {
+    if (containerCount == keys.length) {
+      int newLength = Math.max(4, keys.length * 2);
+      keys = Arrays.copyOf(keys, newLength);
+      containers = Arrays.copyOf(containers, newLength);
+    }
+    System.arraycopy(keys, index, keys, index + 1, containerCount - index);
+    System.arraycopy(containers, index, containers, index + 1, containerCount - index);
+    keys[index] = key;
+    containers[index] = c;
+    containerCount++;
+  }
+
+  /**
+   * The low 16 bits of the numbers that share one key. The values are kept in a sorted array until there are more than
+   * {@link #ARRAY_MAX} of them, and in a bit-vector after that.
+   */
+  private static final class Container {
+    /** Beyond this, the sorted array takes more memory than the bit-vector. */
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1 << 10;
+
+    private char[] values = new char[4];
+    private long[] words = null;
+    private int cardinality = 0;
+
+    boolean contains(int low) {
+      if (words != null) {
+        return (words[low >>> 6] & (1L << low)) != 0;
+      }
+      return Arrays.binarySearch(values, 0, cardinality, (char) low) >= 0;
+    }
+
+    boolean add(int low) {
+      if (words != null) {
+        long bit = 1L << low;
+        long word = words[low >>> 6];
+        if ((word & bit) != 0) {
+          return false;
+        }
+        words[low >>> 6] = word | bit;
+        cardinality++;
+        return true;
+      }
+      int index = Arrays.binarySearch(values, 0, cardinality, (char) low);
+      if (index >= 0) {
+        return false;
+      }
+      if (cardinality == ARRAY_MAX) {
+        toBitmap();
+        return add(low);
+      }
+      index = -index - 1;
+      if (cardinality == values.length) {
+        values = Arrays.copyOf(values, Math.min(ARRAY_MAX, values.length * 2));
+      }
+      System.arraycopy(values, index, values, index + 1, cardinality - index);
+      values[index] = (char) low;
+      cardinality++;
+      return true;
+    }
+
+    /**
+     * Adds the values of other that are neither in exclude nor filtered out by mask; returns true if this container
+     * changed. The mask is indexed by the full allocation node number, which is base plus the low part.
+     */
+    boolean addAll(Container other, Container exclude, BitVector mask, int base) {
+      if (other.words != null) {
+        if (words == null) {
+          toBitmap();
+        }
+        return addAllBitmap(other.words, exclude, mask, base);
+      }
+      if (words != null) {
+        return addAllValues(other, exclude, mask, base);
+      }
+      return mergeValues(other, exclude, mask, base);
+    }
+
+    /** Adds the values of a bit-vector container to this bit-vector container one word at a time. */
+    private boolean addAllBitmap(long[] otherWords, Container exclude, BitVector mask, int base) {
+      boolean ret = false;
+      for (int i = 0; i < WORDS; i++) {
+        long added = otherWords[i] & ~words[i];
+        if (added == 0) {
+          continue;
+        }
+        if (exclude != null) {
+          added &= ~exclude.word(i);
+        }
+        if (mask != null) {
+          added = filter(added, mask, base + (i << 6));
+        }
+        if (added != 0) {
+          words[i] |= added;
+          cardinality += Long.bitCount(added);
+          ret = true;
+        }
+      }
+      return ret;
+    }
+
+    /** Adds the values of an array container to this bit-vector container. */
+    private boolean addAllValues(Container other, Container exclude, BitVector mask, int base) {
+      boolean ret = false;
+      for (int i = 0; i < other.cardinality; i++) {
+        int low = other.values[i];
+        if (accepts(low, exclude, mask, base) && add(low)) {
+          ret = true;
+        }
+      }
+      return ret;
+    }
+
+    /** Merges two array containers like the merge step of merge sort. */
+    private boolean mergeValues(Container other, Container exclude, BitVector mask, int base) {
+      // Most merges late in the propagation add nothing, so find the first new value before allocating anything
+      int ti = 0;
+      int oi = 0;
+      for (; oi < other.cardinality; oi++) {
+        char low = other.values[oi];
+        while (ti < cardinality && values[ti] < low) {
+          ti++;
+        }
+        if ((ti == cardinality || values[ti] != low) && accepts(low, exclude, mask, base)) {
+          break;
+        }
+      }
+      if (oi == other.cardinality) {
+        return false;
+      }
+
+      char[] merged = new char[cardinality + other.cardinality - oi];
+      System.arraycopy(values, 0, merged, 0, ti);
+      int mi = ti;
+      merged[mi++] = other.values[oi++];
+      for (; oi < other.cardinality; oi++) {
+        char low = other.values[oi];
+        while (ti < cardinality && values[ti] < low) {
+          merged[mi++] = values[ti++];
+        }
+        if (ti < cardinality && values[ti] == low) {
+          continue;
+        }
+        if (accepts(low, exclude, mask, base)) {
+          merged[mi++] = low;
+        }
+      }
+      System.arraycopy(values, ti, merged, mi, cardinality - ti);
+      cardinality = mi + cardinality - ti;
+      values = merged;
+      if (cardinality > ARRAY_MAX) {
+        toBitmap();
+      }
+      return true;
+    }
+
+    void forall(P2SetVisitor v, int base, PAG pag) {
+      if (words != null) {
+        for (int i = 0; i < WORDS; i++) {
+          long word = words[i];
+          while (word != 0) {
+            int low = (i << 6) + Long.numberOfTrailingZeros(word);
+            v.visit((Node) pag.getAllocNodeNumberer().get(base + low));
+            word &= word - 1;
+          }
+        }
+      } else {
+        for (int i = 0; i < cardinality; i++) {
+          v.visit((Node) pag.getAllocNodeNumberer().get(base + values[i]));
+        }
+      }
+    }
+
+    private long word(int i) {
+      if (words != null) {
+        return words[i];
+      }
+      long ret = 0;
+      int index = Arrays.binarySearch(values, 0, cardinality, (char) (i << 6));
+      for (index = index < 0 ? -index - 1 : index; index < cardinality && (values[index] >>> 6) == i; index++) {
+        ret |= 1L << values[index];
+      }
+      return ret;
+    }
+
+    private void toBitmap() {
+      long[] newWords = new long[WORDS];
+      for (int i = 0; i < cardinality; i++) {
+        newWords[values[i] >>> 6] |= 1L << values[i];
+      }
+      words = newWords;
+      values = null;
+    }
+
+    private static boolean accepts(int low, Container exclude, BitVector mask, int base) {
+      return (exclude == null || !exclude.contains(low)) && (mask == null || mask.get(base + low));
+    }
+
+    private static long filter(long word, BitVector mask, int base) {
+      long ret = word;
+      while (word != 0) {
+        int bit = Long.numberOfTrailingZeros(word);
+        if (!mask.get(base + bit)) {
+          ret &= ~(1L << bit);
+        }
+        word &= word - 1;
+      }
+      return ret;
+    }
+  }
+
+  private int[] keys = new int[0];
+  private Container[] containers = new Container[0];
+  private int containerCount = 0;
+  private PAG pag = null;
+}
@@ -0,0 +1,200 @@
+package soot.jimple.spark.solver;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import heros.solver.CountingThreadPoolExecutor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.pag.PAG;
+import soot.jimple.spark.pag.VarNode;
+import soot.jimple.spark.sets.PointsToSetInternal;
+import soot.options.SparkOptions;
+
+/**
+ * Propagates points-to sets along pointer assignment graph using a worklist that is handled in rounds. Within a round, the
+ * nodes are first handled one after the other like in {@link PropWorklist}, except that the flow along simple edges is
+ * deferred. The deferred flow is then done concurrently, with each target node updated by exactly one thread. Since
+ * propagation computes the least fixed point of the constraints, the points-to sets are the same as with
+ * {@link PropWorklist}.
+ */
+public class PropParallel extends PropWorklist {
+  private static final Logger logger = LoggerFactory.getLogger(PropParallel.class);
+
+  /** Number of tasks per thread that the targets of one round are split into. */
+  private static final int TASKS_PER_THREAD = 4;
+
+  private final int threadNum;
+  private final List<VarNode> deferredSources = new ArrayList<VarNode>();
+  private final List<PointsToSetInternal> deferredSets = new ArrayList<PointsToSetInternal>();
+
+  public PropParallel(PAG pag) {
+    this(pag, Runtime.getRuntime().availableProcessors());
+  }
+
+  /** Creates a propagator that uses the given number of threads, if the points-to sets can be updated concurrently. */
+  PropParallel(PAG pag, int threadNum) {
+    super(pag);
+    this.threadNum = isThreadSafe(pag.getOpts()) ? threadNum : 1;
+  }
+
+  /** The shared set implementations modify structures that are common to all sets, so they cannot be used concurrently. */
+  private static boolean isThreadSafe(SparkOptions opts) {
+    switch (opts.set_impl()) {
+      case SparkOptions.set_impl_heintze:
+      case SparkOptions.set_impl_sharedlist:
+        return false;
+      case SparkOptions.set_impl_double:
+        return opts.double_set_old() != SparkOptions.double_set_old_heintze
+            && opts.double_set_old() != SparkOptions.double_set_old_sharedlist
+            && opts.double_set_new() != SparkOptions.double_set_new_heintze
+            && opts.double_set_new() != SparkOptions.double_set_new_sharedlist;
+      default:
+        return true;
+    }
+  }
+
+  @Override
+  protected void handleVarNodeWorkList() {
+    if (threadNum <= 1) {
+      super.handleVarNodeWorkList();
+      return;
+    }
+
+    CountingThreadPoolExecutor executor
+        = new CountingThreadPoolExecutor(threadNum, threadNum, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+    try {
+      while (!varNodeWorkList.isEmpty()) {
+        List<VarNode> round = new ArrayList<VarNode>(varNodeWorkList);
+        varNodeWorkList.clear();
+        if (pag.getOpts().verbose()) {
+          logger.debug("Handling round of " + round.size() + " nodes.");
+        }
+        for (VarNode src : round) {
+          handleVarNode(src);
+        }
+        flowDeferred(executor);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Defers the flow along simple edges to the end of the round. The new set of src is flushed before that, so a copy of it
+   * is kept.
+   */
+  @Override
+  protected boolean handleSimpleEdges(VarNode src, PointsToSetInternal newP2Set) {
+    if (threadNum <= 1) {
+      return super.handleSimpleEdges(src, newP2Set);
+    }
+    if (pag.simpleLookup(src).length == 0) {
+      return false;
+    }
+    PointsToSetInternal copy = pag.getSetFactory().newSet(null, pag);
+    copy.addAll(newP2Set, null);
+    deferredSources.add(src);
+    deferredSets.add(copy);
+    return false;
+  }
+
+  /**
+   * Flows the deferred sets to the targets of their simple edges. The edge maps, the points-to sets of the targets and the
+   * type masks are all created lazily, so this happens on the current thread before any set is updated concurrently.
+   */
+  private void flowDeferred(CountingThreadPoolExecutor executor) {
+    if (deferredSources.isEmpty()) {
+      return;
+    }
+    Map<VarNode, List<PointsToSetInternal>> incoming = new HashMap<VarNode, List<PointsToSetInternal>>();
+    for (int i = 0; i < deferredSources.size(); i++) {
+      PointsToSetInternal set = deferredSets.get(i);
+      for (Node element : pag.simpleLookup(deferredSources.get(i))) {
+        VarNode target = (VarNode) element;
+        List<PointsToSetInternal> sets = incoming.get(target);
+        if (sets == null) {
+          target.makeP2Set();
+          incoming.put(target, sets = new ArrayList<PointsToSetInternal>());
+        }
+        sets.add(set);
+      }
+    }
+    deferredSources.clear();
+    deferredSets.clear();
+    pag.getTypeManager().update();
+
+    final List<VarNode> targets = new ArrayList<VarNode>(incoming.keySet());
+    final List<List<PointsToSetInternal>> targetSets = new ArrayList<List<PointsToSetInternal>>(targets.size());
+    for (VarNode target : targets) {
+      targetSets.add(incoming.get(target));
+    }
+    final boolean[] changed = new boolean[targets.size()];
+    int chunkSize = Math.max(1, (targets.size() + threadNum * TASKS_PER_THREAD - 1) / (threadNum * TASKS_PER_THREAD));
+    for (int start = 0; start < targets.size(); start += chunkSize) {
+      final int from = start;
+      final int to = Math.min(start + chunkSize, targets.size());
+      executor.execute(() -> {
+        for (int i = from; i < to; i++) {
+          PointsToSetInternal p2Set = targets.get(i).getP2Set();
+          for (PointsToSetInternal set : targetSets.get(i)) {
+            if (p2Set.addAll(set, null)) {
+              changed[i] = true;
+            }
+          }
+        }
+      });
+    }
+
+    // Wait till all targets have been updated
+    try {
+      executor.awaitCompletion();
+    } catch (InterruptedException e) {
+      throw new RuntimeException("Could not wait for propagation threads to finish: " + e.getMessage(), e);
+    }
+
+    // If something went wrong, we tell the world
+    if (executor.getException() != null) {
+      if (executor.getException() instanceof RuntimeException) {
+        throw (RuntimeException) executor.getException();
+      } else {
+        throw new RuntimeException(executor.getException());
+      }
+    }
+
+    for (int i = 0; i < targets.size(); i++) {
+      if (changed[i]) {
+        varNodeWorkList.add(targets.get(i));
+      }
+    }
+  }
+}
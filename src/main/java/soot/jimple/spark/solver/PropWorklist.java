@@ -75,11 +75,7 @@ public class PropWorklist extends Propagator {
       if (verbose) {
         logger.debug("Worklist has " + varNodeWorkList.size() + " nodes.");
       }
-      while (!varNodeWorkList.isEmpty()) {
-        VarNode src = varNodeWorkList.iterator().next();
-        varNodeWorkList.remove(src);
-        handleVarNode(src);
-      }
+      handleVarNodeWorkList();
       if (verbose) {
         logger.debug("Now handling field references");
       }
@@ -122,6 +118,17 @@ public class PropWorklist extends Propagator {
   /* End of public methods. */
   /* End of package methods. */
 
+  /**
+   * Handles variable nodes until the variable node worklist is empty.
+   */
+  protected void handleVarNodeWorkList() {
+    while (!varNodeWorkList.isEmpty()) {
+      VarNode src = varNodeWorkList.iterator().next();
+      varNodeWorkList.remove(src);
+      handleVarNode(src);
+    }
+  }
+
   /**
    * Propagates new points-to information of node src to all its successors.
    */
@@ -227,15 +234,8 @@ public class PropWorklist extends Propagator {
       }
     }
 
-    Node[] simpleTargets = pag.simpleLookup(src);
-    for (Node element : simpleTargets) {
-      if (element.makeP2Set().addAll(newP2Set, null)) {
-        varNodeWorkList.add((VarNode) element);
-        if (element == src) {
-          flush = false;
-        }
-        ret = true;
-      }
+    if (handleSimpleEdges(src, newP2Set)) {
+      ret = true;
     }
 
     Node[] storeTargets = pag.storeLookup(src);
@@ -305,6 +305,21 @@ public class PropWorklist extends Propagator {
     return ret;
   }
 
+  /**
+   * Propagates the new points-to information newP2Set of node src along its simple edges. The new set of src never changes
+   * through a simple edge from src to itself, since it only receives nodes it already contains.
+   */
+  protected boolean handleSimpleEdges(VarNode src, PointsToSetInternal newP2Set) {
+    boolean ret = false;
+    for (Node element : pag.simpleLookup(src)) {
+      if (element.makeP2Set().addAll(newP2Set, null)) {
+        varNodeWorkList.add((VarNode) element);
+        ret = true;
+      }
+    }
+    return ret;
+  }
+
   /**
    * Propagates new points-to information of node src to all its successors.
    */
@@ -48,7 +48,7 @@ import soot.jimple.NewExpr;
 import soot.jimple.SpecialInvokeExpr;
 import soot.jimple.Stmt;
 import soot.options.Options;
-import soot.toolkits.graph.BriefUnitGraph;
+import soot.toolkits.graph.CompactUnitGraph;
 import soot.toolkits.graph.DirectedGraph;
 import soot.toolkits.scalar.ForwardFlowAnalysis;
 import soot.util.Chain;
@@ -266,7 +266,7 @@ public class JimpleConstructorFolder extends BodyTransformer {
       logger.debug("[" + body.getMethod().getName() + "] Folding Jimple constructors...");
     }
 
-    Analysis analysis = new Analysis(new BriefUnitGraph(body));
+    Analysis analysis = new Analysis(new CompactUnitGraph(body));
 
     Chain<Unit> units = body.getUnits();
     List<Unit> stmtList = new ArrayList<Unit>();
@@ -45,14 +45,37 @@ import soot.util.queue.QueueReader;
  * @author Ondrej Lhotak
  */
 public class CallGraph implements Iterable<Edge> {
-  protected Set<Edge> edges = new LinkedHashSet<Edge>();
-  protected ChunkedQueue<Edge> stream = new ChunkedQueue<Edge>();
-  protected QueueReader<Edge> reader = stream.reader();
-  protected Map<MethodOrMethodContext, Edge> srcMethodToEdge = new LinkedHashMap<MethodOrMethodContext, Edge>();
-  protected Map<Unit, Edge> srcUnitToEdge = new LinkedHashMap<Unit, Edge>();
-  protected Map<MethodOrMethodContext, Edge> tgtToEdge = new LinkedHashMap<MethodOrMethodContext, Edge>();
+  protected Set<Edge> edges;
+  protected ChunkedQueue<Edge> stream;
+  protected QueueReader<Edge> reader;
+  protected Map<MethodOrMethodContext, Edge> srcMethodToEdge;
+  protected Map<Unit, Edge> srcUnitToEdge;
+  protected Map<MethodOrMethodContext, Edge> tgtToEdge;
   protected Edge dummy = new Edge(null, null, null, Kind.INVALID);
 
+  public CallGraph() {
+    this(true);
+  }
+
+  /**
+   * Creates a call graph. Subclasses that store their edges in structures of their own can pass false to skip allocating
+   * the edge set, queue and maps of this class. The fields are then left null, and the subclass must either set them or
+   * override every method that uses them.
+   *
+   * @param allocateStorage
+   *          whether to allocate the edge storage of this class
+   */
+  protected CallGraph(boolean allocateStorage) {
+    if (allocateStorage) {
+      edges = new LinkedHashSet<Edge>();
+      stream = new ChunkedQueue<Edge>();
+      reader = stream.reader();
+      srcMethodToEdge = new LinkedHashMap<MethodOrMethodContext, Edge>();
+      srcUnitToEdge = new LinkedHashMap<Unit, Edge>();
+      tgtToEdge = new LinkedHashMap<MethodOrMethodContext, Edge>();
+    }
+  }
+
   /**
    * Used to add an edge to the call graph. Returns true iff the edge was not already present.
    */
@@ -187,21 +210,18 @@ public class CallGraph implements Iterable<Edge> {
   /**
    * Removes the edges e from the call graph. Returns true iff one edge was originally present in the call graph.
    * 
-   * @param e
-   *          the edge
-   * @return
+   * @param toRemove
+   *          the edges
    * @return whether the removal was successful.
    */
-  public boolean removeEdges(Collection<Edge> edges) {
-    if (!edges.removeAll(edges)) {
-      return false;
-    }
-    for (Edge e : edges) {
-      removeEdge(e, false);
+  public boolean removeEdges(Collection<Edge> toRemove) {
+    boolean ret = false;
+    for (Edge e : toRemove) {
+      if (removeEdge(e)) {
+        ret = true;
+      }
     }
-    reader.remove(edges);
-    return true;
-
+    return ret;
   }
 
   /**
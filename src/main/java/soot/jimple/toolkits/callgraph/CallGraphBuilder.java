@@ -83,6 +83,17 @@ public class CallGraphBuilder {
     ofcgb = createCGBuilder(cm, reachables);
   }
 
+  /**
+   * This constructor adds the edges of the methods that become reachable through the given reachable methods to the given
+   * call graph. Neither is installed in the Scene, so this can be used to build part of a call graph.
+   */
+  public CallGraphBuilder(PointsToAnalysis pa, CallGraph cg, ReachableMethods reachables) {
+    this.pa = pa;
+    this.cg = cg;
+    this.reachables = reachables;
+    ofcgb = createCGBuilder(makeContextManager(cg), reachables);
+  }
+
   protected OnFlyCallGraphBuilder createCGBuilder(ContextManager cm, ReachableMethods reachables2) {
     return new OnFlyCallGraphBuilder(cm, reachables);
   }
@@ -0,0 +1,485 @@
+package soot.jimple.toolkits.callgraph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import soot.Kind;
+import soot.MethodOrMethodContext;
+import soot.Scene;
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.Stmt;
+import soot.util.Numberer;
+import soot.util.queue.QueueReader;
+
+/**
+ * A call graph that stores its edges as packed records in int arrays instead of as {@link Edge} objects. Each record
+ * holds the numbers of the source method, source unit, target method and kind, plus the links to the next record with
+ * the same source method, source unit and target. The {@link Edge} objects that the call graph hands out are views that
+ * are created on demand, so they are only kept alive as long as the caller holds on to them. Since all views of the
+ * same record are equal, they can be passed back to {@link #removeEdge(Edge)}.
+ *
+ * Methods are numbered through the Scene's method numberer. Source units get ids of their own, which are handed out
+ * densely when a unit first appears in an edge, so the per-unit tables only grow with the number of call sites. None of
+ * the edge storage of {@link CallGraph} is allocated. Only context-insensitive edges can be stored. Removed records are
+ * skipped but their space is not reclaimed, so this class is meant for call graphs that are mostly built up.
+ */
+public class CompactCallGraph extends CallGraph {
+  private static final int REMOVED = -1;
+  private static final int NONE = -1;
+
+  private final Numberer<SootMethod> methodNumberer = Scene.v().getMethodNumberer();
+
+  /** The ids of the source units, which start at 1 since 0 stands for no unit. */
+  private final Map<Unit, Integer> unitIds = new IdentityHashMap<Unit, Integer>();
+
+  /** The number of records, including removed ones. */
+  private int count = 0;
+  private int live = 0;
+
+  private int[] srcs = new int[64];
+  private int[] units = new int[64];
+  private int[] tgts = new int[64];
+  private int[] kinds = new int[64];
+  private int[] nextBySrc = new int[64];
+  private int[] nextByUnit = new int[64];
+  private int[] nextByTgt = new int[64];
+
+  /** The source units, indexed by their ids. */
+  private Unit[] unitsById = new Unit[64];
+
+  /** The first record of each source method, source unit and target, indexed by their numbers and ids. */
+  private int[] firstBySrc = emptyHeads(64);
+  private int[] firstByUnit = emptyHeads(64);
+  private int[] firstByTgt = emptyHeads(64);
+
+  public CompactCallGraph() {
+    super(false);
+  }
+
+  private static int[] emptyHeads(int size) {
+    int[] ret = new int[size];
+    Arrays.fill(ret, NONE);
+    return ret;
+  }
+
+  private static int[] growHeads(int[] heads, int index) {
+    if (index < heads.length) {
+      return heads;
+    }
+    int oldLength = heads.length;
+    int[] ret = Arrays.copyOf(heads, Math.max(oldLength * 2, index + 1));
+    Arrays.fill(ret, oldLength, ret.length, NONE);
+    return ret;
+  }
+
+  private int numberOf(MethodOrMethodContext m) {
+    if (m == null) {
+      return 0;
+    }
+    if (m.context() != null) {
+      throw new UnsupportedOperationException("A CompactCallGraph only holds context-insensitive edges: " + m);
+    }
+    SootMethod method = m.method();
+    if (method.getNumber() == 0) {
+      methodNumberer.add(method);
+    }
+    return method.getNumber();
+  }
+
+  /** Returns the id of the given unit, assigning the next one if it has none yet. */
+  private int idOf(Unit u) {
+    if (u == null) {
+      return 0;
+    }
+    Integer id = unitIds.get(u);
+    if (id == null) {
+      id = unitIds.size() + 1;
+      unitIds.put(u, id);
+      if (id >= unitsById.length) {
+        unitsById = Arrays.copyOf(unitsById, unitsById.length * 2);
+      }
+      unitsById[id] = u;
+    }
+    return id;
+  }
+
+  /** Returns the id of the given unit, or 0 if it is not the source unit of any record. */
+  private int lookupId(Unit u) {
+    Integer id = unitIds.get(u);
+    return id == null ? 0 : id;
+  }
+
+  private SootMethod methodOf(int number) {
+    return number == 0 ? null : methodNumberer.get(number);
+  }
+
+  /** Returns a new view of the given record. */
+  private Edge edgeAt(int record) {
+    Unit srcUnit = units[record] == 0 ? null : unitsById[units[record]];
+    return new Edge(methodOf(srcs[record]), srcUnit, methodOf(tgts[record]),
+        Scene.v().kindNumberer().get(kinds[record]));
+  }
+
+  /** Returns the record of the given edge, or NONE if the call graph does not contain it. */
+  private int find(Edge e) {
+    if (e.getSrc() != null && e.getSrc().context() != null) {
+      return NONE;
+    }
+    int src = e.src() == null ? 0 : e.src().getNumber();
+    int unit = e.srcUnit() == null ? 0 : lookupId(e.srcUnit());
+    int tgt = e.tgt() == null ? 0 : e.tgt().getNumber();
+    if ((e.src() != null && src == 0) || (e.srcUnit() != null && unit == 0) || tgt == 0) {
+      // Never numbered, so never added
+      return NONE;
+    }
+    return find(src, unit, tgt, e.kind().getNumber());
+  }
+
+  private int find(int src, int unit, int tgt, int kind) {
+    if (unit != 0) {
+      for (int r = unit < firstByUnit.length ? firstByUnit[unit] : NONE; r != NONE; r = nextByUnit[r]) {
+        if (kinds[r] == kind && tgts[r] == tgt && srcs[r] == src) {
+          return r;
+        }
+      }
+    } else {
+      for (int r = src < firstBySrc.length ? firstBySrc[src] : NONE; r != NONE; r = nextBySrc[r]) {
+        if (kinds[r] == kind && tgts[r] == tgt && units[r] == 0) {
+          return r;
+        }
+      }
+    }
+    return NONE;
+  }
+
+  /**
+   * Used to add an edge to the call graph. Returns true iff the edge was not already present. The edge itself is not
+   * kept, only its record.
+   */
+  @Override
+  public boolean addEdge(Edge e) {
+    int src = numberOf(e.getSrc());
+    int unit = idOf(e.srcUnit());
+    int tgt = numberOf(e.getTgt());
+    int kind = e.kind().getNumber();
+    if (find(src, unit, tgt, kind) != NONE) {
+      return false;
+    }
+
+    if (count == srcs.length) {
+      int size = count * 2;
+      srcs = Arrays.copyOf(srcs, size);
+      units = Arrays.copyOf(units, size);
+      tgts = Arrays.copyOf(tgts, size);
+      kinds = Arrays.copyOf(kinds, size);
+      nextBySrc = Arrays.copyOf(nextBySrc, size);
+      nextByUnit = Arrays.copyOf(nextByUnit, size);
+      nextByTgt = Arrays.copyOf(nextByTgt, size);
+    }
+    int r = count++;
+    srcs[r] = src;
+    units[r] = unit;
+    tgts[r] = tgt;
+    kinds[r] = kind;
+
+    firstBySrc = growHeads(firstBySrc, src);
+    nextBySrc[r] = firstBySrc[src];
+    firstBySrc[src] = r;
+    if (unit != 0) {
+      firstByUnit = growHeads(firstByUnit, unit);
+      nextByUnit[r] = firstByUnit[unit];
+      firstByUnit[unit] = r;
+    } else {
+      nextByUnit[r] = NONE;
+    }
+    firstByTgt = growHeads(firstByTgt, tgt);
+    nextByTgt[r] = firstByTgt[tgt];
+    firstByTgt[tgt] = r;
+    live++;
+    return true;
+  }
+
+  /**
+   * Removes all outgoing edges that start at the given unit
+   *
+   * @param u
+   *          The unit from which to remove all outgoing edges
+   * @return True if at least one edge has been removed, otherwise false
+   */
+  @Override
+  public boolean removeAllEdgesOutOf(Unit u) {
+    boolean hasRemoved = false;
+    int unit = lookupId(u);
+    for (int r = unit != 0 && unit < firstByUnit.length ? firstByUnit[unit] : NONE; r != NONE; r = nextByUnit[r]) {
+      if (kinds[r] != REMOVED) {
+        kinds[r] = REMOVED;
+        live--;
+        hasRemoved = true;
+      }
+    }
+    return hasRemoved;
+  }
+
+  @Override
+  public boolean swapEdgesOutOf(Stmt out, Stmt in) {
+    boolean hasSwapped = false;
+    for (Iterator<Edge> it = edgesOutOf(out); it.hasNext();) {
+      Edge e = it.next();
+      if (removeEdge(e)) {
+        addEdge(new Edge(e.getSrc(), in, e.getTgt()));
+        hasSwapped = true;
+      }
+    }
+    return hasSwapped;
+  }
+
+  /**
+   * Removes the edge e from the call graph. Returns true iff the edge was originally present in the call graph.
+   * Listeners skip removed records, so removeInEdgeList makes no difference here.
+   */
+  @Override
+  public boolean removeEdge(Edge e, boolean removeInEdgeList) {
+    int r = find(e);
+    if (r == NONE || kinds[r] == REMOVED) {
+      return false;
+    }
+    kinds[r] = REMOVED;
+    live--;
+    e.invalidate();
+    return true;
+  }
+
+  @Override
+  public boolean removeEdges(Collection<Edge> toRemove) {
+    boolean ret = false;
+    for (Edge e : toRemove) {
+      if (removeEdge(e)) {
+        ret = true;
+      }
+    }
+    return ret;
+  }
+
+  @Override
+  public boolean isEntryMethod(SootMethod method) {
+    return !edgesInto(method).hasNext();
+  }
+
+  @Override
+  public Edge findEdge(Unit u, SootMethod callee) {
+    int unit = lookupId(u);
+    int tgt = callee.getNumber();
+    for (int r = unit != 0 && unit < firstByUnit.length ? firstByUnit[unit] : NONE; r != NONE; r = nextByUnit[r]) {
+      if (kinds[r] != REMOVED && tgts[r] == tgt) {
+        return edgeAt(r);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns an iterator over all methods that are the sources of at least one edge.
+   */
+  @Override
+  public Iterator<MethodOrMethodContext> sourceMethods() {
+    return new Iterator<MethodOrMethodContext>() {
+      private int src = advance(0);
+
+      private int advance(int from) {
+        for (int s = from; s < firstBySrc.length; s++) {
+          if (nextLive(firstBySrc[s], nextBySrc) != NONE) {
+            return s;
+          }
+        }
+        return firstBySrc.length;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return src < firstBySrc.length;
+      }
+
+      @Override
+      public MethodOrMethodContext next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        SootMethod ret = methodOf(src);
+        src = advance(src + 1);
+        return ret;
+      }
+    };
+  }
+
+  /** Returns the first record that is not removed, starting at r and following the given links. */
+  private int nextLive(int r, int[] next) {
+    while (r != NONE && kinds[r] == REMOVED) {
+      r = next[r];
+    }
+    return r;
+  }
+
+  /** Iterates over the records linked through the given array. */
+  private class ChainIterator implements Iterator<Edge> {
+    private final int[] next;
+    private int position;
+
+    ChainIterator(int first, int[] next) {
+      this.next = next;
+      this.position = nextLive(first, next);
+    }
+
+    @Override
+    public boolean hasNext() {
+      return position != NONE;
+    }
+
+    @Override
+    public Edge next() {
+      if (position == NONE) {
+        throw new NoSuchElementException();
+      }
+      Edge ret = edgeAt(position);
+      position = nextLive(next[position], next);
+      return ret;
+    }
+  }
+
+  /** Returns an iterator over all edges that have u as their source unit. */
+  @Override
+  public Iterator<Edge> edgesOutOf(Unit u) {
+    if (u == null) {
+      throw new RuntimeException();
+    }
+    int unit = lookupId(u);
+    return new ChainIterator(unit != 0 && unit < firstByUnit.length ? firstByUnit[unit] : NONE, nextByUnit);
+  }
+
+  /** Returns an iterator over all edges that have m as their source method. */
+  @Override
+  public Iterator<Edge> edgesOutOf(MethodOrMethodContext m) {
+    if (m == null) {
+      throw new RuntimeException();
+    }
+    int src = m.context() == null ? m.method().getNumber() : 0;
+    return new ChainIterator(src != 0 && src < firstBySrc.length ? firstBySrc[src] : NONE, nextBySrc);
+  }
+
+  /** Returns an iterator over all edges that have m as their target method. */
+  @Override
+  public Iterator<Edge> edgesInto(MethodOrMethodContext m) {
+    if (m == null) {
+      throw new RuntimeException();
+    }
+    int tgt = m.context() == null ? m.method().getNumber() : 0;
+    return new ChainIterator(tgt != 0 && tgt < firstByTgt.length ? firstByTgt[tgt] : NONE, nextByTgt);
+  }
+
+  /**
+   * Returns a QueueReader object containing all edges added so far, and which will be informed of any new edges that
+   * are later added to the graph.
+   */
+  @Override
+  public QueueReader<Edge> listener() {
+    return new Reader(0);
+  }
+
+  /**
+   * Returns a QueueReader object which will contain ONLY NEW edges which will be added to the graph.
+   */
+  @Override
+  public QueueReader<Edge> newListener() {
+    return new Reader(count);
+  }
+
+  /** Returns the number of edges in the call graph. */
+  @Override
+  public int size() {
+    return live;
+  }
+
+  @Override
+  public Iterator<Edge> iterator() {
+    return new Reader(0);
+  }
+
+  /** Reads the records in the order in which they were added, skipping removed ones. */
+  private class Reader extends QueueReader<Edge> {
+    private int position;
+    private Edge last;
+
+    Reader(int position) {
+      super(null, 0);
+      this.position = position;
+    }
+
+    @Override
+    public Edge next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      last = edgeAt(position++);
+      return last;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (position < count && kinds[position] == REMOVED) {
+        position++;
+      }
+      return position < count;
+    }
+
+    /** Views are created anew on each read, so removing one from a reader only invalidates that view. */
+    @Override
+    public void remove(Edge o) {
+      o.invalidate();
+    }
+
+    @Override
+    public void remove(Collection<Edge> toRemove) {
+      for (Edge e : toRemove) {
+        e.invalidate();
+      }
+    }
+
+    @Override
+    public void remove() {
+      if (last != null) {
+        last.invalidate();
+      }
+    }
+
+    @Override
+    public QueueReader<Edge> clone() {
+      return new Reader(position);
+    }
+  }
+}
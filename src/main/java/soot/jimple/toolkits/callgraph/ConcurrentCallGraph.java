@@ -0,0 +1,246 @@
+package soot.jimple.toolkits.callgraph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+import soot.MethodOrMethodContext;
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.Stmt;
+import soot.util.queue.ConcurrentQueue;
+import soot.util.queue.QueueReader;
+
+/**
+ * A call graph that can be read and written by several threads at the same time. Instead of the intrusive edge lists of
+ * {@link CallGraph}, the edges of each source unit, source method and target method are kept in lock-free queues, and
+ * new edges are published through a {@link ConcurrentQueue}. It is used instead of {@link CallGraph} when the cg phase
+ * option concurrent-edges is set.
+ *
+ * An edge is put into the lookup maps before it is published to the listeners. A consumer such as
+ * {@link ReachableMethods} that reads the listener and then looks up the edges of the methods it found therefore never
+ * misses an edge for good: it sees it either in the lookup or in a later round of the listener. Adding and removing an
+ * edge each lock one of a fixed set of stripes chosen by the target of the edge, so that equal edges that are added
+ * and removed concurrently always leave all maps in agreement. Iterators are weakly consistent, so they may or may not
+ * show edges that are added while they are in use.
+ */
+public class ConcurrentCallGraph extends CallGraph {
+  /** Stands in for null sources and source units, which the concurrent maps cannot hold as keys. */
+  private static final Object NULL_KEY = new Object();
+
+  private static final int STRIPES = 64;
+
+  /** Maps each edge to the instance that was added, so that removing an equal edge invalidates the published one. */
+  private final ConcurrentMap<Edge, Edge> added = new ConcurrentHashMap<Edge, Edge>();
+  private final ConcurrentMap<Object, Queue<Edge>> srcMethodToEdges = new ConcurrentHashMap<Object, Queue<Edge>>();
+  private final ConcurrentMap<Object, Queue<Edge>> srcUnitToEdges = new ConcurrentHashMap<Object, Queue<Edge>>();
+  private final ConcurrentMap<Object, Queue<Edge>> tgtToEdges = new ConcurrentHashMap<Object, Queue<Edge>>();
+  private final Object[] stripes = new Object[STRIPES];
+
+  public ConcurrentCallGraph() {
+    super(false);
+    edges = added.keySet();
+    stream = new ConcurrentQueue<Edge>();
+    reader = stream.reader();
+    // The intrusive edge lists of the base class are not used
+    srcMethodToEdge = Collections.emptyMap();
+    srcUnitToEdge = Collections.emptyMap();
+    tgtToEdge = Collections.emptyMap();
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Object();
+    }
+  }
+
+  /**
+   * Equal edges have the same target, so they always share a stripe. Unlike the hash code of the edge, the target can
+   * be read safely while another thread invalidates the edge.
+   */
+  private Object stripeFor(MethodOrMethodContext tgt) {
+    return stripes[System.identityHashCode(tgt) & (STRIPES - 1)];
+  }
+
+  /**
+   * Used to add an edge to the call graph. Returns true iff the edge was not already present.
+   */
+  @Override
+  public boolean addEdge(Edge e) {
+    synchronized (stripeFor(e.getTgt())) {
+      if (added.putIfAbsent(e, e) != null) {
+        return false;
+      }
+      put(srcUnitToEdges, e.srcUnit(), e);
+      put(srcMethodToEdges, e.getSrc(), e);
+      put(tgtToEdges, e.getTgt(), e);
+      stream.add(e);
+    }
+    return true;
+  }
+
+  /**
+   * Removes all outgoing edges that start at the given unit
+   *
+   * @param u
+   *          The unit from which to remove all outgoing edges
+   * @return True if at least one edge has been removed, otherwise false
+   */
+  @Override
+  public boolean removeAllEdgesOutOf(Unit u) {
+    boolean hasRemoved = false;
+    for (Iterator<Edge> it = edgesOutOf(u); it.hasNext();) {
+      if (removeEdge(it.next())) {
+        hasRemoved = true;
+      }
+    }
+    return hasRemoved;
+  }
+
+  @Override
+  public boolean swapEdgesOutOf(Stmt out, Stmt in) {
+    boolean hasSwapped = false;
+    for (Iterator<Edge> it = edgesOutOf(out); it.hasNext();) {
+      Edge e = it.next();
+      MethodOrMethodContext src = e.getSrc();
+      MethodOrMethodContext tgt = e.getTgt();
+      if (removeEdge(e)) {
+        addEdge(new Edge(src, in, tgt));
+        hasSwapped = true;
+      }
+    }
+    return hasSwapped;
+  }
+
+  /**
+   * Removes the edge e from the call graph. Returns true iff the edge was originally present in the call graph.
+   * Listeners always skip removed edges, so removeInEdgeList makes no difference here.
+   */
+  @Override
+  public boolean removeEdge(Edge e, boolean removeInEdgeList) {
+    MethodOrMethodContext tgt = e.getTgt();
+    if (tgt == null) {
+      // Already invalidated
+      return false;
+    }
+    synchronized (stripeFor(tgt)) {
+      if (e.isInvalid()) {
+        return false;
+      }
+      Edge stored = added.remove(e);
+      if (stored == null) {
+        return false;
+      }
+      remove(srcUnitToEdges, stored.srcUnit(), stored);
+      remove(srcMethodToEdges, stored.getSrc(), stored);
+      remove(tgtToEdges, stored.getTgt(), stored);
+      stored.invalidate();
+    }
+    return true;
+  }
+
+  @Override
+  public boolean isEntryMethod(SootMethod method) {
+    Queue<Edge> queue = tgtToEdges.get(method);
+    return queue == null || queue.isEmpty();
+  }
+
+  @Override
+  public Edge findEdge(Unit u, SootMethod callee) {
+    for (Iterator<Edge> it = edgesOutOf(u); it.hasNext();) {
+      Edge e = it.next();
+      if (e.tgt() == callee) {
+        return e;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns an iterator over all methods that are the sources of at least one edge.
+   */
+  @Override
+  public Iterator<MethodOrMethodContext> sourceMethods() {
+    return srcMethodToEdges.entrySet().stream().filter(entry -> !entry.getValue().isEmpty())
+        .map(entry -> entry.getKey() == NULL_KEY ? null : (MethodOrMethodContext) entry.getKey()).iterator();
+  }
+
+  /** Returns an iterator over all edges that have u as their source unit. */
+  @Override
+  public Iterator<Edge> edgesOutOf(Unit u) {
+    if (u == null) {
+      throw new RuntimeException();
+    }
+    return lookup(srcUnitToEdges, u);
+  }
+
+  /** Returns an iterator over all edges that have m as their source method. */
+  @Override
+  public Iterator<Edge> edgesOutOf(MethodOrMethodContext m) {
+    if (m == null) {
+      throw new RuntimeException();
+    }
+    return lookup(srcMethodToEdges, m);
+  }
+
+  /** Returns an iterator over all edges that have m as their target method. */
+  @Override
+  public Iterator<Edge> edgesInto(MethodOrMethodContext m) {
+    if (m == null) {
+      throw new RuntimeException();
+    }
+    return lookup(tgtToEdges, m);
+  }
+
+  private static void put(ConcurrentMap<Object, Queue<Edge>> map, Object key, Edge e) {
+    if (key == null) {
+      key = NULL_KEY;
+    }
+    Queue<Edge> queue = map.get(key);
+    if (queue == null) {
+      queue = map.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<Edge>());
+    }
+    queue.add(e);
+  }
+
+  /**
+   * Removes e from the queue of key. Empty queues are left in the map, since a concurrent put may already be adding to
+   * them.
+   */
+  private static void remove(ConcurrentMap<Object, Queue<Edge>> map, Object key, Edge e) {
+    Queue<Edge> queue = map.get(key == null ? NULL_KEY : key);
+    if (queue != null) {
+      queue.remove(e);
+    }
+  }
+
+  private static Iterator<Edge> lookup(ConcurrentMap<Object, Queue<Edge>> map, Object key) {
+    Queue<Edge> queue = map.get(key);
+    if (queue == null) {
+      return Collections.<Edge>emptyIterator();
+    }
+    return queue.iterator();
+  }
+}
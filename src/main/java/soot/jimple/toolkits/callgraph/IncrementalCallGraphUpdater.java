@@ -0,0 +1,311 @@
+package soot.jimple.toolkits.callgraph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.Body;
+import soot.MethodOrMethodContext;
+import soot.RefType;
+import soot.Scene;
+import soot.SceneDelta;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Unit;
+import soot.Value;
+import soot.ValueBox;
+import soot.jimple.FieldRef;
+import soot.jimple.InvokeExpr;
+import soot.jimple.NewExpr;
+import soot.jimple.StringConstant;
+import soot.jimple.toolkits.pointer.DumbPointerAnalysis;
+import soot.util.queue.QueueReader;
+
+/**
+ * Brings a class hierarchy analysis call graph up to date after classes were added to, removed from or modified in the
+ * Scene, without building it again from scratch. The resulting call graph has the same edges as one built by
+ * {@link CHATransformer} for the changed Scene.
+ *
+ * <p>
+ * The call edges of a method only depend on its body and on the part of the class hierarchy that the classes it refers
+ * to belong to. An update therefore only recomputes the edges of the methods that belong to a changed class, or which
+ * refer to a class that is a supertype or a subtype of a changed class, either before or after the change. The methods
+ * that become reachable through the new edges are processed as well, and the edges of methods that are no longer
+ * reachable are removed.
+ *
+ * <p>
+ * The updater keeps a copy of the direct supertypes of every class, so it must be created while the Scene still matches
+ * the call graph, that is before the classes are changed. It can then be used for any number of updates. Call graphs
+ * built with points-to sets, such as Spark's, are not supported; the Scene releases its points-to analysis whenever the
+ * hierarchy changes, so those still have to be rebuilt. Updating them throws an {@link IllegalStateException} instead of
+ * mixing class hierarchy edges into them.
+ */
+public class IncrementalCallGraphUpdater {
+  private static final Logger logger = LoggerFactory.getLogger(IncrementalCallGraphUpdater.class);
+
+  /** The direct supertypes of every class, as they were when the call graph was last up to date. */
+  private Map<SootClass, List<SootClass>> supertypes;
+
+  /** Whether the call graph was built by class hierarchy analysis, that is without a points-to analysis. */
+  private final boolean classHierarchyCallGraph;
+
+  public IncrementalCallGraphUpdater() {
+    if (!Scene.v().hasCallGraph()) {
+      throw new IllegalStateException("No call graph present in Scene to update");
+    }
+    this.supertypes = snapshotSupertypes();
+    this.classHierarchyCallGraph = Scene.v().getPointsToAnalysis() instanceof DumbPointerAnalysis;
+  }
+
+  /**
+   * Updates the Scene's call graph and reachable methods for the given changes, which must already have been made to
+   * the Scene. The entry points are taken from {@link Scene#getEntryPoints()}, without those of removed classes.
+   *
+   * @param delta
+   *          the classes that were added, removed or modified since the call graph was last up to date
+   */
+  public void update(SceneDelta delta) {
+    if (!classHierarchyCallGraph) {
+      throw new IllegalStateException("Only call graphs built by class hierarchy analysis can be updated incrementally");
+    }
+    final Scene scene = Scene.v();
+    final CallGraph cg = scene.getCallGraph();
+    final ReachableMethods oldReachables = scene.getReachableMethods();
+
+    // Classes that are modified in place do not invalidate the hierarchy by themselves
+    scene.releaseActiveHierarchy();
+    scene.releaseFastHierarchy();
+    scene.releasePointsToAnalysis();
+    scene.releaseSideEffectAnalysis();
+
+    Map<SootClass, List<SootClass>> newSupertypes = snapshotSupertypes();
+    Set<SootClass> changed = delta.getChangedClasses();
+    Set<RefType> affected = affectedTypes(changed, supertypes, newSupertypes);
+    VirtualCalls.v().invalidate(affected);
+    Set<String> changedNames = new HashSet<String>();
+    for (SootClass c : changed) {
+      changedNames.add(c.getName());
+    }
+
+    // Sort the previously reachable methods into the ones that are gone, the ones whose edges must be recomputed and
+    // the ones whose edges are still up to date
+    Set<SootMethod> gone = new HashSet<SootMethod>();
+    Set<SootMethod> dirty = new HashSet<SootMethod>();
+    Set<MethodOrMethodContext> done = new HashSet<MethodOrMethodContext>();
+    for (QueueReader<MethodOrMethodContext> rdr = oldReachables.listener(); rdr.hasNext();) {
+      SootMethod m = rdr.next().method();
+      if (!m.isDeclared() || !m.getDeclaringClass().isInScene()) {
+        gone.add(m);
+      } else if (changed.contains(m.getDeclaringClass()) || refersTo(m, affected, changedNames)) {
+        dirty.add(m);
+      } else {
+        done.add(m);
+      }
+    }
+
+    // An edge between two methods that are gone is found twice, but may only be removed once
+    Set<Edge> stale = new LinkedHashSet<Edge>();
+    for (SootMethod m : gone) {
+      collect(cg.edgesOutOf(m), stale);
+      collect(cg.edgesInto(m), stale);
+    }
+    for (SootMethod m : dirty) {
+      collect(cg.edgesOutOf(m), stale);
+    }
+    cg.removeEdges(stale);
+
+    // Build the edges of the dirty methods, and of any method that is reached for the first time, in a separate graph
+    List<MethodOrMethodContext> entryPoints = new ArrayList<MethodOrMethodContext>();
+    for (SootMethod m : scene.getEntryPoints()) {
+      if (m.isDeclared() && m.getDeclaringClass().isInScene()) {
+        entryPoints.add(m);
+      }
+    }
+    List<MethodOrMethodContext> seeds = new ArrayList<MethodOrMethodContext>(dirty);
+    for (MethodOrMethodContext m : entryPoints) {
+      if (!done.contains(m) && !dirty.contains(m)) {
+        seeds.add(m);
+      }
+    }
+    CallGraph patch = new CallGraph();
+    new CallGraphBuilder(DumbPointerAnalysis.v(), patch, new PatchReachableMethods(patch, seeds, done)).build();
+    for (Edge e : patch) {
+      cg.addEdge(new Edge(e.getSrc(), e.srcUnit(), e.getTgt(), e.kind()));
+    }
+
+    // Methods that lost their last caller keep their outgoing edges until here
+    ReachableMethods reachables = new ReachableMethods(cg, entryPoints);
+    reachables.update();
+    List<Edge> unreachable = new ArrayList<Edge>();
+    for (Edge e : cg) {
+      if (!reachables.contains(e.getSrc())) {
+        unreachable.add(e);
+      }
+    }
+    cg.removeEdges(unreachable);
+    scene.setReachableMethods(reachables);
+
+    supertypes = newSupertypes;
+    if (logger.isDebugEnabled()) {
+      logger.debug("[Call Graph] Updated " + dirty.size() + " methods and removed " + gone.size() + " for " + delta
+          + ", " + patch.size() + " edges added, " + (stale.size() + unreachable.size()) + " removed");
+    }
+  }
+
+  private static Map<SootClass, List<SootClass>> snapshotSupertypes() {
+    Map<SootClass, List<SootClass>> ret = new HashMap<SootClass, List<SootClass>>();
+    for (SootClass c : Scene.v().getClasses().getElementsUnsorted()) {
+      if (c.resolvingLevel() < SootClass.HIERARCHY) {
+        continue;
+      }
+      List<SootClass> direct = new ArrayList<SootClass>(c.getInterfaceCount() + 1);
+      SootClass superClass = c.getSuperclassUnsafe();
+      if (superClass != null) {
+        direct.add(superClass);
+      }
+      direct.addAll(c.getInterfaces());
+      ret.put(c, direct);
+    }
+    return ret;
+  }
+
+  /**
+   * Returns the types of the changed classes and of all their supertypes and subtypes, both before and after the
+   * change.
+   */
+  private static Set<RefType> affectedTypes(Collection<SootClass> changed, Map<SootClass, List<SootClass>> before,
+      Map<SootClass, List<SootClass>> after) {
+    Set<SootClass> classes = new HashSet<SootClass>();
+    for (Map<SootClass, List<SootClass>> up : Arrays.asList(before, after)) {
+      Map<SootClass, List<SootClass>> down = new HashMap<SootClass, List<SootClass>>();
+      for (Map.Entry<SootClass, List<SootClass>> entry : up.entrySet()) {
+        for (SootClass sup : entry.getValue()) {
+          List<SootClass> subs = down.get(sup);
+          if (subs == null) {
+            subs = new ArrayList<SootClass>();
+            down.put(sup, subs);
+          }
+          subs.add(entry.getKey());
+        }
+      }
+      reach(changed, up, classes);
+      reach(changed, down, classes);
+    }
+    Set<RefType> ret = new HashSet<RefType>();
+    for (SootClass c : classes) {
+      ret.add(c.getType());
+    }
+    return ret;
+  }
+
+  private static void reach(Collection<SootClass> roots, Map<SootClass, List<SootClass>> edges, Set<SootClass> result) {
+    Set<SootClass> seen = new HashSet<SootClass>();
+    Deque<SootClass> worklist = new ArrayDeque<SootClass>(roots);
+    while (!worklist.isEmpty()) {
+      SootClass c = worklist.poll();
+      if (seen.add(c)) {
+        result.add(c);
+        List<SootClass> next = edges.get(c);
+        if (next != null) {
+          worklist.addAll(next);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns true iff the body of m refers to one of the given types in a way that the call graph builder turns into
+   * edges: by invoking a method, accessing a field or instantiating a class, or by naming a changed class for
+   * reflection.
+   */
+  private static boolean refersTo(SootMethod m, Set<RefType> types, Set<String> names) {
+    if (!m.isConcrete()) {
+      return false;
+    }
+    Body b = m.retrieveActiveBody();
+    for (Unit u : b.getUnits()) {
+      for (ValueBox box : u.getUseAndDefBoxes()) {
+        Value v = box.getValue();
+        if (v instanceof InvokeExpr) {
+          if (types.contains(((InvokeExpr) v).getMethodRef().getDeclaringClass().getType())) {
+            return true;
+          }
+        } else if (v instanceof FieldRef) {
+          if (types.contains(((FieldRef) v).getFieldRef().declaringClass().getType())) {
+            return true;
+          }
+        } else if (v instanceof NewExpr) {
+          if (types.contains(((NewExpr) v).getBaseType())) {
+            return true;
+          }
+        } else if (v instanceof StringConstant) {
+          if (names.contains(((StringConstant) v).value)) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  private static void collect(Iterator<Edge> edges, Collection<Edge> result) {
+    while (edges.hasNext()) {
+      result.add(edges.next());
+    }
+  }
+
+  /**
+   * The methods reachable from the seeds, not counting those whose edges are already in the call graph that is updated.
+   */
+  private static class PatchReachableMethods extends ReachableMethods {
+    private final Set<MethodOrMethodContext> done;
+
+    PatchReachableMethods(CallGraph graph, Collection<MethodOrMethodContext> seeds, Set<MethodOrMethodContext> done) {
+      super(graph, Collections.<MethodOrMethodContext>emptyIterator());
+      this.done = done;
+      addMethods(seeds.iterator());
+    }
+
+    @Override
+    protected void addMethod(MethodOrMethodContext m) {
+      if (!done.contains(m)) {
+        super.addMethod(m);
+      }
+    }
+  }
+}
@@ -22,6 +22,8 @@ package soot.jimple.toolkits.callgraph;
  * #L%
  */
 
+import heros.solver.CountingThreadPoolExecutor;
+
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -35,6 +37,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import soot.AnySubType;
@@ -297,6 +301,10 @@ public class OnFlyCallGraphBuilder {
   }
 
   public void processReachables() {
+    if (options.parallel() && !Options.v().coffi()) {
+      processReachablesInWaves();
+      return;
+    }
     while (true) {
       if (!worklist.hasNext()) {
         rm.update();
@@ -304,18 +312,88 @@ public class OnFlyCallGraphBuilder {
           break;
         }
       }
-      MethodOrMethodContext momc = worklist.next();
-      SootMethod m = momc.method();
-      if (appOnly && !m.getDeclaringClass().isApplicationClass()) {
-        continue;
+      processReachable(worklist.next());
+    }
+  }
+
+  /**
+   * Processes the reachable methods in waves. The bodies of all new methods of a wave are created concurrently, then the
+   * methods are processed one after the other in the same order as in {@link #processReachables()}, so the resulting
+   * call graph is the same.
+   */
+  private void processReachablesInWaves() {
+    CountingThreadPoolExecutor executor = null;
+    try {
+      while (true) {
+        if (!worklist.hasNext()) {
+          rm.update();
+          if (!worklist.hasNext()) {
+            break;
+          }
+        }
+        List<MethodOrMethodContext> wave = new ArrayList<MethodOrMethodContext>();
+        Set<SootMethod> newMethods = new HashSet<SootMethod>();
+        while (worklist.hasNext()) {
+          MethodOrMethodContext momc = worklist.next();
+          wave.add(momc);
+          SootMethod m = momc.method();
+          if (m.isConcrete() && !m.hasActiveBody() && !analyzedMethods.contains(m)
+              && !(appOnly && !m.getDeclaringClass().isApplicationClass())) {
+            newMethods.add(m);
+          }
+        }
+        if (newMethods.size() > 1) {
+          if (executor == null) {
+            int threadNum = Runtime.getRuntime().availableProcessors();
+            executor = new CountingThreadPoolExecutor(threadNum, threadNum, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>());
+          }
+          retrieveBodies(executor, newMethods);
+        }
+        for (MethodOrMethodContext momc : wave) {
+          processReachable(momc);
+        }
+      }
+    } finally {
+      if (executor != null) {
+        executor.shutdown();
       }
-      if (analyzedMethods.add(m)) {
-        processNewMethod(m);
+    }
+  }
+
+  private void retrieveBodies(CountingThreadPoolExecutor executor, Collection<SootMethod> methods) {
+    for (final SootMethod m : methods) {
+      executor.execute(() -> m.retrieveActiveBody());
+    }
+
+    // Wait till all method bodies have been loaded
+    try {
+      executor.awaitCompletion();
+    } catch (InterruptedException e) {
+      throw new RuntimeException("Could not wait for loader threads to finish: " + e.getMessage(), e);
+    }
+
+    // If something went wrong, we tell the world
+    if (executor.getException() != null) {
+      if (executor.getException() instanceof RuntimeException) {
+        throw (RuntimeException) executor.getException();
+      } else {
+        throw new RuntimeException(executor.getException());
       }
-      processNewMethodContext(momc);
     }
   }
 
+  private void processReachable(MethodOrMethodContext momc) {
+    SootMethod m = momc.method();
+    if (appOnly && !m.getDeclaringClass().isApplicationClass()) {
+      return;
+    }
+    if (analyzedMethods.add(m)) {
+      processNewMethod(m);
+    }
+    processNewMethodContext(momc);
+  }
+
   public boolean wantTypes(Local receiver) {
     return receiverToSites.get(receiver) != null || baseToInvokeSite.get(receiver) != null;
   }
@@ -31,6 +31,7 @@ import java.util.Set;
 
 import soot.AnySubType;
 import soot.ArrayType;
+import soot.DispatchCache;
 import soot.FastHierarchy;
 import soot.G;
 import soot.NullType;
@@ -46,10 +47,8 @@ import soot.options.CGOptions;
 import soot.toolkits.scalar.Pair;
 import soot.util.Chain;
 import soot.util.HashMultiMap;
-import soot.util.LargeNumberedMap;
 import soot.util.MultiMap;
 import soot.util.NumberedString;
-import soot.util.SmallNumberedMap;
 import soot.util.queue.ChunkedQueue;
 
 /**
@@ -67,22 +66,19 @@ public class VirtualCalls {
     return G.v().soot_jimple_toolkits_callgraph_VirtualCalls();
   }
 
-  private final LargeNumberedMap<Type, SmallNumberedMap<SootMethod>> typeToVtbl
-      = new LargeNumberedMap<Type, SmallNumberedMap<SootMethod>>(Scene.v().getTypeNumberer());
-
   public SootMethod resolveSpecial(SpecialInvokeExpr iie, NumberedString subSig, SootMethod container) {
     return resolveSpecial(iie, subSig, container, false);
   }
 
   public SootMethod resolveSpecial(SpecialInvokeExpr iie, NumberedString subSig, SootMethod container, boolean appOnly) {
     SootMethod target = iie.getMethod();
+    FastHierarchy fastHierachy = Scene.v().getOrMakeFastHierarchy();
     /* cf. JVM spec, invokespecial instruction */
-    if (Scene.v().getOrMakeFastHierarchy().canStoreType(container.getDeclaringClass().getType(),
-        target.getDeclaringClass().getType())
+    if (fastHierachy.canStoreType(container.getDeclaringClass().getType(), target.getDeclaringClass().getType())
         && container.getDeclaringClass().getType() != target.getDeclaringClass().getType()
         && !target.getName().equals("<init>") && subSig != sigClinit) {
 
-      return resolveNonSpecial(container.getDeclaringClass().getSuperclass().getType(), subSig, appOnly);
+      return resolveNonSpecial(fastHierachy, container.getDeclaringClass().getSuperclass().getType(), subSig, appOnly);
     } else {
       return target;
     }
@@ -93,11 +89,12 @@ public class VirtualCalls {
   }
 
   public SootMethod resolveNonSpecial(RefType t, NumberedString subSig, boolean appOnly) {
-    SmallNumberedMap<SootMethod> vtbl = typeToVtbl.get(t);
-    if (vtbl == null) {
-      typeToVtbl.put(t, vtbl = new SmallNumberedMap<SootMethod>());
-    }
-    SootMethod ret = vtbl.get(subSig);
+    return resolveNonSpecial(Scene.v().getOrMakeFastHierarchy(), t, subSig, appOnly);
+  }
+
+  private SootMethod resolveNonSpecial(FastHierarchy fastHierachy, RefType t, NumberedString subSig, boolean appOnly) {
+    DispatchCache<RefType, NumberedString, SootMethod> vtbl = fastHierachy.getVirtualDispatchCache();
+    SootMethod ret = vtbl.get(t, subSig);
     if (ret != null) {
       return ret;
     }
@@ -114,10 +111,10 @@ public class VirtualCalls {
     } else {
       SootClass c = cls.getSuperclassUnsafe();
       if (c != null) {
-        ret = resolveNonSpecial(c.getType(), subSig);
+        ret = resolveNonSpecial(fastHierachy, c.getType(), subSig, false);
       }
     }
-    vtbl.put(subSig, ret);
+    vtbl.put(t, subSig, ret);
     return ret;
   }
 
@@ -125,6 +122,24 @@ public class VirtualCalls {
   protected MultiMap<Pair<Type, NumberedString>, Pair<Type, NumberedString>> baseToPossibleSubTypes
       = new HashMultiMap<Pair<Type, NumberedString>, Pair<Type, NumberedString>>();
 
+  /**
+   * Forgets the subtypes that were cached for the given types. This must be called for every type whose part of the class
+   * hierarchy changes while the Scene is still in use.
+   *
+   * @param types
+   *          the types whose subtypes may have changed
+   */
+  public void invalidate(Set<? extends Type> types) {
+    for (Type t : types) {
+      baseToSubTypes.remove(t);
+    }
+    for (Pair<Type, NumberedString> pair : new ArrayList<Pair<Type, NumberedString>>(baseToPossibleSubTypes.keySet())) {
+      if (types.contains(pair.getO1())) {
+        baseToPossibleSubTypes.remove(pair);
+      }
+    }
+  }
+
   public void resolve(Type t, Type declaredType, NumberedString subSig, SootMethod container,
       ChunkedQueue<SootMethod> targets) {
     resolve(t, declaredType, null, subSig, container, targets);
@@ -142,6 +157,11 @@ public class VirtualCalls {
 
   public void resolve(Type t, Type declaredType, Type sigType, NumberedString subSig, SootMethod container,
       ChunkedQueue<SootMethod> targets, boolean appOnly) {
+    resolve(Scene.v().getOrMakeFastHierarchy(), t, declaredType, sigType, subSig, container, targets, appOnly);
+  }
+
+  private void resolve(FastHierarchy fastHierachy, Type t, Type declaredType, Type sigType, NumberedString subSig,
+      SootMethod container, ChunkedQueue<SootMethod> targets, boolean appOnly) {
     if (declaredType instanceof ArrayType) {
       declaredType = RefType.v("java.lang.Object");
     }
@@ -151,7 +171,6 @@ public class VirtualCalls {
     if (t instanceof ArrayType) {
       t = RefType.v("java.lang.Object");
     }
-    FastHierarchy fastHierachy = Scene.v().getOrMakeFastHierarchy();
     if (declaredType != null && !fastHierachy.canStoreType(t, declaredType)) {
       return;
     }
@@ -159,7 +178,7 @@ public class VirtualCalls {
       return;
     }
     if (t instanceof RefType) {
-      SootMethod target = resolveNonSpecial((RefType) t, subSig, appOnly);
+      SootMethod target = resolveNonSpecial(fastHierachy, (RefType) t, subSig, appOnly);
       if (target != null) {
         targets.add(target);
       }
@@ -178,9 +197,9 @@ public class VirtualCalls {
        * Since Java has no multiple inheritance call by signature resolution is only activated if the base is an interface.
        */
       if (options.library() == CGOptions.library_signature_resolution && base.getSootClass().isInterface()) {
-        resolveLibrarySignature(declaredType, sigType, subSig, container, targets, appOnly, base);
+        resolveLibrarySignature(fastHierachy, declaredType, sigType, subSig, container, targets, appOnly, base);
       } else {
-        resolveAnySubType(declaredType, sigType, subSig, container, targets, appOnly, base);
+        resolveAnySubType(fastHierachy, declaredType, sigType, subSig, container, targets, appOnly, base);
       }
     } else if (t instanceof NullType) {
     } else {
@@ -217,7 +236,7 @@ public class VirtualCalls {
       childClass = child.getSootClass();
       FastHierarchy fastHierachy = Scene.v().getOrMakeFastHierarchy();
       if (fastHierachy.canStoreClass(childClass,parentClass)) {
-        SootMethod target = resolveNonSpecial(child, subSig, appOnly);
+        SootMethod target = resolveNonSpecial(fastHierachy, child, subSig, appOnly);
         if (target != null) {
           targets.add(target);
         }
@@ -227,13 +246,17 @@ public class VirtualCalls {
 
   protected void resolveAnySubType(Type declaredType, Type sigType, NumberedString subSig, SootMethod container,
       ChunkedQueue<SootMethod> targets, boolean appOnly, RefType base) {
-    FastHierarchy fastHierachy = Scene.v().getOrMakeFastHierarchy();
+    resolveAnySubType(Scene.v().getOrMakeFastHierarchy(), declaredType, sigType, subSig, container, targets, appOnly,
+        base);
+  }
 
+  private void resolveAnySubType(FastHierarchy fastHierachy, Type declaredType, Type sigType, NumberedString subSig,
+      SootMethod container, ChunkedQueue<SootMethod> targets, boolean appOnly, RefType base) {
     {
       Set<Type> subTypes = baseToSubTypes.get(base);
       if (subTypes != null && !subTypes.isEmpty()) {
         for (final Type st : subTypes) {
-          resolve(st, declaredType, sigType, subSig, container, targets, appOnly);
+          resolve(fastHierachy, st, declaredType, sigType, subSig, container, targets, appOnly);
         }
         return;
       }
@@ -261,7 +284,7 @@ public class VirtualCalls {
         }
       } else {
         if (cl.isConcrete()) {
-          resolve(cl.getType(), declaredType, sigType, subSig, container, targets, appOnly);
+          resolve(fastHierachy, cl.getType(), declaredType, sigType, subSig, container, targets, appOnly);
           newSubTypes.add(cl.getType());
         }
         for (Iterator<SootClass> cIt = fh.getSubclassesOf(cl).iterator(); cIt.hasNext();) {
@@ -278,8 +301,12 @@ public class VirtualCalls {
 
   protected void resolveLibrarySignature(Type declaredType, Type sigType, NumberedString subSig, SootMethod container,
       ChunkedQueue<SootMethod> targets, boolean appOnly, RefType base) {
-    FastHierarchy fastHierachy = Scene.v().getOrMakeFastHierarchy();
+    resolveLibrarySignature(Scene.v().getOrMakeFastHierarchy(), declaredType, sigType, subSig, container, targets,
+        appOnly, base);
+  }
 
+  private void resolveLibrarySignature(FastHierarchy fastHierachy, Type declaredType, Type sigType,
+      NumberedString subSig, SootMethod container, ChunkedQueue<SootMethod> targets, boolean appOnly, RefType base) {
     assert (declaredType instanceof RefType);
     Pair<Type, NumberedString> pair = new Pair<Type, NumberedString>(base, subSig);
     {
@@ -290,9 +317,9 @@ public class VirtualCalls {
         for (Pair<Type, NumberedString> tuple : types) {
           Type st = tuple.getO1();
           if (!fastHierachy.canStoreType(st, declaredType)) {
-            resolve(st, st, sigType, subSig, container, targets, appOnly);
+            resolve(fastHierachy, st, st, sigType, subSig, container, targets, appOnly);
           } else {
-            resolve(st, declaredType, sigType, subSig, container, targets, appOnly);
+            resolve(fastHierachy, st, declaredType, sigType, subSig, container, targets, appOnly);
           }
         }
         return;
@@ -352,11 +379,11 @@ public class VirtualCalls {
               // therefore not used in library client
               if (!sc.isFinal()) {
                 NumberedString newSubSig = sm.getNumberedSubSignature();
-                resolve(st, st, sigType, newSubSig, container, targets, appOnly);
+                resolve(fastHierachy, st, st, sigType, newSubSig, container, targets, appOnly);
                 types.add(new Pair<Type, NumberedString>(st, newSubSig));
               }
             } else {
-              resolve(st, declaredType, sigType, subSig, container, targets, appOnly);
+              resolve(fastHierachy, st, declaredType, sigType, subSig, container, targets, appOnly);
               types.add(new Pair<Type, NumberedString>(st, subSig));
             }
           }
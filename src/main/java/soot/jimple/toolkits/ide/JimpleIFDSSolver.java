@@ -41,6 +41,9 @@ import org.slf4j.LoggerFactory;
 import soot.PatchingChain;
 import soot.SootMethod;
 import soot.Unit;
+import soot.jimple.toolkits.ide.libsumm.LibrarySummaries;
+import soot.jimple.toolkits.ide.libsumm.SummarizingProblem;
+import soot.jimple.toolkits.ide.libsumm.SummaryCodec;
 
 public class JimpleIFDSSolver<D, I extends InterproceduralCFG<Unit, SootMethod>> extends IFDSSolver<Unit, D, SootMethod, I> {
   private static final Logger logger = LoggerFactory.getLogger(JimpleIFDSSolver.class);
@@ -56,6 +59,17 @@ public class JimpleIFDSSolver<D, I extends InterproceduralCFG<Unit, SootMethod>>
     this.DUMP_RESULTS = dumpResults;
   }
 
+  /**
+   * Creates a solver that applies the summaries in the given store instead of descending into the summarized library
+   * methods.
+   *
+   * @see SummarizingProblem
+   */
+  public JimpleIFDSSolver(IFDSTabulationProblem<Unit, D, SootMethod, I> problem, LibrarySummaries summaries,
+      SummaryCodec<D> codec) {
+    this(new SummarizingProblem<D, I>(problem, summaries, codec), false);
+  }
+
   @Override
   public void solve() {
     super.solve();
@@ -25,21 +25,19 @@ package soot.jimple.toolkits.ide.icfg;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 
-import heros.DontSynchronize;
 import heros.SynchronizedBy;
 import heros.solver.IDESolver;
 
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import soot.Body;
-import soot.PatchingChain;
 import soot.SootMethod;
 import soot.Unit;
 import soot.UnitBox;
@@ -49,19 +47,26 @@ import soot.toolkits.graph.BriefUnitGraph;
 import soot.toolkits.graph.DirectedGraph;
 import soot.toolkits.graph.ExceptionalUnitGraph;
 
+/**
+ * Common base of the Jimple-based ICFGs. The owner of each unit is kept in a concurrent map, which is populated lazily: the
+ * units of a body are registered when its unit graph is first built, and subclasses can register the remaining units on
+ * demand through {@link #initializeRemainingOwners()}. All lookups are safe to use from several threads.
+ */
 public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<Unit, SootMethod> {
 
   protected final boolean enableExceptions;
 
-  @DontSynchronize("written by single thread; read afterwards")
-  private final Map<Unit, Body> unitToOwner = createUnitToOwnerMap();
+  @SynchronizedBy("by use of a concurrent map")
+  private final UnitOwnerTable unitToOwner = new UnitOwnerTable(createUnitToOwnerMap());
 
   @SynchronizedBy("by use of synchronized LoadingCache class")
   protected LoadingCache<Body, DirectedGraph<Unit>> bodyToUnitGraph
       = IDESolver.DEFAULT_CACHE_BUILDER.build(new CacheLoader<Body, DirectedGraph<Unit>>() {
         @Override
         public DirectedGraph<Unit> load(Body body) throws Exception {
-          return makeGraph(body);
+          DirectedGraph<Unit> graph = makeGraph(body);
+          initializeUnitToOwner(body);
+          return graph;
         }
       });
 
@@ -87,8 +92,16 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
     this(true);
   }
 
+  /**
+   * Creates the map that holds the owner of each unit. The map is only used through get and putIfAbsent, and it is shared
+   * by all threads that use this ICFG.
+   *
+   * @deprecated The owners are registered lazily and from several threads, so any map returned here must be safe for
+   *             concurrent use. This hook will be removed; the default concurrent map should be used instead.
+   */
+  @Deprecated
   protected Map<Unit, Body> createUnitToOwnerMap() {
-    return new LinkedHashMap<Unit, Body>();
+    return new ConcurrentHashMap<Unit, Body>();
   }
 
   public AbstractJimpleBasedICFG(boolean enableExceptions) {
@@ -96,8 +109,17 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
   }
 
   public Body getBodyOf(Unit u) {
-    assert unitToOwner.containsKey(u) : "Statement " + u + " not in unit-to-owner mapping";
+    Body b = lookupOwner(u);
+    assert b != null : "Statement " + u + " not in unit-to-owner mapping";
+    return b;
+  }
+
+  private Body lookupOwner(Unit u) {
     Body b = unitToOwner.get(u);
+    if (b == null) {
+      initializeRemainingOwners();
+      b = unitToOwner.get(u);
+    }
     return b;
   }
 
@@ -197,7 +219,7 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
   }
 
   public boolean setOwnerStatement(Unit u, Body b) {
-    return unitToOwner.put(u, b) == null;
+    return unitToOwner.put(u, b);
   }
 
   @Override
@@ -207,7 +229,8 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   @Override
   public Set<Unit> allNonCallStartNodes() {
-    Set<Unit> res = new LinkedHashSet<Unit>(unitToOwner.keySet());
+    initializeRemainingOwners();
+    Set<Unit> res = new LinkedHashSet<Unit>(unitToOwner.units());
     for (Iterator<Unit> iter = res.iterator(); iter.hasNext();) {
       Unit u = iter.next();
       if (isStartPoint(u) || isCallStmt(u)) {
@@ -219,7 +242,8 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   @Override
   public Set<Unit> allNonCallEndNodes() {
-    Set<Unit> res = new LinkedHashSet<Unit>(unitToOwner.keySet());
+    initializeRemainingOwners();
+    Set<Unit> res = new LinkedHashSet<Unit>(unitToOwner.units());
     for (Iterator<Unit> iter = res.iterator(); iter.hasNext();) {
       Unit u = iter.next();
       if (isExitStmt(u) || isCallStmt(u)) {
@@ -241,14 +265,22 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   public void initializeUnitToOwner(SootMethod m) {
     if (m.hasActiveBody()) {
-      Body b = m.getActiveBody();
-      PatchingChain<Unit> units = b.getUnits();
-      for (Unit unit : units) {
-        unitToOwner.put(unit, b);
-      }
+      initializeUnitToOwner(m.getActiveBody());
     }
   }
 
+  /** Registers b as the owner of all of its units. */
+  protected void initializeUnitToOwner(Body b) {
+    unitToOwner.putAll(b);
+  }
+
+  /**
+   * Called when a unit has no known owner, and before all known units are listed. Subclasses that know of bodies whose units
+   * have not been registered yet should register them here. Does nothing by default.
+   */
+  protected void initializeRemainingOwners() {
+  }
+
   @Override
   public List<Unit> getPredsOf(Unit u) {
     assert u != null;
@@ -287,7 +319,7 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   @Override
   public boolean isReachable(Unit u) {
-    return unitToOwner.containsKey(u);
+    return lookupOwner(u) != null;
   }
 
 }
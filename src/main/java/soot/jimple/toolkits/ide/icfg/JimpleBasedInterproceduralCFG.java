@@ -47,11 +47,16 @@ import soot.jimple.toolkits.callgraph.CallGraph;
 import soot.jimple.toolkits.callgraph.Edge;
 import soot.jimple.toolkits.callgraph.EdgePredicate;
 import soot.jimple.toolkits.callgraph.Filter;
+import soot.util.queue.QueueReader;
 
 /**
  * Default implementation for the {@link InterproceduralCFG} interface. Includes all statements reachable from
  * {@link Scene#getEntryPoints()} through explicit call statements or through calls to {@link Thread#start()}.
  *
+ * The units of a method are registered when the method is first visited, so that solvers which start from a few entry
+ * points never pay for the whole program. Only lookups of units that have not been visited yet register all remaining
+ * reachable methods at once.
+ *
  * This class is designed to be thread safe, and subclasses of this class must be designed in a thread-safe way, too.
  */
 @ThreadSafe
@@ -78,6 +83,9 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
   @DontSynchronize("readonly")
   protected final CallGraph cg;
 
+  @SynchronizedBy("explicit lock on data structure")
+  private final QueueReader<MethodOrMethodContext> pendingMethods;
+
   protected CacheLoader<Unit, Collection<SootMethod>> loaderUnitToCallees = new CacheLoader<Unit, Collection<SootMethod>>() {
     @Override
     public Collection<SootMethod> load(Unit u) throws Exception {
@@ -144,16 +152,25 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
     this.includeReflectiveCalls = includeReflectiveCalls;
 
     cg = Scene.v().getCallGraph();
-    initializeUnitToOwner();
+    pendingMethods = Scene.v().getReachableMethods().listener();
   }
 
+  /**
+   * Registers the units of all reachable methods that have not been registered yet.
+   */
   protected void initializeUnitToOwner() {
-    for (Iterator<MethodOrMethodContext> iter = Scene.v().getReachableMethods().listener(); iter.hasNext();) {
-      SootMethod m = iter.next().method();
-      initializeUnitToOwner(m);
+    synchronized (pendingMethods) {
+      while (pendingMethods.hasNext()) {
+        initializeUnitToOwner(pendingMethods.next().method());
+      }
     }
   }
 
+  @Override
+  protected void initializeRemainingOwners() {
+    initializeUnitToOwner();
+  }
+
   @Override
   public Collection<SootMethod> getCalleesOfCallAt(Unit u) {
     return unitToCallees.getUnchecked(u);
@@ -31,12 +31,12 @@ import heros.solver.IDESolver;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import soot.ArrayType;
 import soot.Body;
@@ -133,8 +133,8 @@ public class OnTheFlyJimpleBasedICFG extends AbstractJimpleBasedICFG {
         }
       });
 
-  @SynchronizedBy("explicit lock on data structure")
-  protected Map<SootMethod, Set<Unit>> methodToCallers = new HashMap<SootMethod, Set<Unit>>();
+  @SynchronizedBy("by use of concurrent map and sets")
+  protected Map<SootMethod, Set<Unit>> methodToCallers = new ConcurrentHashMap<SootMethod, Set<Unit>>();
 
   public OnTheFlyJimpleBasedICFG(SootMethod... entryPoints) {
     this(Arrays.asList(entryPoints));
@@ -156,13 +156,7 @@ public class OnTheFlyJimpleBasedICFG extends AbstractJimpleBasedICFG {
         b = m.retrieveActiveBody();
       }
       if (b != null) {
-        for (Unit u : b.getUnits()) {
-          if (!setOwnerStatement(u, b)) {
-            // if the unit was registered already then so were all units;
-            // simply skip the rest
-            break;
-          }
-        }
+        initializeUnitToOwner(b);
       }
     }
     assert Scene.v().hasFastHierarchy();
@@ -189,14 +183,11 @@ public class OnTheFlyJimpleBasedICFG extends AbstractJimpleBasedICFG {
   }
 
   private void addCallerForMethod(Unit callSite, SootMethod target) {
-    synchronized (methodToCallers) {
-      Set<Unit> callers = methodToCallers.get(target);
-      if (callers == null) {
-        callers = new HashSet<Unit>();
-        methodToCallers.put(target, callers);
-      }
-      callers.add(callSite);
+    Set<Unit> callers = methodToCallers.get(target);
+    if (callers == null) {
+      callers = methodToCallers.computeIfAbsent(target, k -> ConcurrentHashMap.newKeySet());
     }
+    callers.add(callSite);
   }
 
   @Override
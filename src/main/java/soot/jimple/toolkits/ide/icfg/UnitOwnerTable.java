@@ -0,0 +1,99 @@
+package soot.jimple.toolkits.ide.icfg;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import soot.Body;
+import soot.Unit;
+
+/**
+ * Maps units to the bodies that own them. The owners are kept in the given map, which is only used through
+ * {@link Map#get(Object)} and {@link Map#putIfAbsent(Object, Object)}. With a concurrent map, lookups take no locks and
+ * registering the same unit from several threads never loses an owner. The bodies are kept in the order in which they were
+ * first seen, so that the units can be listed grouped by their owners.
+ */
+final class UnitOwnerTable {
+  private final Map<Unit, Body> owners;
+
+  /** The bodies that own at least one unit, in the order in which they were first seen. */
+  private final Queue<Body> bodies = new ConcurrentLinkedQueue<Body>();
+  private final Set<Body> seenBodies = ConcurrentHashMap.newKeySet();
+  /** The bodies all of whose units have been registered. */
+  private final Set<Body> completeBodies = ConcurrentHashMap.newKeySet();
+
+  UnitOwnerTable(Map<Unit, Body> owners) {
+    this.owners = owners;
+  }
+
+  /** Returns the owner of the given unit, or null if it has not been registered. */
+  Body get(Unit u) {
+    return owners.get(u);
+  }
+
+  /**
+   * Registers b as the owner of u, unless u already has an owner. Returns true iff u did not have an owner before.
+   */
+  boolean put(Unit u, Body b) {
+    if (owners.putIfAbsent(u, b) != null) {
+      return false;
+    }
+    if (seenBodies.add(b)) {
+      bodies.add(b);
+    }
+    return true;
+  }
+
+  /**
+   * Registers b as the owner of all of its units. When this method returns, all units of b are registered, even if another
+   * thread is registering the same body at the same time.
+   */
+  void putAll(Body b) {
+    if (completeBodies.contains(b)) {
+      return;
+    }
+    for (Unit u : b.getUnits()) {
+      put(u, b);
+    }
+    completeBodies.add(b);
+  }
+
+  /** Returns all registered units, grouped by their owners. */
+  List<Unit> units() {
+    List<Unit> res = new ArrayList<Unit>();
+    for (Body b : bodies) {
+      for (Unit u : b.getUnits()) {
+        if (get(u) == b) {
+          res.add(u);
+        }
+      }
+    }
+    return res;
+  }
+}
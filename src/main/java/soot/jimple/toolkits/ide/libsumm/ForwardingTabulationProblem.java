@@ -0,0 +1,91 @@
+package soot.jimple.toolkits.ide.libsumm;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import heros.FlowFunctions;
+import heros.IFDSTabulationProblem;
+import heros.InterproceduralCFG;
+
+import java.util.Map;
+import java.util.Set;
+
+import soot.SootMethod;
+import soot.Unit;
+
+/**
+ * An IFDS problem that forwards everything to another problem. Subclasses override the parts they change.
+ */
+abstract class ForwardingTabulationProblem<D, I extends InterproceduralCFG<Unit, SootMethod>>
+    implements IFDSTabulationProblem<Unit, D, SootMethod, I> {
+
+  protected final IFDSTabulationProblem<Unit, D, SootMethod, I> delegate;
+
+  ForwardingTabulationProblem(IFDSTabulationProblem<Unit, D, SootMethod, I> delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public FlowFunctions<Unit, D, SootMethod> flowFunctions() {
+    return delegate.flowFunctions();
+  }
+
+  @Override
+  public I interproceduralCFG() {
+    return delegate.interproceduralCFG();
+  }
+
+  @Override
+  public Map<Unit, Set<D>> initialSeeds() {
+    return delegate.initialSeeds();
+  }
+
+  @Override
+  public D zeroValue() {
+    return delegate.zeroValue();
+  }
+
+  @Override
+  public boolean followReturnsPastSeeds() {
+    return delegate.followReturnsPastSeeds();
+  }
+
+  @Override
+  public boolean autoAddZero() {
+    return delegate.autoAddZero();
+  }
+
+  @Override
+  public int numThreads() {
+    return delegate.numThreads();
+  }
+
+  @Override
+  public boolean computeValues() {
+    return delegate.computeValues();
+  }
+
+  @Override
+  public boolean recordEdges() {
+    return delegate.recordEdges();
+  }
+}
@@ -0,0 +1,84 @@
+package soot.jimple.toolkits.ide.libsumm;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import heros.InterproceduralCFG;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import soot.SootMethod;
+import soot.Unit;
+
+/**
+ * Decides whether a method only ever runs library code, i.e. whether it and all methods it may call transitively in a
+ * given interprocedural control-flow graph are declared in library classes. The summary of a method that may call back
+ * into application code, e.g. through a library interface that the application implements, depends on that application
+ * code and must therefore be neither computed nor applied.
+ */
+final class LibraryClosure {
+  private final InterproceduralCFG<Unit, SootMethod> icfg;
+  /** Methods that are known to only run library code. */
+  private final Set<SootMethod> libraryOnly = ConcurrentHashMap.newKeySet();
+
+  LibraryClosure(InterproceduralCFG<Unit, SootMethod> icfg) {
+    this.icfg = icfg;
+  }
+
+  /** Returns true iff m and all methods it may call transitively are declared in library classes. */
+  boolean isLibraryOnly(SootMethod m) {
+    if (libraryOnly.contains(m)) {
+      return true;
+    }
+    Set<SootMethod> visited = new HashSet<SootMethod>();
+    Deque<SootMethod> worklist = new ArrayDeque<SootMethod>();
+    visited.add(m);
+    worklist.add(m);
+    while (!worklist.isEmpty()) {
+      SootMethod cur = worklist.poll();
+      if (libraryOnly.contains(cur)) {
+        continue;
+      }
+      if (!cur.getDeclaringClass().isLibraryClass()) {
+        return false;
+      }
+      if (!cur.hasActiveBody()) {
+        // The call graph has no edges out of methods whose bodies were never loaded, e.g. in excluded classes
+        continue;
+      }
+      for (Unit callSite : icfg.getCallsFromWithin(cur)) {
+        for (SootMethod callee : icfg.getCalleesOfCallAt(callSite)) {
+          if (visited.add(callee)) {
+            worklist.add(callee);
+          }
+        }
+      }
+    }
+    // Everything reachable from m was visited, so all of it only runs library code as well
+    libraryOnly.addAll(visited);
+    return true;
+  }
+}
@@ -0,0 +1,203 @@
+package soot.jimple.toolkits.ide.libsumm;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import soot.FoundFile;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.SourceLocator;
+
+/**
+ * A store of {@link MethodSummary method summaries} for library code. Summaries are keyed by a hash of the library jar that
+ * declares the method and by the method's signature, so that summaries computed for one version of a library are never
+ * applied to another. Only methods of classes that are loaded from jar or zip archives can be summarized.
+ *
+ * Stores can be written to and read from a compact gzipped binary file. Instances are safe to use from several threads.
+ */
+public class LibrarySummaries {
+  private static final int MAGIC = 0x534f5353;
+  private static final int VERSION = 1;
+
+  private final Map<String, Map<String, MethodSummary>> jarToSummaries
+      = new ConcurrentHashMap<String, Map<String, MethodSummary>>();
+
+  /** Caches the hashes of the archives on the class path, by path. */
+  private final Map<String, String> archiveHashes = new ConcurrentHashMap<String, String>();
+
+  /**
+   * Returns the stored summary of the given method, or null if there is none or the method's class is not loaded from an
+   * archive.
+   */
+  public MethodSummary get(SootMethod m) {
+    String jarHash = jarHashOf(m.getDeclaringClass());
+    return jarHash == null ? null : get(jarHash, m.getSignature());
+  }
+
+  MethodSummary get(String jarHash, String signature) {
+    Map<String, MethodSummary> summaries = jarToSummaries.get(jarHash);
+    return summaries == null ? null : summaries.get(signature);
+  }
+
+  /**
+   * Stores the summary of the given method. Returns false if the method's class is not loaded from an archive, in which case
+   * nothing is stored.
+   */
+  public boolean put(SootMethod m, MethodSummary summary) {
+    String jarHash = jarHashOf(m.getDeclaringClass());
+    if (jarHash == null) {
+      return false;
+    }
+    put(jarHash, m.getSignature(), summary);
+    return true;
+  }
+
+  void put(String jarHash, String signature, MethodSummary summary) {
+    summariesOf(jarHash).put(signature, summary);
+  }
+
+  private Map<String, MethodSummary> summariesOf(String jarHash) {
+    return jarToSummaries.computeIfAbsent(jarHash, k -> new ConcurrentHashMap<String, MethodSummary>());
+  }
+
+  /** Returns the number of stored summaries. */
+  public int size() {
+    int size = 0;
+    for (Map<String, MethodSummary> summaries : jarToSummaries.values()) {
+      size += summaries.size();
+    }
+    return size;
+  }
+
+  /**
+   * Returns a hash of the contents of the archive from which the given class is loaded, or null if it is not loaded from an
+   * archive.
+   */
+  public String jarHashOf(SootClass c) {
+    FoundFile file = SourceLocator.v().lookupInClassPath(c.getName().replace('.', '/') + ".class");
+    if (file == null || !file.isZipFile()) {
+      return null;
+    }
+    String path = file.getFilePath();
+    String hash = archiveHashes.get(path);
+    if (hash == null) {
+      hash = hashFile(file.getFile());
+      archiveHashes.put(path, hash);
+    }
+    return hash;
+  }
+
+  private static String hashFile(File file) {
+    try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      byte[] buffer = new byte[8192];
+      for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+        digest.update(buffer, 0, read);
+      }
+      StringBuilder sb = new StringBuilder();
+      for (byte b : digest.digest()) {
+        sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+      }
+      return sb.toString();
+    } catch (IOException | NoSuchAlgorithmException e) {
+      throw new RuntimeException("Could not hash library " + file, e);
+    }
+  }
+
+  /** Writes all stored summaries to the given file. */
+  public void save(File file) throws IOException {
+    try (DataOutputStream out
+        = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(file))))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(jarToSummaries.size());
+      for (Map.Entry<String, Map<String, MethodSummary>> jar : jarToSummaries.entrySet()) {
+        out.writeUTF(jar.getKey());
+        out.writeInt(jar.getValue().size());
+        for (Map.Entry<String, MethodSummary> method : jar.getValue().entrySet()) {
+          MethodSummary summary = method.getValue();
+          out.writeUTF(method.getKey());
+          out.writeInt(summary.getUnitCount());
+          out.writeInt(summary.size());
+          for (String entryFact : summary.getEntryFacts()) {
+            List<MethodSummary.Exit> exits = summary.getExits(entryFact);
+            out.writeUTF(entryFact);
+            out.writeInt(exits.size());
+            for (MethodSummary.Exit exit : exits) {
+              out.writeInt(exit.getUnitIndex());
+              out.writeUTF(exit.getFact());
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /** Reads summaries from the given file, adding them to the ones stored already. */
+  public void load(File file) throws IOException {
+    try (DataInputStream in
+        = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException(file + " is not a library summary file");
+      }
+      int version = in.readInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported library summary version " + version + " in " + file);
+      }
+      for (int jarCount = in.readInt(); jarCount > 0; jarCount--) {
+        Map<String, MethodSummary> summaries = summariesOf(in.readUTF());
+        for (int methodCount = in.readInt(); methodCount > 0; methodCount--) {
+          String signature = in.readUTF();
+          MethodSummary summary = new MethodSummary(in.readInt());
+          for (int entryCount = in.readInt(); entryCount > 0; entryCount--) {
+            String entryFact = in.readUTF();
+            int exitCount = in.readInt();
+            List<MethodSummary.Exit> exits = new ArrayList<MethodSummary.Exit>(exitCount);
+            for (int i = 0; i < exitCount; i++) {
+              exits.add(new MethodSummary.Exit(in.readInt(), in.readUTF()));
+            }
+            summary.put(entryFact, exits);
+          }
+          summaries.put(signature, summary);
+        }
+      }
+    }
+  }
+}
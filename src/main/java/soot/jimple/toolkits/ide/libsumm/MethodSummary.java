@@ -0,0 +1,93 @@
+package soot.jimple.toolkits.ide.libsumm;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The IFDS end summary of one method: for each fact that may hold at the start of the method, the facts that hold at its exit
+ * statements. Facts are kept in their encoded form, see {@link SummaryCodec}, and exit statements are given by their
+ * position in the method's unit chain.
+ */
+public class MethodSummary {
+  /** The encoding of the zero value. Codecs never return empty strings, so this cannot clash with a real fact. */
+  public static final String ZERO = "";
+
+  /** A fact at an exit statement. */
+  public static class Exit {
+    private final int unitIndex;
+    private final String fact;
+
+    public Exit(int unitIndex, String fact) {
+      this.unitIndex = unitIndex;
+      this.fact = fact;
+    }
+
+    /** Returns the position of the exit statement in the method's unit chain. */
+    public int getUnitIndex() {
+      return unitIndex;
+    }
+
+    /** Returns the encoded fact that holds at the exit statement. */
+    public String getFact() {
+      return fact;
+    }
+  }
+
+  private final int unitCount;
+  private final Map<String, List<Exit>> entryToExits = new LinkedHashMap<String, List<Exit>>();
+
+  /**
+   * Creates an empty summary for a method with the given number of units. The number is checked when the summary is
+   * applied, so that a summary is not used for a body that differs from the one it was computed on.
+   */
+  public MethodSummary(int unitCount) {
+    this.unitCount = unitCount;
+  }
+
+  public int getUnitCount() {
+    return unitCount;
+  }
+
+  /** Records the exits for the given encoded entry fact, replacing any that were recorded before. */
+  public void put(String entryFact, List<Exit> exits) {
+    entryToExits.put(entryFact, exits);
+  }
+
+  /** Returns the encoded entry facts, in the order in which they were recorded. */
+  public Iterable<String> getEntryFacts() {
+    return Collections.unmodifiableSet(entryToExits.keySet());
+  }
+
+  /** Returns the exits for the given encoded entry fact, or null if the summary does not cover that fact. */
+  public List<Exit> getExits(String entryFact) {
+    return entryToExits.get(entryFact);
+  }
+
+  public int size() {
+    return entryToExits.size();
+  }
+}
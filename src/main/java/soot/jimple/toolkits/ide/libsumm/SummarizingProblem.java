@@ -0,0 +1,223 @@
+package soot.jimple.toolkits.ide.libsumm;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import heros.FlowFunction;
+import heros.FlowFunctions;
+import heros.IFDSTabulationProblem;
+import heros.InterproceduralCFG;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import soot.Body;
+import soot.SootMethod;
+import soot.Unit;
+import soot.toolkits.scalar.Pair;
+
+/**
+ * Wraps an IFDS problem so that the solver applies stored {@link MethodSummary method summaries} instead of descending into
+ * the summarized callees. A fact that flows into a summarized callee is not propagated into the callee. Instead, the
+ * call-to-return flow function maps it through the callee's summary and the return flow function directly to the return
+ * site. Facts that the summary does not cover still flow into the callee as usual, so a partial summary is never unsound.
+ *
+ * A summary only describes the library code that was loaded when it was computed. If the callee may call code outside
+ * library classes in this problem's control-flow graph, e.g. an application class that overrides a library method, its
+ * summary is ignored and the callee is analyzed as usual. Summaries are keyed by the archive that declares the summarized
+ * method only, so they can still be out of date if other libraries that the method calls into have changed since.
+ *
+ * Since the zero value must not flow into summarized callees either, this problem adds the zero value to the results of
+ * the flow functions itself if the wrapped problem asks for it, instead of leaving that to the solver.
+ *
+ * @param <D>
+ *          the type of the data-flow facts
+ * @param <I>
+ *          the type of the interprocedural control-flow graph
+ */
+public class SummarizingProblem<D, I extends InterproceduralCFG<Unit, SootMethod>>
+    extends ForwardingTabulationProblem<D, I> {
+
+  private final LibrarySummaries summaries;
+  private final SummaryCodec<D> codec;
+  private final Map<SootMethod, Map<D, List<Pair<Unit, D>>>> decodedSummaries
+      = new ConcurrentHashMap<SootMethod, Map<D, List<Pair<Unit, D>>>>();
+  private final FlowFunctions<Unit, D, SootMethod> flowFunctions = new SummarizingFlowFunctions();
+  private final LibraryClosure closure;
+
+  public SummarizingProblem(IFDSTabulationProblem<Unit, D, SootMethod, I> delegate, LibrarySummaries summaries,
+      SummaryCodec<D> codec) {
+    super(delegate);
+    this.summaries = summaries;
+    this.codec = codec;
+    this.closure = new LibraryClosure(delegate.interproceduralCFG());
+  }
+
+  @Override
+  public FlowFunctions<Unit, D, SootMethod> flowFunctions() {
+    return flowFunctions;
+  }
+
+  @Override
+  public boolean autoAddZero() {
+    return false;
+  }
+
+  /**
+   * Returns the decoded summary of the given method, which maps entry facts to the facts at the method's exit statements.
+   * The map is empty if there is no usable summary, or if the method may call code outside library classes.
+   */
+  private Map<D, List<Pair<Unit, D>>> summaryOf(SootMethod m) {
+    Map<D, List<Pair<Unit, D>>> ret = decodedSummaries.get(m);
+    if (ret == null) {
+      ret = decode(m);
+      decodedSummaries.putIfAbsent(m, ret);
+    }
+    return ret;
+  }
+
+  private Map<D, List<Pair<Unit, D>>> decode(SootMethod m) {
+    if (!m.hasActiveBody()) {
+      return Collections.emptyMap();
+    }
+    MethodSummary summary = summaries.get(m);
+    Body b = m.getActiveBody();
+    if (summary == null || summary.getUnitCount() != b.getUnits().size() || !closure.isLibraryOnly(m)) {
+      return Collections.emptyMap();
+    }
+    List<Unit> units = new ArrayList<Unit>(b.getUnits());
+    Map<D, List<Pair<Unit, D>>> ret = new HashMap<D, List<Pair<Unit, D>>>();
+    entries: for (String entry : summary.getEntryFacts()) {
+      D entryFact = MethodSummary.ZERO.equals(entry) ? zeroValue() : codec.decode(m, entry);
+      if (entryFact == null) {
+        continue;
+      }
+      List<Pair<Unit, D>> exits = new ArrayList<Pair<Unit, D>>();
+      for (MethodSummary.Exit exit : summary.getExits(entry)) {
+        D exitFact = codec.decode(m, exit.getFact());
+        if (exitFact == null || exit.getUnitIndex() >= units.size()) {
+          // Leave this entry fact uncovered, so it flows into the callee instead
+          continue entries;
+        }
+        exits.add(new Pair<Unit, D>(units.get(exit.getUnitIndex()), exitFact));
+      }
+      ret.put(entryFact, exits);
+    }
+    return ret;
+  }
+
+  private FlowFunction<D> zeroed(final FlowFunction<D> function) {
+    if (!delegate.autoAddZero()) {
+      return function;
+    }
+    return new FlowFunction<D>() {
+      @Override
+      public Set<D> computeTargets(D source) {
+        if (source != zeroValue()) {
+          return function.computeTargets(source);
+        }
+        Set<D> res = new LinkedHashSet<D>(function.computeTargets(source));
+        res.add(source);
+        return res;
+      }
+    };
+  }
+
+  private class SummarizingFlowFunctions implements FlowFunctions<Unit, D, SootMethod> {
+
+    @Override
+    public FlowFunction<D> getNormalFlowFunction(Unit curr, Unit succ) {
+      return zeroed(delegate.flowFunctions().getNormalFlowFunction(curr, succ));
+    }
+
+    @Override
+    public FlowFunction<D> getCallFlowFunction(Unit callStmt, SootMethod destinationMethod) {
+      final FlowFunction<D> function
+          = zeroed(delegate.flowFunctions().getCallFlowFunction(callStmt, destinationMethod));
+      final Map<D, List<Pair<Unit, D>>> summary = summaryOf(destinationMethod);
+      if (summary.isEmpty()) {
+        return function;
+      }
+      return new FlowFunction<D>() {
+        @Override
+        public Set<D> computeTargets(D source) {
+          Set<D> res = new LinkedHashSet<D>();
+          for (D target : function.computeTargets(source)) {
+            if (!summary.containsKey(target)) {
+              res.add(target);
+            }
+          }
+          return res;
+        }
+      };
+    }
+
+    @Override
+    public FlowFunction<D> getReturnFlowFunction(Unit callSite, SootMethod calleeMethod, Unit exitStmt,
+        Unit returnSite) {
+      return zeroed(delegate.flowFunctions().getReturnFlowFunction(callSite, calleeMethod, exitStmt, returnSite));
+    }
+
+    @Override
+    public FlowFunction<D> getCallToReturnFlowFunction(final Unit callSite, final Unit returnSite) {
+      final FlowFunction<D> function
+          = zeroed(delegate.flowFunctions().getCallToReturnFlowFunction(callSite, returnSite));
+      final List<SootMethod> summarizedCallees = new ArrayList<SootMethod>();
+      for (SootMethod callee : interproceduralCFG().getCalleesOfCallAt(callSite)) {
+        if (!summaryOf(callee).isEmpty()) {
+          summarizedCallees.add(callee);
+        }
+      }
+      if (summarizedCallees.isEmpty()) {
+        return function;
+      }
+      return new FlowFunction<D>() {
+        @Override
+        public Set<D> computeTargets(D source) {
+          Set<D> res = new LinkedHashSet<D>(function.computeTargets(source));
+          for (SootMethod callee : summarizedCallees) {
+            Map<D, List<Pair<Unit, D>>> summary = summaryOf(callee);
+            FlowFunction<D> callFunction = zeroed(delegate.flowFunctions().getCallFlowFunction(callSite, callee));
+            for (D entryFact : callFunction.computeTargets(source)) {
+              List<Pair<Unit, D>> exits = summary.get(entryFact);
+              if (exits == null) {
+                continue;
+              }
+              for (Pair<Unit, D> exit : exits) {
+                FlowFunction<D> returnFunction
+                    = delegate.flowFunctions().getReturnFlowFunction(callSite, callee, exit.getO1(), returnSite);
+                res.addAll(zeroed(returnFunction).computeTargets(exit.getO2()));
+              }
+            }
+          }
+          return res;
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package soot.jimple.toolkits.ide.libsumm;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Collection;
+
+import soot.SootMethod;
+
+/**
+ * Translates the data-flow facts of an IFDS problem to and from strings, so that {@link LibrarySummaries} can store them on
+ * disk. Facts are encoded relative to a method, e.g. a local of the method's body by its name, so that they can be decoded
+ * in a later run in which the body has been created anew.
+ *
+ * The zero value of the problem is handled by the summaries themselves and is never passed to a codec.
+ *
+ * @param <D>
+ *          the type of the data-flow facts
+ */
+public interface SummaryCodec<D> {
+
+  /**
+   * Returns the facts that may hold at the start of the given method and for which a summary should be computed.
+   */
+  public Collection<D> entryFacts(SootMethod m);
+
+  /**
+   * Encodes a fact that holds within the given method. Returns null if the fact cannot be encoded, in which case the method
+   * is not summarized. The returned string must not be empty.
+   */
+  public String encode(SootMethod m, D fact);
+
+  /**
+   * Decodes a fact that was encoded by {@link #encode(SootMethod, Object)} for the same method. Returns null if the fact no
+   * longer makes sense for the method.
+   */
+  public D decode(SootMethod m, String fact);
+}
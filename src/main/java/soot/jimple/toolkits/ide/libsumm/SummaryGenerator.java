@@ -0,0 +1,176 @@
+package soot.jimple.toolkits.ide.libsumm;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import heros.IFDSTabulationProblem;
+import heros.InterproceduralCFG;
+import heros.solver.IFDSSolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.Body;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Unit;
+
+/**
+ * Computes {@link MethodSummary method summaries} of library methods for an IFDS problem. For every entry fact given by the
+ * {@link SummaryCodec}, and for the zero value, the problem is solved once with that fact and the zero value at the start
+ * points of the method as its only seeds, and the facts at the method's exit statements become the summary for that entry
+ * fact.
+ *
+ * Methods that may call code outside library classes, e.g. an application class that implements a library interface,
+ * are not summarized, since their summary would depend on that code. Note that the call graph still only reflects the
+ * classes that are loaded while the summaries are computed; {@link SummarizingProblem} therefore checks again that a
+ * summarized method only runs library code before it applies the summary.
+ *
+ * Summaries are meant to be computed once per library and problem and then stored with {@link LibrarySummaries#save}.
+ *
+ * @param <D>
+ *          the type of the data-flow facts
+ * @param <I>
+ *          the type of the interprocedural control-flow graph
+ */
+public class SummaryGenerator<D, I extends InterproceduralCFG<Unit, SootMethod>> {
+  private static final Logger logger = LoggerFactory.getLogger(SummaryGenerator.class);
+
+  private final IFDSTabulationProblem<Unit, D, SootMethod, I> problem;
+  private final SummaryCodec<D> codec;
+  private final LibraryClosure closure;
+
+  public SummaryGenerator(IFDSTabulationProblem<Unit, D, SootMethod, I> problem, SummaryCodec<D> codec) {
+    this.problem = problem;
+    this.codec = codec;
+    this.closure = new LibraryClosure(problem.interproceduralCFG());
+  }
+
+  /**
+   * Computes the summary of the given method. Returns null if the method has no body, if it may call code outside library
+   * classes, or if a fact that reaches one of its exits cannot be encoded.
+   */
+  public MethodSummary summarize(SootMethod m) {
+    if (!m.isConcrete() || !closure.isLibraryOnly(m)) {
+      return null;
+    }
+    Body b = m.retrieveActiveBody();
+    I icfg = problem.interproceduralCFG();
+    Collection<Unit> startPoints = icfg.getStartPointsOf(m);
+    List<Unit> units = new ArrayList<Unit>(b.getUnits());
+    D zero = problem.zeroValue();
+
+    List<D> entryFacts = new ArrayList<D>();
+    entryFacts.add(zero);
+    entryFacts.addAll(codec.entryFacts(m));
+
+    MethodSummary summary = new MethodSummary(units.size());
+    for (D entryFact : entryFacts) {
+      String entry = entryFact == zero ? MethodSummary.ZERO : codec.encode(m, entryFact);
+      if (entry == null) {
+        return null;
+      }
+
+      // The solver computes the values of all seeds relative to the zero value, so that must be seeded as well. Facts that
+      // follow from the zero value hold whenever the entry fact does, so they belong into its summary anyway.
+      Set<D> seed = new HashSet<D>(Arrays.asList(zero, entryFact));
+      Map<Unit, Set<D>> seeds = new HashMap<Unit, Set<D>>();
+      for (Unit sP : startPoints) {
+        seeds.put(sP, seed);
+      }
+      IFDSSolver<Unit, D, SootMethod, I> solver = new IFDSSolver<Unit, D, SootMethod, I>(new SeededProblem(seeds));
+      solver.solve();
+
+      List<MethodSummary.Exit> exits = new ArrayList<MethodSummary.Exit>();
+      for (int i = 0; i < units.size(); i++) {
+        Unit u = units.get(i);
+        if (!icfg.isExitStmt(u)) {
+          continue;
+        }
+        for (D exitFact : solver.ifdsResultsAt(u)) {
+          if (exitFact == zero) {
+            continue;
+          }
+          String exit = codec.encode(m, exitFact);
+          if (exit == null) {
+            return null;
+          }
+          exits.add(new MethodSummary.Exit(i, exit));
+        }
+      }
+      summary.put(entry, exits);
+    }
+    return summary;
+  }
+
+  /**
+   * Computes and stores the summaries of all concrete methods of library classes that are not in the store yet. Returns the
+   * number of summaries that were added.
+   */
+  public int summarizeLibrary(LibrarySummaries store) {
+    int count = 0;
+    for (SootClass c : new ArrayList<SootClass>(Scene.v().getLibraryClasses())) {
+      for (SootMethod m : new ArrayList<SootMethod>(c.getMethods())) {
+        if (!m.isConcrete() || store.get(m) != null) {
+          continue;
+        }
+        MethodSummary summary = summarize(m);
+        if (summary == null) {
+          logger.debug("Could not summarize " + m);
+        } else if (store.put(m, summary)) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  /** The problem with the given seeds, which does not follow returns out of the summarized method. */
+  private class SeededProblem extends ForwardingTabulationProblem<D, I> {
+    private final Map<Unit, Set<D>> seeds;
+
+    SeededProblem(Map<Unit, Set<D>> seeds) {
+      super(problem);
+      this.seeds = seeds;
+    }
+
+    @Override
+    public Map<Unit, Set<D>> initialSeeds() {
+      return seeds;
+    }
+
+    @Override
+    public boolean followReturnsPastSeeds() {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,222 @@
+package soot.jimple.toolkits.pointer;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import soot.Context;
+import soot.Local;
+import soot.PointsToAnalysis;
+import soot.PointsToSet;
+import soot.SootField;
+import soot.Type;
+import soot.jimple.ClassConstant;
+
+/**
+ * A read-only pointer analysis that answers queries from points-to sets that were computed by another analysis in an
+ * earlier run and restored from a {@link soot.SceneSnapshot}. The abstract objects are the allocation sites of the
+ * original analysis, identified by their position in the snapshot, so two sets intersect exactly if the original sets
+ * did. Contexts are ignored.
+ */
+public class SnapshotPointsToAnalysis implements PointsToAnalysis {
+  /** Stands in for the elements of arrays in the points-to sets of fields. */
+  private static final Object ARRAY_ELEMENT = new Object();
+
+  private final Type[] allocTypes;
+  private final Map<Local, SnapshotPointsToSet> localToSet = new HashMap<Local, SnapshotPointsToSet>();
+  private final Map<SootField, SnapshotPointsToSet> staticFieldToSet = new HashMap<SootField, SnapshotPointsToSet>();
+  private final Map<Object, SnapshotPointsToSet>[] heap;
+  private final SnapshotPointsToSet empty;
+
+  /**
+   * Creates an analysis without any points-to sets.
+   *
+   * @param allocTypes
+   *          the types of the allocation sites, indexed by their numbers
+   */
+  @SuppressWarnings("unchecked")
+  public SnapshotPointsToAnalysis(Type[] allocTypes) {
+    this.allocTypes = allocTypes;
+    this.heap = new Map[allocTypes.length];
+    this.empty = new SnapshotPointsToSet(new int[0]);
+  }
+
+  /** Returns the number of allocation sites. */
+  public int getAllocCount() {
+    return allocTypes.length;
+  }
+
+  /** Sets the allocation sites that the given local may point to. */
+  public void put(Local l, int[] allocs) {
+    localToSet.put(l, new SnapshotPointsToSet(allocs));
+  }
+
+  /** Sets the allocation sites that the given static field may point to. */
+  public void put(SootField f, int[] allocs) {
+    staticFieldToSet.put(f, new SnapshotPointsToSet(allocs));
+  }
+
+  /**
+   * Sets the allocation sites that the given instance field of the given allocation site may point to. A null field
+   * stands for the elements of an array.
+   */
+  public void put(int alloc, SootField f, int[] allocs) {
+    Map<Object, SnapshotPointsToSet> fields = heap[alloc];
+    if (fields == null) {
+      fields = new HashMap<Object, SnapshotPointsToSet>();
+      heap[alloc] = fields;
+    }
+    fields.put(f == null ? ARRAY_ELEMENT : f, new SnapshotPointsToSet(allocs));
+  }
+
+  @Override
+  public PointsToSet reachingObjects(Local l) {
+    SnapshotPointsToSet ret = localToSet.get(l);
+    return ret == null ? empty : ret;
+  }
+
+  @Override
+  public PointsToSet reachingObjects(Context c, Local l) {
+    return reachingObjects(l);
+  }
+
+  @Override
+  public PointsToSet reachingObjects(SootField f) {
+    if (!f.isStatic()) {
+      throw new RuntimeException("The parameter f must be a *static* field.");
+    }
+    SnapshotPointsToSet ret = staticFieldToSet.get(f);
+    return ret == null ? empty : ret;
+  }
+
+  @Override
+  public PointsToSet reachingObjects(PointsToSet s, SootField f) {
+    return fieldOf(s, f);
+  }
+
+  @Override
+  public PointsToSet reachingObjects(Local l, SootField f) {
+    return fieldOf(reachingObjects(l), f);
+  }
+
+  @Override
+  public PointsToSet reachingObjects(Context c, Local l, SootField f) {
+    return reachingObjects(l, f);
+  }
+
+  @Override
+  public PointsToSet reachingObjectsOfArrayElement(PointsToSet s) {
+    return fieldOf(s, ARRAY_ELEMENT);
+  }
+
+  private PointsToSet fieldOf(PointsToSet s, Object field) {
+    if (!(s instanceof SnapshotPointsToSet)) {
+      throw new RuntimeException("Points-to set does not belong to this analysis: " + s);
+    }
+    BitSet ret = new BitSet(allocTypes.length);
+    for (int alloc : ((SnapshotPointsToSet) s).allocs) {
+      Map<Object, SnapshotPointsToSet> fields = heap[alloc];
+      SnapshotPointsToSet pts = fields == null ? null : fields.get(field);
+      if (pts != null) {
+        for (int a : pts.allocs) {
+          ret.set(a);
+        }
+      }
+    }
+    return ret.isEmpty() ? empty : new SnapshotPointsToSet(ret.stream().toArray());
+  }
+
+  /** A points-to set of a {@link SnapshotPointsToAnalysis}, stored as the sorted numbers of its allocation sites. */
+  public class SnapshotPointsToSet implements PointsToSet {
+    private final int[] allocs;
+
+    SnapshotPointsToSet(int[] allocs) {
+      this.allocs = allocs;
+    }
+
+    /** Returns the sorted numbers of the allocation sites in this set. */
+    public int[] getAllocs() {
+      return allocs.clone();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return allocs.length == 0;
+    }
+
+    @Override
+    public boolean hasNonEmptyIntersection(PointsToSet other) {
+      if (!(other instanceof SnapshotPointsToSet)) {
+        // Be conservative about sets of other analyses
+        return !isEmpty() && other != null && !other.isEmpty();
+      }
+      int[] a = allocs;
+      int[] b = ((SnapshotPointsToSet) other).allocs;
+      for (int i = 0, j = 0; i < a.length && j < b.length;) {
+        if (a[i] == b[j]) {
+          return true;
+        } else if (a[i] < b[j]) {
+          i++;
+        } else {
+          j++;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public Set<Type> possibleTypes() {
+      if (allocs.length == 0) {
+        return Collections.emptySet();
+      }
+      Set<Type> ret = new HashSet<Type>();
+      for (int alloc : allocs) {
+        ret.add(allocTypes[alloc]);
+      }
+      return ret;
+    }
+
+    /** String constants are not kept apart from other objects in a snapshot. */
+    @Override
+    public Set<String> possibleStringConstants() {
+      return null;
+    }
+
+    /** Class constants are not kept apart from other objects in a snapshot. */
+    @Override
+    public Set<ClassConstant> possibleClassConstants() {
+      return null;
+    }
+
+    @Override
+    public String toString() {
+      return Arrays.toString(allocs);
+    }
+  }
+}
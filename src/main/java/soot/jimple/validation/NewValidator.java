@@ -40,7 +40,7 @@ import soot.jimple.InvokeStmt;
 import soot.jimple.NewExpr;
 import soot.jimple.SpecialInvokeExpr;
 import soot.jimple.Stmt;
-import soot.toolkits.graph.BriefUnitGraph;
+import soot.toolkits.graph.CompactUnitGraph;
 import soot.toolkits.graph.UnitGraph;
 import soot.validation.BodyValidator;
 import soot.validation.ValidationException;
@@ -69,7 +69,7 @@ public enum NewValidator implements BodyValidator {
    */
   @Override
   public void validate(Body body, List<ValidationException> exceptions) {
-    UnitGraph g = new BriefUnitGraph(body);
+    UnitGraph g = new CompactUnitGraph(body);
     for (Unit u : body.getUnits()) {
       if (u instanceof AssignStmt) {
         AssignStmt assign = (AssignStmt) u;
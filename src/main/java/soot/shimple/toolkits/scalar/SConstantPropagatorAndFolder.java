@@ -24,6 +24,7 @@ package soot.shimple.toolkits.scalar;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -101,6 +102,7 @@ public class SConstantPropagatorAndFolder extends BodyTransformer {
     }
 
     boolean pruneCFG = PhaseOptions.getBoolean(options, "prune-cfg");
+    boolean sparse = PhaseOptions.getBoolean(options, "sparse");
     debug = Options.v().debug();
     debug |= sb.getOptions().debug();
 
@@ -109,12 +111,26 @@ public class SConstantPropagatorAndFolder extends BodyTransformer {
     }
 
     // *** FIXME: What happens when Shimple is built with another UnitGraph?
-    SCPFAnalysis scpf = new SCPFAnalysis(new ExceptionalUnitGraph(sb));
+    UnitGraph graph = new ExceptionalUnitGraph(sb);
+    Map<Local, Constant> results;
+    List<IfStmt> deadStmts;
+    Map<Stmt, GotoStmt> stmtsToReplace;
+    if (sparse) {
+      SparseSCPFAnalysis scpf = new SparseSCPFAnalysis(graph);
+      results = scpf.getResults();
+      deadStmts = scpf.getDeadStmts();
+      stmtsToReplace = scpf.getStmtsToReplace();
+    } else {
+      SCPFAnalysis scpf = new SCPFAnalysis(graph);
+      results = scpf.getResults();
+      deadStmts = scpf.getDeadStmts();
+      stmtsToReplace = scpf.getStmtsToReplace();
+    }
 
-    propagateResults(scpf.getResults());
+    propagateResults(results);
     if (pruneCFG) {
-      removeStmts(scpf.getDeadStmts());
-      replaceStmts(scpf.getStmtsToReplace());
+      removeStmts(deadStmts);
+      replaceStmts(stmtsToReplace);
     }
   }
 
@@ -458,7 +474,7 @@ class SCPFAnalysis extends ForwardBranchedFlowAnalysis {
         int index = key - low;
 
         UnitBox branchBox = null;
-        if (index < 0 || index > high) {
+        if (index < 0 || index > high - low) {
           branchBox = table.getDefaultTargetBox();
         } else {
           branchBox = table.getTargetBox(index);
@@ -601,3 +617,152 @@ class SCPFAnalysis extends ForwardBranchedFlowAnalysis {
     return true;
   }
 }
+
+/**
+ * The sparse counterpart of {@link SCPFAnalysis}. It makes the same assumptions about locals and branches, but propagates
+ * them along the def-use edges of the SSA form with {@link SparseFlowAnalysis} instead of carrying flow sets through every
+ * statement, and so computes the same results.
+ **/
+class SparseSCPFAnalysis extends SparseFlowAnalysis<Constant> {
+  /**
+   * A map from conditional branches to their possible replacement unit, an unconditional branch.
+   **/
+  protected Map<Stmt, GotoStmt> stmtToReplacement;
+
+  /**
+   * A list of IfStmts that always fall through.
+   **/
+  protected List<IfStmt> deadStmts;
+
+  public SparseSCPFAnalysis(UnitGraph graph) {
+    super(graph);
+    stmtToReplacement = new HashMap<Stmt, GotoStmt>();
+    deadStmts = new ArrayList<IfStmt>();
+
+    doAnalysis();
+
+    // The branches are decided on the final assumptions
+    for (Unit u : sb.getUnits()) {
+      if (!isReachable(u)) {
+        continue;
+      }
+      if (u instanceof IfStmt) {
+        IfStmt ifStmt = (IfStmt) u;
+        Constant constant = SEvaluator.getFuzzyConstantValueOf(ifStmt.getCondition(), localToValue);
+        if (constant.equals(IntConstant.v(1))) {
+          stmtToReplacement.put(ifStmt, Jimple.v().newGotoStmt(ifStmt.getTargetBox()));
+        } else if (constant.equals(IntConstant.v(0))) {
+          deadStmts.add(ifStmt);
+        }
+      } else if (u instanceof TableSwitchStmt || u instanceof LookupSwitchStmt) {
+        UnitBox branchBox = getSwitchTargetBox((Stmt) u);
+        if (branchBox != null) {
+          stmtToReplacement.put((Stmt) u, Jimple.v().newGotoStmt(branchBox));
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the localToConstant map.
+   **/
+  public Map<Local, Constant> getResults() {
+    return localToValue;
+  }
+
+  /**
+   * Returns the list of fall through IfStmts.
+   **/
+  public List<IfStmt> getDeadStmts() {
+    return deadStmts;
+  }
+
+  /**
+   * Returns a Map from conditional branches to the unconditional branches that can replace them.
+   **/
+  public Map<Stmt, GotoStmt> getStmtsToReplace() {
+    return stmtToReplacement;
+  }
+
+  @Override
+  protected Constant topValue() {
+    return TopConstant.v();
+  }
+
+  /**
+   * Bottom stays Bottom, Top takes the computed value, and two different constants give Bottom.
+   **/
+  @Override
+  protected Constant meet(Constant current, Constant computed) {
+    if (current instanceof TopConstant) {
+      return computed;
+    }
+    if (current instanceof BottomConstant || current.equals(computed)) {
+      return current;
+    }
+    return BottomConstant.v();
+  }
+
+  @Override
+  protected Constant evaluate(DefinitionStmt def) {
+    return SEvaluator.getFuzzyConstantValueOf(def.getRightOp(), localToValue);
+  }
+
+  /**
+   * A branch whose condition or key is still Top does not flow anywhere yet. If it is a known constant, only the branch that
+   * is taken is reachable.
+   **/
+  @Override
+  protected Collection<Unit> getReachableSuccsOf(Unit u) {
+    if (u instanceof IfStmt) {
+      IfStmt ifStmt = (IfStmt) u;
+      Constant constant = SEvaluator.getFuzzyConstantValueOf(ifStmt.getCondition(), localToValue);
+      if (constant instanceof TopConstant) {
+        return Collections.emptyList();
+      } else if (constant.equals(IntConstant.v(1))) {
+        return Collections.<Unit>singletonList(ifStmt.getTarget());
+      } else if (constant.equals(IntConstant.v(0))) {
+        Unit fallThrough = getFallThroughSuccOf(ifStmt);
+        return fallThrough == null ? Collections.<Unit>emptyList() : Collections.singletonList(fallThrough);
+      } else if (!(constant instanceof BottomConstant)) {
+        return Collections.emptyList();
+      }
+    } else if (u instanceof TableSwitchStmt || u instanceof LookupSwitchStmt) {
+      Value key = u instanceof TableSwitchStmt ? ((TableSwitchStmt) u).getKey() : ((LookupSwitchStmt) u).getKey();
+      if (SEvaluator.getFuzzyConstantValueOf(key, localToValue) instanceof TopConstant) {
+        return Collections.emptyList();
+      }
+      UnitBox branchBox = getSwitchTargetBox((Stmt) u);
+      if (branchBox != null) {
+        return Collections.singletonList(branchBox.getUnit());
+      }
+    }
+    return super.getReachableSuccsOf(u);
+  }
+
+  /**
+   * Returns the target box of the switch if its key is a known int constant, or null otherwise.
+   **/
+  private UnitBox getSwitchTargetBox(Stmt s) {
+    if (s instanceof TableSwitchStmt) {
+      TableSwitchStmt table = (TableSwitchStmt) s;
+      Constant keyC = SEvaluator.getFuzzyConstantValueOf(table.getKey(), localToValue);
+      if (!(keyC instanceof IntConstant)) {
+        return null;
+      }
+      int index = ((IntConstant) keyC).value - table.getLowIndex();
+      if (index < 0 || index > table.getHighIndex() - table.getLowIndex()) {
+        return table.getDefaultTargetBox();
+      }
+      return table.getTargetBox(index);
+    } else {
+      LookupSwitchStmt lookup = (LookupSwitchStmt) s;
+      Constant keyC = SEvaluator.getFuzzyConstantValueOf(lookup.getKey(), localToValue);
+      if (!(keyC instanceof IntConstant)) {
+        return null;
+      }
+      int index = lookup.getLookupValues().indexOf(keyC);
+      return index == -1 ? lookup.getDefaultTargetBox() : lookup.getTargetBox(index);
+    }
+  }
+}
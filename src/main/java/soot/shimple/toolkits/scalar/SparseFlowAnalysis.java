@@ -0,0 +1,207 @@
+package soot.shimple.toolkits.scalar;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import soot.Local;
+import soot.Trap;
+import soot.Unit;
+import soot.UnitBox;
+import soot.Value;
+import soot.jimple.DefinitionStmt;
+import soot.shimple.ShimpleBody;
+import soot.toolkits.graph.UnitGraph;
+import soot.toolkits.scalar.UnitValueBoxPair;
+
+/**
+ * <p>
+ * A framework for sparse conditional dataflow analyses on Shimple, in the style of the sparse conditional constant
+ * propagation of Wegman and Zadeck. Each local has a single lattice value for the whole body, since SSA form gives it a
+ * single definition. No flow sets are carried through the statements; instead, two worklists drive the analysis:
+ * </p>
+ *
+ * <ul>
+ * <li>A statement is visited once when it becomes reachable. Definitions of locals are evaluated, and the successors that
+ * control can reach from the statement under the current assumptions become reachable in turn.</li>
+ * <li>When the value of a local changes, only the reachable statements that use it are visited again, following the
+ * def-use edges of the SSA form as given by {@link ShimpleLocalUses}.</li>
+ * </ul>
+ *
+ * <p>
+ * Subclasses define the lattice through {@link #topValue()}, {@link #meet(Object, Object)} and
+ * {@link #evaluate(DefinitionStmt)}, and restrict the successors of branches through {@link #getReachableSuccsOf(Unit)}.
+ * Values must only move down the lattice, which holds if {@link #evaluate(DefinitionStmt)} is monotone.
+ * </p>
+ *
+ * <p>
+ * Like {@link soot.toolkits.scalar.ForwardBranchedFlowAnalysis}, the analysis follows fall-through and branch edges only,
+ * and treats the heads of the graph and all trap handlers as reachable.
+ * </p>
+ *
+ * @param <V>
+ *          the lattice values
+ */
+public abstract class SparseFlowAnalysis<V> {
+  protected final ShimpleBody sb;
+  protected final UnitGraph graph;
+
+  /** The current value of each local. */
+  protected final Map<Local, V> localToValue;
+
+  /** The statements found to be reachable so far. */
+  protected final Set<Unit> reachable;
+
+  private final Deque<Unit> unitWorklist = new ArrayDeque<Unit>();
+  private final Deque<Local> localWorklist = new ArrayDeque<Local>();
+
+  /**
+   * Prepares the analysis of the given body. Subclasses call {@link #doAnalysis()} from their constructor, once they are
+   * initialised.
+   */
+  protected SparseFlowAnalysis(UnitGraph graph) {
+    if (!(graph.getBody() instanceof ShimpleBody) || !((ShimpleBody) graph.getBody()).isSSA()) {
+      throw new RuntimeException("SparseFlowAnalysis requires a ShimpleBody in proper SSA form.");
+    }
+    this.sb = (ShimpleBody) graph.getBody();
+    this.graph = graph;
+    this.localToValue = new HashMap<Local, V>(sb.getLocalCount() * 2 + 1, 0.7f);
+    this.reachable = new HashSet<Unit>(graph.size() * 2 + 1, 0.7f);
+  }
+
+  /** Returns the value that all locals start with, meaning that nothing is known about them yet. */
+  protected abstract V topValue();
+
+  /**
+   * Combines the current value of a local with a newly computed one. The result must be at or below the current value in the
+   * lattice.
+   */
+  protected abstract V meet(V current, V computed);
+
+  /** Computes the value assigned by the given definition of a local under the current values of all locals. */
+  protected abstract V evaluate(DefinitionStmt def);
+
+  /**
+   * Returns the statements control can flow to from the reachable statement u, given the current values of the locals. By
+   * default, these are the fall-through successor and all branch targets.
+   */
+  protected Collection<Unit> getReachableSuccsOf(Unit u) {
+    Unit fallThrough = getFallThroughSuccOf(u);
+    if (!u.branches()) {
+      return fallThrough == null ? Collections.<Unit>emptyList() : Collections.singletonList(fallThrough);
+    }
+    List<Unit> succs = new ArrayList<Unit>();
+    if (fallThrough != null) {
+      succs.add(fallThrough);
+    }
+    for (UnitBox box : u.getUnitBoxes()) {
+      succs.add(box.getUnit());
+    }
+    return succs;
+  }
+
+  /** Returns the statement u falls through to, or null if it does not fall through. */
+  protected Unit getFallThroughSuccOf(Unit u) {
+    return u.fallsThrough() ? sb.getUnits().getSuccOf(u) : null;
+  }
+
+  /** Returns the current value of the given local. */
+  public V getValueOf(Local l) {
+    V v = localToValue.get(l);
+    return v == null ? topValue() : v;
+  }
+
+  /** Returns true if the given statement was found to be reachable. */
+  public boolean isReachable(Unit u) {
+    return reachable.contains(u);
+  }
+
+  /** Runs the analysis to a fixed point. */
+  protected void doAnalysis() {
+    final V top = topValue();
+    for (Local l : sb.getLocals()) {
+      localToValue.put(l, top);
+    }
+    ShimpleLocalUses localUses = new ShimpleLocalUses(sb);
+
+    for (Unit head : graph.getHeads()) {
+      markReachable(head);
+    }
+    for (Trap trap : sb.getTraps()) {
+      markReachable(trap.getHandlerUnit());
+    }
+
+    while (true) {
+      Unit u = unitWorklist.poll();
+      if (u != null) {
+        visit(u);
+        continue;
+      }
+      Local l = localWorklist.poll();
+      if (l == null) {
+        break;
+      }
+      for (Object o : localUses.getUsesOf(l)) {
+        Unit use = ((UnitValueBoxPair) o).getUnit();
+        if (reachable.contains(use)) {
+          visit(use);
+        }
+      }
+    }
+  }
+
+  private void markReachable(Unit u) {
+    if (u != null && reachable.add(u)) {
+      unitWorklist.add(u);
+    }
+  }
+
+  private void visit(Unit u) {
+    if (u instanceof DefinitionStmt) {
+      DefinitionStmt def = (DefinitionStmt) u;
+      Value left = def.getLeftOp();
+      if (left instanceof Local) {
+        Local l = (Local) left;
+        V current = getValueOf(l);
+        V merged = meet(current, evaluate(def));
+        if (!merged.equals(current)) {
+          localToValue.put(l, merged);
+          localWorklist.add(l);
+        }
+      }
+    }
+
+    for (Unit succ : getReachableSuccsOf(u)) {
+      markReachable(succ);
+    }
+  }
+}
@@ -49,16 +49,20 @@ public class InnerClassTagAggregator extends SceneTransformer {
   public void internalTransform(String phaseName, Map<String, String> options) {
     Iterator<SootClass> it = Scene.v().getApplicationClasses().iterator();
     while (it.hasNext()) {
-      ArrayList<InnerClassTag> list = new ArrayList<InnerClassTag>();
-      SootClass nextSc = it.next();
-      for (Tag t : nextSc.getTags()) {
-        if (t instanceof InnerClassTag) {
-          list.add((InnerClassTag) t);
-        }
-      }
-      if (!list.isEmpty()) {
-        nextSc.addTag(new InnerClassAttribute(list));
+      transformClass(it.next());
+    }
+  }
+
+  /** Aggregates the inner class tags of the given class into a single InnerClasses attribute. */
+  public void transformClass(SootClass sc) {
+    ArrayList<InnerClassTag> list = new ArrayList<InnerClassTag>();
+    for (Tag t : sc.getTags()) {
+      if (t instanceof InnerClassTag) {
+        list.add((InnerClassTag) t);
       }
     }
+    if (!list.isEmpty()) {
+      sc.addTag(new InnerClassAttribute(list));
+    }
   }
 }
@@ -22,6 +22,10 @@ package soot.toolkits.exceptions;
  * #L%
  */
 
+import java.util.HashMap;
+import java.util.Map;
+
+import soot.Body;
 import soot.Unit;
 import soot.baf.ThrowInst;
 import soot.jimple.ThrowStmt;
@@ -52,6 +56,25 @@ public interface ThrowAnalysis {
    */
   ThrowableSet mightThrow(Unit u);
 
+  /**
+   * Returns the sets representing the {@link Throwable} types that each unit of the specified body might throw.
+   * Clients that need the exceptions of most units in a body should prefer this method over calling
+   * {@link #mightThrow(Unit)} for each unit, since implementations may share work between the units.
+   *
+   * @param b
+   *          {@link Body} whose units' exceptions are to be returned.
+   *
+   * @return a map from each unit of <code>b</code> to a representation of the <code>Throwable</code> types that it
+   *         might throw.
+   */
+  default Map<Unit, ThrowableSet> mightThrow(Body b) {
+    Map<Unit, ThrowableSet> result = new HashMap<Unit, ThrowableSet>(b.getUnits().size() * 2 + 1, 0.7f);
+    for (Unit u : b.getUnits()) {
+      result.put(u, mightThrow(u));
+    }
+    return result;
+  }
+
   /**
    * Returns a set representing the {@link Throwable} types that the specified throw instruction might throw explicitly, that
    * is, the possible types for its <code>Throwable</code> argument.
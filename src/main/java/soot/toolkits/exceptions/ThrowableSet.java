@@ -27,11 +27,12 @@ import com.google.common.cache.CacheBuilder;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import soot.AnySubType;
 import soot.FastHierarchy;
@@ -91,6 +92,14 @@ import soot.options.Options;
 public class ThrowableSet {
 
   private static final boolean INSTRUMENTING = false;
+
+  /**
+   * The number of results that each set memoizes for each kind of operation. Once a memo is full, it is cleared before the
+   * next result is added; the same few operations are usually repeated right away, so this keeps the hot results at a much
+   * lower cost than an exact LRU policy.
+   */
+  static final int MEMO_CAPACITY = 256;
+
   private final SootClass JAVA_LANG_OBJECT_CLASS = Scene.v().getObjectType().getSootClass();
 
   /**
@@ -109,7 +118,22 @@ public class ThrowableSet {
    * elements in k to <code>this</code>. If (k,v) is in <code>memoizedAdds</code> and k is a {@link RefLikeType}, then v is
    * the set that results from adding k to <code>this</code>.
    */
-  protected Map<Object, ThrowableSet> memoizedAdds;
+  protected volatile Map<Object, ThrowableSet> memoizedAdds;
+
+  /** Memoized results of {@link #catchableAs(RefType)}. */
+  private volatile Map<RefType, Boolean> memoizedCatchableAs;
+
+  /** Memoized results of {@link #whichCatchableAs(RefType)}. */
+  private volatile Map<RefType, Pair> memoizedWhichCatchableAs;
+
+  /**
+   * The sorted type numbers of the members of <code>exceptionsIncluded</code> and <code>exceptionsExcluded</code>. Each
+   * array is a compressed bitset over the numbered types, so that membership tests are allocation-free and equality and
+   * hashing, which the {@link Manager} needs to intern sets, never touch the member types themselves.
+   */
+  private final int[] includedNumbers;
+  private final int[] excludedNumbers;
+  private final int hashCode;
 
   /**
    * Constructs a <code>ThrowableSet</code> which contains the exception types represented in <code>include</code>, except
@@ -124,6 +148,9 @@ public class ThrowableSet {
   protected ThrowableSet(Set<RefLikeType> include, Set<AnySubType> exclude) {
     exceptionsIncluded = getImmutable(include);
     exceptionsExcluded = getImmutable(exclude);
+    includedNumbers = numbersOf(exceptionsIncluded);
+    excludedNumbers = numbersOf(exceptionsExcluded);
+    hashCode = (31 * Arrays.hashCode(includedNumbers)) + Arrays.hashCode(excludedNumbers);
     // We don't need to clone include and exclude to guarantee
     // immutability since ThrowableSet(Set,Set) is private to this
     // class, where it is only called (via
@@ -131,6 +158,20 @@ public class ThrowableSet {
     // callers do not subsequently modify.
   }
 
+  private static int[] numbersOf(Set<? extends RefLikeType> types) {
+    int[] ret = new int[types.size()];
+    int i = 0;
+    for (RefLikeType type : types) {
+      ret[i++] = type.getNumber();
+    }
+    Arrays.sort(ret);
+    return ret;
+  }
+
+  private boolean includes(RefLikeType type) {
+    return Arrays.binarySearch(includedNumbers, type.getNumber()) >= 0;
+  }
+
   private static <T> Set<T> getImmutable(Set<T> in) {
     if ((null == in) || in.isEmpty()) {
       return Collections.emptySet();
@@ -163,14 +204,23 @@ public class ThrowableSet {
   }
 
   private ThrowableSet getMemoizedAdds(Object key) {
-    return memoizedAdds == null ? null : memoizedAdds.get(key);
+    Map<Object, ThrowableSet> memo = memoizedAdds;
+    return memo == null ? null : memo.get(key);
   }
 
   private void addToMemoizedAdds(Object key, ThrowableSet value) {
-    if (memoizedAdds == null) {
-      memoizedAdds = new HashMap<>();
+    Map<Object, ThrowableSet> memo = memoizedAdds;
+    if (memo == null) {
+      memoizedAdds = memo = new ConcurrentHashMap<>();
+    }
+    memoize(memo, key, value);
+  }
+
+  private static <K, V> void memoize(Map<K, V> memo, K key, V value) {
+    if (memo.size() >= MEMO_CAPACITY) {
+      memo.clear();
     }
-    memoizedAdds.put(key, value);
+    memo.put(key, value);
   }
 
   /**
@@ -209,7 +259,7 @@ public class ThrowableSet {
     if (INSTRUMENTING) {
       Manager.v().addsOfRefType++;
     }
-    if (this.exceptionsIncluded.contains(e)) {
+    if (includes(e)) {
       if (INSTRUMENTING) {
         Manager.v().addsInclusionFromMap++;
         Manager.v().addsExclusionWithoutSearch++;
@@ -358,7 +408,7 @@ public class ThrowableSet {
       }
     }
 
-    if (this.exceptionsIncluded.contains(e)) {
+    if (includes(e)) {
       if (INSTRUMENTING) {
         Manager.v().addsInclusionFromMap++;
       }
@@ -619,6 +669,21 @@ public class ThrowableSet {
       Manager.v().catchableAsQueries++;
     }
 
+    Map<RefType, Boolean> memo = memoizedCatchableAs;
+    if (memo == null) {
+      memoizedCatchableAs = memo = new ConcurrentHashMap<>();
+    } else {
+      Boolean result = memo.get(catcher);
+      if (result != null) {
+        return result;
+      }
+    }
+    boolean result = computeCatchableAs(catcher);
+    memoize(memo, catcher, result);
+    return result;
+  }
+
+  private boolean computeCatchableAs(RefType catcher) {
     FastHierarchy h = Scene.v().getOrMakeFastHierarchy();
     /**
      * Originally this implementation had checked if the catcher.getSootClass() is a phantom class. However this makes
@@ -644,7 +709,7 @@ public class ThrowableSet {
       }
     }
 
-    if (exceptionsIncluded.contains(catcher)) {
+    if (includes(catcher)) {
       if (INSTRUMENTING) {
         if (exceptionsExcluded.size() == 0) {
           Manager.v().catchableAsFromMap++;
@@ -702,6 +767,21 @@ public class ThrowableSet {
       Manager.v().removesOfAnySubType++;
     }
 
+    Map<RefType, Pair> memo = memoizedWhichCatchableAs;
+    if (memo == null) {
+      memoizedWhichCatchableAs = memo = new ConcurrentHashMap<>();
+    } else {
+      Pair result = memo.get(catcher);
+      if (result != null) {
+        return result;
+      }
+    }
+    Pair result = computeWhichCatchableAs(catcher);
+    memoize(memo, catcher, result);
+    return result;
+  }
+
+  private Pair computeWhichCatchableAs(RefType catcher) {
     FastHierarchy h = Scene.v().getOrMakeFastHierarchy();
     Set<RefLikeType> caughtIncluded = null;
     Set<AnySubType> caughtExcluded = null;
@@ -956,11 +1036,7 @@ public class ThrowableSet {
 
   @Override
   public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = (prime * result) + exceptionsIncluded.hashCode();
-    result = (prime * result) + exceptionsExcluded.hashCode();
-    return result;
+    return hashCode;
   }
 
   @Override
@@ -976,7 +1052,8 @@ public class ThrowableSet {
     }
     ThrowableSet other = (ThrowableSet) obj;
 
-    return exceptionsIncluded.equals(other.exceptionsIncluded) && exceptionsExcluded.equals(other.exceptionsExcluded);
+    return hashCode == other.hashCode && Arrays.equals(includedNumbers, other.includedNumbers)
+        && Arrays.equals(excludedNumbers, other.excludedNumbers);
   }
 
   /**
@@ -1030,9 +1107,9 @@ public class ThrowableSet {
      */
     final ThrowableSet INITIALIZATION_ERRORS;
     /**
-     * This map stores all referenced <code>ThrowableSet</code>s.
+     * This map stores all referenced <code>ThrowableSet</code>s. Sets that are no longer referenced elsewhere are dropped.
      */
-    private final Map<ThrowableSet, ThrowableSet> registry
+    private final ConcurrentMap<ThrowableSet, ThrowableSet> registry
         = CacheBuilder.newBuilder().weakValues().<ThrowableSet, ThrowableSet>build().asMap();
     private final int removesFromMap = 0;
     private final int removesFromMemo = 0;
@@ -1168,8 +1245,9 @@ public class ThrowableSet {
       if (null != ref) {
         return ref;
       }
-      registry.put(result, result);
-      return result;
+      // Several threads may build equal sets at the same time; all of them must get the same instance
+      ref = registry.putIfAbsent(result, result);
+      return ref == null ? result : ref;
     }
 
     /**
@@ -22,6 +22,8 @@ package soot.toolkits.exceptions;
  * #L%
  */
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 
@@ -140,6 +142,7 @@ import soot.jimple.ClassConstant;
 import soot.jimple.CmpExpr;
 import soot.jimple.CmpgExpr;
 import soot.jimple.CmplExpr;
+import soot.jimple.Constant;
 import soot.jimple.DivExpr;
 import soot.jimple.DoubleConstant;
 import soot.jimple.DynamicInvokeExpr;
@@ -198,6 +201,7 @@ import soot.jimple.XorExpr;
 import soot.shimple.PhiExpr;
 import soot.shimple.ShimpleValueSwitch;
 import soot.toolkits.exceptions.ThrowableSet.Pair;
+import soot.util.Chain;
 
 /**
  * A {@link ThrowAnalysis} which returns the set of runtime exceptions and errors that might be thrown by the bytecode
@@ -208,6 +212,10 @@ import soot.toolkits.exceptions.ThrowableSet.Pair;
  * The <code>mightThrow</code> methods could be declared static. They are left virtual to facilitate testing. For example, to
  * verify that the expressions in a method call are actually being examined, a test case can override the
  * mightThrow(SootMethod) with an implementation which returns the empty set instead of all possible exceptions.
+ *
+ * <p>
+ * The exceptions that a unit throws because of its opcode alone are looked up in a table of precomputed sets, one per
+ * {@link Shape}, so that the common units can be analyzed without building any new <code>ThrowableSet</code>s.
  */
 public class UnitThrowAnalysis extends AbstractThrowAnalysis {
 
@@ -258,10 +266,123 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
     return interproceduralAnalysis;
   }
 
+  /**
+   * The shapes of statements and expressions that throw a fixed set of exceptions in addition to
+   * {@link #defaultResult()}, independently of their operands.
+   */
+  protected enum Shape {
+    /** Dereferences an object: NullPointerException. */
+    NULL_CHECK,
+    /** Returns from a method: IllegalMonitorStateException. */
+    MONITOR_STATE,
+    /** Exits a monitor: IllegalMonitorStateException and NullPointerException. */
+    MONITOR_EXIT,
+    /** Reads or writes a primitive array element: NullPointerException and ArrayIndexOutOfBoundsException. */
+    ARRAY_ACCESS,
+    /** Writes a reference array element: {@link #ARRAY_ACCESS} and ArrayStoreException. */
+    ARRAY_STORE,
+    /** Checks the type of a value stored into a reference array: ArrayStoreException. */
+    STORE_CHECK,
+    /** Accesses a static member or creates an object: the errors of class initialization. */
+    INITIALIZATION,
+    /** Accesses an instance field: the errors of field resolution and NullPointerException. */
+    INSTANCE_FIELD,
+    /** Refers to a class, as in <code>instanceof</code>: the errors of class resolution. */
+    CLASS_CHECK,
+    /** Casts a reference: {@link #CLASS_CHECK} and ClassCastException. */
+    CAST,
+    /** Creates an array: {@link #CLASS_CHECK} and NegativeArraySizeException. */
+    NEW_ARRAY,
+    /** Creates an array without resolving a class: NegativeArraySizeException. */
+    NEGATIVE_SIZE,
+    /** Invokes an instance method: the errors of method resolution and NullPointerException. */
+    INSTANCE_INVOKE,
+    /** Invokes a method dynamically, which might throw anything. */
+    DYNAMIC_INVOKE,
+    /** Divides integers: ArithmeticException. */
+    ARITHMETIC
+  }
+
+  /** The sets of the {@link Shape}s, indexed by ordinal. Built on first use, after subclasses are initialized. */
+  private volatile ThrowableSet[] shapeSets;
+
+  /**
+   * The results of {@link #mightThrow(SootMethodRef)} for invoke sites whose methods could be resolved. Resolving a
+   * method reference walks up the class hierarchy, which would otherwise be repeated every time the same invoke is
+   * analyzed. The references are held weakly and compared by identity, so the entries go away together with their
+   * invoke expressions.
+   */
+  private final Cache<SootMethodRef, ThrowableSet> methodRefToThrowSet
+      = CacheBuilder.newBuilder().weakKeys().build();
+
+  /**
+   * Whether {@link #valueSwitch()} creates a plain {@link ValueSwitch}, whose cases for locals and constants add
+   * nothing to the default result. Determined on first use, after subclasses are initialized.
+   */
+  private volatile Boolean plainValueSwitch;
+
   protected ThrowableSet defaultResult() {
     return mgr.VM_ERRORS;
   }
 
+  /**
+   * Returns the set of exceptions that a statement or expression of the given shape might throw, including
+   * {@link #defaultResult()} but not the exceptions of its operands.
+   *
+   * @param shape
+   *          the shape of the statement or expression.
+   *
+   * @return a precomputed set, which is the same object for every call with the same shape.
+   */
+  protected ThrowableSet mightThrow(Shape shape) {
+    ThrowableSet[] sets = shapeSets;
+    if (sets == null) {
+      // Computing the table twice on a race is harmless, since ThrowableSets are interned
+      shapeSets = sets = computeShapeSets();
+    }
+    return sets[shape.ordinal()];
+  }
+
+  private ThrowableSet[] computeShapeSets() {
+    ThrowableSet base = defaultResult();
+    ThrowableSet[] sets = new ThrowableSet[Shape.values().length];
+    sets[Shape.NULL_CHECK.ordinal()] = base.add(mgr.NULL_POINTER_EXCEPTION);
+    sets[Shape.MONITOR_STATE.ordinal()] = base.add(mgr.ILLEGAL_MONITOR_STATE_EXCEPTION);
+    sets[Shape.MONITOR_EXIT.ordinal()]
+        = base.add(mgr.ILLEGAL_MONITOR_STATE_EXCEPTION).add(mgr.NULL_POINTER_EXCEPTION);
+    sets[Shape.ARRAY_ACCESS.ordinal()]
+        = base.add(mgr.NULL_POINTER_EXCEPTION).add(mgr.ARRAY_INDEX_OUT_OF_BOUNDS_EXCEPTION);
+    sets[Shape.ARRAY_STORE.ordinal()] = sets[Shape.ARRAY_ACCESS.ordinal()].add(mgr.ARRAY_STORE_EXCEPTION);
+    sets[Shape.STORE_CHECK.ordinal()] = base.add(mgr.ARRAY_STORE_EXCEPTION);
+    sets[Shape.INITIALIZATION.ordinal()] = base.add(mgr.INITIALIZATION_ERRORS);
+    sets[Shape.INSTANCE_FIELD.ordinal()] = base.add(mgr.RESOLVE_FIELD_ERRORS).add(mgr.NULL_POINTER_EXCEPTION);
+    sets[Shape.CLASS_CHECK.ordinal()] = base.add(mgr.RESOLVE_CLASS_ERRORS);
+    sets[Shape.CAST.ordinal()] = sets[Shape.CLASS_CHECK.ordinal()].add(mgr.CLASS_CAST_EXCEPTION);
+    sets[Shape.NEW_ARRAY.ordinal()] = sets[Shape.CLASS_CHECK.ordinal()].add(mgr.NEGATIVE_ARRAY_SIZE_EXCEPTION);
+    sets[Shape.NEGATIVE_SIZE.ordinal()] = base.add(mgr.NEGATIVE_ARRAY_SIZE_EXCEPTION);
+    sets[Shape.INSTANCE_INVOKE.ordinal()] = base.add(mgr.RESOLVE_METHOD_ERRORS).add(mgr.NULL_POINTER_EXCEPTION);
+    sets[Shape.DYNAMIC_INVOKE.ordinal()]
+        = sets[Shape.INSTANCE_INVOKE.ordinal()].add(mgr.INITIALIZATION_ERRORS).add(mgr.ALL_THROWABLES);
+    sets[Shape.ARITHMETIC.ordinal()] = base.add(mgr.ARITHMETIC_EXCEPTION);
+    return sets;
+  }
+
+  /**
+   * Adds the set of the given shape to a result which already includes {@link #defaultResult()}.
+   */
+  private ThrowableSet union(ThrowableSet result, Shape shape) {
+    ThrowableSet set = mightThrow(shape);
+    return result == defaultResult() ? set : result.add(set);
+  }
+
+  /**
+   * Adds the set of an operand or a callee to a result which already includes {@link #defaultResult()}. The set of a
+   * local or a constant is just the default result, so this usually does not need to look up a union at all.
+   */
+  private ThrowableSet union(ThrowableSet result, ThrowableSet set) {
+    return (set == result || set == defaultResult()) ? result : result.add(set);
+  }
+
   protected UnitSwitch unitSwitch() {
     return new UnitSwitch();
   }
@@ -276,6 +397,26 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
     return sw.getResult();
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>
+   * All units are analyzed with the same {@link UnitSwitch}, rather than with a new one each, so subclasses which
+   * override {@link #mightThrow(Unit)} without changing {@link #unitSwitch()} must override this method as well.
+   */
+  @Override
+  public Map<Unit, ThrowableSet> mightThrow(Body b) {
+    Chain<Unit> units = b.getUnits();
+    Map<Unit, ThrowableSet> result = new HashMap<Unit, ThrowableSet>(units.size() * 2 + 1, 0.7f);
+    UnitSwitch sw = unitSwitch();
+    for (Unit u : units) {
+      sw.result = defaultResult();
+      u.apply(sw);
+      result.put(u, sw.getResult());
+    }
+    return result;
+  }
+
   public ThrowableSet mightThrowImplicitly(ThrowInst t) {
     return implicitThrowExceptions;
   }
@@ -284,19 +425,43 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
     return implicitThrowExceptions;
   }
 
+  /**
+   * Returns the set of types that might be thrown when evaluating the specified value. Locals and constants are
+   * answered with {@link #defaultResult()} without running a {@link ValueSwitch}, unless a subclass supplies its own
+   * switch through {@link #valueSwitch()}, whose cases for them might add exceptions.
+   */
   protected ThrowableSet mightThrow(Value v) {
+    if ((v instanceof Local || v instanceof Constant) && hasPlainValueSwitch()) {
+      // Reading a local or a constant never throws anything by itself
+      return defaultResult();
+    }
     ValueSwitch sw = valueSwitch();
     v.apply(sw);
     return sw.getResult();
   }
 
+  private boolean hasPlainValueSwitch() {
+    Boolean plain = plainValueSwitch;
+    if (plain == null) {
+      plainValueSwitch = plain = valueSwitch().getClass() == ValueSwitch.class;
+    }
+    return plain;
+  }
+
   protected ThrowableSet mightThrow(SootMethodRef m) {
     // The throw analysis is used in the front-ends. Conseqeuently, some
     // methods might not yet be loaded. If this is the case, we make
     // conservative assumptions.
+    ThrowableSet result = methodRefToThrowSet.getIfPresent(m);
+    if (result != null) {
+      return result;
+    }
     SootMethod sm = m.tryResolve();
     if (sm != null) {
-      return mightThrow(sm);
+      // Unresolved references are not cached, since the method may still be loaded later
+      result = mightThrow(sm);
+      methodRefToThrowSet.put(m, result);
+      return result;
     } else {
       return mgr.ALL_THROWABLES;
     }
@@ -411,12 +576,12 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
 
     @Override
     public void caseReturnVoidInst(ReturnVoidInst i) {
-      result = result.add(mgr.ILLEGAL_MONITOR_STATE_EXCEPTION);
+      result = union(result, Shape.MONITOR_STATE);
     }
 
     @Override
     public void caseReturnInst(ReturnInst i) {
-      result = result.add(mgr.ILLEGAL_MONITOR_STATE_EXCEPTION);
+      result = union(result, Shape.MONITOR_STATE);
     }
 
     @Override
@@ -453,17 +618,16 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
 
     @Override
     public void caseArrayWriteInst(ArrayWriteInst i) {
-      result = result.add(mgr.NULL_POINTER_EXCEPTION);
-      result = result.add(mgr.ARRAY_INDEX_OUT_OF_BOUNDS_EXCEPTION);
       if (i.getOpType() instanceof RefType) {
-        result = result.add(mgr.ARRAY_STORE_EXCEPTION);
+        result = union(result, Shape.ARRAY_STORE);
+      } else {
+        result = union(result, Shape.ARRAY_ACCESS);
       }
     }
 
     @Override
     public void caseArrayReadInst(ArrayReadInst i) {
-      result = result.add(mgr.NULL_POINTER_EXCEPTION);
-      result = result.add(mgr.ARRAY_INDEX_OUT_OF_BOUNDS_EXCEPTION);
+      result = union(result, Shape.ARRAY_ACCESS);
     }
 
     @Override
@@ -524,35 +688,32 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
 
     @Override
     public void caseStaticGetInst(StaticGetInst i) {
-      result = result.add(mgr.INITIALIZATION_ERRORS);
+      result = union(result, Shape.INITIALIZATION);
     }
 
     @Override
     public void caseStaticPutInst(StaticPutInst i) {
-      result = result.add(mgr.INITIALIZATION_ERRORS);
+      result = union(result, Shape.INITIALIZATION);
     }
 
     @Override
     public void caseFieldGetInst(FieldGetInst i) {
-      result = result.add(mgr.RESOLVE_FIELD_ERRORS);
-      result = result.add(mgr.NULL_POINTER_EXCEPTION);
+      result = union(result, Shape.INSTANCE_FIELD);
     }
 
     @Override
     public void caseFieldPutInst(FieldPutInst i) {
-      result = result.add(mgr.RESOLVE_FIELD_ERRORS);
-      result = result.add(mgr.NULL_POINTER_EXCEPTION);
+      result = union(result, Shape.INSTANCE_FIELD);
     }
 
     @Override
     public void caseInstanceCastInst(InstanceCastInst i) {
-      result = result.add(mgr.RESOLVE_CLASS_ERRORS);
-      result = result.add(mgr.CLASS_CAST_EXCEPTION);
+      result = union(result, Shape.CAST);
     }
 
     @Override
     public void caseInstanceOfInst(InstanceOfInst i) {
-      result = result.add(mgr.RESOLVE_CLASS_ERRORS);
+      result = union(result, Shape.CLASS_CHECK);
     }
 
     @Override
@@ -561,38 +722,32 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
 
     @Override
     public void caseDynamicInvokeInst(DynamicInvokeInst i) {
-      result = result.add(mgr.RESOLVE_METHOD_ERRORS);
-      result = result.add(mgr.NULL_POINTER_EXCEPTION);
-      result = result.add(mgr.INITIALIZATION_ERRORS);
       // might throw anything
-      result = result.add(ThrowableSet.Manager.v().ALL_THROWABLES);
+      result = union(result, Shape.DYNAMIC_INVOKE);
     }
 
     @Override
     public void caseStaticInvokeInst(StaticInvokeInst i) {
-      result = result.add(mgr.INITIALIZATION_ERRORS);
-      result = result.add(mightThrow(i.getMethodRef()));
+      result = union(result, Shape.INITIALIZATION);
+      result = union(result, mightThrow(i.getMethodRef()));
     }
 
     @Override
     public void caseVirtualInvokeInst(VirtualInvokeInst i) {
-      result = result.add(mgr.RESOLVE_METHOD_ERRORS);
-      result = result.add(mgr.NULL_POINTER_EXCEPTION);
-      result = result.add(mightThrow(i.getMethodRef()));
+      result = union(result, Shape.INSTANCE_INVOKE);
+      result = union(result, mightThrow(i.getMethodRef()));
     }
 
     @Override
     public void caseInterfaceInvokeInst(InterfaceInvokeInst i) {
-      result = result.add(mgr.RESOLVE_METHOD_ERRORS);
-      result = result.add(mgr.NULL_POINTER_EXCEPTION);
-      result = result.add(mightThrow(i.getMethodRef()));
+      result = union(result, Shape.INSTANCE_INVOKE);
+      result = union(result, mightThrow(i.getMethodRef()));
     }
 
     @Override
     public void caseSpecialInvokeInst(SpecialInvokeInst i) {
-      result = result.add(mgr.RESOLVE_METHOD_ERRORS);
-      result = result.add(mgr.NULL_POINTER_EXCEPTION);
-      result = result.add(mightThrow(i.getMethodRef()));
+      result = union(result, Shape.INSTANCE_INVOKE);
+      result = union(result, mightThrow(i.getMethodRef()));
     }
 
     @Override
@@ -619,7 +774,7 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
 
     @Override
     public void caseArrayLengthInst(ArrayLengthInst i) {
-      result = result.add(mgr.NULL_POINTER_EXCEPTION);
+      result = union(result, Shape.NULL_CHECK);
     }
 
     @Override
@@ -637,7 +792,7 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
     @Override
     public void caseDivInst(DivInst i) {
       if (i.getOpType() instanceof IntegerType || i.getOpType() == LongType.v()) {
-        result = result.add(mgr.ARITHMETIC_EXCEPTION);
+        result = union(result, Shape.ARITHMETIC);
       }
     }
 
@@ -652,7 +807,7 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
     @Override
     public void caseRemInst(RemInst i) {
       if (i.getOpType() instanceof IntegerType || i.getOpType() == LongType.v()) {
-        result = result.add(mgr.ARITHMETIC_EXCEPTION);
+        result = union(result, Shape.ARITHMETIC);
       }
     }
 
@@ -674,7 +829,7 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
 
     @Override
     public void caseNewInst(NewInst i) {
-      result = result.add(mgr.INITIALIZATION_ERRORS);
+      result = union(result, Shape.INITIALIZATION);
     }
 
     @Override
@@ -711,14 +866,12 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
 
     @Override
     public void caseNewArrayInst(NewArrayInst i) {
-      result = result.add(mgr.RESOLVE_CLASS_ERRORS); // Could be omitted for primitive arrays.
-      result = result.add(mgr.NEGATIVE_ARRAY_SIZE_EXCEPTION);
+      result = union(result, Shape.NEW_ARRAY); // Class resolution could be omitted for primitive arrays.
     }
 
     @Override
     public void caseNewMultiArrayInst(NewMultiArrayInst i) {
-      result = result.add(mgr.RESOLVE_CLASS_ERRORS);
-      result = result.add(mgr.NEGATIVE_ARRAY_SIZE_EXCEPTION);
+      result = union(result, Shape.NEW_ARRAY);
     }
 
     @Override
@@ -731,13 +884,12 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
 
     @Override
     public void caseEnterMonitorInst(EnterMonitorInst i) {
-      result = result.add(mgr.NULL_POINTER_EXCEPTION);
+      result = union(result, Shape.NULL_CHECK);
     }
 
     @Override
     public void caseExitMonitorInst(ExitMonitorInst i) {
-      result = result.add(mgr.ILLEGAL_MONITOR_STATE_EXCEPTION);
-      result = result.add(mgr.NULL_POINTER_EXCEPTION);
+      result = union(result, Shape.MONITOR_EXIT);
     }
 
     @Override
@@ -745,10 +897,10 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
       Value lhs = s.getLeftOp();
       if (lhs instanceof ArrayRef && (lhs.getType() instanceof UnknownType || lhs.getType() instanceof RefType)) {
         // This corresponds to an aastore byte code.
-        result = result.add(mgr.ARRAY_STORE_EXCEPTION);
+        result = union(result, Shape.STORE_CHECK);
       }
-      result = result.add(mightThrow(s.getLeftOp()));
-      result = result.add(mightThrow(s.getRightOp()));
+      result = union(result, mightThrow(s.getLeftOp()));
+      result = union(result, mightThrow(s.getRightOp()));
     }
 
     @Override
@@ -757,15 +909,14 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
 
     @Override
     public void caseEnterMonitorStmt(EnterMonitorStmt s) {
-      result = result.add(mgr.NULL_POINTER_EXCEPTION);
-      result = result.add(mightThrow(s.getOp()));
+      result = union(result, Shape.NULL_CHECK);
+      result = union(result, mightThrow(s.getOp()));
     }
 
     @Override
     public void caseExitMonitorStmt(ExitMonitorStmt s) {
-      result = result.add(mgr.ILLEGAL_MONITOR_STATE_EXCEPTION);
-      result = result.add(mgr.NULL_POINTER_EXCEPTION);
-      result = result.add(mightThrow(s.getOp()));
+      result = union(result, Shape.MONITOR_EXIT);
+      result = union(result, mightThrow(s.getOp()));
     }
 
     @Override
@@ -780,17 +931,17 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
 
     @Override
     public void caseIfStmt(IfStmt s) {
-      result = result.add(mightThrow(s.getCondition()));
+      result = union(result, mightThrow(s.getCondition()));
     }
 
     @Override
     public void caseInvokeStmt(InvokeStmt s) {
-      result = result.add(mightThrow(s.getInvokeExpr()));
+      result = union(result, mightThrow(s.getInvokeExpr()));
     }
 
     @Override
     public void caseLookupSwitchStmt(LookupSwitchStmt s) {
-      result = result.add(mightThrow(s.getKey()));
+      result = union(result, mightThrow(s.getKey()));
     }
 
     @Override
@@ -816,7 +967,7 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
 
     @Override
     public void caseTableSwitchStmt(TableSwitchStmt s) {
-      result = result.add(mightThrow(s.getKey()));
+      result = union(result, mightThrow(s.getKey()));
     }
 
     @Override
@@ -959,11 +1110,11 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
     }
 
     public void caseStaticInvokeExpr(StaticInvokeExpr expr) {
-      result = result.add(mgr.INITIALIZATION_ERRORS);
+      result = union(result, Shape.INITIALIZATION);
       for (int i = 0; i < expr.getArgCount(); i++) {
-        result = result.add(mightThrow(expr.getArg(i)));
+        result = union(result, mightThrow(expr.getArg(i)));
       }
-      result = result.add(mightThrow(expr.getMethodRef()));
+      result = union(result, mightThrow(expr.getMethodRef()));
     }
 
     public void caseVirtualInvokeExpr(VirtualInvokeExpr expr) {
@@ -976,7 +1127,7 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
     }
 
     public void caseCastExpr(CastExpr expr) {
-      result = result.add(mgr.RESOLVE_CLASS_ERRORS);
+      Shape shape = Shape.CLASS_CHECK;
       Type fromType = expr.getOp().getType();
       Type toType = expr.getCastType();
       if (toType instanceof RefLikeType) {
@@ -985,76 +1136,75 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
         FastHierarchy h = Scene.v().getOrMakeFastHierarchy();
         if (fromType == null || fromType instanceof UnknownType
             || ((!(fromType instanceof NullType)) && (!h.canStoreType(fromType, toType)))) {
-          result = result.add(mgr.CLASS_CAST_EXCEPTION);
+          shape = Shape.CAST;
         }
       }
-      result = result.add(mightThrow(expr.getOp()));
+      result = union(result, shape);
+      result = union(result, mightThrow(expr.getOp()));
     }
 
     public void caseInstanceOfExpr(InstanceOfExpr expr) {
-      result = result.add(mgr.RESOLVE_CLASS_ERRORS);
-      result = result.add(mightThrow(expr.getOp()));
+      result = union(result, Shape.CLASS_CHECK);
+      result = union(result, mightThrow(expr.getOp()));
     }
 
     public void caseNewArrayExpr(NewArrayExpr expr) {
-      if (expr.getBaseType() instanceof RefLikeType) {
-        result = result.add(mgr.RESOLVE_CLASS_ERRORS);
-      }
+      boolean resolvesClass = expr.getBaseType() instanceof RefLikeType;
       Value count = expr.getSize();
       if ((!(count instanceof IntConstant))
           || (((IntConstant) count).lessThan(INT_CONSTANT_ZERO).equals(INT_CONSTANT_ZERO))) {
-        result = result.add(mgr.NEGATIVE_ARRAY_SIZE_EXCEPTION);
+        result = union(result, resolvesClass ? Shape.NEW_ARRAY : Shape.NEGATIVE_SIZE);
+      } else if (resolvesClass) {
+        result = union(result, Shape.CLASS_CHECK);
       }
-      result = result.add(mightThrow(count));
+      result = union(result, mightThrow(count));
     }
 
     public void caseNewMultiArrayExpr(NewMultiArrayExpr expr) {
-      result = result.add(mgr.RESOLVE_CLASS_ERRORS);
+      result = union(result, Shape.CLASS_CHECK);
       for (int i = 0; i < expr.getSizeCount(); i++) {
         Value count = expr.getSize(i);
         if ((!(count instanceof IntConstant))
             || (((IntConstant) count).lessThan(INT_CONSTANT_ZERO).equals(INT_CONSTANT_ZERO))) {
-          result = result.add(mgr.NEGATIVE_ARRAY_SIZE_EXCEPTION);
+          result = union(result, Shape.NEW_ARRAY);
         }
-        result = result.add(mightThrow(count));
+        result = union(result, mightThrow(count));
       }
     }
 
     @SuppressWarnings("rawtypes")
     public void caseNewExpr(NewExpr expr) {
-      result = result.add(mgr.INITIALIZATION_ERRORS);
+      result = union(result, Shape.INITIALIZATION);
       for (Iterator i = expr.getUseBoxes().iterator(); i.hasNext();) {
         ValueBox box = (ValueBox) i.next();
-        result = result.add(mightThrow(box.getValue()));
+        result = union(result, mightThrow(box.getValue()));
       }
     }
 
     public void caseLengthExpr(LengthExpr expr) {
-      result = result.add(mgr.NULL_POINTER_EXCEPTION);
-      result = result.add(mightThrow(expr.getOp()));
+      result = union(result, Shape.NULL_CHECK);
+      result = union(result, mightThrow(expr.getOp()));
     }
 
     public void caseNegExpr(NegExpr expr) {
-      result = result.add(mightThrow(expr.getOp()));
+      result = union(result, mightThrow(expr.getOp()));
     }
 
     // Declared by RefSwitch interface:
 
     public void caseArrayRef(ArrayRef ref) {
-      result = result.add(mgr.NULL_POINTER_EXCEPTION);
-      result = result.add(mgr.ARRAY_INDEX_OUT_OF_BOUNDS_EXCEPTION);
-      result = result.add(mightThrow(ref.getBase()));
-      result = result.add(mightThrow(ref.getIndex()));
+      result = union(result, Shape.ARRAY_ACCESS);
+      result = union(result, mightThrow(ref.getBase()));
+      result = union(result, mightThrow(ref.getIndex()));
     }
 
     public void caseStaticFieldRef(StaticFieldRef ref) {
-      result = result.add(mgr.INITIALIZATION_ERRORS);
+      result = union(result, Shape.INITIALIZATION);
     }
 
     public void caseInstanceFieldRef(InstanceFieldRef ref) {
-      result = result.add(mgr.RESOLVE_FIELD_ERRORS);
-      result = result.add(mgr.NULL_POINTER_EXCEPTION);
-      result = result.add(mightThrow(ref.getBase()));
+      result = union(result, Shape.INSTANCE_FIELD);
+      result = union(result, mightThrow(ref.getBase()));
     }
 
     public void caseParameterRef(ParameterRef v) {
@@ -1077,7 +1227,7 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
     public void casePhiExpr(PhiExpr e) {
       for (Iterator i = e.getUseBoxes().iterator(); i.hasNext();) {
         ValueBox box = (ValueBox) i.next();
-        result = result.add(mightThrow(box.getValue()));
+        result = union(result, mightThrow(box.getValue()));
       }
     }
 
@@ -1088,8 +1238,8 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
     // but are used to factor out code common to several cases.
 
     private void caseBinopExpr(BinopExpr expr) {
-      result = result.add(mightThrow(expr.getOp1()));
-      result = result.add(mightThrow(expr.getOp2()));
+      result = union(result, mightThrow(expr.getOp1()));
+      result = union(result, mightThrow(expr.getOp2()));
     }
 
     private void caseBinopDivExpr(BinopExpr expr) {
@@ -1099,25 +1249,24 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
       Value divisor = expr.getOp2();
       Type divisorType = divisor.getType();
       if (divisorType instanceof UnknownType) {
-        result = result.add(mgr.ARITHMETIC_EXCEPTION);
+        result = union(result, Shape.ARITHMETIC);
       } else if ((divisorType instanceof IntegerType)
           && ((!(divisor instanceof IntConstant)) || (((IntConstant) divisor).equals(INT_CONSTANT_ZERO)))) {
-        result = result.add(mgr.ARITHMETIC_EXCEPTION);
+        result = union(result, Shape.ARITHMETIC);
       } else if ((divisorType == LongType.v())
           && ((!(divisor instanceof LongConstant)) || (((LongConstant) divisor).equals(LONG_CONSTANT_ZERO)))) {
-        result = result.add(mgr.ARITHMETIC_EXCEPTION);
+        result = union(result, Shape.ARITHMETIC);
       }
       caseBinopExpr(expr);
     }
 
     private void caseInstanceInvokeExpr(InstanceInvokeExpr expr) {
-      result = result.add(mgr.RESOLVE_METHOD_ERRORS);
-      result = result.add(mgr.NULL_POINTER_EXCEPTION);
+      result = union(result, Shape.INSTANCE_INVOKE);
       for (int i = 0; i < expr.getArgCount(); i++) {
-        result = result.add(mightThrow(expr.getArg(i)));
+        result = union(result, mightThrow(expr.getArg(i)));
       }
-      result = result.add(mightThrow(expr.getBase()));
-      result = result.add(mightThrow(expr.getMethodRef()));
+      result = union(result, mightThrow(expr.getBase()));
+      result = union(result, mightThrow(expr.getMethodRef()));
     }
   }
 }
@@ -0,0 +1,139 @@
+package soot.toolkits.graph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import soot.Body;
+import soot.Unit;
+import soot.toolkits.exceptions.ThrowAnalysis;
+import soot.toolkits.exceptions.ThrowableSet;
+
+/**
+ * A compact copy of an {@link ExceptionalUnitGraph}. Like {@link CompactUnitGraph}, it numbers the units of the body densely
+ * and keeps the edges in int arrays, here separately for all edges, the unexceptional edges and the exceptional edges. The
+ * graph it is built from is not referenced afterwards, so only the compact form is kept alive by clients that hold on to
+ * the graph.
+ */
+public class CompactExceptionalUnitGraph extends CompactUnitGraph implements ExceptionalGraph<Unit> {
+  protected final EdgeArrays unexceptionalSuccs;
+  protected final EdgeArrays unexceptionalPreds;
+  protected final EdgeArrays exceptionalSuccs;
+  protected final EdgeArrays exceptionalPreds;
+
+  /**
+   * The destinations of the exceptions that are caught by a trap, by unit index. The exceptions of the other units escape
+   * the method, and their destinations are computed on demand from {@link #throwAnalysis}.
+   */
+  protected final Collection<ExceptionalUnitGraph.ExceptionDest>[] exceptionDests;
+  protected final ThrowAnalysis throwAnalysis;
+
+  /**
+   * Constructs the graph from the given body, using the default {@link ThrowAnalysis} and
+   * {@link ExceptionalUnitGraph#ExceptionalUnitGraph(Body)}'s treatment of excepting units.
+   *
+   * @param body
+   *          the <code>Body</code> from which to build a graph.
+   */
+  public CompactExceptionalUnitGraph(Body body) {
+    this(new ExceptionalUnitGraph(body));
+  }
+
+  /**
+   * Constructs the graph from the given body, using the given {@link ThrowAnalysis}.
+   *
+   * @param body
+   *          the <code>Body</code> from which to build a graph.
+   * @param throwAnalysis
+   *          the source of information about the exceptions which each {@link Unit} may throw.
+   */
+  public CompactExceptionalUnitGraph(Body body, ThrowAnalysis throwAnalysis) {
+    this(new ExceptionalUnitGraph(body, throwAnalysis));
+  }
+
+  /**
+   * Constructs a compact copy of the given graph.
+   *
+   * @param graph
+   *          the graph to copy.
+   */
+  @SuppressWarnings("unchecked")
+  public CompactExceptionalUnitGraph(ExceptionalUnitGraph graph) {
+    super(graph);
+    unexceptionalSuccs = buildEdgeArrays(graph::getUnexceptionalSuccsOf);
+    unexceptionalPreds = buildEdgeArrays(graph::getUnexceptionalPredsOf);
+    exceptionalSuccs = buildEdgeArrays(graph::getExceptionalSuccsOf);
+    exceptionalPreds = buildEdgeArrays(graph::getExceptionalPredsOf);
+
+    throwAnalysis = graph.throwAnalysis;
+    exceptionDests = new Collection[units.length];
+    if (!graph.unitToExceptionDests.isEmpty()) {
+      for (int i = 0; i < units.length; i++) {
+        exceptionDests[i] = graph.unitToExceptionDests.get(units[i]);
+      }
+    }
+  }
+
+  @Override
+  public Collection<ExceptionalUnitGraph.ExceptionDest> getExceptionDests(final Unit u) {
+    int index = getIndexOf(u);
+    Collection<ExceptionalUnitGraph.ExceptionDest> result = index < 0 ? null : exceptionDests[index];
+    if (result == null) {
+      ExceptionalUnitGraph.ExceptionDest e = new ExceptionalUnitGraph.ExceptionDest(null, null) {
+        private ThrowableSet throwables;
+
+        @Override
+        public ThrowableSet getThrowables() {
+          if (null == throwables) {
+            throwables = throwAnalysis.mightThrow(u);
+          }
+          return throwables;
+        }
+      };
+      return Collections.singletonList(e);
+    }
+    return result;
+  }
+
+  @Override
+  public List<Unit> getUnexceptionalPredsOf(Unit u) {
+    return getNodes(unexceptionalPreds, getIndexOf(u));
+  }
+
+  @Override
+  public List<Unit> getUnexceptionalSuccsOf(Unit u) {
+    return getNodes(unexceptionalSuccs, getIndexOf(u));
+  }
+
+  @Override
+  public List<Unit> getExceptionalPredsOf(Unit u) {
+    return getNodes(exceptionalPreds, getIndexOf(u));
+  }
+
+  @Override
+  public List<Unit> getExceptionalSuccsOf(Unit u) {
+    return getNodes(exceptionalSuccs, getIndexOf(u));
+  }
+}
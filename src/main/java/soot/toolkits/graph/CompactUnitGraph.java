@@ -0,0 +1,342 @@
+package soot.toolkits.graph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+import soot.Body;
+import soot.Timers;
+import soot.Unit;
+import soot.UnitBox;
+import soot.options.Options;
+
+/**
+ * <p>
+ * A CFG of {@link Unit}s that numbers the units of its body densely, in the order of the body's unit chain, and keeps its
+ * edges in int arrays in compressed sparse row form. Instead of the maps and the many small lists of the other
+ * {@link UnitGraph}s, a graph therefore allocates one array of units, a small identity hash table for
+ * {@link #getIndexOf(Unit)}, and two int arrays per kind of edge.
+ * </p>
+ *
+ * <p>
+ * Built from a {@link Body}, the graph has the same edges, heads and tails as a {@link BriefUnitGraph}. It can also be built
+ * as a compact copy of any other <tt>UnitGraph</tt>; {@link CompactExceptionalUnitGraph} does the same for
+ * {@link ExceptionalUnitGraph}s and keeps the exceptional edges apart. The lists returned by {@link #getSuccsOf(Unit)} and
+ * {@link #getPredsOf(Unit)} are unmodifiable views of the arrays.
+ * </p>
+ */
+public class CompactUnitGraph extends UnitGraph implements IndexedDirectedGraph<Unit> {
+  protected final Unit[] units;
+
+  /** Open addressing table that maps the units to their index plus one. Zero marks a free slot. */
+  private final int[] indexTable;
+
+  protected EdgeArrays succs;
+  protected EdgeArrays preds;
+
+  /**
+   * Constructs a CompactUnitGraph given a Body instance. Exceptional control flow is not taken into account.
+   *
+   * @param body
+   *          The underlying body we want to make a graph for.
+   */
+  public CompactUnitGraph(Body body) {
+    super(body);
+
+    if (Options.v().time()) {
+      Timers.v().graphTimer.start();
+    }
+
+    units = unitChain.toArray(new Unit[unitChain.size()]);
+    indexTable = buildIndexTable(units);
+    buildBriefEdges();
+    buildHeadsAndTails();
+
+    if (Options.v().time()) {
+      Timers.v().graphTimer.end();
+    }
+
+    soot.util.PhaseDumper.v().dumpGraph(this, body);
+  }
+
+  /**
+   * Constructs a compact copy of the given graph, with the same edges, heads and tails.
+   *
+   * @param graph
+   *          The graph to copy.
+   */
+  public CompactUnitGraph(UnitGraph graph) {
+    super(graph.getBody());
+    units = unitChain.toArray(new Unit[unitChain.size()]);
+    indexTable = buildIndexTable(units);
+    succs = buildEdgeArrays(graph::getSuccsOf);
+    preds = buildEdgeArrays(graph::getPredsOf);
+    heads = new ArrayList<Unit>(graph.getHeads());
+    tails = new ArrayList<Unit>(graph.getTails());
+  }
+
+  /**
+   * The edges of one kind, grouped by their source. The targets of the edges out of the unit with index <code>i</code> are
+   * the indices <code>targets[start[i]]</code> up to, but excluding, <code>targets[start[i + 1]]</code>.
+   */
+  protected static final class EdgeArrays {
+    final int[] start;
+    final int[] targets;
+
+    EdgeArrays(int[] start, int[] targets) {
+      this.start = start;
+      this.targets = targets;
+    }
+
+    int count(int index) {
+      return start[index + 1] - start[index];
+    }
+
+    /**
+     * Groups the first <code>m</code> edges <code>from[k] -> to[k]</code> by their source. Edges with the same source keep
+     * their relative order.
+     */
+    static EdgeArrays group(int n, int[] from, int[] to, int m) {
+      int[] start = new int[n + 1];
+      for (int k = 0; k < m; k++) {
+        start[from[k] + 1]++;
+      }
+      for (int i = 0; i < n; i++) {
+        start[i + 1] += start[i];
+      }
+      int[] next = Arrays.copyOf(start, n);
+      int[] targets = new int[m];
+      for (int k = 0; k < m; k++) {
+        targets[next[from[k]]++] = to[k];
+      }
+      return new EdgeArrays(start, targets);
+    }
+  }
+
+  /**
+   * Computes the edges corresponding to unexceptional control flow, as
+   * {@link UnitGraph#buildUnexceptionalEdges(java.util.Map, java.util.Map)} does.
+   */
+  private void buildBriefEdges() {
+    final int n = units.length;
+    int[] from = new int[n + (n >> 1) + 1];
+    int[] to = new int[from.length];
+    int m = 0;
+
+    for (int i = 0; i < n; i++) {
+      Unit currentUnit = units[i];
+      int first = m;
+
+      if (currentUnit.fallsThrough() && i + 1 < n) {
+        from[m] = i;
+        to[m] = i + 1;
+        m++;
+      }
+
+      if (currentUnit.branches()) {
+        for (UnitBox targetBox : currentUnit.getUnitBoxes()) {
+          Unit target = targetBox.getUnit();
+          int t = getIndexOf(target);
+          if (t < 0) {
+            throw new RuntimeException("Branch target " + target + " of " + currentUnit + " is not in the body");
+          }
+          // Arbitrary bytecode can branch to the same
+          // target it falls through to, so we screen for duplicates:
+          if (!contains(to, first, m, t)) {
+            if (m == from.length) {
+              from = Arrays.copyOf(from, m * 2);
+              to = Arrays.copyOf(to, m * 2);
+            }
+            from[m] = i;
+            to[m] = t;
+            m++;
+          }
+        }
+      }
+
+      if (m + 1 >= from.length) {
+        from = Arrays.copyOf(from, from.length * 2);
+        to = Arrays.copyOf(to, to.length * 2);
+      }
+    }
+
+    succs = EdgeArrays.group(n, from, to, m);
+    preds = EdgeArrays.group(n, to, from, m);
+  }
+
+  private static boolean contains(int[] a, int from, int to, int value) {
+    for (int k = from; k < to; k++) {
+      if (a[k] == value) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Copies the given adjacency of each unit into edge arrays. */
+  protected EdgeArrays buildEdgeArrays(Function<Unit, List<Unit>> adjacency) {
+    final int n = units.length;
+    int[] start = new int[n + 1];
+    for (int i = 0; i < n; i++) {
+      start[i + 1] = start[i] + adjacency.apply(units[i]).size();
+    }
+    int[] targets = new int[start[n]];
+    for (int i = 0; i < n; i++) {
+      int k = start[i];
+      for (Unit u : adjacency.apply(units[i])) {
+        int t = getIndexOf(u);
+        if (t < 0) {
+          throw new RuntimeException("Unit " + u + " is not in the body");
+        }
+        targets[k++] = t;
+      }
+    }
+    return new EdgeArrays(start, targets);
+  }
+
+  /**
+   * Defines the heads and tails in the same way as {@link UnitGraph#buildHeadsAndTails()}, but on the edge arrays.
+   */
+  @Override
+  protected void buildHeadsAndTails() {
+    tails = new ArrayList<Unit>();
+    heads = new ArrayList<Unit>();
+
+    for (int i = 0; i < units.length; i++) {
+      if (succs.count(i) == 0) {
+        tails.add(units[i]);
+      }
+      if (preds.count(i) == 0) {
+        heads.add(units[i]);
+      }
+    }
+
+    // Add the first Unit, even if it is the target of
+    // a branch.
+    if (units.length > 0 && preds.count(0) != 0) {
+      heads.add(units[0]);
+    }
+  }
+
+  private static int[] buildIndexTable(Unit[] units) {
+    int[] table = new int[Integer.highestOneBit(Math.max(2 * units.length - 1, 1)) << 1];
+    int mask = table.length - 1;
+    for (int i = 0; i < units.length; i++) {
+      int slot = hash(units[i]) & mask;
+      while (table[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = i + 1;
+    }
+    return table;
+  }
+
+  private static int hash(Object u) {
+    int h = System.identityHashCode(u);
+    return h ^ (h >>> 16);
+  }
+
+  /** Returns the index of the given unit in the body's unit chain, or <code>-1</code> if it is not a unit of the body. */
+  @Override
+  public int getIndexOf(Object u) {
+    final int mask = indexTable.length - 1;
+    for (int slot = hash(u) & mask;; slot = (slot + 1) & mask) {
+      int i = indexTable[slot] - 1;
+      if (i < 0) {
+        return -1;
+      } else if (units[i] == u) {
+        return i;
+      }
+    }
+  }
+
+  @Override
+  public Unit getNodeAt(int index) {
+    return units[index];
+  }
+
+  /** Returns the nodes at the other end of the edges out of the unit with the given index. */
+  protected List<Unit> getNodes(EdgeArrays edges, int index) {
+    if (index < 0) {
+      return Collections.emptyList();
+    }
+    int from = edges.start[index];
+    int to = edges.start[index + 1];
+    if (from == to) {
+      return Collections.emptyList();
+    }
+    return new NodeList(edges.targets, from, to);
+  }
+
+  private final class NodeList extends AbstractList<Unit> implements RandomAccess {
+    private final int[] targets;
+    private final int from;
+    private final int to;
+
+    NodeList(int[] targets, int from, int to) {
+      this.targets = targets;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public Unit get(int index) {
+      if (index < 0 || index >= to - from) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+      }
+      return units[targets[from + index]];
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+  }
+
+  @Override
+  public List<Unit> getPredsOf(Unit u) {
+    return getNodes(preds, getIndexOf(u));
+  }
+
+  @Override
+  public List<Unit> getSuccsOf(Unit u) {
+    return getNodes(succs, getIndexOf(u));
+  }
+
+  @Override
+  public int size() {
+    return units.length;
+  }
+
+  @Override
+  public Iterator<Unit> iterator() {
+    return Arrays.asList(units).iterator();
+  }
+}
@@ -272,6 +272,11 @@ public class ExceptionalUnitGraph extends UnitGraph implements ExceptionalGraph<
    *         </p>
    */
   protected Map<Unit, Collection<ExceptionDest>> buildExceptionDests(ThrowAnalysis throwAnalysis) {
+    if (body.getTraps().isEmpty()) {
+      // No unit is inside the scope of a trap, so there is nothing to analyze
+      return Collections.emptyMap();
+    }
+
     Chain<Unit> units = body.getUnits();
     Map<Unit, ThrowableSet> unitToUncaughtThrowables = new LinkedHashMap<Unit, ThrowableSet>(units.size());
     Map<Unit, Collection<ExceptionDest>> result = null;
@@ -0,0 +1,41 @@
+package soot.toolkits.graph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+/**
+ * A directed graph whose nodes are numbered densely from <code>0</code> to <code>size() - 1</code>. Clients that keep
+ * per-node data, such as the flow analyses, can store it in arrays indexed by these numbers instead of hashing the nodes.
+ *
+ * @param N
+ *          node type
+ */
+public interface IndexedDirectedGraph<N> extends DirectedGraph<N> {
+  /**
+   * Returns the index of the given node, or <code>-1</code> if it is not a node of this graph. Like
+   * {@link java.util.Map#get(Object)}, this accepts any object, so that map keys of unknown type can be looked up.
+   */
+  public int getIndexOf(Object node);
+
+  /** Returns the node with the given index. */
+  public N getNodeAt(int index);
+}
@@ -23,7 +23,6 @@ package soot.toolkits.scalar;
  */
 
 import java.util.Collections;
-import java.util.IdentityHashMap;
 import java.util.Map;
 
 import soot.options.Options;
@@ -51,7 +50,7 @@ public abstract class AbstractFlowAnalysis<N, A> {
 
   /** Constructs a flow analysis on the given <code>DirectedGraph</code>. */
   public AbstractFlowAnalysis(DirectedGraph<N> graph) {
-    unitToBeforeFlow = new IdentityHashMap<N, A>(graph.size() * 2 + 1);
+    unitToBeforeFlow = IndexedNodeMap.of(graph);
     this.graph = graph;
     if (Options.v().interactive_mode()) {
       InteractionHandler.v().handleCfgEvent(graph);
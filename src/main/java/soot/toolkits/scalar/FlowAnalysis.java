@@ -29,7 +29,6 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
@@ -40,6 +39,7 @@ import soot.baf.GotoInst;
 import soot.jimple.GotoStmt;
 import soot.options.Options;
 import soot.toolkits.graph.DirectedGraph;
+import soot.toolkits.graph.IndexedDirectedGraph;
 import soot.toolkits.graph.interaction.FlowInfo;
 import soot.toolkits.graph.interaction.InteractionHandler;
 import soot.util.Numberable;
@@ -124,7 +124,7 @@ public abstract class FlowAnalysis<N, A> extends AbstractFlowAnalysis<N, A> {
 
       Deque<Entry<D, F>> s = new ArrayDeque<Entry<D, F>>(n);
       List<Entry<D, F>> universe = new ArrayList<Entry<D, F>>(n);
-      Map<D, Entry<D, F>> visited = new HashMap<D, Entry<D, F>>(((n + 1) * 4) / 3);
+      EntryMap<D, F> visited = new EntryMap<D, F>(g);
 
       // out of universe node
       Entry<D, F> superEntry = new Entry<D, F>(null, null);
@@ -237,7 +237,7 @@ public abstract class FlowAnalysis<N, A> extends AbstractFlowAnalysis<N, A> {
     }
 
     @SuppressWarnings("unchecked")
-    private <D, F> Entry<D, F>[] visitEntry(Map<D, Entry<D, F>> visited, Entry<D, F> v, List<D> out) {
+    private <D, F> Entry<D, F>[] visitEntry(EntryMap<D, F> visited, Entry<D, F> v, List<D> out) {
       int n = out.size();
       Entry<D, F>[] a = new Entry[n];
 
@@ -250,23 +250,17 @@ public abstract class FlowAnalysis<N, A> extends AbstractFlowAnalysis<N, A> {
       return v.out = a;
     }
 
-    private <D, F> Entry<D, F> getEntryOf(Map<D, Entry<D, F>> visited, D d, Entry<D, F> v) {
+    private <D, F> Entry<D, F> getEntryOf(EntryMap<D, F> visited, D d, Entry<D, F> v) {
       // either we reach a new node or a merge node, the latter one is rare
       // so put and restore should be better that a lookup
-      // putIfAbsent would be the ideal strategy
-
-      // add and restore if required
       Entry<D, F> newEntry = new Entry<D, F>(d, v);
-      Entry<D, F> oldEntry = visited.put(d, newEntry);
+      Entry<D, F> oldEntry = visited.putIfAbsent(d, newEntry);
 
-      // no restore required
+      // new node
       if (oldEntry == null) {
         return newEntry;
       }
 
-      // false prediction, restore the entry
-      visited.put(d, oldEntry);
-
       // adding self ref (real strongly connected with itself)
       if (oldEntry == v) {
         oldEntry.isRealStronglyConnected = true;
@@ -313,6 +307,55 @@ public abstract class FlowAnalysis<N, A> extends AbstractFlowAnalysis<N, A> {
     }
   }
 
+  /**
+   * Maps the nodes of a graph to their entries while the {@link Orderer} builds the entry graph. If the graph numbers its
+   * nodes, the entries are kept in an array indexed by these numbers, so that no node needs to be hashed.
+   */
+  static final class EntryMap<D, F> {
+    private final IndexedDirectedGraph<D> indexed;
+    private final Entry<D, F>[] byIndex;
+    private final Map<D, Entry<D, F>> byNode;
+
+    @SuppressWarnings("unchecked")
+    EntryMap(DirectedGraph<D> g) {
+      final int n = g.size();
+      if (g instanceof IndexedDirectedGraph) {
+        indexed = (IndexedDirectedGraph<D>) g;
+        byIndex = new Entry[n];
+        byNode = null;
+      } else {
+        indexed = null;
+        byIndex = null;
+        byNode = new HashMap<D, Entry<D, F>>(((n + 1) * 4) / 3);
+      }
+    }
+
+    /**
+     * Maps d to the given entry unless it already has one. Returns the entry d had before, or null.
+     */
+    Entry<D, F> putIfAbsent(D d, Entry<D, F> e) {
+      if (byIndex != null) {
+        int i = indexed.getIndexOf(d);
+        if (i < 0) {
+          throw new RuntimeException("Node " + d + " is not part of the graph");
+        }
+        Entry<D, F> oldEntry = byIndex[i];
+        if (oldEntry == null) {
+          byIndex[i] = e;
+        }
+        return oldEntry;
+      }
+
+      // add and restore if required
+      Entry<D, F> oldEntry = byNode.put(d, e);
+      if (oldEntry != null) {
+        // false prediction, restore the entry
+        byNode.put(d, oldEntry);
+      }
+      return oldEntry;
+    }
+  }
+
   enum InteractionFlowHandler {
     NONE, FORWARD {
       @Override
@@ -410,7 +453,7 @@ public abstract class FlowAnalysis<N, A> extends AbstractFlowAnalysis<N, A> {
   public FlowAnalysis(DirectedGraph<N> graph) {
     super(graph);
 
-    unitToAfterFlow = new IdentityHashMap<N, A>(graph.size() * 2 + 1);
+    unitToAfterFlow = IndexedNodeMap.of(graph);
   }
 
   /**
@@ -0,0 +1,204 @@
+package soot.toolkits.scalar;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import soot.toolkits.graph.DirectedGraph;
+import soot.toolkits.graph.IndexedDirectedGraph;
+
+/**
+ * A java.util.Map from the nodes of an {@link IndexedDirectedGraph} to flow objects, stored in an array indexed by the node
+ * numbers of the graph. Keys are compared by identity, as in the IdentityHashMaps the flow analyses use for other graphs.
+ * Keys that are not part of the graph are kept in a separate map, so that analyses which put extra nodes into their flow
+ * maps still work.
+ */
+final class IndexedNodeMap<N, V> extends AbstractMap<N, V> {
+  private static final Object NULL = new Object();
+
+  private final IndexedDirectedGraph<N> graph;
+  private final Object[] values;
+  private int size = 0;
+  private Map<N, V> others = null;
+
+  IndexedNodeMap(IndexedDirectedGraph<N> graph) {
+    this.graph = graph;
+    this.values = new Object[graph.size()];
+  }
+
+  /** Creates an IndexedNodeMap if the graph numbers its nodes, and an IdentityHashMap otherwise. */
+  static <N, V> Map<N, V> of(DirectedGraph<N> graph) {
+    if (graph instanceof IndexedDirectedGraph) {
+      return new IndexedNodeMap<N, V>((IndexedDirectedGraph<N>) graph);
+    }
+    return new IdentityHashMap<N, V>(graph.size() * 2 + 1);
+  }
+
+  private int indexOf(Object key) {
+    int i = graph.getIndexOf(key);
+    return i < values.length ? i : -1;
+  }
+
+  /** Masks null values, since a null entry in the array stands for a missing key. */
+  private static Object mask(Object value) {
+    return value == null ? NULL : value;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <V> V unmask(Object value) {
+    return value == NULL ? null : (V) value;
+  }
+
+  @Override
+  public V get(Object key) {
+    int i = indexOf(key);
+    if (i >= 0) {
+      return unmask(values[i]);
+    }
+    return others == null ? null : others.get(key);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    int i = indexOf(key);
+    if (i >= 0) {
+      return values[i] != null;
+    }
+    return others != null && others.containsKey(key);
+  }
+
+  @Override
+  public V put(N key, V value) {
+    int i = indexOf(key);
+    if (i < 0) {
+      if (others == null) {
+        others = new IdentityHashMap<N, V>();
+      }
+      return others.put(key, value);
+    }
+    Object old = values[i];
+    values[i] = mask(value);
+    if (old == null) {
+      size++;
+    }
+    return unmask(old);
+  }
+
+  @Override
+  public V remove(Object key) {
+    int i = indexOf(key);
+    if (i < 0) {
+      return others == null ? null : others.remove(key);
+    }
+    Object old = values[i];
+    if (old != null) {
+      values[i] = null;
+      size--;
+    }
+    return unmask(old);
+  }
+
+  @Override
+  public int size() {
+    return size + (others == null ? 0 : others.size());
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(values, null);
+    size = 0;
+    others = null;
+  }
+
+  @Override
+  public Set<Map.Entry<N, V>> entrySet() {
+    return new AbstractSet<Map.Entry<N, V>>() {
+      @Override
+      public Iterator<Map.Entry<N, V>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return IndexedNodeMap.this.size();
+      }
+    };
+  }
+
+  private class EntryIterator implements Iterator<Map.Entry<N, V>> {
+    private int cur = 0;
+    private int last = -1;
+    private Iterator<Map.Entry<N, V>> othersIt = null;
+
+    private void advance() {
+      while (cur < values.length && values[cur] == null) {
+        cur++;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      advance();
+      if (cur < values.length) {
+        return true;
+      }
+      if (othersIt == null && others != null) {
+        othersIt = others.entrySet().iterator();
+      }
+      return othersIt != null && othersIt.hasNext();
+    }
+
+    @Override
+    public Map.Entry<N, V> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      if (cur < values.length) {
+        last = cur++;
+        return new SimpleImmutableEntry<N, V>(graph.getNodeAt(last), IndexedNodeMap.<V>unmask(values[last]));
+      }
+      last = -1;
+      return othersIt.next();
+    }
+
+    @Override
+    public void remove() {
+      if (othersIt != null && last < 0) {
+        othersIt.remove();
+        return;
+      }
+      if (last < 0 || values[last] == null) {
+        throw new IllegalStateException();
+      }
+      values[last] = null;
+      size--;
+    }
+  }
+}
@@ -22,61 +22,77 @@ package soot.util;
  * #L%
  */
 
-import java.util.Arrays;
-import java.util.BitSet;
+import heros.ThreadSafe;
+
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * A class that numbers objects, so they can be placed in bitsets.
  *
+ * Numbers are dense: they are handed out in increasing order, starting at 1, and the numbers of removed objects are
+ * handed out again before new ones. The numbered objects are kept in chunks that are allocated on demand and never
+ * move, so lookups take no locks. Adding an object only locks one of a fixed set of stripes, so that an object that is
+ * added by several threads at the same time is still numbered once, while distinct objects rarely wait for each other.
+ *
  * @author Ondrej Lhotak
  * @author xiao, generalize it.
  */
-
+@ThreadSafe
 public class ArrayNumberer<E extends Numberable> implements IterableNumberer<E> {
-  protected E[] numberToObj;
-  protected int lastNumber;
-  protected BitSet freeNumbers;
+  private static final int CHUNK_BITS = 10;
+  private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+  private static final int STRIPES = 64;
+
+  private volatile AtomicReferenceArray<AtomicReferenceArray<E>> chunks
+      = new AtomicReferenceArray<AtomicReferenceArray<E>>(16);
+  private final AtomicInteger lastNumber = new AtomicInteger();
+  private final Queue<Integer> freeNumbers = new ConcurrentLinkedQueue<Integer>();
+  private final Object[] stripes = new Object[STRIPES];
 
-  @SuppressWarnings("unchecked")
   public ArrayNumberer() {
-    numberToObj = (E[]) new Numberable[1024];
-    lastNumber = 0;
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Object();
+    }
   }
 
+  /**
+   * Creates a numberer that numbers each of the given elements by its index. Objects that are added later are numbered
+   * after them.
+   */
   public ArrayNumberer(E[] elements) {
-    numberToObj = elements;
-    lastNumber = elements.length;
+    this();
+    for (int i = 0; i < elements.length; i++) {
+      chunkFor(i).set(i & CHUNK_MASK, elements[i]);
+      elements[i].setNumber(i);
+    }
+    lastNumber.set(elements.length);
   }
 
-  private void resize(int n) {
-    numberToObj = Arrays.copyOf(numberToObj, n);
+  private Object stripeFor(E o) {
+    return stripes[System.identityHashCode(o) & (STRIPES - 1)];
   }
 
   @Override
-  public synchronized void add(E o) {
+  public void add(E o) {
     if (o.getNumber() != 0) {
       return;
     }
-
-    // In case we removed entries from the numberer, we want to re-use the free space
-    int chosenNumber = -1;
-    if (freeNumbers != null) {
-      int ns = freeNumbers.nextSetBit(0);
-      if (ns != -1) {
-        chosenNumber = ns;
-        freeNumbers.clear(ns);
+    synchronized (stripeFor(o)) {
+      if (o.getNumber() != 0) {
+        return;
       }
+      // In case we removed entries from the numberer, we want to re-use the free space
+      Integer free = freeNumbers.poll();
+      int chosenNumber = free == null ? lastNumber.incrementAndGet() : free;
+      chunkFor(chosenNumber).set(chosenNumber & CHUNK_MASK, o);
+      o.setNumber(chosenNumber);
     }
-    if (chosenNumber == -1) {
-      chosenNumber = ++lastNumber;
-    }
-    if (lastNumber >= numberToObj.length) {
-      resize(numberToObj.length * 2);
-    }
-    numberToObj[lastNumber] = o;
-    o.setNumber(lastNumber);
   }
 
   @Override
@@ -96,39 +112,53 @@ public class ArrayNumberer<E extends Numberable> implements IterableNumberer<E>
     if (number == 0) {
       return null;
     }
-    E ret = numberToObj[(int) number];
-    if (ret == null) {
+    int n = (int) number;
+    AtomicReferenceArray<AtomicReferenceArray<E>> c = chunks;
+    int index = n >>> CHUNK_BITS;
+    if (index >= c.length()) {
       return null;
     }
-    return ret;
+    AtomicReferenceArray<E> chunk = c.get(index);
+    return chunk == null ? null : chunk.get(n & CHUNK_MASK);
   }
 
   @Override
   public int size() {
-    return lastNumber;
+    return lastNumber.get();
   }
 
   @Override
   public Iterator<E> iterator() {
     return new Iterator<E>() {
       int cur = 1;
+      int lastReturned = 0;
 
       @Override
       public final boolean hasNext() {
-        return cur <= lastNumber && cur < numberToObj.length && numberToObj[cur] != null;
+        // Skip the numbers of removed objects, and the ones that are still being handed out
+        int last = lastNumber.get();
+        while (cur <= last && get(cur) == null) {
+          cur++;
+        }
+        return cur <= last;
       }
 
       @Override
       public final E next() {
         if (hasNext()) {
-          return numberToObj[cur++];
+          lastReturned = cur++;
+          return get(lastReturned);
         }
         throw new NoSuchElementException();
       }
 
       @Override
       public final void remove() {
-        ArrayNumberer.this.remove(numberToObj[cur - 1]);
+        if (lastReturned == 0) {
+          throw new IllegalStateException();
+        }
+        ArrayNumberer.this.remove(get(lastReturned));
+        lastReturned = 0;
       }
     };
   }
@@ -139,16 +169,44 @@ public class ArrayNumberer<E extends Numberable> implements IterableNumberer<E>
       return false;
     }
 
-    int num = o.getNumber();
-    if (num == 0) {
-      return false;
+    synchronized (stripeFor(o)) {
+      int num = o.getNumber();
+      if (num == 0) {
+        return false;
+      }
+      chunkFor(num).set(num & CHUNK_MASK, null);
+      o.setNumber(0);
+      freeNumbers.add(num);
+      return true;
+    }
+  }
+
+  private AtomicReferenceArray<E> chunkFor(int number) {
+    int index = number >>> CHUNK_BITS;
+    AtomicReferenceArray<AtomicReferenceArray<E>> c = chunks;
+    if (index < c.length()) {
+      AtomicReferenceArray<E> chunk = c.get(index);
+      if (chunk != null) {
+        return chunk;
+      }
     }
-    if (freeNumbers == null) {
-      freeNumbers = new BitSet(2 * num);
+    // Chunks are only created and copied under the lock, so no chunk is ever added to an array that has been replaced
+    synchronized (this) {
+      c = chunks;
+      if (index >= c.length()) {
+        AtomicReferenceArray<AtomicReferenceArray<E>> grown
+            = new AtomicReferenceArray<AtomicReferenceArray<E>>(Math.max(2 * c.length(), index + 1));
+        for (int i = 0; i < c.length(); i++) {
+          grown.set(i, c.get(i));
+        }
+        chunks = c = grown;
+      }
+      AtomicReferenceArray<E> chunk = c.get(index);
+      if (chunk == null) {
+        chunk = new AtomicReferenceArray<E>(CHUNK_SIZE);
+        c.set(index, chunk);
+      }
+      return chunk;
     }
-    numberToObj[num] = null;
-    o.setNumber(0);
-    freeNumbers.set(num);
-    return true;
   }
 }
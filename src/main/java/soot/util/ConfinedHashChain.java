@@ -0,0 +1,451 @@
+package soot.util;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * An implementation of the Chain interface for chains that are only used by one thread at a time, such as the units,
+ * locals and traps of a method body. Unlike {@link HashChain}, no method is synchronized and the links are kept in a
+ * plain HashMap.
+ *
+ * Each link also carries an order label that increases along the chain, so {@link #follows(Object, Object)} takes
+ * constant time instead of walking the chain. Labels are spread out so that most insertions find a free label between
+ * their neighbours; when there is none, the whole chain is labelled anew.
+ */
+@SuppressWarnings("serial")
+public class ConfinedHashChain<E> extends AbstractCollection<E> implements Chain<E> {
+  /** The distance between neighbouring labels after the chain has been labelled anew. */
+  private static final long GAP = 1L << 20;
+
+  private final Map<E, Link<E>> map = new HashMap<E, Link<E>>();
+  private Link<E> firstLink;
+  private Link<E> lastLink;
+  private long stateCount = 0;
+
+  /** Constructs an empty ConfinedHashChain. */
+  public ConfinedHashChain() {
+  }
+
+  /** Constructs a ConfinedHashChain filled with the contents of the src Chain. */
+  public ConfinedHashChain(Chain<E> src) {
+    this();
+    addAll(src);
+  }
+
+  /** Erases the contents of this chain. */
+  @Override
+  public void clear() {
+    stateCount++;
+    firstLink = lastLink = null;
+    map.clear();
+  }
+
+  @Override
+  public void swapWith(E out, E in) {
+    insertBefore(in, out);
+    remove(out);
+  }
+
+  /** Adds the given object to this chain. */
+  @Override
+  public boolean add(E item) {
+    addLast(item);
+    return true;
+  }
+
+  /**
+   * Gets all elements in the chain. There is no guarantee on sorting.
+   *
+   * @return All elements in the chain in an unsorted collection
+   */
+  @Override
+  public Collection<E> getElementsUnsorted() {
+    return map.keySet();
+  }
+
+  @Override
+  public boolean follows(E someObject, E someReferenceObject) {
+    Link<E> link = map.get(someObject);
+    Link<E> referenceLink = map.get(someReferenceObject);
+    return link != null && referenceLink != null && link.label >= referenceLink.label;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return map.containsKey(o);
+  }
+
+  private void checkInsertable(E toInsert) {
+    if (toInsert == null) {
+      throw new RuntimeException("Bad idea! You tried to insert a null object into a Chain!");
+    }
+    if (map.containsKey(toInsert)) {
+      throw new RuntimeException("Chain already contains object: " + toInsert);
+    }
+  }
+
+  private Link<E> linkOf(E point) {
+    Link<E> link = map.get(point);
+    if (link == null) {
+      throw new RuntimeException("Insertion point not found in chain!");
+    }
+    return link;
+  }
+
+  @Override
+  public void insertAfter(E toInsert, E point) {
+    checkInsertable(toInsert);
+    Link<E> pointLink = linkOf(point);
+    stateCount++;
+    linkBetween(new Link<E>(toInsert), pointLink, pointLink.next);
+  }
+
+  @Override
+  public void insertAfter(Collection<? extends E> toInsert, E point) {
+    if (toInsert == null) {
+      throw new RuntimeException("Warning! You tried to insert a null list into a Chain!");
+    }
+    E previousPoint = point;
+    for (E o : toInsert) {
+      insertAfter(o, previousPoint);
+      previousPoint = o;
+    }
+  }
+
+  @Override
+  public void insertAfter(List<E> toInsert, E point) {
+    insertAfter((Collection<? extends E>) toInsert, point);
+  }
+
+  @Override
+  public void insertAfter(Chain<E> toInsert, E point) {
+    insertAfter((Collection<? extends E>) toInsert, point);
+  }
+
+  @Override
+  public void insertBefore(E toInsert, E point) {
+    checkInsertable(toInsert);
+    Link<E> pointLink = linkOf(point);
+    stateCount++;
+    linkBetween(new Link<E>(toInsert), pointLink.previous, pointLink);
+  }
+
+  @Override
+  public void insertBefore(Collection<? extends E> toInsert, E point) {
+    if (toInsert == null) {
+      throw new RuntimeException("Warning! You tried to insert a null list into a Chain!");
+    }
+    for (E o : toInsert) {
+      insertBefore(o, point);
+    }
+  }
+
+  @Override
+  public void insertBefore(List<E> toInsert, E point) {
+    insertBefore((Collection<? extends E>) toInsert, point);
+  }
+
+  @Override
+  public void insertBefore(Chain<E> toInsert, E point) {
+    insertBefore((Collection<? extends E>) toInsert, point);
+  }
+
+  @Override
+  public boolean remove(Object item) {
+    if (item == null) {
+      throw new RuntimeException("Bad idea! You tried to remove a null object from a Chain!");
+    }
+    stateCount++;
+    Link<E> link = map.remove(item);
+    if (link == null) {
+      return false;
+    }
+    unlink(link);
+    return true;
+  }
+
+  @Override
+  public void addFirst(E item) {
+    checkInsertable(item);
+    stateCount++;
+    linkBetween(new Link<E>(item), null, firstLink);
+  }
+
+  @Override
+  public void addLast(E item) {
+    checkInsertable(item);
+    stateCount++;
+    linkBetween(new Link<E>(item), lastLink, null);
+  }
+
+  @Override
+  public void removeFirst() {
+    remove(getFirst());
+  }
+
+  @Override
+  public void removeLast() {
+    remove(getLast());
+  }
+
+  @Override
+  public E getFirst() {
+    if (firstLink == null) {
+      throw new NoSuchElementException();
+    }
+    return firstLink.item;
+  }
+
+  @Override
+  public E getLast() {
+    if (lastLink == null) {
+      throw new NoSuchElementException();
+    }
+    return lastLink.item;
+  }
+
+  @Override
+  public E getSuccOf(E point) throws NoSuchElementException {
+    Link<E> link = map.get(point);
+    if (link == null) {
+      throw new NoSuchElementException();
+    }
+    return link.next == null ? null : link.next.item;
+  }
+
+  @Override
+  public E getPredOf(E point) throws NoSuchElementException {
+    if (point == null) {
+      throw new RuntimeException("trying to hash null value.");
+    }
+    Link<E> link = map.get(point);
+    if (link == null) {
+      throw new NoSuchElementException();
+    }
+    return link.previous == null ? null : link.previous.item;
+  }
+
+  @Override
+  public Iterator<E> snapshotIterator() {
+    return new ArrayList<E>(this).iterator();
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    if (firstLink == null) {
+      return Collections.emptyIterator();
+    }
+    return new LinkIterator(firstLink, null);
+  }
+
+  @Override
+  public Iterator<E> iterator(E item) {
+    if (firstLink == null) {
+      return Collections.emptyIterator();
+    }
+    return new LinkIterator(startOf(item), null);
+  }
+
+  /**
+   * <p>
+   * Returns an iterator ranging from <code>head</code> to <code>tail</code>, inclusive.
+   * </p>
+   *
+   * <p>
+   * If <code>tail</code> is the element immediately preceding <code>head</code> in this chain, the returned iterator
+   * will iterate 0 times (a special case to allow the specification of an empty range of elements). Otherwise if
+   * <code>tail</code> is not one of the elements following <code>head</code>, the returned iterator will iterate past
+   * the end of the chain, provoking a {@link NoSuchElementException}. </p>
+   *
+   * @throws NoSuchElementException
+   *           if <code>head</code> is not an element of the chain.
+   */
+  @Override
+  public Iterator<E> iterator(E head, E tail) {
+    if (firstLink == null) {
+      return Collections.emptyIterator();
+    }
+    if (head != null && getPredOf(head) == tail) {
+      return Collections.emptyIterator();
+    }
+    return new LinkIterator(startOf(head), tail);
+  }
+
+  private Link<E> startOf(E item) {
+    Link<E> link = map.get(item);
+    if (link == null && item != null) {
+      throw new NoSuchElementException("ConfinedHashChain.iterator(obj) with obj that is not in the chain: " + item);
+    }
+    return link;
+  }
+
+  @Override
+  public int size() {
+    return map.size();
+  }
+
+  /** Returns the number of times this chain has been modified. */
+  @Override
+  public long getModificationCount() {
+    return stateCount;
+  }
+
+  /** Links the given link in between a and b, which are neighbours or null at either end of the chain. */
+  private void linkBetween(Link<E> link, Link<E> a, Link<E> b) {
+    link.previous = a;
+    link.next = b;
+    if (a == null) {
+      firstLink = link;
+    } else {
+      a.next = link;
+    }
+    if (b == null) {
+      lastLink = link;
+    } else {
+      b.previous = link;
+    }
+    map.put(link.item, link);
+
+    if (a == null && b == null) {
+      link.label = 0;
+    } else if (a == null) {
+      link.label = b.label - GAP;
+    } else if (b == null) {
+      link.label = a.label + GAP;
+    } else if (b.label - a.label > 1) {
+      link.label = a.label + (b.label - a.label) / 2;
+    } else {
+      relabel();
+    }
+  }
+
+  private void unlink(Link<E> link) {
+    if (link.previous == null) {
+      firstLink = link.next;
+    } else {
+      link.previous.next = link.next;
+    }
+    if (link.next == null) {
+      lastLink = link.previous;
+    } else {
+      link.next.previous = link.previous;
+    }
+  }
+
+  /** Spreads the labels of all links evenly again. */
+  private void relabel() {
+    long label = 0;
+    for (Link<E> link = firstLink; link != null; link = link.next) {
+      link.label = label;
+      label += GAP;
+    }
+  }
+
+  private static final class Link<E> implements Serializable {
+    private final E item;
+    private Link<E> previous;
+    private Link<E> next;
+    private long label;
+
+    Link(E item) {
+      this.item = item;
+    }
+
+    @Override
+    public String toString() {
+      return String.valueOf(item);
+    }
+  }
+
+  private final class LinkIterator implements Iterator<E> {
+    private Link<E> nextLink;
+    private Link<E> lastReturned;
+    /** Only when this is true can remove() be called, in accordance with the iterator semantics. */
+    private boolean state = false;
+    private final E destination;
+    private long iteratorStateCount;
+
+    LinkIterator(Link<E> start, E destination) {
+      this.nextLink = start;
+      this.destination = destination;
+      this.iteratorStateCount = stateCount;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (stateCount != iteratorStateCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (destination == null) {
+        return nextLink != null;
+      }
+      // Ignore whether the end of the chain was reached, so that next()
+      // fails if destination is not in the chain
+      return lastReturned == null || lastReturned.item != destination;
+    }
+
+    @Override
+    public E next() throws NoSuchElementException {
+      if (stateCount != iteratorStateCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (nextLink == null) {
+        if (destination != null && (lastReturned == null || lastReturned.item != destination)) {
+          throw new NoSuchElementException(
+              "ConfinedHashChain.iterator.next() reached end of chain without reaching specified tail unit");
+        }
+        throw new NoSuchElementException("ConfinedHashChain.iterator.next() called past the end of the Chain");
+      }
+      lastReturned = nextLink;
+      nextLink = nextLink.next;
+      state = true;
+      return lastReturned.item;
+    }
+
+    @Override
+    public void remove() throws IllegalStateException {
+      if (stateCount != iteratorStateCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (!state) {
+        throw new IllegalStateException();
+      }
+      state = false;
+      map.remove(lastReturned.item);
+      unlink(lastReturned);
+      stateCount++;
+      iteratorStateCount++;
+    }
+  }
+}
@@ -24,25 +24,30 @@ package soot.util;
 
 import heros.ThreadSafe;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A class that numbers strings, so they can be placed in bitsets.
  *
+ * Strings are interned in a concurrent table. A string is numbered before its {@link NumberedString} becomes visible to
+ * other threads, so callers of {@link #findOrAdd(String)} and {@link #find(String)} never see an unnumbered string.
+ *
  * @author Ondrej Lhotak
  */
 
 @ThreadSafe
 public class StringNumberer extends ArrayNumberer<NumberedString> {
-  private Map<String, NumberedString> stringToNumbered = new HashMap<String, NumberedString>(1024);
+  private final ConcurrentHashMap<String, NumberedString> stringToNumbered
+      = new ConcurrentHashMap<String, NumberedString>(1024);
 
-  public synchronized NumberedString findOrAdd(String s) {
+  public NumberedString findOrAdd(String s) {
     NumberedString ret = stringToNumbered.get(s);
     if (ret == null) {
-      ret = new NumberedString(s);
-      stringToNumbered.put(s, ret);
-      add(ret);
+      ret = stringToNumbered.computeIfAbsent(s, k -> {
+        NumberedString n = new NumberedString(k);
+        add(n);
+        return n;
+      });
     }
     return ret;
   }
@@ -0,0 +1,163 @@
+package soot.util.queue;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import soot.util.Invalidable;
+
+/**
+ * A thread-safe variant of {@link ChunkedQueue}. Any number of threads may add objects concurrently, and each reader
+ * sees the objects that were added after it was created, in the order in which the additions took effect. Adding never
+ * blocks: the objects are kept in a singly linked list that is appended to with compare-and-set, in the style of the
+ * Michael-Scott queue. Since nothing is ever dequeued, each reader just keeps its own position in the list.
+ *
+ * A single reader must not be used by several threads at the same time, but different readers may be used on different
+ * threads while objects are still being added. The queue can be used wherever a {@link ChunkedQueue} is expected; the
+ * chunks of the base class are never used.
+ */
+public class ConcurrentQueue<E> extends ChunkedQueue<E> {
+
+  static final class Node {
+    private static final AtomicReferenceFieldUpdater<Node, Node> NEXT
+        = AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+
+    volatile Object item;
+    volatile Node next;
+
+    Node(Object item) {
+      this.item = item;
+    }
+
+    boolean casNext(Node expected, Node update) {
+      return NEXT.compareAndSet(this, expected, update);
+    }
+  }
+
+  /** The last node, or a node shortly before it if another thread is in the middle of adding. */
+  private final AtomicReference<Node> tail = new AtomicReference<Node>(new Node(null));
+
+  /** Add an object to the queue. */
+  @Override
+  public void add(E o) {
+    Node node = new Node(o == null ? ChunkedQueue.NULL_CONST : o);
+    for (;;) {
+      Node t = tail.get();
+      Node next = t.next;
+      if (next == null) {
+        if (t.casNext(null, node)) {
+          tail.compareAndSet(t, node);
+          return;
+        }
+      } else {
+        // Help the thread that appended next to move the tail
+        tail.compareAndSet(t, next);
+      }
+    }
+  }
+
+  /** Create reader which will read objects from the queue. */
+  @Override
+  public QueueReader<E> reader() {
+    Node t = tail.get();
+    for (Node next = t.next; next != null; next = t.next) {
+      t = next;
+    }
+    return new Reader<E>(t);
+  }
+
+  private static final class Reader<E> extends QueueReader<E> {
+    /** The node that was read last; its successor is the next candidate. */
+    private Node position;
+
+    Reader(Node position) {
+      super(null, 0);
+      this.position = position;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      position = position.next;
+      Object ret = position.item;
+      return ret == ChunkedQueue.NULL_CONST ? null : (E) ret;
+    }
+
+    @Override
+    public boolean hasNext() {
+      for (Node next = position.next; next != null; next = position.next) {
+        if (!skip(next.item)) {
+          return true;
+        }
+        position = next;
+      }
+      return false;
+    }
+
+    @Override
+    public void remove(E o) {
+      if (o instanceof Invalidable) {
+        ((Invalidable) o).invalidate();
+        return;
+      }
+      remove(Collections.singleton(o));
+    }
+
+    @Override
+    public void remove(Collection<E> toRemove) {
+      boolean allInvalidable = true;
+      for (E o : toRemove) {
+        if (!(o instanceof Invalidable)) {
+          allInvalidable = false;
+          continue;
+        }
+        ((Invalidable) o).invalidate();
+      }
+      if (allInvalidable) {
+        return;
+      }
+      for (Node node = position.next; node != null; node = node.next) {
+        if (toRemove.contains(node.item)) {
+          node.item = ChunkedQueue.DELETED_CONST;
+        }
+      }
+    }
+
+    @Override
+    public void remove() {
+      position.item = ChunkedQueue.DELETED_CONST;
+    }
+
+    @Override
+    public QueueReader<E> clone() {
+      return new Reader<E>(position);
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ClasspathIndexTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void testEntryNamesMatchZipFile() throws Exception {
+    File jar = tmp.newFile("a.jar");
+    writeArchive(jar, new byte[0], "a comment", "META-INF/MANIFEST.MF", "p/A.class", "p/äß.class", "p/B.jimple");
+
+    ClasspathIndex index = new ClasspathIndex();
+    Assert.assertEquals(zipFileEntries(jar), index.getEntryNames(jar.getPath()));
+    Assert.assertTrue(index.containsEntry(jar.getPath(), "p/A.class"));
+    Assert.assertFalse(index.containsEntry(jar.getPath(), "p/C.class"));
+  }
+
+  @Test
+  public void testArchiveWithPrefix() throws Exception {
+    File jar = tmp.newFile("prefixed.jar");
+    writeArchive(jar, "#!/bin/sh\n".getBytes("UTF-8"), null, "p/A.class", "p/B.class");
+
+    Assert.assertEquals(zipFileEntries(jar), new ClasspathIndex().getEntryNames(jar.getPath()));
+  }
+
+  @Test(expected = IOException.class)
+  public void testNoArchive() throws Exception {
+    File jar = tmp.newFile("broken.jar");
+    try (OutputStream out = new FileOutputStream(jar)) {
+      out.write("not an archive".getBytes("UTF-8"));
+    }
+    new ClasspathIndex().getEntryNames(jar.getPath());
+  }
+
+  @Test
+  public void testSaveAndLoad() throws Exception {
+    File jar = tmp.newFile("a.jar");
+    writeArchive(jar, new byte[0], null, "p/A.class");
+    File cache = new File(tmp.getRoot(), "index");
+
+    ClasspathIndex index = new ClasspathIndex();
+    index.indexArchives(Arrays.asList(jar.getPath(), tmp.newFile("b.jar").getPath()));
+    Assert.assertTrue(index.isModified());
+    index.save(cache);
+    Assert.assertFalse(index.isModified());
+
+    index = new ClasspathIndex();
+    index.load(cache);
+    Assert.assertEquals(Arrays.asList("p/A.class"), index.getEntryNames(jar.getPath()));
+    Assert.assertFalse(index.isModified());
+
+    // A changed archive must be read again
+    long lastModified = jar.lastModified();
+    writeArchive(jar, new byte[0], null, "p/A.class", "p/B.class");
+    jar.setLastModified(lastModified + 2000);
+    index = new ClasspathIndex();
+    index.load(cache);
+    Assert.assertEquals(Arrays.asList("p/A.class", "p/B.class"), index.getEntryNames(jar.getPath()));
+    Assert.assertTrue(index.isModified());
+  }
+
+  @Test
+  public void testRetainArchivesPrunesSavedIndex() throws Exception {
+    File a = tmp.newFile("a.jar");
+    writeArchive(a, new byte[0], null, "p/A.class");
+    File b = tmp.newFile("b.jar");
+    writeArchive(b, new byte[0], null, "p/B.class");
+    File cache = new File(tmp.getRoot(), "index");
+
+    ClasspathIndex index = new ClasspathIndex();
+    index.indexArchives(Arrays.asList(a.getPath(), b.getPath()));
+    index.save(cache);
+
+    // Only a is still on the class path, so b must be dropped from the index file
+    index = new ClasspathIndex();
+    index.load(cache);
+    index.retainArchives(Arrays.asList(a.getPath()));
+    Assert.assertTrue(index.isModified());
+    index.save(cache);
+
+    b.delete();
+    writeArchive(b, new byte[0], null, "p/C.class");
+    index = new ClasspathIndex();
+    index.load(cache);
+    index.retainArchives(Arrays.asList(a.getPath(), b.getPath()));
+    Assert.assertFalse(index.isModified());
+    Assert.assertEquals(Arrays.asList("p/A.class"), index.getEntryNames(a.getPath()));
+    Assert.assertFalse(index.isModified());
+    Assert.assertEquals(Arrays.asList("p/C.class"), index.getEntryNames(b.getPath()));
+    Assert.assertTrue(index.isModified());
+  }
+
+  private static void writeArchive(File file, byte[] prefix, String comment, String... entryNames) throws IOException {
+    try (OutputStream out = new FileOutputStream(file)) {
+      out.write(prefix);
+      ZipOutputStream zip = new ZipOutputStream(out);
+      for (String entryName : entryNames) {
+        zip.putNextEntry(new ZipEntry(entryName));
+        zip.write(entryName.getBytes("UTF-8"));
+        zip.closeEntry();
+      }
+      if (comment != null) {
+        zip.setComment(comment);
+      }
+      zip.finish();
+    }
+  }
+
+  private static List<String> zipFileEntries(File file) throws IOException {
+    List<String> ret = new ArrayList<String>();
+    try (ZipFile zip = new ZipFile(file)) {
+      for (Enumeration<? extends ZipEntry> it = zip.entries(); it.hasMoreElements();) {
+        ret.add(it.nextElement().getName());
+      }
+    }
+    return ret;
+  }
+}
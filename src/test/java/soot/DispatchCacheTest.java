@@ -0,0 +1,101 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import soot.jimple.toolkits.callgraph.VirtualCalls;
+
+public class DispatchCacheTest {
+
+  @Test
+  public void testHitsAndMisses() {
+    DispatchCache<String, String, String> cache = new DispatchCache<String, String, String>();
+    assertNull(cache.get("A", "foo()"));
+    cache.put("A", "foo()", "A.foo()");
+    assertEquals("A.foo()", cache.get("A", "foo()"));
+    assertNull(cache.get("B", "foo()"));
+
+    assertEquals(1, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void testNullResultsAreNotCached() {
+    DispatchCache<String, String, String> cache = new DispatchCache<String, String, String>();
+    cache.put("A", "foo()", null);
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testBounded() {
+    DispatchCache<Integer, String, String> cache = new DispatchCache<Integer, String, String>(8);
+    for (int i = 0; i < 100; i++) {
+      cache.put(i, "foo()", "result" + i);
+      assertTrue(cache.size() <= 8);
+    }
+    assertEquals("result99", cache.get(99, "foo()"));
+  }
+
+  @Test
+  public void testInvalidatedWithHierarchy() {
+    G.reset();
+
+    Scene s = Scene.v();
+    s.loadNecessaryClasses();
+
+    SootClass scA = generateSceneClass("ClassA");
+    SootClass scB = generateSceneClass("ClassB");
+    scB.setSuperclass(scA);
+    SootMethod foo = new SootMethod("foo", Collections.<Type>emptyList(), VoidType.v(), Modifier.PUBLIC);
+    scA.addMethod(foo);
+
+    FastHierarchy fh = s.getOrMakeFastHierarchy();
+    assertEquals(foo, fh.resolveConcreteDispatch(scB, foo));
+    assertEquals(foo, fh.resolveConcreteDispatch(scB, foo));
+    assertEquals(1, fh.getConcreteDispatchCache().getHitCount());
+    assertEquals(foo, VirtualCalls.v().resolveNonSpecial(scB.getType(), foo.getNumberedSubSignature()));
+    assertEquals(2, fh.getVirtualDispatchCache().size());
+
+    // Adding a class modifies the hierarchy, which drops the cache along with it
+    generateSceneClass("ClassC");
+    assertEquals(0, s.getOrMakeFastHierarchy().getConcreteDispatchCache().size());
+
+    // Clients that still hold the old hierarchy must not see stale results either
+    assertEquals(0, fh.getConcreteDispatchCache().size());
+    assertEquals(0, fh.getVirtualDispatchCache().size());
+  }
+
+  private static SootClass generateSceneClass(String name) {
+    SootClass sootClass = new SootClass(name, Modifier.PUBLIC);
+    Scene.v().addClass(sootClass);
+    sootClass.setSuperclass(Scene.v().getObjectType().getSootClass());
+    return sootClass;
+  }
+}
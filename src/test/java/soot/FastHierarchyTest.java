@@ -24,7 +24,9 @@ package soot;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -176,6 +178,47 @@ public class FastHierarchyTest {
     assertThat(fh.getAllImplementersOfInterface(interfaceD), containsInAnyOrder(scA, scB, scC1, scD));
   }
 
+  @Test
+  public void testCanStoreClassInterface() {
+    G.reset();
+
+    Scene s = Scene.v();
+    s.loadNecessaryClasses();
+
+    SootClass interfaceA = generacteSceneClass("InterfaceA", Modifier.INTERFACE);
+    SootClass interfaceB = generacteSceneClass("InterfaceB", Modifier.INTERFACE);
+    SootClass interfaceC = generacteSceneClass("InterfaceC", Modifier.INTERFACE);
+
+    SootClass scA = generacteSceneClass("ClassA", 0);
+    SootClass scA1 = generacteSceneClass("ClassA1", 0);
+    SootClass scA2 = generacteSceneClass("ClassA2", 0);
+    SootClass scZ = generacteSceneClass("ClassZ", 0);
+
+    interfaceA.addInterface(interfaceB);
+    scA.addInterface(interfaceA);
+    scA1.setSuperclass(scA);
+    scA2.setSuperclass(scA1);
+
+    FastHierarchy fh = s.getOrMakeFastHierarchy();
+
+    // Implementers and their subclasses
+    assertTrue(fh.canStoreClass(scA, interfaceA));
+    assertTrue(fh.canStoreClass(scA2, interfaceA));
+    assertTrue(fh.canStoreClass(scA2, interfaceB));
+    assertFalse(fh.canStoreClass(scZ, interfaceA));
+    assertFalse(fh.canStoreClass(scA2, interfaceC));
+
+    // Subinterfaces
+    assertTrue(fh.canStoreClass(interfaceA, interfaceA));
+    assertTrue(fh.canStoreClass(interfaceA, interfaceB));
+    assertFalse(fh.canStoreClass(interfaceB, interfaceA));
+    assertFalse(fh.canStoreClass(interfaceC, interfaceB));
+
+    // Interfaces can only be stored in java.lang.Object among the classes
+    assertTrue(fh.canStoreClass(interfaceA, s.getObjectType().getSootClass()));
+    assertFalse(fh.canStoreClass(interfaceA, scA));
+  }
+
   private static class FastHierarchyForUnittest extends FastHierarchy {
 
     @Override
@@ -0,0 +1,120 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import soot.jimple.spark.solver.targets.PointsToTarget;
+import soot.options.Options;
+
+/**
+ * Checks that running the packs with -pipelined-packs writes the same Jimple as the default mode, in which all bodies are
+ * created and transformed before any class is written.
+ */
+public class PipelinedPacksTest {
+  private static final String[] CLASSES = { "soot.jimple.spark.solver.targets.PointsToTarget",
+      "soot.jimple.spark.solver.targets.PointsToTarget$Box", "soot.jimple.spark.solver.targets.PointsToTarget$Circle",
+      "soot.jimple.spark.solver.targets.PointsToTarget$Shape",
+      "soot.jimple.spark.solver.targets.PointsToTarget$Square" };
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void testSameOutputAsSequential() throws Exception {
+    assertSameOutput("-O");
+  }
+
+  @Test
+  public void testSameOutputAsSequentialInWholeProgramMode() throws Exception {
+    assertSameOutput("-W", "-no-bodies-for-excluded", "-main-class", CLASSES[0], "-p", "cg", "implicit-entry:false");
+  }
+
+  @Test
+  public void testRunPacksLeavesOutputToWriteOutput() throws Exception {
+    File outDir = tmp.newFolder();
+    G.reset();
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_soot_classpath(classPath());
+    Options.v().set_output_format(Options.output_format_jimple);
+    Options.v().set_output_dir(outDir.getAbsolutePath());
+    Options.v().set_pipelined_packs(true);
+    Options.v().classes().addAll(Arrays.asList(CLASSES));
+    Scene.v().loadNecessaryClasses();
+
+    // Library clients that drive the packs themselves keep the usual split between running the packs and writing
+    PackManager.v().runPacks();
+    assertEquals(0, outDir.list().length);
+    PackManager.v().writeOutput();
+    assertEquals(CLASSES.length, outDir.list().length);
+  }
+
+  private void assertSameOutput(String... options) throws Exception {
+    Map<String, String> sequential = runSoot(false, options);
+    Map<String, String> pipelined = runSoot(true, options);
+    assertEquals(CLASSES.length, sequential.size());
+    assertEquals(sequential, pipelined);
+  }
+
+  /** Runs Soot on the target classes and returns the contents of the written Jimple files by file name. */
+  private Map<String, String> runSoot(boolean pipelined, String... options) throws IOException {
+    File outDir = tmp.newFolder();
+    List<String> commandLine = new ArrayList<String>(Arrays.asList("-pp", "-cp", classPath(), "-f", "J", "-d",
+        outDir.getAbsolutePath()));
+    if (pipelined) {
+      commandLine.add("-pipelined-packs");
+    }
+    commandLine.addAll(Arrays.asList(options));
+    commandLine.addAll(Arrays.asList(CLASSES));
+
+    G.reset();
+    Main.main(commandLine.toArray(new String[commandLine.size()]));
+    assertEquals(pipelined, Options.v().pipelined_packs());
+
+    Map<String, String> output = new TreeMap<String, String>();
+    for (File f : outDir.listFiles()) {
+      assertTrue(f.getName(), f.getName().endsWith(".jimple"));
+      output.put(f.getName(), new String(Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8));
+    }
+    return output;
+  }
+
+  private static String classPath() {
+    return new File(PointsToTarget.class.getProtectionDomain().getCodeSource().getLocation().getPath()).getAbsolutePath();
+  }
+}
@@ -0,0 +1,230 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import soot.jimple.Jimple;
+import soot.jimple.JimpleBody;
+import soot.jimple.toolkits.callgraph.CallGraphBuilder;
+import soot.jimple.toolkits.callgraph.Edge;
+import soot.jimple.toolkits.pointer.DumbPointerAnalysis;
+import soot.jimple.toolkits.pointer.SnapshotPointsToAnalysis;
+import soot.options.Options;
+
+public class SceneSnapshotTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Before
+  public void setUp() {
+    G.reset();
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_whole_program(true);
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    Scene.v().loadNecessaryClasses();
+    SootClass classA = generateSceneClass("soot.test.A");
+    SootMethod foo = generateMethod(classA, "foo", 0);
+
+    // main() { a = new A; a.foo(); }
+    SootClass mainClass = generateSceneClass("soot.test.Main");
+    SootMethod main = generateMethod(mainClass, "main", Modifier.STATIC);
+    JimpleBody b = (JimpleBody) main.getActiveBody();
+    Local a = Jimple.v().newLocal("a", classA.getType());
+    b.getLocals().add(a);
+    b.getUnits().insertBefore(Jimple.v().newAssignStmt(a, Jimple.v().newNewExpr(classA.getType())),
+        b.getUnits().getLast());
+    b.getUnits().insertBefore(Jimple.v().newInvokeStmt(Jimple.v().newVirtualInvokeExpr(a, foo.makeRef())),
+        b.getUnits().getLast());
+
+    Scene.v().setEntryPoints(Collections.singletonList(main));
+    new CallGraphBuilder(DumbPointerAnalysis.v()).build();
+
+    int classCount = Scene.v().getClasses().size();
+    String mainBody = main.getActiveBody().getUnits().toString();
+    Set<String> edges = edges();
+    assertTrue(edges.toString(), edges.toString().contains("<soot.test.A: void foo()>"));
+
+    Path file = tmp.newFile("scene.snapshot").toPath();
+    Scene.v().saveSnapshot(file);
+
+    setUp();
+    Scene.v().loadSnapshot(file);
+    assertEquals(classCount, Scene.v().getClasses().size());
+    assertTrue(Scene.v().getSootClass("soot.test.Main").isApplicationClass());
+    assertEquals("java.lang.Object", Scene.v().getSootClass("soot.test.A").getSuperclass().getName());
+    assertEquals(edges, edges());
+
+    // Bodies without call graph edges out of them are only parsed on demand
+    SootMethod restoredFoo = Scene.v().getMethod("<soot.test.A: void foo()>");
+    assertFalse(restoredFoo.hasActiveBody());
+    assertEquals(2, restoredFoo.retrieveActiveBody().getUnits().size());
+    assertEquals(mainBody, Scene.v().getMethod("<soot.test.Main: void main()>").getActiveBody().getUnits().toString());
+  }
+
+  @Test
+  public void testWithoutBodies() throws Exception {
+    Scene.v().loadNecessaryClasses();
+    SootClass classA = generateSceneClass("soot.test.A");
+    generateMethod(classA, "foo", 0);
+    SootMethod objectInit = Scene.v().getMethod("<java.lang.Object: void <init>()>");
+    String objectInitBody = objectInit.retrieveActiveBody().getUnits().toString();
+
+    Path file = tmp.newFile("scene.snapshot").toPath();
+    Scene.v().saveSnapshot(file, false);
+
+    setUp();
+    Scene.v().loadSnapshot(file);
+    SootMethod foo = Scene.v().getMethod("<soot.test.A: void foo()>");
+    assertEquals(SootClass.BODIES, foo.getDeclaringClass().resolvingLevel());
+    assertFalse(foo.hasActiveBody());
+    assertFalse(Scene.v().hasCallGraph());
+
+    // Bodies that are not in the snapshot are created from the class files
+    objectInit = Scene.v().getMethod("<java.lang.Object: void <init>()>");
+    assertFalse(objectInit.hasActiveBody());
+    assertEquals(objectInitBody, objectInit.retrieveActiveBody().getUnits().toString());
+    assertTrue(objectInit.getDeclaringClass() == Scene.v().getSootClass("java.lang.Object"));
+    assertTrue(Scene.v().getObjectType().getSootClass() == objectInit.getDeclaringClass());
+  }
+
+  @Test
+  public void testNoBodyWithoutClassFile() throws Exception {
+    Scene.v().loadNecessaryClasses();
+    generateMethod(generateSceneClass("soot.test.A"), "foo", 0);
+
+    Path file = tmp.newFile("scene.snapshot").toPath();
+    Scene.v().saveSnapshot(file, false);
+
+    setUp();
+    Scene.v().loadSnapshot(file);
+    try {
+      Scene.v().getMethod("<soot.test.A: void foo()>").retrieveActiveBody();
+      fail("The snapshot holds no body for foo, and there is no class file for it");
+    } catch (RuntimeException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("no class file for soot.test.A"));
+    }
+  }
+
+  @Test
+  public void testUnitCountChecked() throws Exception {
+    Scene.v().loadNecessaryClasses();
+    SootMethod foo = generateMethod(generateSceneClass("soot.test.A"), "foo", 0);
+    foo.getActiveBody().getUnits().addFirst(Jimple.v().newNopStmt());
+
+    // Blank out the nop in the saved Jimple, which keeps the length of the text but drops a unit
+    Path file = tmp.newFile("scene.snapshot").toPath();
+    Scene.v().saveSnapshot(file);
+    byte[] bytes = Files.readAllBytes(file);
+    String text = new String(bytes, StandardCharsets.ISO_8859_1);
+    int nop = text.indexOf("nop;");
+    assertTrue(nop >= 0);
+    Arrays.fill(bytes, nop, nop + 4, (byte) ' ');
+    Files.write(file, bytes);
+
+    setUp();
+    Scene.v().loadSnapshot(file);
+    try {
+      Scene.v().getMethod("<soot.test.A: void foo()>").retrieveActiveBody();
+      fail("The parsed body has fewer units than the saved one");
+    } catch (RuntimeException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("has 2 units instead of 3"));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testLoadIntoNonEmptyScene() throws Exception {
+    Scene.v().loadNecessaryClasses();
+    Path file = tmp.newFile("scene.snapshot").toPath();
+    Scene.v().saveSnapshot(file);
+    Scene.v().loadSnapshot(file);
+  }
+
+  @Test
+  public void testSnapshotPointsToSets() {
+    Local l1 = Jimple.v().newLocal("l1", RefType.v("java.lang.Object"));
+    Local l2 = Jimple.v().newLocal("l2", RefType.v("java.lang.Object"));
+    Local l3 = Jimple.v().newLocal("l3", RefType.v("java.lang.Object"));
+    SootField f = new SootField("f", RefType.v("java.lang.Object"));
+
+    SnapshotPointsToAnalysis pta = new SnapshotPointsToAnalysis(
+        new Type[] { RefType.v("java.lang.Object"), RefType.v("java.lang.String"), RefType.v("java.lang.Integer") });
+    pta.put(l1, new int[] { 0, 1 });
+    pta.put(l2, new int[] { 1, 2 });
+    pta.put(l3, new int[] { 2 });
+    pta.put(0, f, new int[] { 2 });
+
+    assertTrue(pta.reachingObjects(l1).hasNonEmptyIntersection(pta.reachingObjects(l2)));
+    assertFalse(pta.reachingObjects(l1).hasNonEmptyIntersection(pta.reachingObjects(l3)));
+    assertEquals(Collections.singleton(RefType.v("java.lang.Integer")), pta.reachingObjects(l3).possibleTypes());
+    assertTrue(pta.reachingObjects(l1, f).hasNonEmptyIntersection(pta.reachingObjects(l3)));
+    assertTrue(pta.reachingObjects(l2, f).isEmpty());
+  }
+
+  private static Set<String> edges() {
+    Set<String> ret = new HashSet<String>();
+    for (Edge e : Scene.v().getCallGraph()) {
+      ret.add(e.getSrc() + " -" + e.kind() + "-> " + e.getTgt() + " at " + e.srcUnit());
+    }
+    return ret;
+  }
+
+  private static SootClass generateSceneClass(String name) {
+    SootClass sootClass = new SootClass(name, Modifier.PUBLIC);
+    sootClass.setSuperclass(Scene.v().getObjectType().getSootClass());
+    sootClass.setResolvingLevel(SootClass.BODIES);
+    Scene.v().addClass(sootClass);
+    sootClass.setApplicationClass();
+    return sootClass;
+  }
+
+  private static SootMethod generateMethod(SootClass sootClass, String name, int modifiers) {
+    SootMethod m = new SootMethod(name, Collections.<Type>emptyList(), VoidType.v(), Modifier.PUBLIC | modifiers);
+    sootClass.addMethod(m);
+    JimpleBody b = Jimple.v().newBody(m);
+    b.insertIdentityStmts();
+    b.getUnits().add(Jimple.v().newReturnVoidStmt());
+    m.setActiveBody(b);
+    return m;
+  }
+}
@@ -0,0 +1,58 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import soot.options.Options;
+
+public class SootResolverTest {
+
+  @Test
+  public void testParallelResolverReachesSameLevels() {
+    Map<String, Integer> sequential = resolve(false);
+    Map<String, Integer> parallel = resolve(true);
+
+    Assert.assertTrue(sequential.size() > 1);
+    Assert.assertEquals(sequential, parallel);
+  }
+
+  private Map<String, Integer> resolve(boolean parallel) {
+    G.reset();
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_parallel_resolver(parallel);
+    Scene.v().loadBasicClasses();
+    Scene.v().forceResolve("java.util.concurrent.ConcurrentHashMap", SootClass.BODIES);
+
+    Map<String, Integer> levels = new HashMap<String, Integer>();
+    for (SootClass sc : Scene.v().getClasses()) {
+      levels.put(sc.getName(), sc.resolvingLevel());
+    }
+    return levels;
+  }
+
+}
@@ -0,0 +1,128 @@
+package soot.asm;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import soot.Body;
+import soot.G;
+import soot.Local;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.options.Options;
+
+public class CachingMethodSourceTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void testCachedBodiesMatchFreshBodies() throws Exception {
+    File cacheDir = tmp.newFolder("bodies");
+
+    Map<String, String> fresh = loadBodies(cacheDir);
+    Assert.assertTrue(cacheDir.list().length > 0);
+    Map<String, String> cached = loadBodies(cacheDir);
+
+    Assert.assertFalse(fresh.isEmpty());
+    Assert.assertEquals(fresh, cached);
+  }
+
+  @Test
+  public void testCacheKeyCoversGlobalOptions() throws Exception {
+    byte[] classBytes = { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE };
+    String cacheDir = tmp.getRoot().getAbsolutePath();
+
+    G.reset();
+    Options.v().set_body_cache_dir(cacheDir);
+    Set<File> dirs = new HashSet<File>();
+    dirs.add(CachingMethodSource.getClassCacheDir(classBytes));
+    Assert.assertEquals(CachingMethodSource.getClassCacheDir(classBytes), dirs.iterator().next());
+
+    Options.v().set_allow_phantom_refs(true);
+    Assert.assertTrue(dirs.add(CachingMethodSource.getClassCacheDir(classBytes)));
+    Options.v().set_src_prec(Options.src_prec_only_class);
+    Assert.assertTrue(dirs.add(CachingMethodSource.getClassCacheDir(classBytes)));
+    Options.v().set_java_version(Options.java_version_1_8);
+    Assert.assertTrue(dirs.add(CachingMethodSource.getClassCacheDir(classBytes)));
+  }
+
+  @Test
+  public void testDisabledWhenTagsRequested() throws Exception {
+    String cacheDir = tmp.getRoot().getAbsolutePath();
+
+    G.reset();
+    Options.v().set_body_cache_dir(cacheDir);
+    Assert.assertTrue(CachingMethodSource.isEnabled());
+    Options.v().set_print_tags_in_output(true);
+    Assert.assertFalse(CachingMethodSource.isEnabled());
+
+    G.reset();
+    Options.v().set_body_cache_dir(cacheDir);
+    Options.v().set_write_local_annotations(true);
+    Assert.assertFalse(CachingMethodSource.isEnabled());
+
+    G.reset();
+    Options.v().set_body_cache_dir(cacheDir);
+    Options.v().set_keep_line_number(true);
+    Assert.assertFalse(CachingMethodSource.isEnabled());
+  }
+
+  private Map<String, String> loadBodies(File cacheDir) {
+    G.reset();
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_body_cache_dir(cacheDir.getAbsolutePath());
+    Scene.v().loadBasicClasses();
+    SootClass sc = Scene.v().forceResolve("java.util.ArrayList", SootClass.BODIES);
+
+    Map<String, String> bodies = new HashMap<String, String>();
+    for (SootMethod m : sc.getMethods()) {
+      if (m.isConcrete()) {
+        Assert.assertTrue(m.getSource() instanceof CachingMethodSource);
+        bodies.put(m.getSignature(), describe(m.retrieveActiveBody()));
+      }
+    }
+    return bodies;
+  }
+
+  /** The Jimple parser does not preserve the order of the locals chain, so we compare the locals as a set. */
+  private String describe(Body b) {
+    Set<String> locals = new TreeSet<String>();
+    for (Local l : b.getLocals()) {
+      locals.add(l.getType() + " " + l.getName());
+    }
+    return locals + "\n" + b.getUnits() + "\n" + b.getTraps();
+  }
+
+}
@@ -0,0 +1,135 @@
+package soot.asm;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import soot.G;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.options.Options;
+import soot.tagkit.Tag;
+import soot.tagkit.VisibilityLocalVariableAnnotationTag;
+
+public class LazyAsmMethodSourceTest {
+
+  @Test
+  public void testLazyBodiesMatchEagerBodies() {
+    Map<String, Integer> eagerLevels = new HashMap<String, Integer>();
+    Map<String, String> eager = loadBodies(false, eagerLevels);
+    Map<String, Integer> lazyLevels = new HashMap<String, Integer>();
+    Map<String, String> lazy = loadBodies(true, lazyLevels);
+
+    Assert.assertFalse(eager.isEmpty());
+    Assert.assertEquals(eager, lazy);
+    // The constant pool names at least all the types that the code depends on
+    for (Map.Entry<String, Integer> e : eagerLevels.entrySet()) {
+      Integer level = lazyLevels.get(e.getKey());
+      Assert.assertNotNull(e.getKey(), level);
+      Assert.assertTrue(e.getKey(), level >= e.getValue());
+    }
+  }
+
+  @Test
+  public void testLocalVariableAnnotationsTaggedOnce() {
+    G.reset();
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_soot_classpath(System.getProperty("java.class.path"));
+    Options.v().set_lazy_asm_bodies(true);
+    Options.v().set_drop_bodies_after_load(false);
+    Scene.v().loadBasicClasses();
+    SootClass sc = Scene.v().forceResolve(AnnotatedLocals.class.getName(), SootClass.BODIES);
+    SootMethod m = sc.getMethodByName("use");
+    Assert.assertEquals(0, countLocalVariableAnnotationTags(m));
+
+    // Bodies that are released and created again must not duplicate the tags
+    for (int i = 0; i < 3; i++) {
+      m.retrieveActiveBody();
+      m.releaseActiveBody();
+      Assert.assertEquals(2, countLocalVariableAnnotationTags(m));
+    }
+  }
+
+  private static int countLocalVariableAnnotationTags(SootMethod m) {
+    int count = 0;
+    for (Tag t : m.getTags()) {
+      if (t instanceof VisibilityLocalVariableAnnotationTag) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target(ElementType.TYPE_USE)
+  @interface Visible {
+  }
+
+  @Retention(RetentionPolicy.CLASS)
+  @Target(ElementType.TYPE_USE)
+  @interface Invisible {
+  }
+
+  static class AnnotatedLocals {
+    static int use() {
+      @Visible
+      String s = String.valueOf(1);
+      @Invisible
+      String t = String.valueOf(2);
+      return s.length() + t.length();
+    }
+  }
+
+  private Map<String, String> loadBodies(boolean lazy, Map<String, Integer> levels) {
+    G.reset();
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_soot_classpath(System.getProperty("java.class.path"));
+    Options.v().set_lazy_asm_bodies(lazy);
+    Scene.v().loadBasicClasses();
+    SootClass sc = Scene.v().forceResolve(LazyAsmMethodSourceTest.class.getName(), SootClass.BODIES);
+    for (SootClass c : Scene.v().getClasses()) {
+      levels.put(c.getName(), c.resolvingLevel());
+    }
+
+    Map<String, String> bodies = new HashMap<String, String>();
+    for (SootMethod m : sc.getMethods()) {
+      if (m.isConcrete()) {
+        Assert.assertEquals(lazy, m.getSource() instanceof LazyAsmMethodSource);
+        bodies.put(m.getSignature(), m.retrieveActiveBody().toString());
+      }
+    }
+    return bodies;
+  }
+
+}
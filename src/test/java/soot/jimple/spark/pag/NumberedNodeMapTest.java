@@ -0,0 +1,154 @@
+package soot.jimple.spark.pag;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.G;
+import soot.PhaseOptions;
+import soot.RefType;
+import soot.Scene;
+import soot.options.Options;
+import soot.options.SparkOptions;
+
+/**
+ * Checks {@link NumberedNodeMap} against a LinkedHashMap filled in node number order. Only every third node is put into
+ * the maps, so that the array has gaps, and the nodes are created after the map so that it has to grow.
+ */
+public class NumberedNodeMapTest {
+  private PAG pag;
+  private NumberedNodeMap<VarNode, String> map;
+  private List<VarNode> nodes;
+
+  @Before
+  public void setUp() {
+    G.reset();
+    Options.v().set_allow_phantom_refs(true);
+    Scene.v().loadNecessaryClasses();
+    pag = new PAG(new SparkOptions(PhaseOptions.v().getPhaseOptions("cg.spark")));
+    map = new NumberedNodeMap<VarNode, String>(pag.getVarNodeNumberer());
+
+    RefType object = Scene.v().getObjectType();
+    nodes = new ArrayList<VarNode>();
+    for (int i = 0; i < 100; i++) {
+      nodes.add(pag.makeGlobalVarNode("global" + i, object));
+    }
+  }
+
+  private Map<VarNode, String> fillEveryThird() {
+    Map<VarNode, String> expected = new LinkedHashMap<VarNode, String>();
+    for (int i = 0; i < nodes.size(); i += 3) {
+      VarNode n = nodes.get(i);
+      assertNull(map.put(n, "value" + i));
+      expected.put(n, "value" + i);
+    }
+    return expected;
+  }
+
+  @Test
+  public void testPutAndGetAcrossGaps() {
+    Map<VarNode, String> expected = fillEveryThird();
+    assertEquals(expected.size(), map.size());
+    for (VarNode n : nodes) {
+      assertEquals(expected.get(n), map.get(n));
+      assertEquals(expected.containsKey(n), map.containsKey(n));
+    }
+    assertEquals("value0", map.put(nodes.get(0), "other"));
+    assertEquals("other", map.get(nodes.get(0)));
+    assertEquals(expected.size(), map.size());
+  }
+
+  @Test
+  public void testIterationSkipsGapsInNumberOrder() {
+    Map<VarNode, String> expected = fillEveryThird();
+    assertEquals(new ArrayList<VarNode>(expected.keySet()), new ArrayList<VarNode>(map.keySet()));
+    assertEquals(new ArrayList<Map.Entry<VarNode, String>>(expected.entrySet()),
+        new ArrayList<Map.Entry<VarNode, String>>(map.entrySet()));
+    assertEquals(expected, map);
+  }
+
+  @Test
+  public void testGrowsForNodesCreatedLater() {
+    fillEveryThird();
+    RefType object = Scene.v().getObjectType();
+    VarNode late = null;
+    for (int i = 0; i < 1000; i++) {
+      late = pag.makeGlobalVarNode("late" + i, object);
+    }
+    assertNull(map.get(late));
+    map.put(late, "late");
+    assertEquals("late", map.get(late));
+    assertEquals(35, map.size());
+    assertEquals(late, new ArrayList<VarNode>(map.keySet()).get(34));
+  }
+
+  @Test
+  public void testRemove() {
+    Map<VarNode, String> expected = fillEveryThird();
+    assertEquals("value3", map.remove(nodes.get(3)));
+    assertNull(map.remove(nodes.get(4)));
+    expected.remove(nodes.get(3));
+
+    for (Iterator<VarNode> it = map.keySet().iterator(); it.hasNext();) {
+      if (it.next().getNumber() % 2 == 0) {
+        it.remove();
+      }
+    }
+    for (Iterator<VarNode> it = expected.keySet().iterator(); it.hasNext();) {
+      if (it.next().getNumber() % 2 == 0) {
+        it.remove();
+      }
+    }
+    assertEquals(expected, map);
+    assertEquals(expected.size(), map.size());
+
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertFalse(map.keySet().iterator().hasNext());
+  }
+
+  @Test
+  public void testForeignKeys() {
+    fillEveryThird();
+    PAG other = new PAG(new SparkOptions(PhaseOptions.v().getPhaseOptions("cg.spark")));
+    VarNode foreign = other.makeGlobalVarNode("global0", Scene.v().getObjectType());
+    assertEquals(nodes.get(0).getNumber(), foreign.getNumber());
+    assertNull(map.get(foreign));
+    assertFalse(map.containsKey(foreign));
+    assertNull(map.remove(foreign));
+    assertNull(map.get("global0"));
+    assertEquals(34, map.size());
+  }
+}
@@ -0,0 +1,330 @@
+package soot.jimple.spark.sets;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import soot.G;
+import soot.Modifier;
+import soot.PhaseOptions;
+import soot.RefType;
+import soot.Scene;
+import soot.SootClass;
+import soot.Type;
+import soot.jimple.Jimple;
+import soot.jimple.spark.pag.AllocNode;
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.pag.PAG;
+import soot.jimple.spark.internal.TypeManager;
+import soot.options.Options;
+import soot.options.SparkOptions;
+
+/**
+ * Checks {@link RoaringPointsToSet} against a plain set of nodes. The allocation nodes span three chunks of 2^16 numbers
+ * and cycle through the types A, B (a subclass of A) and C (unrelated to A).
+ */
+public class RoaringPointsToSetTest {
+  private static final int CHUNK = 1 << 16;
+  /** The largest number of values that a chunk keeps as a sorted array. */
+  private static final int ARRAY_MAX = 4096;
+
+  private static PAG pag;
+  private static TypeManager typeManager;
+  private static RefType a;
+  private static RefType object;
+  private static List<AllocNode> nodes;
+
+  private Random random;
+
+  /** Creating the nodes and type masks takes a while, and the tests only create points-to sets, so they share them. */
+  @BeforeClass
+  public static void setUpNodes() {
+    G.reset();
+    Options.v().set_allow_phantom_refs(true);
+    Scene.v().loadNecessaryClasses();
+    SootClass objectClass = Scene.v().getObjectType().getSootClass();
+    SootClass ca = makeClass("soot.test.A", objectClass);
+    SootClass cb = makeClass("soot.test.B", ca);
+    SootClass cc = makeClass("soot.test.C", objectClass);
+    a = ca.getType();
+    object = objectClass.getType();
+
+    PhaseOptions.v().setPhaseOption("cg.spark", "set-impl:roaring");
+    pag = new PAG(new SparkOptions(PhaseOptions.v().getPhaseOptions("cg.spark")));
+    typeManager = pag.getTypeManager();
+    RefType[] types = { a, cb.getType(), cc.getType() };
+    nodes = new ArrayList<AllocNode>();
+    for (int i = 0; i < 2 * CHUNK + 1000; i++) {
+      RefType t = types[i % types.length];
+      nodes.add(pag.makeAllocNode(Jimple.v().newNewExpr(t), t, null));
+    }
+    typeManager.makeTypeMask();
+  }
+
+  @Before
+  public void setUp() {
+    random = new Random(42);
+  }
+
+  @Test
+  public void testAddAndContains() {
+    RoaringPointsToSet set = new RoaringPointsToSet(object, pag);
+    Set<Node> expected = new HashSet<Node>();
+    for (int i = 0; i < 20000; i++) {
+      AllocNode n = randomNode();
+      assertEquals(expected.add(n), set.add(n));
+    }
+    assertSameContents(expected, set);
+    for (AllocNode n : nodes) {
+      assertEquals(expected.contains(n), set.contains(n));
+    }
+  }
+
+  @Test
+  public void testAddOfIncompatibleType() {
+    RoaringPointsToSet set = new RoaringPointsToSet(a, pag);
+    Set<Node> expected = new HashSet<Node>();
+    for (AllocNode n : nodes.subList(0, 300)) {
+      if (typeManager.castNeverFails(n.getType(), a)) {
+        expected.add(n);
+      }
+      set.add(n);
+    }
+    assertEquals(200, expected.size());
+    assertSameContents(expected, set);
+  }
+
+  @Test
+  public void testForallVisitsInNumberOrder() {
+    RoaringPointsToSet set = randomSet(object, 3000);
+    // Make the middle chunk dense, so that both kinds of chunks are visited
+    for (int i = CHUNK; i < CHUNK + ARRAY_MAX + 100; i++) {
+      set.add(nodes.get(i));
+    }
+    final List<Node> visited = new ArrayList<Node>();
+    set.forall(new P2SetVisitor() {
+      @Override
+      public void visit(Node n) {
+        visited.add(n);
+      }
+    });
+    assertEquals(set.size(), visited.size());
+    for (int i = 1; i < visited.size(); i++) {
+      assertTrue(visited.get(i - 1).getNumber() < visited.get(i).getNumber());
+    }
+  }
+
+  @Test
+  public void testAddAllWithoutExclude() {
+    int[] sizes = { 0, 10, 2000, 3 * ARRAY_MAX, 3 * CHUNK };
+    for (int targetSize : sizes) {
+      for (int otherSize : sizes) {
+        checkAddAll(randomSet(object, targetSize), randomSet(object, otherSize), null);
+      }
+    }
+  }
+
+  @Test
+  public void testAddAllWithExclude() {
+    int[] sizes = { 0, 10, 3 * ARRAY_MAX, CHUNK };
+    for (int targetSize : sizes) {
+      for (int otherSize : sizes) {
+        for (int excludeSize : sizes) {
+          checkAddAll(randomSet(object, targetSize), randomSet(object, otherSize), randomSet(object, excludeSize));
+        }
+      }
+    }
+  }
+
+  /** Sets of a supertype added to a set of A are filtered through the type mask of A. */
+  @Test
+  public void testAddAllFiltersByTypeMask() {
+    int[] sizes = { 10, 2000, 3 * ARRAY_MAX, CHUNK };
+    for (int targetSize : sizes) {
+      for (int otherSize : sizes) {
+        RoaringPointsToSet target = new RoaringPointsToSet(a, pag);
+        target.addAll(randomSet(object, targetSize), null);
+        checkAddAll(target, randomSet(object, otherSize), null);
+        checkAddAll(target, randomSet(object, otherSize), randomSet(object, otherSize / 2));
+      }
+    }
+  }
+
+  /**
+   * Two array chunks whose union holds exactly as many values as an array chunk may, and one value more. The union must
+   * be the same whether it is kept as an array or becomes a bitmap.
+   */
+  @Test
+  public void testArrayToBitmapAtThreshold() {
+    for (int total = ARRAY_MAX - 1; total <= ARRAY_MAX + 1; total++) {
+      RoaringPointsToSet target = new RoaringPointsToSet(object, pag);
+      RoaringPointsToSet other = new RoaringPointsToSet(object, pag);
+      for (int i = 0; i < total; i++) {
+        // Interleave the two sets, so that the merge has to walk both arrays
+        (i % 2 == 0 ? target : other).add(nodes.get(CHUNK + 2 * i));
+      }
+      checkAddAll(target, other, null);
+      assertEquals(total, target.size());
+
+      // Adding one value at a time crosses the threshold in add
+      RoaringPointsToSet single = new RoaringPointsToSet(object, pag);
+      Set<Node> expected = new HashSet<Node>();
+      for (int i = 0; i < total; i++) {
+        AllocNode n = nodes.get(CHUNK + 3 * i);
+        expected.add(n);
+        assertTrue(single.add(n));
+        assertFalse(single.add(n));
+      }
+      assertSameContents(expected, single);
+    }
+  }
+
+  /**
+   * Array chunks that add nothing, or whose only new value comes before, between or after the values of the target. The
+   * merge looks for the first new value before it copies anything.
+   */
+  @Test
+  public void testMergeOfArrayChunksAddingOneValue() {
+    RoaringPointsToSet target = new RoaringPointsToSet(object, pag);
+    for (int i = 1; i < 100; i++) {
+      target.add(nodes.get(3 * i));
+    }
+    RoaringPointsToSet subset = new RoaringPointsToSet(object, pag);
+    for (int i = 10; i < 20; i++) {
+      subset.add(nodes.get(3 * i));
+    }
+    checkAddAll(target, subset, null);
+    assertFalse(target.addAll(subset, null));
+
+    for (int index : new int[] { 0, 31, 301 }) {
+      RoaringPointsToSet other = new RoaringPointsToSet(object, pag);
+      other.addAll(subset, null);
+      other.add(nodes.get(index));
+      checkAddAll(target, other, null);
+    }
+    assertEquals(102, target.size());
+
+    // A new value that is excluded does not count either
+    RoaringPointsToSet other = new RoaringPointsToSet(object, pag);
+    other.addAll(subset, null);
+    other.add(nodes.get(1));
+    RoaringPointsToSet exclude = new RoaringPointsToSet(object, pag);
+    exclude.add(nodes.get(1));
+    checkAddAll(target, other, exclude);
+    assertEquals(102, target.size());
+  }
+
+  /** A bitmap chunk added to an array chunk, and an array chunk added to a bitmap chunk. */
+  @Test
+  public void testMixedChunks() {
+    RoaringPointsToSet sparse = new RoaringPointsToSet(object, pag);
+    RoaringPointsToSet dense = new RoaringPointsToSet(object, pag);
+    for (int i = 0; i < 100; i++) {
+      sparse.add(nodes.get(7 * i + 1));
+    }
+    for (int i = 0; i < ARRAY_MAX + 500; i++) {
+      dense.add(nodes.get(5 * i));
+    }
+
+    RoaringPointsToSet arrayThenBitmap = new RoaringPointsToSet(object, pag);
+    arrayThenBitmap.addAll(sparse, null);
+    checkAddAll(arrayThenBitmap, dense, null);
+
+    RoaringPointsToSet bitmapThenArray = new RoaringPointsToSet(object, pag);
+    bitmapThenArray.addAll(dense, null);
+    checkAddAll(bitmapThenArray, sparse, null);
+
+    RoaringPointsToSet excluded = new RoaringPointsToSet(object, pag);
+    excluded.addAll(sparse, null);
+    checkAddAll(excluded, dense, sparse);
+    RoaringPointsToSet excludedDense = new RoaringPointsToSet(object, pag);
+    excludedDense.addAll(sparse, null);
+    checkAddAll(excludedDense, sparse, dense);
+  }
+
+  /** Adds other minus exclude to target, and checks the result and the return value against plain sets. */
+  private void checkAddAll(RoaringPointsToSet target, RoaringPointsToSet other, RoaringPointsToSet exclude) {
+    Set<Node> expected = contents(target);
+    boolean changed = false;
+    Set<Node> excluded = exclude == null ? new HashSet<Node>() : contents(exclude);
+    for (Node n : contents(other)) {
+      if (!excluded.contains(n) && typeManager.castNeverFails(n.getType(), target.getType()) && expected.add(n)) {
+        changed = true;
+      }
+    }
+    assertEquals(changed, target.addAll(other, exclude));
+    assertSameContents(expected, target);
+  }
+
+  private void assertSameContents(Set<Node> expected, RoaringPointsToSet actual) {
+    assertEquals(expected, contents(actual));
+    assertEquals(expected.size(), actual.size());
+    assertEquals(expected.isEmpty(), actual.isEmpty());
+    for (Node n : expected) {
+      assertTrue(actual.contains(n));
+    }
+  }
+
+  private static Set<Node> contents(PointsToSetInternal set) {
+    final Set<Node> ret = new HashSet<Node>();
+    set.forall(new P2SetVisitor() {
+      @Override
+      public void visit(Node n) {
+        assertTrue("visited twice: " + n, ret.add(n));
+      }
+    });
+    return ret;
+  }
+
+  /** Returns a set of up to size random nodes, which are mostly taken from the first chunk. */
+  private RoaringPointsToSet randomSet(Type type, int size) {
+    RoaringPointsToSet ret = new RoaringPointsToSet(type, pag);
+    for (int i = 0; i < size; i++) {
+      ret.add(random.nextInt(4) == 0 ? randomNode() : nodes.get(random.nextInt(CHUNK)));
+    }
+    return ret;
+  }
+
+  private AllocNode randomNode() {
+    return nodes.get(random.nextInt(nodes.size()));
+  }
+
+  private static SootClass makeClass(String name, SootClass superclass) {
+    SootClass ret = new SootClass(name, Modifier.PUBLIC);
+    ret.setSuperclass(superclass);
+    Scene.v().addClass(ret);
+    return ret;
+  }
+}
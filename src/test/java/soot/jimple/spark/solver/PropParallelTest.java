@@ -0,0 +1,149 @@
+package soot.jimple.spark.solver;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import soot.G;
+import soot.Local;
+import soot.MethodOrMethodContext;
+import soot.PhaseOptions;
+import soot.PointsToAnalysis;
+import soot.Scene;
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.AssignStmt;
+import soot.jimple.spark.SparkTransformer;
+import soot.jimple.spark.pag.AllocNode;
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.pag.PAG;
+import soot.jimple.spark.sets.P2SetVisitor;
+import soot.jimple.spark.sets.PointsToSetInternal;
+import soot.jimple.toolkits.callgraph.Edge;
+import soot.options.Options;
+import soot.options.SparkOptions;
+import soot.util.queue.QueueReader;
+
+/**
+ * Checks that {@link PropParallel} computes the same points-to sets and on-the-fly call graph as {@link PropWorklist}.
+ */
+public class PropParallelTest {
+  private static final String TARGET = "soot.jimple.spark.solver.targets.PointsToTarget";
+
+  @Test
+  public void testSameResultsAsWorklist() {
+    Map<String, TreeSet<String>> worklist = solve("worklist", "hybrid");
+    Map<String, TreeSet<String>> parallel = solve("parallel", "hybrid");
+    assertFalse(worklist.isEmpty());
+    assertEquals(worklist, parallel);
+  }
+
+  @Test
+  public void testSameResultsAsWorklistWithBitSets() {
+    assertEquals(solve("worklist", "bit"), solve("parallel", "bit"));
+  }
+
+  /**
+   * Runs Spark with the given propagator and set implementation on the target program, and returns the allocation sites
+   * that every local of a reachable method may point to, as well as the edges of the call graph.
+   */
+  private static Map<String, TreeSet<String>> solve(String propagator, String setImpl) {
+    G.reset();
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_whole_program(true);
+    Options.v().set_no_bodies_for_excluded(true);
+    Options.v().set_soot_classpath(new File("target/test-classes").getAbsolutePath());
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_main_class(TARGET);
+    Options.v().classes().add(TARGET);
+    Scene.v().loadNecessaryClasses();
+
+    Options.v().setPhaseOption("cg.spark", "enabled:true");
+    Options.v().setPhaseOption("cg.spark", "propagator:" + propagator);
+    Options.v().setPhaseOption("cg.spark", "set-impl:" + setImpl);
+    new SparkTransformer(null) {
+      @Override
+      protected void propagatePAG(SparkOptions opts, PAG pag) {
+        if (opts.propagator() == SparkOptions.propagator_parallel) {
+          // Force several threads, however many processors there are
+          new PropParallel(pag, 4).propagate();
+        } else {
+          super.propagatePAG(opts, pag);
+        }
+      }
+    }.transform("cg.spark", PhaseOptions.v().getPhaseOptions("cg.spark"));
+
+    Map<String, TreeSet<String>> ret = new TreeMap<String, TreeSet<String>>();
+    PointsToAnalysis pta = Scene.v().getPointsToAnalysis();
+    for (QueueReader<Edge> edges = Scene.v().getCallGraph().listener(); edges.hasNext();) {
+      Edge e = edges.next();
+      TreeSet<String> targets = ret.get("edges from " + e.src());
+      if (targets == null) {
+        ret.put("edges from " + e.src(), targets = new TreeSet<String>());
+      }
+      targets.add(e.srcUnit() + " -> " + e.tgt());
+    }
+    for (QueueReader<MethodOrMethodContext> methods = Scene.v().getReachableMethods().listener(); methods.hasNext();) {
+      SootMethod m = methods.next().method();
+      if (!m.hasActiveBody()) {
+        continue;
+      }
+      for (Local l : m.getActiveBody().getLocals()) {
+        final TreeSet<String> sites = new TreeSet<String>();
+        ((PointsToSetInternal) pta.reachingObjects(l)).forall(new P2SetVisitor() {
+          @Override
+          public void visit(Node n) {
+            sites.add(siteOf((AllocNode) n));
+          }
+        });
+        ret.put(m.getSignature() + " " + l, sites);
+      }
+    }
+    return ret;
+  }
+
+  /** Describes an allocation site independently of node numbers, which depend on the order of propagation. */
+  private static String siteOf(AllocNode n) {
+    SootMethod m = n.getMethod();
+    if (m == null || !m.hasActiveBody()) {
+      return String.valueOf(n.getNewExpr());
+    }
+    int index = 0;
+    for (Unit u : new ArrayList<Unit>(m.getActiveBody().getUnits())) {
+      if (u instanceof AssignStmt && ((AssignStmt) u).getRightOp() == n.getNewExpr()) {
+        return m.getSignature() + " at " + index;
+      }
+      index++;
+    }
+    return m.getSignature() + " " + n.getNewExpr();
+  }
+}
@@ -0,0 +1,109 @@
+package soot.jimple.spark.solver.targets;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+/**
+ * Program for {@link soot.jimple.spark.solver.PropParallelTest}, with field and array flow, and virtual calls whose targets
+ * are only found during propagation.
+ */
+public class PointsToTarget {
+
+  static Shape registry;
+
+  static class Shape {
+    Shape next;
+    Object payload;
+
+    Shape link(Shape s) {
+      next = s;
+      return this;
+    }
+
+    Object describe() {
+      return payload;
+    }
+  }
+
+  static class Circle extends Shape {
+    @Override
+    Shape link(Shape s) {
+      Shape c = new Square();
+      c.next = s;
+      return c;
+    }
+  }
+
+  static class Square extends Shape {
+    @Override
+    Object describe() {
+      return next == null ? new Object() : next.describe();
+    }
+  }
+
+  static class Box {
+    Object[] items = new Object[4];
+
+    void put(int i, Object o) {
+      items[i] = o;
+    }
+
+    Object get(int i) {
+      return items[i];
+    }
+  }
+
+  static Shape make(int i) {
+    switch (i % 3) {
+      case 0:
+        return new Shape();
+      case 1:
+        return new Circle();
+      default:
+        return new Square();
+    }
+  }
+
+  public static void main(String[] args) {
+    Shape head = null;
+    for (int i = 0; i < args.length; i++) {
+      Shape s = make(i);
+      s.payload = args[i];
+      head = s.link(head);
+    }
+    registry = head;
+
+    Box box = new Box();
+    box.put(0, head);
+    box.put(1, new StringBuilder());
+    Object first = box.get(0);
+    if (first instanceof Shape) {
+      Object d = ((Shape) first).describe();
+      box.put(2, d);
+    }
+    Shape cur = registry;
+    while (cur != null) {
+      box.put(3, cur.next);
+      cur = cur.next;
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package soot.jimple.toolkit.callgraph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.G;
+import soot.Kind;
+import soot.Modifier;
+import soot.PhaseOptions;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Type;
+import soot.Unit;
+import soot.VoidType;
+import soot.jimple.Jimple;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.CompactCallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+import soot.options.Options;
+import soot.util.queue.QueueReader;
+
+public class CompactCallGraphTest {
+
+  private SootMethod a;
+  private SootMethod b;
+  private SootMethod c;
+
+  @Before
+  public void setUp() {
+    G.reset();
+    Options.v().set_allow_phantom_refs(true);
+    Scene.v().loadNecessaryClasses();
+
+    SootClass sc = new SootClass("soot.test.Compact", Modifier.PUBLIC);
+    sc.setSuperclass(Scene.v().getObjectType().getSootClass());
+    Scene.v().addClass(sc);
+    a = generateMethod(sc, "a");
+    b = generateMethod(sc, "b");
+    c = generateMethod(sc, "c");
+  }
+
+  @Test
+  public void testSameEdgesAsCallGraph() {
+    Unit u1 = Jimple.v().newNopStmt();
+    Unit u2 = Jimple.v().newNopStmt();
+    Edge[] edges = { new Edge(a, u1, b, Kind.VIRTUAL), new Edge(a, u1, c, Kind.VIRTUAL),
+        new Edge(a, u2, c, Kind.STATIC), new Edge(b, u2, c, Kind.STATIC), new Edge(null, null, a, Kind.CLINIT) };
+
+    CallGraph expected = new CallGraph();
+    CallGraph actual = new CompactCallGraph();
+    for (Edge e : edges) {
+      assertTrue(expected.addEdge(e));
+      assertTrue(actual.addEdge(new Edge(e.getSrc(), e.srcUnit(), e.getTgt(), e.kind())));
+    }
+    assertFalse(actual.addEdge(new Edge(a, u1, b, Kind.VIRTUAL)));
+
+    assertEquals(expected.size(), actual.size());
+    assertEquals(toSet(expected.iterator()), toSet(actual.iterator()));
+    assertEquals(toSet(expected.listener()), toSet(actual.listener()));
+    for (SootMethod m : new SootMethod[] { a, b, c }) {
+      assertEquals(toSet(expected.edgesOutOf(m)), toSet(actual.edgesOutOf(m)));
+      assertEquals(toSet(expected.edgesInto(m)), toSet(actual.edgesInto(m)));
+      assertEquals(expected.isEntryMethod(m), actual.isEntryMethod(m));
+    }
+    for (Unit u : new Unit[] { u1, u2 }) {
+      assertEquals(toSet(expected.edgesOutOf(u)), toSet(actual.edgesOutOf(u)));
+    }
+    assertEquals(toSet(expected.sourceMethods()), toSet(actual.sourceMethods()));
+    assertEquals(expected.findEdge(u1, c), actual.findEdge(u1, c));
+  }
+
+  @Test
+  public void testRemoval() {
+    Unit u1 = Jimple.v().newNopStmt();
+    Unit u2 = Jimple.v().newNopStmt();
+    CallGraph cg = new CompactCallGraph();
+    cg.addEdge(new Edge(a, u1, b, Kind.VIRTUAL));
+    cg.addEdge(new Edge(a, u1, c, Kind.VIRTUAL));
+    cg.addEdge(new Edge(a, u2, c, Kind.STATIC));
+    QueueReader<Edge> listener = cg.listener();
+
+    // Views of the same record are equal, so a fresh view removes the edge
+    assertTrue(cg.removeEdge(new Edge(a, u1, c, Kind.VIRTUAL)));
+    assertFalse(cg.removeEdge(new Edge(a, u1, c, Kind.VIRTUAL)));
+    assertEquals(2, cg.size());
+    assertNull(cg.findEdge(u1, c));
+    assertEquals(1, toSet(cg.edgesInto(c)).size());
+    assertEquals(2, toSet(listener).size());
+
+    assertTrue(cg.removeAllEdgesOutOf(u2));
+    assertTrue(cg.isEntryMethod(c));
+    assertEquals(Collections.singleton(a), toSet(cg.sourceMethods()));
+
+    QueueReader<Edge> newListener = cg.newListener();
+    assertFalse(newListener.hasNext());
+    cg.addEdge(new Edge(b, u2, c, Kind.STATIC));
+    assertEquals(Collections.singleton(new Edge(b, u2, c, Kind.STATIC)), toSet(newListener));
+  }
+
+  @Test
+  public void testManyCallSites() {
+    CallGraph cg = new CompactCallGraph();
+    List<Unit> units = new ArrayList<Unit>();
+    for (int i = 0; i < 1000; i++) {
+      Unit u = Jimple.v().newNopStmt();
+      units.add(u);
+      assertTrue(cg.addEdge(new Edge(a, u, i % 2 == 0 ? b : c, Kind.STATIC)));
+    }
+    for (int i = 0; i < units.size(); i++) {
+      Unit u = units.get(i);
+      SootMethod tgt = i % 2 == 0 ? b : c;
+      assertEquals(Collections.singleton(new Edge(a, u, tgt, Kind.STATIC)), toSet(cg.edgesOutOf(u)));
+      assertEquals(u, cg.findEdge(u, tgt).srcUnit());
+    }
+
+    // A unit that never was the source of an edge has no edges
+    Unit other = Jimple.v().newNopStmt();
+    assertFalse(cg.edgesOutOf(other).hasNext());
+    assertNull(cg.findEdge(other, b));
+    assertFalse(cg.removeEdge(new Edge(a, other, b, Kind.STATIC)));
+    assertFalse(cg.removeAllEdgesOutOf(other));
+    assertEquals(1000, cg.size());
+  }
+
+  @Test
+  public void testSelectedByOption() {
+    assertFalse(Scene.v().internalMakeCallGraph() instanceof CompactCallGraph);
+    PhaseOptions.v().setPhaseOption("cg", "compact-edges:true");
+    assertTrue(Scene.v().internalMakeCallGraph() instanceof CompactCallGraph);
+  }
+
+  private static <T> Set<T> toSet(Iterator<? extends T> it) {
+    Set<T> ret = new HashSet<T>();
+    while (it.hasNext()) {
+      ret.add(it.next());
+    }
+    return ret;
+  }
+
+  private static SootMethod generateMethod(SootClass sootClass, String name) {
+    SootMethod m = new SootMethod(name, Collections.<Type>emptyList(), VoidType.v(), Modifier.PUBLIC);
+    sootClass.addMethod(m);
+    return m;
+  }
+}
@@ -0,0 +1,226 @@
+package soot.jimple.toolkit.callgraph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.G;
+import soot.Kind;
+import soot.Modifier;
+import soot.PhaseOptions;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Type;
+import soot.Unit;
+import soot.VoidType;
+import soot.jimple.Jimple;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.ConcurrentCallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+import soot.options.Options;
+import soot.util.queue.QueueReader;
+
+public class ConcurrentCallGraphTest {
+  private static final int THREADS = 4;
+  private static final int EDGES_PER_THREAD = 2000;
+
+  private SootMethod[] methods;
+
+  @Before
+  public void setUp() {
+    G.reset();
+    Options.v().set_allow_phantom_refs(true);
+    Scene.v().loadNecessaryClasses();
+
+    SootClass sc = new SootClass("soot.test.Concurrent", Modifier.PUBLIC);
+    sc.setSuperclass(Scene.v().getObjectType().getSootClass());
+    Scene.v().addClass(sc);
+    methods = new SootMethod[8];
+    for (int i = 0; i < methods.length; i++) {
+      methods[i] = generateMethod(sc, "m" + i);
+    }
+  }
+
+  @Test
+  public void testSelectedByOption() {
+    assertFalse(Scene.v().internalMakeCallGraph() instanceof ConcurrentCallGraph);
+    PhaseOptions.v().setPhaseOption("cg", "concurrent-edges:true");
+    assertTrue(Scene.v().internalMakeCallGraph() instanceof ConcurrentCallGraph);
+  }
+
+  @Test
+  public void testRemoval() {
+    SootMethod a = methods[0];
+    SootMethod b = methods[1];
+    Unit u = Jimple.v().newNopStmt();
+    CallGraph cg = new ConcurrentCallGraph();
+    Edge e = new Edge(a, u, b, Kind.VIRTUAL);
+    assertTrue(cg.addEdge(e));
+    QueueReader<Edge> listener = cg.listener();
+
+    // Removing an equal edge invalidates the published instance
+    assertTrue(cg.removeEdge(new Edge(a, u, b, Kind.VIRTUAL)));
+    assertTrue(e.isInvalid());
+    assertFalse(cg.removeEdge(e));
+    assertFalse(listener.hasNext());
+    assertEquals(0, cg.size());
+    assertNull(cg.findEdge(u, b));
+    assertTrue(cg.isEntryMethod(b));
+  }
+
+  /**
+   * Each thread adds its own edges and removes every other one of them, while all threads also keep adding and removing
+   * the same shared edges and another thread reads the listener and the lookups. Afterwards, all views of the graph must
+   * agree.
+   */
+  @Test
+  public void testConcurrentAddRemoveIterate() throws Exception {
+    final CallGraph cg = new ConcurrentCallGraph();
+    final Unit[] sharedUnits = new Unit[16];
+    for (int i = 0; i < sharedUnits.length; i++) {
+      sharedUnits[i] = Jimple.v().newNopStmt();
+    }
+    final List<List<Edge>> kept = new ArrayList<List<Edge>>();
+    final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    final AtomicBoolean done = new AtomicBoolean();
+    final CountDownLatch start = new CountDownLatch(1);
+
+    List<Thread> writers = new ArrayList<Thread>();
+    for (int t = 0; t < THREADS; t++) {
+      final List<Edge> keep = new ArrayList<Edge>();
+      kept.add(keep);
+      writers.add(new Thread(() -> {
+        try {
+          start.await();
+          for (int i = 0; i < EDGES_PER_THREAD; i++) {
+            Edge e = new Edge(methods[i % methods.length], Jimple.v().newNopStmt(),
+                methods[(i + 1) % methods.length], Kind.VIRTUAL);
+            assertTrue(cg.addEdge(e));
+            if (i % 2 == 0) {
+              keep.add(e);
+            } else {
+              assertTrue(cg.removeEdge(e));
+            }
+            Unit shared = sharedUnits[i % sharedUnits.length];
+            cg.addEdge(new Edge(methods[0], shared, methods[1], Kind.STATIC));
+            cg.removeEdge(new Edge(methods[0], shared, methods[1], Kind.STATIC));
+          }
+        } catch (Throwable e) {
+          failure.compareAndSet(null, e);
+        }
+      }));
+    }
+    Thread readerThread = new Thread(() -> {
+      try {
+        start.await();
+        QueueReader<Edge> listener = cg.listener();
+        while (!done.get()) {
+          while (listener.hasNext()) {
+            listener.next();
+          }
+          for (SootMethod m : methods) {
+            for (Iterator<Edge> it = cg.edgesInto(m); it.hasNext();) {
+              it.next();
+            }
+          }
+          for (Iterator<Edge> it = cg.iterator(); it.hasNext();) {
+            it.next();
+          }
+        }
+      } catch (Throwable e) {
+        failure.compareAndSet(null, e);
+      }
+    });
+
+    readerThread.start();
+    for (Thread t : writers) {
+      t.start();
+    }
+    start.countDown();
+    for (Thread t : writers) {
+      t.join();
+    }
+    done.set(true);
+    readerThread.join();
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+
+    Set<Edge> expected = new HashSet<Edge>();
+    for (List<Edge> keep : kept) {
+      expected.addAll(keep);
+    }
+    for (Unit shared : sharedUnits) {
+      Edge e = cg.findEdge(shared, methods[1]);
+      if (e != null) {
+        expected.add(e);
+      }
+    }
+    assertEquals(expected, toSet(cg.iterator()));
+    assertEquals(expected.size(), cg.size());
+    assertEquals(expected, toSet(cg.listener()));
+    Set<Edge> byTarget = new HashSet<Edge>();
+    Set<Edge> bySource = new HashSet<Edge>();
+    for (SootMethod m : methods) {
+      byTarget.addAll(toSet(cg.edgesInto(m)));
+      bySource.addAll(toSet(cg.edgesOutOf(m)));
+    }
+    assertEquals(expected, byTarget);
+    assertEquals(expected, bySource);
+    for (Edge e : expected) {
+      assertFalse(e.isInvalid());
+      assertEquals(Collections.singleton(e), toSet(cg.edgesOutOf(e.srcUnit())));
+    }
+  }
+
+  private static <T> Set<T> toSet(Iterator<? extends T> it) {
+    Set<T> ret = new HashSet<T>();
+    while (it.hasNext()) {
+      ret.add(it.next());
+    }
+    return ret;
+  }
+
+  private static SootMethod generateMethod(SootClass sootClass, String name) {
+    SootMethod m = new SootMethod(name, Collections.<Type>emptyList(), VoidType.v(), Modifier.PUBLIC);
+    sootClass.addMethod(m);
+    return m;
+  }
+}
@@ -0,0 +1,178 @@
+package soot.jimple.toolkit.callgraph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.G;
+import soot.Local;
+import soot.Modifier;
+import soot.PhaseOptions;
+import soot.Scene;
+import soot.SceneDelta;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Type;
+import soot.VoidType;
+import soot.jimple.Jimple;
+import soot.jimple.JimpleBody;
+import soot.jimple.spark.pag.PAG;
+import soot.jimple.toolkits.callgraph.CallGraphBuilder;
+import soot.jimple.toolkits.callgraph.Edge;
+import soot.jimple.toolkits.callgraph.IncrementalCallGraphUpdater;
+import soot.jimple.toolkits.pointer.DumbPointerAnalysis;
+import soot.options.Options;
+import soot.options.SparkOptions;
+
+public class IncrementalCallGraphUpdaterTest {
+
+  private SootClass classA;
+
+  @Before
+  public void setUp() {
+    G.reset();
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_whole_program(true);
+    Options.v().set_no_bodies_for_excluded(true);
+    Scene.v().loadNecessaryClasses();
+
+    classA = generateSceneClass("soot.test.A", Scene.v().getObjectType().getSootClass());
+    SootMethod foo = generateMethod(classA, "foo", 0);
+
+    // main() { a = new A; a.foo(); }
+    SootClass mainClass = generateSceneClass("soot.test.Main", Scene.v().getObjectType().getSootClass());
+    SootMethod main = generateMethod(mainClass, "main", Modifier.STATIC);
+    JimpleBody b = (JimpleBody) main.getActiveBody();
+    Local a = Jimple.v().newLocal("a", classA.getType());
+    b.getLocals().add(a);
+    b.getUnits().insertBefore(Jimple.v().newAssignStmt(a, Jimple.v().newNewExpr(classA.getType())),
+        b.getUnits().getLast());
+    b.getUnits().insertBefore(Jimple.v().newInvokeStmt(Jimple.v().newVirtualInvokeExpr(a, foo.makeRef())),
+        b.getUnits().getLast());
+
+    Scene.v().setEntryPoints(Collections.singletonList(main));
+  }
+
+  @Test
+  public void testAddedSubclass() {
+    new CallGraphBuilder(DumbPointerAnalysis.v()).build();
+    IncrementalCallGraphUpdater updater = new IncrementalCallGraphUpdater();
+
+    SootClass classB = generateSceneClass("soot.test.B", classA);
+    SootMethod foo = generateMethod(classB, "foo", 0);
+    SceneDelta delta = new SceneDelta();
+    delta.classAdded(classB);
+    updater.update(delta);
+
+    assertTrue(Scene.v().getCallGraph().edgesInto(foo).hasNext());
+    assertTrue(Scene.v().getReachableMethods().contains(foo));
+    assertEquals(rebuildEdges(), edges());
+  }
+
+  @Test
+  public void testRemovedSubclass() {
+    SootClass classB = generateSceneClass("soot.test.B", classA);
+    SootMethod foo = generateMethod(classB, "foo", 0);
+    new CallGraphBuilder(DumbPointerAnalysis.v()).build();
+    assertTrue(Scene.v().getCallGraph().edgesInto(foo).hasNext());
+    IncrementalCallGraphUpdater updater = new IncrementalCallGraphUpdater();
+
+    Scene.v().removeClass(classB);
+    SceneDelta delta = new SceneDelta();
+    delta.classRemoved(classB);
+    updater.update(delta);
+
+    assertFalse(Scene.v().getCallGraph().edgesInto(foo).hasNext());
+    assertFalse(Scene.v().getReachableMethods().contains(foo));
+    assertEquals(rebuildEdges(), edges());
+  }
+
+  @Test
+  public void testModifiedClass() {
+    SootClass classB = generateSceneClass("soot.test.B", classA);
+    new CallGraphBuilder(DumbPointerAnalysis.v()).build();
+    IncrementalCallGraphUpdater updater = new IncrementalCallGraphUpdater();
+
+    // B starts to override foo()
+    SootMethod foo = generateMethod(classB, "foo", 0);
+    SceneDelta delta = new SceneDelta();
+    delta.classModified(classB);
+    updater.update(delta);
+
+    assertTrue(Scene.v().getCallGraph().edgesInto(foo).hasNext());
+    assertEquals(rebuildEdges(), edges());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testPointsToCallGraphRejected() {
+    new CallGraphBuilder(DumbPointerAnalysis.v()).build();
+    Scene.v().setPointsToAnalysis(new PAG(new SparkOptions(PhaseOptions.v().getPhaseOptions("cg.spark"))));
+    IncrementalCallGraphUpdater updater = new IncrementalCallGraphUpdater();
+
+    SootClass classB = generateSceneClass("soot.test.B", classA);
+    SceneDelta delta = new SceneDelta();
+    delta.classAdded(classB);
+    updater.update(delta);
+  }
+
+  private static Set<String> rebuildEdges() {
+    new CallGraphBuilder(DumbPointerAnalysis.v()).build();
+    return edges();
+  }
+
+  private static Set<String> edges() {
+    Set<String> ret = new HashSet<String>();
+    for (Edge e : Scene.v().getCallGraph()) {
+      ret.add(e.getSrc() + " -" + e.kind() + "-> " + e.getTgt() + " at " + System.identityHashCode(e.srcUnit()));
+    }
+    return ret;
+  }
+
+  private static SootClass generateSceneClass(String name, SootClass superClass) {
+    SootClass sootClass = new SootClass(name, Modifier.PUBLIC);
+    sootClass.setSuperclass(superClass);
+    sootClass.setResolvingLevel(SootClass.BODIES);
+    Scene.v().addClass(sootClass);
+    sootClass.setApplicationClass();
+    return sootClass;
+  }
+
+  private static SootMethod generateMethod(SootClass sootClass, String name, int modifiers) {
+    SootMethod m = new SootMethod(name, Collections.<Type>emptyList(), VoidType.v(), Modifier.PUBLIC | modifiers);
+    sootClass.addMethod(m);
+    JimpleBody b = Jimple.v().newBody(m);
+    b.insertIdentityStmts();
+    b.getUnits().add(Jimple.v().newReturnVoidStmt());
+    m.setActiveBody(b);
+    return m;
+  }
+}
@@ -0,0 +1,80 @@
+package soot.jimple.toolkit.callgraph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import soot.G;
+import soot.PackManager;
+import soot.Scene;
+import soot.jimple.toolkits.callgraph.Edge;
+import soot.options.Options;
+import soot.util.queue.QueueReader;
+
+/**
+ * Checks that creating method bodies in waves during call graph construction yields the same call graph as creating them
+ * one after the other.
+ */
+public class ParallelBodyRetrievalTest {
+  private static final String TARGET = "soot.jimple.spark.solver.targets.PointsToTarget";
+
+  @Test
+  public void testSameCallGraphAsSequential() {
+    List<String> sequential = buildCallGraph(false);
+    List<String> parallel = buildCallGraph(true);
+    assertTrue(sequential.size() > 20);
+    assertEquals(sequential, parallel);
+  }
+
+  /** Builds a CHA call graph of the target program and returns its edges in the order in which they were added. */
+  private static List<String> buildCallGraph(boolean parallel) {
+    G.reset();
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_whole_program(true);
+    Options.v().set_soot_classpath(new File("target/test-classes").getAbsolutePath());
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_main_class(TARGET);
+    Options.v().classes().add(TARGET);
+    Scene.v().loadNecessaryClasses();
+
+    // Without the implicit entry points of the JDK, the call graph stays small enough for a test
+    Options.v().setPhaseOption("cg", "implicit-entry:false");
+    Options.v().setPhaseOption("cg", "parallel:" + parallel);
+    Options.v().setPhaseOption("cg.cha", "enabled:true");
+    PackManager.v().getPack("cg").apply();
+
+    List<String> ret = new ArrayList<String>();
+    for (QueueReader<Edge> edges = Scene.v().getCallGraph().listener(); edges.hasNext();) {
+      Edge e = edges.next();
+      ret.add(e.src() + " " + e.srcUnit() + " -> " + e.tgt() + " " + e.kind());
+    }
+    return ret;
+  }
+}
@@ -0,0 +1,100 @@
+package soot.jimple.toolkits.ide.icfg;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+
+import soot.Body;
+import soot.Unit;
+import soot.jimple.Jimple;
+
+public class UnitOwnerTableTest {
+
+  @Test
+  public void testPutAndGet() {
+    UnitOwnerTable table = new UnitOwnerTable(new ConcurrentHashMap<Unit, Body>());
+    Body b1 = newBody(3);
+    Body b2 = newBody(2);
+    Unit foreign = Jimple.v().newNopStmt();
+
+    table.putAll(b1);
+    assertTrue(table.put(b2.getUnits().getFirst(), b2));
+    assertFalse(table.put(b2.getUnits().getFirst(), b1));
+
+    for (Unit u : b1.getUnits()) {
+      assertSame(b1, table.get(u));
+    }
+    assertSame(b2, table.get(b2.getUnits().getFirst()));
+    assertNull(table.get(b2.getUnits().getLast()));
+    assertNull(table.get(foreign));
+    assertEquals(4, table.units().size());
+  }
+
+  @Test
+  public void testConcurrentPut() throws InterruptedException {
+    final UnitOwnerTable table = new UnitOwnerTable(new ConcurrentHashMap<Unit, Body>());
+    final List<Body> bodies = new ArrayList<Body>();
+    for (int i = 0; i < 64; i++) {
+      bodies.add(newBody(500));
+    }
+
+    // Every thread registers every body, so the threads race on the units
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        for (Body b : bodies) {
+          table.putAll(b);
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    for (Body b : bodies) {
+      for (Unit u : b.getUnits()) {
+        assertSame(b, table.get(u));
+      }
+    }
+    assertEquals(64 * 500, table.units().size());
+  }
+
+  private static Body newBody(int size) {
+    Body b = Jimple.v().newBody();
+    for (int i = 0; i < size; i++) {
+      b.getUnits().add(Jimple.v().newNopStmt());
+    }
+    return b;
+  }
+}
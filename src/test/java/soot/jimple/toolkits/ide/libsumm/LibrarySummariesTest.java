@@ -0,0 +1,79 @@
+package soot.jimple.toolkits.ide.libsumm;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LibrarySummariesTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void testSaveAndLoad() throws Exception {
+    MethodSummary summary = new MethodSummary(7);
+    summary.put(MethodSummary.ZERO, Collections.singletonList(new MethodSummary.Exit(6, "$r0")));
+    summary.put("r1", Arrays.asList(new MethodSummary.Exit(4, "r1"), new MethodSummary.Exit(6, "$r2")));
+
+    LibrarySummaries store = new LibrarySummaries();
+    store.put("abc", "<java.lang.String: java.lang.String trim()>", summary);
+    File file = tmp.newFile("summaries.bin");
+    store.save(file);
+
+    LibrarySummaries loaded = new LibrarySummaries();
+    loaded.load(file);
+    assertEquals(1, loaded.size());
+    assertNull(loaded.get("def", "<java.lang.String: java.lang.String trim()>"));
+
+    MethodSummary read = loaded.get("abc", "<java.lang.String: java.lang.String trim()>");
+    assertEquals(7, read.getUnitCount());
+    assertEquals(Arrays.asList(MethodSummary.ZERO, "r1"), toList(read.getEntryFacts()));
+
+    List<MethodSummary.Exit> exits = read.getExits("r1");
+    assertEquals(2, exits.size());
+    assertEquals(4, exits.get(0).getUnitIndex());
+    assertEquals("r1", exits.get(0).getFact());
+    assertEquals(6, exits.get(1).getUnitIndex());
+    assertEquals("$r2", exits.get(1).getFact());
+    assertNull(read.getExits("r2"));
+  }
+
+  private static List<String> toList(Iterable<String> it) {
+    List<String> ret = new ArrayList<String>();
+    for (String s : it) {
+      ret.add(s);
+    }
+    return ret;
+  }
+}
@@ -0,0 +1,250 @@
+package soot.jimple.toolkits.ide.libsumm;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import heros.InterproceduralCFG;
+import heros.solver.IFDSSolver;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import soot.Body;
+import soot.G;
+import soot.Local;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.Stmt;
+import soot.jimple.toolkits.callgraph.CallGraphBuilder;
+import soot.jimple.toolkits.ide.JimpleIFDSSolver;
+import soot.jimple.toolkits.ide.exampleproblems.IFDSLocalInfoFlow;
+import soot.jimple.toolkits.ide.icfg.JimpleBasedInterproceduralCFG;
+import soot.jimple.toolkits.pointer.DumbPointerAnalysis;
+import soot.options.Options;
+
+/**
+ * Computes library summaries for {@link IFDSLocalInfoFlow} in a run that only sees the library, and then solves the
+ * problem for an application once plainly and once through the stored summaries.
+ */
+public class SummarizingProblemTest {
+  private static final String TARGETS = "soot.jimple.toolkits.ide.libsumm.targets";
+  private static final String LIBRARY = TARGETS + ".lib.SummaryLibrary";
+  private static final String APP = TARGETS + ".app.SummaryApp";
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void testSameResultsWithSummaries() throws Exception {
+    File jar = libraryJar();
+    LibrarySummaries summaries = computeSummaries(jar);
+    File file = tmp.newFile("summaries.bin");
+    summaries.save(file);
+
+    setUpScene(jar.getPath() + File.pathSeparator + testClasses(), APP, APP + "$Echo");
+    buildCallGraph(Collections.singletonList(Scene.v().getMainMethod()));
+    LibrarySummaries loaded = new LibrarySummaries();
+    loaded.load(file);
+    InterproceduralCFG<Unit, SootMethod> icfg = new JimpleBasedInterproceduralCFG();
+
+    IFDSLocalInfoFlow plainProblem = new IFDSLocalInfoFlow(icfg);
+    IFDSSolver<Unit, Local, SootMethod, InterproceduralCFG<Unit, SootMethod>> plain
+        = new JimpleIFDSSolver<Local, InterproceduralCFG<Unit, SootMethod>>(plainProblem);
+    plain.solve();
+    IFDSLocalInfoFlow summarizedProblem = new IFDSLocalInfoFlow(icfg);
+    IFDSSolver<Unit, Local, SootMethod, InterproceduralCFG<Unit, SootMethod>> summarized
+        = new JimpleIFDSSolver<Local, InterproceduralCFG<Unit, SootMethod>>(summarizedProblem, loaded, new LocalCodec());
+    summarized.solve();
+
+    // All return sites of main are among its units
+    SootMethod main = Scene.v().getMainMethod();
+    for (Unit u : main.getActiveBody().getUnits()) {
+      assertEquals("at " + u, results(plain, plainProblem, u), results(summarized, summarizedProblem, u));
+    }
+    Local e = sinkArguments(main).get(3);
+    assertTrue(results(plain, plainProblem, main.getActiveBody().getUnits().getLast()).contains(e));
+
+    // Summarized methods are not entered, but the summary of apply is not used, since the application implements Fn
+    SootClass library = Scene.v().getSootClass(LIBRARY);
+    SootMethod identity = library.getMethodByName("identity");
+    SootMethod apply = library.getMethodByName("apply");
+    assertNotNull(loaded.get(identity));
+    assertNotNull(loaded.get(apply));
+    assertFalse(results(plain, plainProblem, first(identity)).isEmpty());
+    assertTrue(results(summarized, summarizedProblem, first(identity)).isEmpty());
+    assertFalse(results(summarized, summarizedProblem, first(apply)).isEmpty());
+  }
+
+  @Test
+  public void testNoSummaryForCallsIntoApplicationCode() throws Exception {
+    File jar = libraryJar();
+    setUpScene(jar.getPath() + File.pathSeparator + testClasses(), APP, APP + "$Echo");
+    buildCallGraph(Collections.singletonList(Scene.v().getMainMethod()));
+    IFDSLocalInfoFlow problem = new IFDSLocalInfoFlow(new JimpleBasedInterproceduralCFG());
+    SummaryGenerator<Local, InterproceduralCFG<Unit, SootMethod>> generator
+        = new SummaryGenerator<Local, InterproceduralCFG<Unit, SootMethod>>(problem, new LocalCodec());
+
+    SootClass library = Scene.v().getSootClass(LIBRARY);
+    assertNotNull(generator.summarize(library.getMethodByName("second")));
+    assertNull(generator.summarize(library.getMethodByName("apply")));
+  }
+
+  /** Computes the summaries of the methods in the library jar in a run in which only the library is loaded. */
+  private LibrarySummaries computeSummaries(File jar) {
+    setUpScene(jar.getPath(), LIBRARY);
+    List<SootMethod> methods = new ArrayList<SootMethod>();
+    for (SootClass c : new ArrayList<SootClass>(Scene.v().getApplicationClasses())) {
+      c.setLibraryClass();
+      for (SootMethod m : c.getMethods()) {
+        if (m.isConcrete()) {
+          methods.add(m);
+        }
+      }
+    }
+    buildCallGraph(methods);
+
+    IFDSLocalInfoFlow problem = new IFDSLocalInfoFlow(new JimpleBasedInterproceduralCFG());
+    SummaryGenerator<Local, InterproceduralCFG<Unit, SootMethod>> generator
+        = new SummaryGenerator<Local, InterproceduralCFG<Unit, SootMethod>>(problem, new LocalCodec());
+    LibrarySummaries ret = new LibrarySummaries();
+    for (SootMethod m : methods) {
+      MethodSummary summary = generator.summarize(m);
+      if (summary != null) {
+        assertTrue(ret.put(m, summary));
+      }
+    }
+    return ret;
+  }
+
+  private static void setUpScene(String classPath, String mainClass, String... otherClasses) {
+    G.reset();
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_whole_program(true);
+    Options.v().set_soot_classpath(classPath);
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_no_bodies_for_excluded(true);
+    Options.v().set_main_class(mainClass);
+    Options.v().classes().add(mainClass);
+    Collections.addAll(Options.v().classes(), otherClasses);
+    Scene.v().loadNecessaryClasses();
+  }
+
+  private static void buildCallGraph(List<SootMethod> entryPoints) {
+    Scene.v().setEntryPoints(entryPoints);
+    new CallGraphBuilder(DumbPointerAnalysis.v()).build();
+  }
+
+  private static Set<Local> results(IFDSSolver<Unit, Local, SootMethod, ?> solver, IFDSLocalInfoFlow problem, Unit u) {
+    Set<Local> ret = new HashSet<Local>(solver.ifdsResultsAt(u));
+    ret.remove(problem.zeroValue());
+    return ret;
+  }
+
+  private static Unit first(SootMethod m) {
+    return m.getActiveBody().getUnits().getFirst();
+  }
+
+  /** Returns the locals passed to the sink in the given method, in order. */
+  private static List<Local> sinkArguments(SootMethod m) {
+    List<Local> ret = new ArrayList<Local>();
+    for (Unit u : m.getActiveBody().getUnits()) {
+      Stmt s = (Stmt) u;
+      if (s.containsInvokeExpr() && s.getInvokeExpr().getMethod().getName().equals("sink")) {
+        ret.add((Local) s.getInvokeExpr().getArg(0));
+      }
+    }
+    return ret;
+  }
+
+  private static Local localNamed(Body b, String name) {
+    for (Local l : b.getLocals()) {
+      if (l.getName().equals(name)) {
+        return l;
+      }
+    }
+    return null;
+  }
+
+  private static File testClasses() {
+    return new File("target/test-classes").getAbsoluteFile();
+  }
+
+  /** Packs the compiled library classes into a jar, since only code from archives can be summarized. */
+  private File libraryJar() throws IOException {
+    String dir = TARGETS.replace('.', '/') + "/lib/";
+    File jar = tmp.newFile("library.jar");
+    try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+      for (File f : new File(testClasses(), dir).listFiles()) {
+        out.putNextEntry(new ZipEntry(dir + f.getName()));
+        try (InputStream in = new FileInputStream(f)) {
+          byte[] buffer = new byte[8192];
+          for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+            out.write(buffer, 0, read);
+          }
+        }
+        out.closeEntry();
+      }
+    }
+    return jar;
+  }
+
+  /** Encodes locals by their names. */
+  private static class LocalCodec implements SummaryCodec<Local> {
+    @Override
+    public Collection<Local> entryFacts(SootMethod m) {
+      return m.retrieveActiveBody().getParameterLocals();
+    }
+
+    @Override
+    public String encode(SootMethod m, Local fact) {
+      return m.getActiveBody().getLocals().contains(fact) ? fact.getName() : null;
+    }
+
+    @Override
+    public Local decode(SootMethod m, String fact) {
+      return localNamed(m.getActiveBody(), fact);
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package soot.jimple.toolkits.ide.libsumm.targets.app;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import soot.jimple.toolkits.ide.libsumm.targets.lib.SummaryLibrary;
+
+/**
+ * Application code for {@link soot.jimple.toolkits.ide.libsumm.SummarizingProblemTest}.
+ */
+public class SummaryApp {
+
+  static class Echo implements SummaryLibrary.Fn {
+    @Override
+    public Object apply(Object o) {
+      return o;
+    }
+  }
+
+  public static void main(String[] args) {
+    Object a = args;
+    Object b = SummaryLibrary.identity(a);
+    Object c = SummaryLibrary.constant(a);
+    Object d = SummaryLibrary.second(c, b);
+    Object e = SummaryLibrary.apply(new Echo(), d);
+    Object f = SummaryLibrary.apply(new SummaryLibrary.Drop(), e);
+    sink(b);
+    sink(c);
+    sink(d);
+    sink(e);
+    sink(f);
+  }
+
+  private static void sink(Object o) {
+  }
+}
@@ -0,0 +1,65 @@
+package soot.jimple.toolkits.ide.libsumm.targets.lib;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+/**
+ * Library code for {@link soot.jimple.toolkits.ide.libsumm.SummarizingProblemTest}, which loads it from a jar.
+ */
+public class SummaryLibrary {
+
+  public interface Fn {
+    Object apply(Object o);
+  }
+
+  public static class Drop implements Fn {
+    @Override
+    public Object apply(Object o) {
+      return null;
+    }
+  }
+
+  public static Object identity(Object o) {
+    Object r = o;
+    return r;
+  }
+
+  public static Object constant(Object o) {
+    return "constant";
+  }
+
+  public static Object second(Object a, Object b) {
+    return pass(b);
+  }
+
+  private static Object pass(Object o) {
+    return o;
+  }
+
+  /** Calls back into whatever implements Fn, which may be application code. */
+  public static Object apply(Fn f, Object o) {
+    return f.apply(o);
+  }
+
+  public static void main(String[] args) {
+  }
+}
@@ -0,0 +1,182 @@
+package soot.shimple.toolkits.scalar;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.G;
+import soot.IntType;
+import soot.Local;
+import soot.Modifier;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Type;
+import soot.Unit;
+import soot.jimple.IntConstant;
+import soot.jimple.Jimple;
+import soot.jimple.JimpleBody;
+import soot.jimple.ReturnStmt;
+import soot.jimple.Stmt;
+import soot.shimple.Shimple;
+import soot.shimple.ShimpleBody;
+import soot.shimple.toolkits.scalar.SEvaluator.BottomConstant;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+import soot.util.Chain;
+
+/**
+ * Checks that the sparse constant propagation computes the same results as the dense {@link SCPFAnalysis}.
+ */
+public class SparseSCPFAnalysisTest {
+  private Jimple j;
+  private SootMethod method;
+  private JimpleBody body;
+  private Chain<Unit> units;
+
+  @Before
+  public void setUp() {
+    G.reset();
+    Scene.v().loadNecessaryClasses();
+
+    SootClass sc = new SootClass("SparseSCPFTest", Modifier.PUBLIC);
+    sc.setSuperclass(Scene.v().getObjectType().getSootClass());
+    Scene.v().addClass(sc);
+    method = new SootMethod("test", Collections.<Type>emptyList(), IntType.v(), Modifier.PUBLIC | Modifier.STATIC);
+    sc.addMethod(method);
+
+    j = Jimple.v();
+    body = j.newBody(method);
+    method.setActiveBody(body);
+    units = body.getUnits();
+  }
+
+  private Local newLocal(String name) {
+    Local l = j.newLocal(name, IntType.v());
+    body.getLocals().add(l);
+    return l;
+  }
+
+  @Test
+  public void testConstantBranch() {
+    Local x = newLocal("x");
+    Local y = newLocal("y");
+    Local z = newLocal("z");
+
+    Unit join = j.newAssignStmt(z, j.newAddExpr(y, x));
+    Unit other = j.newAssignStmt(y, IntConstant.v(3));
+    units.add(j.newAssignStmt(x, IntConstant.v(1)));
+    units.add(j.newIfStmt(j.newNeExpr(x, IntConstant.v(1)), other));
+    units.add(j.newAssignStmt(y, IntConstant.v(2)));
+    units.add(j.newGotoStmt(join));
+    units.add(other);
+    units.add(join);
+    units.add(j.newReturnStmt(z));
+
+    ShimpleBody sb = Shimple.v().newBody(body);
+    SparseSCPFAnalysis sparse = assertSameResults(sb);
+
+    Local z0 = findLocal(sb, "z");
+    Assert.assertEquals(IntConstant.v(3), sparse.getResults().get(z0));
+    Assert.assertEquals(1, sparse.getDeadStmts().size());
+  }
+
+  @Test
+  public void testLoop() {
+    Local i = newLocal("i");
+
+    Unit exit = j.newReturnStmt(i);
+    Unit loop = j.newIfStmt(j.newGeExpr(i, IntConstant.v(10)), exit);
+    units.add(j.newAssignStmt(i, IntConstant.v(0)));
+    units.add(loop);
+    units.add(j.newAssignStmt(i, j.newAddExpr(i, IntConstant.v(1))));
+    units.add(j.newGotoStmt(loop));
+    units.add(exit);
+
+    ShimpleBody sb = Shimple.v().newBody(body);
+    SparseSCPFAnalysis sparse = assertSameResults(sb);
+
+    // The loop variable is not a constant, so the loop condition is not decided
+    Assert.assertTrue(sparse.getDeadStmts().isEmpty());
+    Assert.assertTrue(sparse.getStmtsToReplace().isEmpty());
+    boolean foundBottom = false;
+    for (Local l : sb.getLocals()) {
+      foundBottom |= sparse.getResults().get(l) instanceof BottomConstant;
+    }
+    Assert.assertTrue(foundBottom);
+  }
+
+  @Test
+  public void testTableSwitchKeyAboveRange() {
+    Local x = newLocal("x");
+    Local y = newLocal("y");
+
+    // The key is above the range of the switch but below its high index
+    Unit exit = j.newReturnStmt(y);
+    List<Unit> targets = new ArrayList<Unit>();
+    for (int i = 0; i < 3; i++) {
+      targets.add(j.newAssignStmt(y, IntConstant.v(i)));
+    }
+    Unit defaultTarget = j.newAssignStmt(y, IntConstant.v(-1));
+    units.add(j.newAssignStmt(x, IntConstant.v(14)));
+    units.add(j.newTableSwitchStmt(x, 10, 12, targets, defaultTarget));
+    for (Unit target : targets) {
+      units.add(target);
+      units.add(j.newGotoStmt(exit));
+    }
+    units.add(defaultTarget);
+    units.add(exit);
+
+    ShimpleBody sb = Shimple.v().newBody(body);
+    SparseSCPFAnalysis sparse = assertSameResults(sb);
+
+    Local returned = (Local) ((ReturnStmt) sb.getUnits().getLast()).getOp();
+    Assert.assertEquals(IntConstant.v(-1), sparse.getResults().get(returned));
+  }
+
+  private static SparseSCPFAnalysis assertSameResults(ShimpleBody sb) {
+    SCPFAnalysis dense = new SCPFAnalysis(new ExceptionalUnitGraph(sb));
+    SparseSCPFAnalysis sparse = new SparseSCPFAnalysis(new ExceptionalUnitGraph(sb));
+    for (Local l : sb.getLocals()) {
+      Assert.assertEquals(l.getName(), dense.getResults().get(l), sparse.getResults().get(l));
+    }
+    Assert.assertEquals(new HashSet<Stmt>(dense.getDeadStmts()), new HashSet<Stmt>(sparse.getDeadStmts()));
+    Assert.assertEquals(dense.getStmtsToReplace().keySet(), sparse.getStmtsToReplace().keySet());
+    return sparse;
+  }
+
+  private static Local findLocal(ShimpleBody sb, String prefix) {
+    for (Local l : sb.getLocals()) {
+      if (l.getName().startsWith(prefix)) {
+        return l;
+      }
+    }
+    throw new AssertionError("No local " + prefix);
+  }
+}
@@ -1516,6 +1516,37 @@ public class ThrowableSetTest {
 		assertTrue(bothPhantoms == bothPhantoms2);
 	}
 
+	@Test
+	public void test_15_MemoizedCatches() {
+		ThrowableSet anyError = mgr.EMPTY.add(AnySubType.v(util.ERROR));
+		ThrowableSet.Pair first = anyError.whichCatchableAs(util.LINKAGE_ERROR);
+		assertTrue(first == anyError.whichCatchableAs(util.LINKAGE_ERROR));
+		assertTrue(anyError.catchableAs(util.LINKAGE_ERROR));
+		assertTrue(anyError.catchableAs(util.LINKAGE_ERROR));
+	}
+
+	@Test
+	public void test_16_ConcurrentRegistration() throws InterruptedException {
+		final Set<RefLikeType> types = new HashSet<RefLikeType>();
+		types.add(util.LINKAGE_ERROR);
+		types.add(util.INCOMPATIBLE_CLASS_CHANGE_ERROR);
+		types.add(AnySubType.v(util.PHANTOM_EXCEPTION2));
+
+		final ThrowableSet[] results = new ThrowableSet[8];
+		Thread[] threads = new Thread[results.length];
+		for (int t = 0; t < threads.length; t++) {
+			final int index = t;
+			threads[t] = new Thread(() -> results[index] = mgr.registerSetIfNew(new HashSet<RefLikeType>(types), null));
+			threads[t].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+
+		for (ThrowableSet result : results)
+			assertTrue(result == results[0]);
+		assertTrue(results[0] == mgr.registerSetIfNew(types, null));
+	}
+
 	void printAllSets() {
 		for (ThrowableSet s : mgr.getThrowableSets()) {
 			System.err.println(s.toString());
@@ -23,12 +23,14 @@ package soot.toolkits.exceptions;
  */
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.junit.Before;
@@ -37,6 +39,7 @@ import org.junit.Test;
 
 import soot.AnySubType;
 import soot.ArrayType;
+import soot.Body;
 import soot.DoubleType;
 import soot.FloatType;
 import soot.IntType;
@@ -71,6 +74,7 @@ import soot.jimple.StringConstant;
 import soot.jimple.ThrowStmt;
 import soot.jimple.VirtualInvokeExpr;
 import soot.toolkits.exceptions.ExceptionTestUtility.ExceptionHashSet;
+import soot.toolkits.graph.ExceptionalUnitGraph;
 
 
 public class UnitThrowAnalysisTest {
@@ -1271,4 +1275,101 @@ public class UnitThrowAnalysisTest {
 		expectedCatch.add(utility.EXCEPTION);
 		assertEquals(expectedCatch, utility.catchableSubset(unitAnalysis.mightThrow(i)));
 	}
+
+	@Test
+	public void testShapesArePrecomputed() {
+		ThrowableSet.Manager mgr = ThrowableSet.Manager.v();
+		ThrowableSet arrayAccess = unitAnalysis.mightThrow(UnitThrowAnalysis.Shape.ARRAY_ACCESS);
+		assertSame(arrayAccess, unitAnalysis.mightThrow(UnitThrowAnalysis.Shape.ARRAY_ACCESS));
+		assertEquals(mgr.VM_ERRORS.add(mgr.NULL_POINTER_EXCEPTION).add(mgr.ARRAY_INDEX_OUT_OF_BOUNDS_EXCEPTION),
+				arrayAccess);
+
+		Local array = Jimple.v().newLocal("array", ArrayType.v(FloatType.v(), 1));
+		Stmt s = Jimple.v().newAssignStmt(floatLocal, Jimple.v().newArrayRef(array, IntConstant.v(0)));
+		assertEquals(arrayAccess, unitAnalysis.mightThrow(s));
+	}
+
+	@Test
+	public void testBodyMatchesUnits() {
+		Local array = Jimple.v().newLocal("array", ArrayType.v(FloatType.v(), 1));
+		Local index = Jimple.v().newLocal("index", IntType.v());
+		Body b = Jimple.v().newBody();
+		b.getLocals().add(array);
+		b.getLocals().add(index);
+		b.getLocals().add(floatLocal);
+		b.getUnits().add(Jimple.v().newAssignStmt(floatLocal, Jimple.v().newArrayRef(array, index)));
+		b.getUnits().add(Jimple.v().newAssignStmt(index, Jimple.v().newDivExpr(index, index)));
+		b.getUnits().add(Jimple.v().newAssignStmt(index, Jimple.v().newLengthExpr(array)));
+		b.getUnits().add(Jimple.v().newEnterMonitorStmt(array));
+		b.getUnits().add(Jimple.v().newExitMonitorStmt(array));
+		b.getUnits().add(Jimple.v().newReturnVoidStmt());
+
+		Map<Unit, ThrowableSet> throwables = unitAnalysis.mightThrow(b);
+		assertEquals(b.getUnits().size(), throwables.size());
+		for (Unit u : b.getUnits()) {
+			assertEquals(unitAnalysis.mightThrow(u), throwables.get(u));
+		}
+	}
+
+	@Test
+	public void testOverriddenValueSwitchSeesLocalsAndConstants() {
+		final ThrowableSet.Manager mgr = ThrowableSet.Manager.v();
+		UnitThrowAnalysis constantThrowing = new UnitThrowAnalysis() {
+			@Override
+			protected ValueSwitch valueSwitch() {
+				return new ValueSwitch() {
+					@Override
+					public void caseStringConstant(StringConstant c) {
+						result = result.add(mgr.RESOLVE_CLASS_ERRORS);
+					}
+				};
+			}
+		};
+		Local string = Jimple.v().newLocal("string", RefType.v("java.lang.String"));
+		Stmt s = Jimple.v().newAssignStmt(string, StringConstant.v("constant"));
+		assertEquals(mgr.VM_ERRORS, unitAnalysis.mightThrow(s));
+		assertEquals(mgr.VM_ERRORS.add(mgr.RESOLVE_CLASS_ERRORS), constantThrowing.mightThrow(s));
+	}
+
+	@Test
+	public void testExceptionalUnitGraphOnlyAnalyzesTrappedUnits() {
+		final int[] calls = new int[1];
+		UnitThrowAnalysis counting = new UnitThrowAnalysis() {
+			@Override
+			public ThrowableSet mightThrow(Unit u) {
+				calls[0]++;
+				return super.mightThrow(u);
+			}
+
+			@Override
+			public Map<Unit, ThrowableSet> mightThrow(Body body) {
+				calls[0] += body.getUnits().size();
+				return super.mightThrow(body);
+			}
+		};
+		Local array = Jimple.v().newLocal("array", ArrayType.v(FloatType.v(), 1));
+		Local index = Jimple.v().newLocal("index", IntType.v());
+		Local caught = Jimple.v().newLocal("caught", RefType.v("java.lang.Throwable"));
+		SootMethod m = Scene.v().makeSootMethod("trapped", Collections.emptyList(), VoidType.v(), Modifier.STATIC);
+		Body b = Jimple.v().newBody(m);
+		b.getLocals().add(array);
+		b.getLocals().add(index);
+		b.getLocals().add(floatLocal);
+		b.getLocals().add(caught);
+		Unit load = Jimple.v().newAssignStmt(floatLocal, Jimple.v().newArrayRef(array, index));
+		Unit div = Jimple.v().newAssignStmt(index, Jimple.v().newDivExpr(index, index));
+		Unit handler = Jimple.v().newIdentityStmt(caught, Jimple.v().newCaughtExceptionRef());
+		b.getUnits().add(load);
+		b.getUnits().add(div);
+		b.getUnits().add(Jimple.v().newReturnVoidStmt());
+		b.getUnits().add(handler);
+		b.getUnits().add(Jimple.v().newReturnVoidStmt());
+
+		new ExceptionalUnitGraph(b, counting);
+		assertEquals(0, calls[0]);
+
+		b.getTraps().add(Jimple.v().newTrap(Scene.v().getSootClass("java.lang.Throwable"), load, div, handler));
+		new ExceptionalUnitGraph(b, counting);
+		assertEquals(1, calls[0]);
+	}
 }
@@ -0,0 +1,128 @@
+package soot.toolkits.graph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.G;
+import soot.IntType;
+import soot.Local;
+import soot.Modifier;
+import soot.Scene;
+import soot.SootMethod;
+import soot.Type;
+import soot.Unit;
+import soot.VoidType;
+import soot.jimple.IntConstant;
+import soot.jimple.Jimple;
+import soot.jimple.JimpleBody;
+import soot.options.Options;
+import soot.util.Chain;
+
+public class CompactUnitGraphTest {
+  private JimpleBody body;
+
+  /**
+   * Builds a body with a loop, a branch to the unit it falls through to, and an unreachable unit.
+   */
+  @Before
+  public void setUp() {
+    G.reset();
+    Options.v().set_allow_phantom_refs(true);
+    Scene.v().loadBasicClasses();
+    Jimple j = Jimple.v();
+    SootMethod m = new SootMethod("loop", Collections.<Type>singletonList(IntType.v()), VoidType.v(),
+        Modifier.PUBLIC | Modifier.STATIC);
+    body = j.newBody(m);
+    m.setActiveBody(body);
+
+    Local i = j.newLocal("i", IntType.v());
+    body.getLocals().add(i);
+
+    Unit ret = j.newReturnVoidStmt();
+    Unit dec = j.newAssignStmt(i, j.newSubExpr(i, IntConstant.v(1)));
+    Unit cond = j.newIfStmt(j.newLeExpr(i, IntConstant.v(0)), ret);
+
+    Chain<Unit> units = body.getUnits();
+    units.add(j.newIdentityStmt(i, j.newParameterRef(IntType.v(), 0)));
+    units.add(cond);
+    units.add(j.newIfStmt(j.newEqExpr(i, IntConstant.v(1)), dec));
+    units.add(dec);
+    units.add(j.newGotoStmt(cond));
+    units.add(ret);
+    units.add(j.newNopStmt());
+  }
+
+  @Test
+  public void testSameEdgesAsBriefUnitGraph() {
+    UnitGraph brief = new BriefUnitGraph(body);
+    CompactUnitGraph compact = new CompactUnitGraph(body);
+    assertSameGraph(brief, compact);
+  }
+
+  @Test
+  public void testCopy() {
+    UnitGraph brief = new BriefUnitGraph(body);
+    assertSameGraph(brief, new CompactUnitGraph(brief));
+  }
+
+  @Test
+  public void testExceptionalCopy() {
+    ExceptionalUnitGraph exceptional = new ExceptionalUnitGraph(body);
+    CompactExceptionalUnitGraph compact = new CompactExceptionalUnitGraph(exceptional);
+    assertSameGraph(exceptional, compact);
+    for (Unit u : body.getUnits()) {
+      Assert.assertEquals(exceptional.getUnexceptionalSuccsOf(u), compact.getUnexceptionalSuccsOf(u));
+      Assert.assertEquals(exceptional.getUnexceptionalPredsOf(u), compact.getUnexceptionalPredsOf(u));
+      Assert.assertEquals(exceptional.getExceptionalSuccsOf(u), compact.getExceptionalSuccsOf(u));
+      Assert.assertEquals(exceptional.getExceptionalPredsOf(u), compact.getExceptionalPredsOf(u));
+    }
+  }
+
+  @Test
+  public void testIndices() {
+    CompactUnitGraph compact = new CompactUnitGraph(body);
+    int index = 0;
+    for (Unit u : body.getUnits()) {
+      Assert.assertEquals(index, compact.getIndexOf(u));
+      Assert.assertSame(u, compact.getNodeAt(index));
+      index++;
+    }
+    Assert.assertEquals(-1, compact.getIndexOf(Jimple.v().newNopStmt()));
+    Assert.assertTrue(compact.getSuccsOf(Jimple.v().newNopStmt()).isEmpty());
+  }
+
+  private void assertSameGraph(UnitGraph expected, UnitGraph actual) {
+    Assert.assertEquals(expected.size(), actual.size());
+    Assert.assertEquals(expected.getHeads(), actual.getHeads());
+    Assert.assertEquals(expected.getTails(), actual.getTails());
+    for (Unit u : body.getUnits()) {
+      Assert.assertEquals(expected.getSuccsOf(u), actual.getSuccsOf(u));
+      Assert.assertEquals(expected.getPredsOf(u), actual.getPredsOf(u));
+    }
+  }
+}
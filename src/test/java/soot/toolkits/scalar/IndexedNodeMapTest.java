@@ -0,0 +1,156 @@
+package soot.toolkits.scalar;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.G;
+import soot.Modifier;
+import soot.SootMethod;
+import soot.Type;
+import soot.Unit;
+import soot.VoidType;
+import soot.jimple.Jimple;
+import soot.jimple.JimpleBody;
+import soot.toolkits.graph.BriefUnitGraph;
+import soot.toolkits.graph.CompactUnitGraph;
+
+public class IndexedNodeMapTest {
+  private List<Unit> units;
+  private CompactUnitGraph graph;
+  private IndexedNodeMap<Unit, String> map;
+
+  @Before
+  public void setUp() {
+    G.reset();
+    Jimple j = Jimple.v();
+    SootMethod m = new SootMethod("m", Collections.<Type>emptyList(), VoidType.v(), Modifier.PUBLIC | Modifier.STATIC);
+    JimpleBody body = j.newBody(m);
+    m.setActiveBody(body);
+    for (int i = 0; i < 4; i++) {
+      body.getUnits().add(j.newNopStmt());
+    }
+    body.getUnits().add(j.newReturnVoidStmt());
+    units = new ArrayList<Unit>(body.getUnits());
+    graph = new CompactUnitGraph(body);
+    map = new IndexedNodeMap<Unit, String>(graph);
+  }
+
+  @Test
+  public void testPutGetRemove() {
+    Assert.assertNull(map.put(units.get(1), "a"));
+    Assert.assertEquals("a", map.put(units.get(1), "b"));
+    map.put(units.get(3), "c");
+    Assert.assertEquals(2, map.size());
+    Assert.assertEquals("b", map.get(units.get(1)));
+    Assert.assertNull(map.get(units.get(0)));
+    Assert.assertFalse(map.containsKey(units.get(0)));
+
+    Assert.assertEquals("b", map.remove(units.get(1)));
+    Assert.assertNull(map.remove(units.get(1)));
+    Assert.assertFalse(map.containsKey(units.get(1)));
+    Assert.assertEquals(1, map.size());
+  }
+
+  @Test
+  public void testNullValues() {
+    Assert.assertNull(map.put(units.get(2), null));
+    Assert.assertTrue(map.containsKey(units.get(2)));
+    Assert.assertNull(map.get(units.get(2)));
+    Assert.assertEquals(1, map.size());
+    Assert.assertTrue(map.entrySet().iterator().next().getKey() == units.get(2));
+    Assert.assertNull(map.entrySet().iterator().next().getValue());
+
+    Assert.assertNull(map.put(units.get(2), "a"));
+    Assert.assertEquals(1, map.size());
+    Assert.assertEquals("a", map.put(units.get(2), null));
+    Assert.assertNull(map.remove(units.get(2)));
+    Assert.assertFalse(map.containsKey(units.get(2)));
+    Assert.assertTrue(map.isEmpty());
+  }
+
+  @Test
+  public void testKeysOutsideTheGraph() {
+    Unit other = Jimple.v().newNopStmt();
+    map.put(other, "other");
+    map.put(units.get(0), "a");
+    Assert.assertEquals("other", map.get(other));
+    Assert.assertNull(map.get("not a unit"));
+    Assert.assertFalse(map.containsKey("not a unit"));
+    Assert.assertNull(map.remove("not a unit"));
+    Assert.assertEquals(2, map.size());
+
+    Map<Unit, String> expected = new HashMap<Unit, String>();
+    expected.put(other, "other");
+    expected.put(units.get(0), "a");
+    Assert.assertEquals(expected, map);
+    Assert.assertEquals(expected, new HashMap<Unit, String>(map));
+  }
+
+  @Test
+  public void testIterationInNodeOrder() {
+    map.put(units.get(4), "e");
+    map.put(units.get(0), "a");
+    map.put(units.get(2), "c");
+    List<Unit> keys = new ArrayList<Unit>(map.keySet());
+    Assert.assertEquals(3, keys.size());
+    Assert.assertTrue(keys.get(0) == units.get(0));
+    Assert.assertTrue(keys.get(1) == units.get(2));
+    Assert.assertTrue(keys.get(2) == units.get(4));
+  }
+
+  @Test
+  public void testIteratorRemove() {
+    Unit other = Jimple.v().newNopStmt();
+    map.put(units.get(0), "a");
+    map.put(units.get(3), "d");
+    map.put(other, "other");
+    for (Iterator<Map.Entry<Unit, String>> it = map.entrySet().iterator(); it.hasNext();) {
+      String value = it.next().getValue();
+      if (!value.equals("d")) {
+        it.remove();
+      }
+    }
+    Assert.assertEquals(Collections.singletonMap(units.get(3), "d"), map);
+
+    map.clear();
+    Assert.assertTrue(map.isEmpty());
+    Assert.assertFalse(map.entrySet().iterator().hasNext());
+  }
+
+  @Test
+  public void testOf() {
+    Assert.assertTrue(IndexedNodeMap.of(graph) instanceof IndexedNodeMap);
+    Assert.assertTrue(IndexedNodeMap.of(new BriefUnitGraph(graph.getBody())) instanceof IdentityHashMap);
+  }
+}
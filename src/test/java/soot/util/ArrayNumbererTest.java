@@ -0,0 +1,215 @@
+package soot.util;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class ArrayNumbererTest {
+  private static final int THREADS = 8;
+  private static final int PER_THREAD = 5000;
+
+  private static class Item implements Numberable {
+    private volatile int number = 0;
+
+    @Override
+    public void setNumber(int number) {
+      this.number = number;
+    }
+
+    @Override
+    public int getNumber() {
+      return number;
+    }
+  }
+
+  @Test
+  public void testDenseNumbers() {
+    ArrayNumberer<Item> numberer = new ArrayNumberer<Item>();
+    List<Item> items = new ArrayList<Item>();
+    for (int i = 0; i < 3000; i++) {
+      Item item = new Item();
+      numberer.add(item);
+      numberer.add(item);
+      items.add(item);
+    }
+    assertEquals(3000, numberer.size());
+    for (int i = 0; i < items.size(); i++) {
+      assertEquals(i + 1, numberer.get(items.get(i)));
+      assertSame(items.get(i), numberer.get(i + 1));
+    }
+    assertNull(numberer.get(0));
+    assertNull(numberer.get(3001));
+    assertNull(numberer.get(1 << 20));
+  }
+
+  @Test
+  public void testInitialElementsAreNumberedByIndex() {
+    Item[] elements = { new Item(), new Item(), new Item() };
+    ArrayNumberer<Item> numberer = new ArrayNumberer<Item>(elements);
+    for (int i = 1; i < elements.length; i++) {
+      assertEquals(i, numberer.get(elements[i]));
+      assertSame(elements[i], numberer.get(i));
+    }
+    Item added = new Item();
+    numberer.add(added);
+    assertEquals(elements.length + 1, added.getNumber());
+  }
+
+  @Test
+  public void testRemovedNumbersAreReused() {
+    ArrayNumberer<Item> numberer = new ArrayNumberer<Item>();
+    List<Item> items = new ArrayList<Item>();
+    for (int i = 0; i < 10; i++) {
+      Item item = new Item();
+      numberer.add(item);
+      items.add(item);
+    }
+    Item removed = items.get(4);
+    assertTrue(numberer.remove(removed));
+    assertFalse(numberer.remove(removed));
+    assertEquals(0, removed.getNumber());
+    assertNull(numberer.get(5));
+
+    // The iterator skips the hole left by the removed object
+    List<Item> remaining = new ArrayList<Item>();
+    for (Item item : numberer) {
+      remaining.add(item);
+    }
+    assertEquals(9, remaining.size());
+    assertFalse(remaining.contains(removed));
+
+    Item added = new Item();
+    numberer.add(added);
+    assertEquals(5, added.getNumber());
+    assertSame(added, numberer.get(5));
+    assertEquals(10, numberer.size());
+  }
+
+  @Test
+  public void testConcurrentAdd() throws Exception {
+    final ArrayNumberer<Item> numberer = new ArrayNumberer<Item>();
+    final Item[] shared = new Item[PER_THREAD];
+    for (int i = 0; i < shared.length; i++) {
+      shared[i] = new Item();
+    }
+
+    List<List<Item>> added = runConcurrently(new Callable<List<Item>>() {
+      @Override
+      public List<Item> call() {
+        List<Item> own = new ArrayList<Item>();
+        for (int i = 0; i < PER_THREAD; i++) {
+          Item item = new Item();
+          numberer.add(item);
+          own.add(item);
+          numberer.add(shared[i]);
+        }
+        return own;
+      }
+    });
+
+    List<Item> all = new ArrayList<Item>();
+    for (List<Item> own : added) {
+      all.addAll(own);
+    }
+    for (Item item : shared) {
+      all.add(item);
+    }
+    assertEquals(all.size(), numberer.size());
+    BitSet seen = new BitSet();
+    for (Item item : all) {
+      int number = item.getNumber();
+      assertTrue(number >= 1 && number <= all.size());
+      assertFalse("number " + number + " handed out twice", seen.get(number));
+      seen.set(number);
+      assertSame(item, numberer.get(number));
+    }
+  }
+
+  @Test
+  public void testConcurrentFindOrAdd() throws Exception {
+    final StringNumberer numberer = new StringNumberer();
+    List<List<NumberedString>> found = runConcurrently(new Callable<List<NumberedString>>() {
+      @Override
+      public List<NumberedString> call() {
+        List<NumberedString> res = new ArrayList<NumberedString>();
+        for (int i = 0; i < PER_THREAD; i++) {
+          NumberedString s = numberer.findOrAdd("s" + i);
+          assertTrue(s.getNumber() != 0);
+          res.add(s);
+        }
+        return res;
+      }
+    });
+
+    assertEquals(PER_THREAD, numberer.size());
+    for (List<NumberedString> res : found) {
+      for (int i = 0; i < PER_THREAD; i++) {
+        NumberedString s = res.get(i);
+        assertSame(found.get(0).get(i), s);
+        assertSame(s, numberer.find("s" + i));
+        assertSame(s, numberer.get(s.getNumber()));
+      }
+    }
+  }
+
+  /** Runs the given task on several threads that start at the same time, and returns their results. */
+  private static <T> List<T> runConcurrently(final Callable<T> task) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      final CountDownLatch start = new CountDownLatch(1);
+      List<Future<T>> futures = new ArrayList<Future<T>>();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(executor.submit(new Callable<T>() {
+          @Override
+          public T call() throws Exception {
+            start.await();
+            return task.call();
+          }
+        }));
+      }
+      start.countDown();
+      List<T> results = new ArrayList<T>();
+      for (Future<T> f : futures) {
+        results.add(f.get());
+      }
+      return results;
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
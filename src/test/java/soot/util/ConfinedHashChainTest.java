@@ -0,0 +1,146 @@
+package soot.util;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import soot.G;
+import soot.Modifier;
+import soot.SootMethod;
+import soot.Type;
+import soot.VoidType;
+import soot.jimple.Jimple;
+import soot.jimple.JimpleBody;
+import soot.options.Options;
+
+public class ConfinedHashChainTest {
+
+  @Test
+  public void testOrder() {
+    Chain<String> chain = new ConfinedHashChain<String>();
+    chain.add("b");
+    chain.addFirst("a");
+    chain.addLast("d");
+    chain.insertBefore("c", "d");
+    chain.insertAfter(Arrays.asList("e", "f"), "d");
+
+    assertEquals(Arrays.asList("a", "b", "c", "d", "e", "f"), new ArrayList<String>(chain));
+    assertEquals("a", chain.getFirst());
+    assertEquals("f", chain.getLast());
+    assertEquals("c", chain.getSuccOf("b"));
+    assertEquals("b", chain.getPredOf("c"));
+    assertNull(chain.getPredOf("a"));
+    assertNull(chain.getSuccOf("f"));
+
+    chain.swapWith("c", "x");
+    chain.removeFirst();
+    chain.removeLast();
+    assertEquals("[b, x, d, e]", chain.toString());
+    assertFalse(chain.contains("c"));
+  }
+
+  @Test
+  public void testFollows() {
+    Chain<Integer> chain = new ConfinedHashChain<Integer>();
+    chain.add(0);
+    chain.add(1);
+    // Keep inserting right after the first element, so that the labels run out and the chain is labelled anew
+    for (int i = 2; i < 100; i++) {
+      chain.insertAfter(i, 0);
+    }
+
+    List<Integer> order = new ArrayList<Integer>(chain);
+    for (int i = 0; i < order.size(); i++) {
+      for (int j = 0; j < order.size(); j++) {
+        assertEquals(i >= j, chain.follows(order.get(i), order.get(j)));
+      }
+    }
+    assertFalse(chain.follows(1000, 0));
+    assertFalse(chain.follows(0, 1000));
+  }
+
+  @Test
+  public void testRangeIterator() {
+    Chain<String> chain = new ConfinedHashChain<String>();
+    chain.addAll(Arrays.asList("a", "b", "c", "d"));
+
+    assertEquals(Arrays.asList("b", "c"), toList(chain.iterator("b", "c")));
+    assertEquals(Arrays.asList("c", "d"), toList(chain.iterator("c")));
+    assertFalse(chain.iterator("b", "a").hasNext());
+  }
+
+  @Test
+  public void testIteratorRemove() {
+    Chain<String> chain = new ConfinedHashChain<String>();
+    chain.addAll(Arrays.asList("a", "b", "c"));
+    for (Iterator<String> it = chain.iterator(); it.hasNext();) {
+      if (it.next().equals("b")) {
+        it.remove();
+      }
+    }
+    assertEquals(Arrays.asList("a", "c"), new ArrayList<String>(chain));
+    assertEquals(2, chain.size());
+  }
+
+  @Test(expected = ConcurrentModificationException.class)
+  public void testConcurrentModification() {
+    Chain<String> chain = new ConfinedHashChain<String>();
+    chain.addAll(Arrays.asList("a", "b", "c"));
+    for (String s : chain) {
+      chain.remove(s);
+    }
+  }
+
+  @Test
+  public void testBodyChains() {
+    G.reset();
+    SootMethod m = new SootMethod("foo", Arrays.<Type>asList(), VoidType.v(), Modifier.PUBLIC);
+    JimpleBody b = Jimple.v().newBody(m);
+    assertTrue(b.getLocals() instanceof ConfinedHashChain);
+    assertTrue(b.getUnits().getNonPatchingChain() instanceof ConfinedHashChain);
+
+    Options.v().set_concurrent_body_chains(true);
+    b = Jimple.v().newBody(m);
+    assertTrue(b.getLocals() instanceof HashChain);
+    assertTrue(b.getTraps() instanceof HashChain);
+  }
+
+  private static <E> List<E> toList(Iterator<E> it) {
+    List<E> ret = new ArrayList<E>();
+    while (it.hasNext()) {
+      ret.add(it.next());
+    }
+    return ret;
+  }
+}
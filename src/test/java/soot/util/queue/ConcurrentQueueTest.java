@@ -0,0 +1,85 @@
+package soot.util.queue;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2018 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentQueueTest {
+
+	@Test
+	public void simpleQueueTest() {
+		ConcurrentQueue<String> queue = new ConcurrentQueue<>();
+		queue.add("Hello World");
+		QueueReader<String> rdr = queue.reader();
+		queue.add("Test");
+
+		Assert.assertTrue(rdr.hasNext());
+		Assert.assertEquals(rdr.next(), "Test");
+		Assert.assertFalse(rdr.hasNext());
+	}
+
+	@Test
+	public void removeFromQueueTest() {
+		ConcurrentQueue<String> queue = new ConcurrentQueue<>();
+		QueueReader<String> rdr = queue.reader();
+		QueueReader<String> rdr2 = rdr.clone();
+		queue.add("Hello World");
+		queue.add("Test");
+		queue.add("Foo");
+		rdr.remove("Hello World");
+		rdr.remove("Test");
+		Assert.assertEquals(rdr.next(), "Foo");
+		Assert.assertEquals(rdr2.next(), "Foo");
+		Assert.assertFalse(rdr2.hasNext());
+	}
+
+	@Test
+	public void concurrentAddTest() throws InterruptedException {
+		final ConcurrentQueue<Integer> queue = new ConcurrentQueue<>();
+		QueueReader<Integer> rdr = queue.reader();
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			final int base = t * 10000;
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 10000; i++)
+					queue.add(base + i);
+			});
+			threads[t].start();
+		}
+
+		// Read while the other threads are still adding
+		Set<Integer> seen = new HashSet<>();
+		while (seen.size() < 40000) {
+			while (rdr.hasNext())
+				Assert.assertTrue(seen.add(rdr.next()));
+		}
+		for (Thread thread : threads)
+			thread.join();
+		Assert.assertFalse(rdr.hasNext());
+	}
+
+}